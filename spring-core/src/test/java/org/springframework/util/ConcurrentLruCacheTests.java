@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link ConcurrentLruCache}.
+ *
+ * @author Brian Clozel
+ */
+class ConcurrentLruCacheTests {
+
+	private final AtomicInteger generated = new AtomicInteger();
+
+	private final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2, key -> {
+		if (key.isEmpty()) {
+			throw new IllegalStateException("Empty key");
+		}
+		this.generated.incrementAndGet();
+		return key.toUpperCase();
+	});
+
+
+	@Test
+	void getGeneratesValueOnce() {
+		assertThat(this.cache.get("a")).isEqualTo("A");
+		assertThat(this.cache.get("a")).isEqualTo("A");
+		assertThat(this.generated.get()).isEqualTo(1);
+		assertThat(this.cache.size()).isEqualTo(1);
+		assertThat(this.cache.sizeLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void evictLeastRecentlyUsed() {
+		this.cache.get("a");
+		this.cache.get("b");
+		this.cache.get("a");
+		this.cache.get("c");
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.generated.get()).isEqualTo(3);
+
+		this.cache.get("a");
+		assertThat(this.generated.get()).isEqualTo(3);
+		this.cache.get("b");
+		assertThat(this.generated.get()).isEqualTo(4);
+	}
+
+	@Test
+	void generatorExceptionIsNotCached() {
+		assertThatIllegalStateException().isThrownBy(() -> this.cache.get(""));
+		assertThat(this.cache.size()).isEqualTo(0);
+	}
+
+}
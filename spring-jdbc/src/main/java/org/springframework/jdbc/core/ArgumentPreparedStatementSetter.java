@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -75,4 +75,11 @@ public class ArgumentPreparedStatementSetter implements PreparedStatementSetter,
 		StatementCreatorUtils.cleanupParameters(this.args);
 	}
 
+	/**
+	 * Return the number of arguments to set.
+	 */
+	int getArgumentCount() {
+		return (this.args != null ? this.args.length : 0);
+	}
+
 }
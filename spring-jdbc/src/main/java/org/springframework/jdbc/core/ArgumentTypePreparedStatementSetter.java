@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -105,4 +105,11 @@ public class ArgumentTypePreparedStatementSetter implements PreparedStatementSet
 		StatementCreatorUtils.cleanupParameters(this.args);
 	}
 
+	/**
+	 * Return the number of arguments to set.
+	 */
+	int getArgumentCount() {
+		return (this.args != null ? this.args.length : 0);
+	}
+
 }
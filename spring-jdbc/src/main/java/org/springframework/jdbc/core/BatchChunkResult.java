@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Outcome of a single chunk of a parallel batch update: either the update
+ * counts as returned by the JDBC driver, or the exception that made the chunk fail.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see JdbcTemplate#parallelBatchUpdate
+ */
+public final class BatchChunkResult {
+
+	private final int chunkIndex;
+
+	private final int offset;
+
+	private final int itemCount;
+
+	@Nullable
+	private final int[] rowsAffected;
+
+	@Nullable
+	private final RuntimeException failure;
+
+
+	BatchChunkResult(int chunkIndex, int offset, int itemCount,
+			@Nullable int[] rowsAffected, @Nullable RuntimeException failure) {
+
+		this.chunkIndex = chunkIndex;
+		this.offset = offset;
+		this.itemCount = itemCount;
+		this.rowsAffected = rowsAffected;
+		this.failure = failure;
+	}
+
+
+	/**
+	 * Return the index of this chunk within the overall batch.
+	 */
+	public int getChunkIndex() {
+		return this.chunkIndex;
+	}
+
+	/**
+	 * Return the position of the first item of this chunk within the
+	 * batch arguments.
+	 */
+	public int getOffset() {
+		return this.offset;
+	}
+
+	/**
+	 * Return the number of batch arguments in this chunk.
+	 */
+	public int getItemCount() {
+		return this.itemCount;
+	}
+
+	/**
+	 * Return whether this chunk has been executed successfully.
+	 */
+	public boolean isSuccessful() {
+		return (this.failure == null);
+	}
+
+	/**
+	 * Return the number of rows affected by each update in this chunk,
+	 * or {@code null} if the chunk failed.
+	 */
+	@Nullable
+	public int[] getRowsAffected() {
+		return this.rowsAffected;
+	}
+
+	/**
+	 * Return the exception that made this chunk fail, or {@code null}
+	 * if it has been executed successfully.
+	 */
+	@Nullable
+	public RuntimeException getFailure() {
+		return this.failure;
+	}
+
+
+	@Override
+	public String toString() {
+		return "BatchChunkResult #" + this.chunkIndex + " [offset=" + this.offset + ", items=" + this.itemCount +
+				(this.failure != null ? ", failure=" + this.failure : "") + "]";
+	}
+
+}
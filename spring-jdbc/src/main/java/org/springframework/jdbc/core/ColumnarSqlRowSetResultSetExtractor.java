@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.support.rowset.ColumnarSqlRowSet;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+/**
+ * {@link SqlRowSetResultSetExtractor} variant that returns a
+ * {@link ColumnarSqlRowSet} for each given {@link ResultSet}, keeping the
+ * disconnected data in per-column arrays rather than in a CachedRowSet.
+ *
+ * <p>Typical usage for large result sets:
+ *
+ * <pre class="code">
+ * SqlRowSet rowSet = jdbcTemplate.query(sql, new ColumnarSqlRowSetResultSetExtractor());</pre>
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see ColumnarSqlRowSet
+ * @see JdbcTemplate#query(String, ResultSetExtractor)
+ */
+public class ColumnarSqlRowSetResultSetExtractor extends SqlRowSetResultSetExtractor {
+
+	/**
+	 * This implementation creates a {@link ColumnarSqlRowSet}
+	 * holding all rows of the given ResultSet.
+	 */
+	@Override
+	protected SqlRowSet createSqlRowSet(ResultSet rs) throws SQLException {
+		return new ColumnarSqlRowSet(rs);
+	}
+
+}
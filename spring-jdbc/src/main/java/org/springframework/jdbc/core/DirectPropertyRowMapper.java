@@ -0,0 +1,560 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link RowMapper} implementation that converts a row into a new instance
+ * of the specified mapped target class, following the same column name
+ * matching rules as {@link BeanPropertyRowMapper}, but without a
+ * {@link org.springframework.beans.BeanWrapper} per row.
+ *
+ * <p>The mapping from columns to properties is resolved once per distinct set
+ * of result set column labels and then reused for every row: each mapped
+ * column has a typed value reader for its property type, e.g. {@code getInt}
+ * for an {@code int} property, and a setter method that is invoked directly.
+ * The {@link ConversionService} is only consulted for values that are not
+ * already of the property type.
+ *
+ * <p>Classes without a default constructor, e.g. immutable data classes, are
+ * instantiated through their single (or, for Kotlin, primary) constructor,
+ * with constructor parameters matched to columns by parameter name. Any
+ * remaining columns are bound to writable properties as usual.
+ *
+ * <p>For 'null' values read from the database, mapping to a Java primitive
+ * causes a {@link TypeMismatchException}, unless the
+ * {@link #setPrimitivesDefaultedForNullValue primitivesDefaultedForNullValue}
+ * property is set, in which case the primitive default value is used.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @param <T> the result type
+ * @see BeanPropertyRowMapper
+ */
+public class DirectPropertyRowMapper<T> implements RowMapper<T> {
+
+	private static final int PLAN_CACHE_LIMIT = 16;
+
+
+	/** Logger available to subclasses. */
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final Class<T> mappedClass;
+
+	/** Constructor for data classes, or {@code null} for a default constructor. */
+	@Nullable
+	private final Constructor<T> constructor;
+
+	/** Lower case constructor parameter names by parameter index. */
+	private final String[] parameterNames;
+
+	/** Map of the fields we provide mapping for. */
+	private final Map<String, PropertyDescriptor> mappedFields = new HashMap<>();
+
+	/** Set of bean properties and constructor parameters we provide mapping for. */
+	private final Set<String> mappedProperties = new HashSet<>();
+
+	private boolean checkFullyPopulated = false;
+
+	private boolean primitivesDefaultedForNullValue = false;
+
+	@Nullable
+	private ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+	private final ConcurrentLruCache<List<String>, MappingPlan> planCache =
+			new ConcurrentLruCache<>(PLAN_CACHE_LIMIT, this::createPlan);
+
+	/** The plan used for the most recent ResultSet, to avoid meta-data lookups per row. */
+	@Nullable
+	private volatile CurrentPlan currentPlan;
+
+
+	/**
+	 * Create a new {@code DirectPropertyRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public DirectPropertyRowMapper(Class<T> mappedClass) {
+		Assert.notNull(mappedClass, "Mapped class must not be null");
+		this.mappedClass = mappedClass;
+		this.constructor = determineConstructor(mappedClass);
+		if (this.constructor != null) {
+			ParameterNameDiscoverer discoverer = new DefaultParameterNameDiscoverer();
+			String[] names = discoverer.getParameterNames(this.constructor);
+			if (names == null) {
+				throw new InvalidDataAccessApiUsageException(
+						"Cannot determine constructor parameter names for " + mappedClass.getName());
+			}
+			this.parameterNames = new String[names.length];
+			for (int i = 0; i < names.length; i++) {
+				this.parameterNames[i] = lowerCaseName(names[i]);
+				this.mappedProperties.add(names[i]);
+			}
+		}
+		else {
+			this.parameterNames = new String[0];
+		}
+		for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(mappedClass)) {
+			if (pd.getWriteMethod() != null) {
+				this.mappedFields.put(lowerCaseName(pd.getName()), pd);
+				String underscoredName = underscoreName(pd.getName());
+				if (!lowerCaseName(pd.getName()).equals(underscoredName)) {
+					this.mappedFields.put(underscoredName, pd);
+				}
+				this.mappedProperties.add(pd.getName());
+			}
+		}
+	}
+
+
+	/**
+	 * Get the class that we are mapping to.
+	 */
+	public final Class<T> getMappedClass() {
+		return this.mappedClass;
+	}
+
+	/**
+	 * Set whether we're strictly validating that all bean properties and
+	 * constructor parameters have been mapped from corresponding database fields.
+	 * <p>Default is {@code false}, accepting unpopulated properties in the target bean.
+	 */
+	public void setCheckFullyPopulated(boolean checkFullyPopulated) {
+		this.checkFullyPopulated = checkFullyPopulated;
+	}
+
+	/**
+	 * Return whether we're strictly validating that all bean properties and
+	 * constructor parameters have been mapped from corresponding database fields.
+	 */
+	public boolean isCheckFullyPopulated() {
+		return this.checkFullyPopulated;
+	}
+
+	/**
+	 * Set whether we're defaulting Java primitives in the case of mapping a null value
+	 * from corresponding database fields.
+	 * <p>Default is {@code false}, throwing an exception when nulls are mapped to Java primitives.
+	 */
+	public void setPrimitivesDefaultedForNullValue(boolean primitivesDefaultedForNullValue) {
+		this.primitivesDefaultedForNullValue = primitivesDefaultedForNullValue;
+	}
+
+	/**
+	 * Return whether we're defaulting Java primitives in the case of mapping a null value
+	 * from corresponding database fields.
+	 */
+	public boolean isPrimitivesDefaultedForNullValue() {
+		return this.primitivesDefaultedForNullValue;
+	}
+
+	/**
+	 * Set a {@link ConversionService} for converting JDBC values that are not
+	 * of the required property type, or {@code null} for none.
+	 * <p>Default is a {@link DefaultConversionService}.
+	 */
+	public void setConversionService(@Nullable ConversionService conversionService) {
+		this.conversionService = conversionService;
+	}
+
+	/**
+	 * Return a {@link ConversionService} for converting JDBC values that are not
+	 * of the required property type, or {@code null} if none.
+	 */
+	@Nullable
+	public ConversionService getConversionService() {
+		return this.conversionService;
+	}
+
+
+	/**
+	 * Extract the values for all columns in the current row.
+	 * <p>Utilizes the mapping plan for the column labels of the given ResultSet.
+	 */
+	@Override
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		MappingPlan plan = getPlan(rs);
+		T mappedObject;
+		if (this.constructor != null) {
+			ColumnBinding[] bindings = plan.constructorBindings;
+			Object[] args = new Object[bindings.length];
+			for (int i = 0; i < bindings.length; i++) {
+				ColumnBinding binding = bindings[i];
+				args[i] = (binding != null ? readValue(rs, binding) : null);
+			}
+			mappedObject = BeanUtils.instantiateClass(this.constructor, args);
+		}
+		else {
+			mappedObject = BeanUtils.instantiateClass(this.mappedClass);
+		}
+		for (ColumnBinding binding : plan.propertyBindings) {
+			Object value = readValue(rs, binding);
+			if (value != null || !binding.type.isPrimitive()) {
+				Method writeMethod = binding.writeMethod;
+				Assert.state(writeMethod != null, "No write method");
+				try {
+					writeMethod.invoke(mappedObject, value);
+				}
+				catch (IllegalAccessException | InvocationTargetException ex) {
+					Throwable cause = (ex instanceof InvocationTargetException ?
+							((InvocationTargetException) ex).getTargetException() : ex);
+					throw new DataRetrievalFailureException("Unable to map column '" + binding.column +
+							"' to property '" + binding.name + "'", cause);
+				}
+			}
+		}
+		return mappedObject;
+	}
+
+	/**
+	 * Read the value of the column for the given binding and adapt it to the
+	 * required type, applying the {@link ConversionService} if necessary.
+	 */
+	@Nullable
+	private Object readValue(ResultSet rs, ColumnBinding binding) throws SQLException {
+		Object value = binding.reader.read(rs, binding.index);
+		if (value == null) {
+			if (binding.type.isPrimitive() && !this.primitivesDefaultedForNullValue) {
+				throw new TypeMismatchException(null, binding.type);
+			}
+			return null;
+		}
+		if (!ClassUtils.isAssignableValue(binding.type, value)) {
+			ConversionService cs = getConversionService();
+			if (cs != null && cs.canConvert(value.getClass(), binding.type)) {
+				value = cs.convert(value, binding.type);
+			}
+			else {
+				throw new TypeMismatchException(value, binding.type);
+			}
+		}
+		return value;
+	}
+
+	private MappingPlan getPlan(ResultSet rs) throws SQLException {
+		CurrentPlan current = this.currentPlan;
+		if (current != null && current.resultSet.get() == rs) {
+			return current.plan;
+		}
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int columnCount = rsmd.getColumnCount();
+		List<String> columns = new ArrayList<>(columnCount);
+		for (int index = 1; index <= columnCount; index++) {
+			columns.add(JdbcUtils.lookupColumnName(rsmd, index));
+		}
+		MappingPlan plan = this.planCache.get(columns);
+		if (isCheckFullyPopulated() && !plan.fullyPopulated) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of class [" + this.mappedClass.getName() + "]: " +
+					this.mappedProperties);
+		}
+		this.currentPlan = new CurrentPlan(rs, plan);
+		return plan;
+	}
+
+	/**
+	 * Resolve the bindings of the given columns to constructor parameters and
+	 * bean properties.
+	 * @param columns the column labels, in result set order
+	 * @return the mapping plan
+	 */
+	private MappingPlan createPlan(List<String> columns) {
+		ColumnBinding[] constructorBindings = new ColumnBinding[this.parameterNames.length];
+		List<ColumnBinding> propertyBindings = new ArrayList<>();
+		Set<String> populatedProperties = new HashSet<>();
+		Class<?>[] parameterTypes = (this.constructor != null ? this.constructor.getParameterTypes() : null);
+
+		for (int i = 0; i < columns.size(); i++) {
+			String column = columns.get(i);
+			String field = lowerCaseName(StringUtils.delete(column, " "));
+			int parameterIndex = Arrays.asList(this.parameterNames).indexOf(field);
+			if (parameterIndex == -1) {
+				parameterIndex = Arrays.asList(this.parameterNames).indexOf(StringUtils.delete(field, "_"));
+			}
+			if (parameterTypes != null && parameterIndex != -1 && constructorBindings[parameterIndex] == null) {
+				String name = this.parameterNames[parameterIndex];
+				Class<?> type = parameterTypes[parameterIndex];
+				constructorBindings[parameterIndex] = new ColumnBinding(column, i + 1, name, type, null);
+				populatedProperties.add(name);
+				logMapping(column, "constructor parameter '" + name + "'", type);
+				continue;
+			}
+			PropertyDescriptor pd = this.mappedFields.get(field);
+			if (pd != null) {
+				Method writeMethod = pd.getWriteMethod();
+				ReflectionUtils.makeAccessible(writeMethod);
+				propertyBindings.add(new ColumnBinding(column, i + 1, pd.getName(), pd.getPropertyType(), writeMethod));
+				populatedProperties.add(pd.getName());
+				logMapping(column, "property '" + pd.getName() + "'", pd.getPropertyType());
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
+			}
+		}
+
+		Set<String> mappedNames = new HashSet<>();
+		for (String name : this.mappedProperties) {
+			mappedNames.add(lowerCaseName(name));
+		}
+		Set<String> populatedNames = new HashSet<>();
+		for (String name : populatedProperties) {
+			populatedNames.add(lowerCaseName(name));
+		}
+		return new MappingPlan(constructorBindings, propertyBindings.toArray(new ColumnBinding[0]),
+				populatedNames.equals(mappedNames));
+	}
+
+	private void logMapping(String column, String target, Class<?> type) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Mapping column '" + column + "' to " + target +
+					" of type '" + ClassUtils.getQualifiedName(type) + "'");
+		}
+	}
+
+	/**
+	 * Convert a name in camelCase to an underscored name in lower case.
+	 * Any upper case letters are converted to lower case with a preceding underscore.
+	 * @param name the original name
+	 * @return the converted name
+	 * @see BeanPropertyRowMapper#underscoreName
+	 */
+	private static String underscoreName(String name) {
+		if (!StringUtils.hasLength(name)) {
+			return "";
+		}
+		StringBuilder result = new StringBuilder();
+		result.append(lowerCaseName(name.substring(0, 1)));
+		for (int i = 1; i < name.length(); i++) {
+			String s = name.substring(i, i + 1);
+			String slc = lowerCaseName(s);
+			if (!s.equals(slc)) {
+				result.append("_").append(slc);
+			}
+			else {
+				result.append(s);
+			}
+		}
+		return result.toString();
+	}
+
+	private static String lowerCaseName(String name) {
+		return name.toLowerCase(Locale.US);
+	}
+
+	/**
+	 * Determine the constructor to use for the given class: {@code null}
+	 * for a default constructor, or else the primary constructor for Kotlin
+	 * classes or the single constructor of other classes.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static <T> Constructor<T> determineConstructor(Class<T> mappedClass) {
+		Constructor<T> primaryConstructor = BeanUtils.findPrimaryConstructor(mappedClass);
+		if (primaryConstructor != null) {
+			return (primaryConstructor.getParameterCount() > 0 ? primaryConstructor : null);
+		}
+		try {
+			mappedClass.getDeclaredConstructor();
+			return null;
+		}
+		catch (NoSuchMethodException ex) {
+			// No default constructor: use the unique constructor
+		}
+		Constructor<?>[] constructors = mappedClass.getConstructors();
+		if (constructors.length == 0) {
+			constructors = mappedClass.getDeclaredConstructors();
+		}
+		if (constructors.length != 1) {
+			throw new InvalidDataAccessApiUsageException("No default constructor and no unique constructor " +
+					"found for " + mappedClass.getName());
+		}
+		return (Constructor<T>) constructors[0];
+	}
+
+
+	/**
+	 * Static factory method to create a new {@code DirectPropertyRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @see #newInstance(Class, ConversionService)
+	 */
+	public static <T> DirectPropertyRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new DirectPropertyRowMapper<>(mappedClass);
+	}
+
+	/**
+	 * Static factory method to create a new {@code DirectPropertyRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param conversionService the {@link ConversionService} for converting
+	 * JDBC values, or {@code null} for none
+	 * @see #newInstance(Class)
+	 * @see #setConversionService
+	 */
+	public static <T> DirectPropertyRowMapper<T> newInstance(
+			Class<T> mappedClass, @Nullable ConversionService conversionService) {
+
+		DirectPropertyRowMapper<T> rowMapper = newInstance(mappedClass);
+		rowMapper.setConversionService(conversionService);
+		return rowMapper;
+	}
+
+
+	/**
+	 * Strategy for reading a column value with the JDBC getter for a given type.
+	 */
+	@FunctionalInterface
+	private interface ColumnValueReader {
+
+		@Nullable
+		Object read(ResultSet rs, int index) throws SQLException;
+
+		static ColumnValueReader forType(Class<?> type) {
+			if (String.class == type) {
+				return ResultSet::getString;
+			}
+			else if (int.class == type || Integer.class == type) {
+				return (rs, index) -> {
+					int value = rs.getInt(index);
+					return (rs.wasNull() ? null : value);
+				};
+			}
+			else if (long.class == type || Long.class == type) {
+				return (rs, index) -> {
+					long value = rs.getLong(index);
+					return (rs.wasNull() ? null : value);
+				};
+			}
+			else if (boolean.class == type || Boolean.class == type) {
+				return (rs, index) -> {
+					boolean value = rs.getBoolean(index);
+					return (rs.wasNull() ? null : value);
+				};
+			}
+			else if (double.class == type || Double.class == type) {
+				return (rs, index) -> {
+					double value = rs.getDouble(index);
+					return (rs.wasNull() ? null : value);
+				};
+			}
+			else if (BigDecimal.class == type) {
+				return ResultSet::getBigDecimal;
+			}
+			else {
+				return (rs, index) -> JdbcUtils.getResultSetValue(rs, index, type);
+			}
+		}
+	}
+
+
+	/**
+	 * Binding of a result set column to a constructor parameter or a bean property.
+	 */
+	private static final class ColumnBinding {
+
+		final String column;
+
+		final int index;
+
+		final String name;
+
+		final Class<?> type;
+
+		@Nullable
+		final Method writeMethod;
+
+		final ColumnValueReader reader;
+
+		ColumnBinding(String column, int index, String name, Class<?> type, @Nullable Method writeMethod) {
+			this.column = column;
+			this.index = index;
+			this.name = name;
+			this.type = type;
+			this.writeMethod = writeMethod;
+			this.reader = ColumnValueReader.forType(type);
+		}
+	}
+
+
+	/**
+	 * Column bindings resolved for a specific set of result set columns.
+	 */
+	private static final class MappingPlan {
+
+		final ColumnBinding[] constructorBindings;
+
+		final ColumnBinding[] propertyBindings;
+
+		final boolean fullyPopulated;
+
+		MappingPlan(ColumnBinding[] constructorBindings, ColumnBinding[] propertyBindings, boolean fullyPopulated) {
+			this.constructorBindings = constructorBindings;
+			this.propertyBindings = propertyBindings;
+			this.fullyPopulated = fullyPopulated;
+		}
+	}
+
+
+	/**
+	 * Holder for the plan of the ResultSet that is currently being mapped.
+	 */
+	private static final class CurrentPlan {
+
+		final WeakReference<ResultSet> resultSet;
+
+		final MappingPlan plan;
+
+		CurrentPlan(ResultSet resultSet, MappingPlan plan) {
+			this.resultSet = new WeakReference<>(resultSet);
+			this.plan = plan;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,17 +29,29 @@ import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.InvalidResultSetAccessException;
 import org.springframework.jdbc.SQLWarningException;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.datasource.ConnectionProxy;
@@ -47,8 +59,11 @@ import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.jdbc.support.JdbcAccessor;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.support.SqlExecution;
+import org.springframework.jdbc.support.SqlExecutionObserver;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedCaseInsensitiveMap;
 import org.springframework.util.StringUtils;
@@ -104,6 +119,10 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 	private static final String RETURN_UPDATE_COUNT_PREFIX = "#update-count-";
 
+	/** The execution currently being observed, for this template's internal callbacks. */
+	private static final ThreadLocal<SqlExecution> currentExecution =
+			new NamedThreadLocal<>("Current observed JDBC execution");
+
 
 	/** If this variable is false, we will throw exceptions on SQL warnings. */
 	private boolean ignoreWarnings = true;
@@ -147,6 +166,12 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private boolean resultsMapCaseInsensitive = false;
 
+	/**
+	 * If this variable is greater than 0, prepared SQL updates within a transaction
+	 * will be collected into JDBC batches of this size.
+	 */
+	private int transactionalBatchSize = 0;
+
 
 	/**
 	 * Construct a new JdbcTemplate for bean usage.
@@ -311,6 +336,39 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.resultsMapCaseInsensitive;
 	}
 
+	/**
+	 * Set the size of write-behind batches for prepared SQL updates within a transaction.
+	 * <p>Default is 0, indicating that every update is executed right away. With a
+	 * positive value, consecutive {@code update} calls with identical SQL and plain
+	 * parameter values (i.e. not using a custom {@link PreparedStatementCreator}
+	 * or a {@link KeyHolder}) are added to a JDBC batch bound to the current
+	 * transaction. The batch is executed once it reaches the given size, when an
+	 * update with different SQL arrives, before any other operation of a
+	 * JdbcTemplate on the same DataSource, and before transaction commit.
+	 * Pending updates are discarded on rollback.
+	 * <p><b>NOTE:</b> Deferred updates return {@link Statement#SUCCESS_NO_INFO}
+	 * instead of an actual update count, and failures show up on a later operation
+	 * or at commit time. Do not switch this on for code that relies on update counts,
+	 * e.g. for optimistic locking checks. Updates outside of a transaction, within
+	 * a read-only transaction, and data access through other means than JdbcTemplate
+	 * are not covered.
+	 * @since 5.3
+	 * @see #flushTransactionalBatch()
+	 * @see java.sql.PreparedStatement#addBatch()
+	 */
+	public void setTransactionalBatchSize(int transactionalBatchSize) {
+		this.transactionalBatchSize = transactionalBatchSize;
+	}
+
+	/**
+	 * Return the size of write-behind batches for prepared SQL updates within
+	 * a transaction, or 0 if updates are executed right away.
+	 * @since 5.3
+	 */
+	public int getTransactionalBatchSize() {
+		return this.transactionalBatchSize;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with a plain java.sql.Connection
@@ -321,13 +379,22 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> T execute(ConnectionCallback<T> action) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
-		Connection con = DataSourceUtils.getConnection(obtainDataSource());
+		flushTransactionalBatch();
+		SqlExecution execution = startExecution("ConnectionCallback", action);
+		Connection con = obtainConnection(execution);
 		try {
 			// Create close-suppressing Connection proxy, also preparing returned Statements.
 			Connection conToUse = createConnectionProxy(con);
-			return action.doInConnection(conToUse);
+			T result = action.doInConnection(conToUse);
+			if (execution != null) {
+				execution.recordSuccess();
+			}
+			return result;
 		}
 		catch (SQLException ex) {
+			if (execution != null) {
+				execution.recordFailure(ex);
+			}
 			// Release Connection early, to avoid potential connection pool deadlock
 			// in the case when the exception translator hasn't been initialized yet.
 			String sql = getSql(action);
@@ -337,6 +404,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 		finally {
 			DataSourceUtils.releaseConnection(con, getDataSource());
+			finishExecution(execution);
 		}
 	}
 
@@ -366,18 +434,48 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	@Override
 	@Nullable
 	public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+		return execute(action, true);
+	}
+
+	/**
+	 * Execute a JDBC data access operation, implemented as callback action
+	 * working on a JDBC Statement.
+	 * @param action callback object that specifies the action
+	 * @param closeResources whether to close the Statement and release the
+	 * Connection after the action; if {@code false}, the action is responsible
+	 * for arranging their release as well as for completing the
+	 * {@link #getCurrentExecution() current execution}, except in case of an
+	 * {@code SQLException}
+	 * @return a result object returned by the action, or {@code null}
+	 * @throws DataAccessException if there is any problem
+	 */
+	@Nullable
+	private <T> T execute(StatementCallback<T> action, boolean closeResources) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
-		Connection con = DataSourceUtils.getConnection(obtainDataSource());
+		flushTransactionalBatch();
+		SqlExecution execution = startExecution("StatementCallback", action);
+		Connection con = obtainConnection(execution);
 		Statement stmt = null;
+		boolean executionHandedOver = false;
 		try {
 			stmt = con.createStatement();
 			applyStatementSettings(stmt);
+			if (execution != null) {
+				execution.recordStatementCreated();
+			}
 			T result = action.doInStatement(stmt);
 			handleWarnings(stmt);
+			if (execution != null) {
+				execution.recordSuccess();
+			}
+			executionHandedOver = !closeResources;
 			return result;
 		}
 		catch (SQLException ex) {
+			if (execution != null) {
+				execution.recordFailure(ex);
+			}
 			// Release Connection early, to avoid potential connection pool deadlock
 			// in the case when the exception translator hasn't been initialized yet.
 			String sql = getSql(action);
@@ -388,8 +486,16 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			throw translateException("StatementCallback", sql, ex);
 		}
 		finally {
-			JdbcUtils.closeStatement(stmt);
-			DataSourceUtils.releaseConnection(con, getDataSource());
+			if (closeResources) {
+				JdbcUtils.closeStatement(stmt);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
+			if (executionHandedOver) {
+				currentExecution.remove();
+			}
+			else {
+				finishExecution(execution);
+			}
 		}
 	}
 
@@ -434,10 +540,18 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			@Override
 			@Nullable
 			public T doInStatement(Statement stmt) throws SQLException {
+				SqlExecution execution = getCurrentExecution();
 				ResultSet rs = null;
 				try {
 					rs = stmt.executeQuery(sql);
-					return rse.extractData(rs);
+					if (execution != null) {
+						execution.recordExecuted();
+					}
+					T result = rse.extractData(rs);
+					if (execution != null) {
+						recordQueryResult(execution, result);
+					}
+					return result;
 				}
 				finally {
 					JdbcUtils.closeResultSet(rs);
@@ -462,6 +576,44 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper) throws DataAccessException {
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL query [" + sql + "]");
+		}
+
+		/**
+		 * Callback to execute the query, leaving the Statement open for the Stream.
+		 */
+		class StreamStatementCallback implements StatementCallback<Stream<T>>, SqlProvider {
+			@Override
+			public Stream<T> doInStatement(Statement stmt) throws SQLException {
+				SqlExecution execution = getCurrentExecution();
+				ResultSet rs = stmt.executeQuery(sql);
+				if (execution != null) {
+					execution.recordExecuted();
+				}
+				Connection con = stmt.getConnection();
+				ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(rs, rowMapper, execution);
+				return spliterator.stream().onClose(() -> {
+					recordStreamResult(spliterator);
+					JdbcUtils.closeResultSet(rs);
+					JdbcUtils.closeStatement(stmt);
+					DataSourceUtils.releaseConnection(con, getDataSource());
+					completeExecution(execution);
+				});
+			}
+			@Override
+			public String getSql() {
+				return sql;
+			}
+		}
+
+		return result(execute(new StreamStatementCallback(), false));
+	}
+
 	@Override
 	public Map<String, Object> queryForMap(String sql) throws DataAccessException {
 		return result(queryForObject(sql, getColumnMapRowMapper()));
@@ -508,7 +660,12 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		class UpdateStatementCallback implements StatementCallback<Integer>, SqlProvider {
 			@Override
 			public Integer doInStatement(Statement stmt) throws SQLException {
+				SqlExecution execution = getCurrentExecution();
 				int rows = stmt.executeUpdate(sql);
+				if (execution != null) {
+					execution.recordExecuted();
+					execution.setRowsAffected(rows);
+				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("SQL update affected " + rows + " rows");
 				}
@@ -540,6 +697,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 			@Override
 			public int[] doInStatement(Statement stmt) throws SQLException, DataAccessException {
+				SqlExecution execution = getCurrentExecution();
 				int[] rowsAffected = new int[sql.length];
 				if (JdbcUtils.supportsBatchUpdates(stmt.getConnection())) {
 					for (String sqlStmt : sql) {
@@ -573,6 +731,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 						}
 					}
 				}
+				if (execution != null) {
+					recordBatchResult(execution, rowsAffected);
+				}
 				return rowsAffected;
 			}
 
@@ -602,6 +763,24 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action)
 			throws DataAccessException {
 
+		return execute(psc, action, true);
+	}
+
+	/**
+	 * Execute a JDBC data access operation, implemented as callback action
+	 * working on a JDBC PreparedStatement.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param action callback object that specifies the action
+	 * @param closeResources whether to close the PreparedStatement and release
+	 * the Connection after the action; if {@code false}, the action is responsible
+	 * for arranging their release, except in case of an {@code SQLException}
+	 * @return a result object returned by the action, or {@code null}
+	 * @throws DataAccessException if there is any problem
+	 */
+	@Nullable
+	private <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action, boolean closeResources)
+			throws DataAccessException {
+
 		Assert.notNull(psc, "PreparedStatementCreator must not be null");
 		Assert.notNull(action, "Callback object must not be null");
 		if (logger.isDebugEnabled()) {
@@ -609,16 +788,29 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			logger.debug("Executing prepared SQL statement" + (sql != null ? " [" + sql + "]" : ""));
 		}
 
-		Connection con = DataSourceUtils.getConnection(obtainDataSource());
+		flushTransactionalBatch();
+		SqlExecution execution = startExecution("PreparedStatementCallback", psc);
+		Connection con = obtainConnection(execution);
 		PreparedStatement ps = null;
+		boolean executionHandedOver = false;
 		try {
 			ps = psc.createPreparedStatement(con);
 			applyStatementSettings(ps);
+			if (execution != null) {
+				execution.recordStatementCreated();
+			}
 			T result = action.doInPreparedStatement(ps);
 			handleWarnings(ps);
+			if (execution != null) {
+				execution.recordSuccess();
+			}
+			executionHandedOver = !closeResources;
 			return result;
 		}
 		catch (SQLException ex) {
+			if (execution != null) {
+				execution.recordFailure(ex);
+			}
 			// Release Connection early, to avoid potential connection pool deadlock
 			// in the case when the exception translator hasn't been initialized yet.
 			if (psc instanceof ParameterDisposer) {
@@ -633,11 +825,19 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			throw translateException("PreparedStatementCallback", sql, ex);
 		}
 		finally {
-			if (psc instanceof ParameterDisposer) {
-				((ParameterDisposer) psc).cleanupParameters();
+			if (closeResources) {
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
+			if (executionHandedOver) {
+				currentExecution.remove();
+			}
+			else {
+				finishExecution(execution);
 			}
-			JdbcUtils.closeStatement(ps);
-			DataSourceUtils.releaseConnection(con, getDataSource());
 		}
 	}
 
@@ -670,13 +870,22 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			@Override
 			@Nullable
 			public T doInPreparedStatement(PreparedStatement ps) throws SQLException {
+				SqlExecution execution = getCurrentExecution();
 				ResultSet rs = null;
 				try {
 					if (pss != null) {
 						pss.setValues(ps);
 					}
 					rs = ps.executeQuery();
-					return rse.extractData(rs);
+					if (execution != null) {
+						execution.recordExecuted();
+						recordBindCount(execution, pss);
+					}
+					T result = rse.extractData(rs);
+					if (execution != null) {
+						recordQueryResult(execution, result);
+					}
+					return result;
 				}
 				finally {
 					JdbcUtils.closeResultSet(rs);
@@ -768,6 +977,73 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, args, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, mapping each row to a result object via a
+	 * RowMapper, and turning it into an iterable and closeable Stream. Most other
+	 * {@code queryForStream} methods use this method.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper a callback that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if there is any problem
+	 * @since 5.3
+	 */
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			RowMapper<T> rowMapper) throws DataAccessException {
+
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		logger.debug("Executing prepared SQL query for Stream");
+
+		return result(execute(psc, ps -> {
+			SqlExecution execution = getCurrentExecution();
+			if (pss != null) {
+				pss.setValues(ps);
+			}
+			ResultSet rs = ps.executeQuery();
+			if (execution != null) {
+				execution.recordExecuted();
+				recordBindCount(execution, pss);
+			}
+			Connection con = ps.getConnection();
+			ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(rs, rowMapper, execution);
+			return spliterator.stream().onClose(() -> {
+				recordStreamResult(spliterator);
+				JdbcUtils.closeResultSet(rs);
+				if (pss instanceof ParameterDisposer) {
+					((ParameterDisposer) pss).cleanupParameters();
+				}
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+				completeExecution(execution);
+			});
+		}, false));
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException {
+		return queryForStream(psc, null, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), pss, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
@@ -857,14 +1133,30 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	protected int update(final PreparedStatementCreator psc, @Nullable final PreparedStatementSetter pss)
 			throws DataAccessException {
 
+		if (psc instanceof SimplePreparedStatementCreator && isTransactionalBatchingActive()) {
+			String sql = ((SimplePreparedStatementCreator) psc).sql;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Adding prepared SQL update to transactional batch [" + sql + "]");
+			}
+			TransactionalUpdateBatch.obtainCurrentBatch(this, obtainDataSource())
+					.add(sql, pss, getTransactionalBatchSize());
+			return Statement.SUCCESS_NO_INFO;
+		}
+
 		logger.debug("Executing prepared SQL update");
 
 		return updateCount(execute(psc, ps -> {
+			SqlExecution execution = getCurrentExecution();
 			try {
 				if (pss != null) {
 					pss.setValues(ps);
 				}
 				int rows = ps.executeUpdate();
+				if (execution != null) {
+					execution.recordExecuted();
+					execution.setRowsAffected(rows);
+					recordBindCount(execution, pss);
+				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("SQL update affected " + rows + " rows");
 				}
@@ -891,7 +1183,12 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		logger.debug("Executing SQL update and returning generated keys");
 
 		return updateCount(execute(psc, ps -> {
+			SqlExecution execution = getCurrentExecution();
 			int rows = ps.executeUpdate();
+			if (execution != null) {
+				execution.recordExecuted();
+				execution.setRowsAffected(rows);
+			}
 			List<Map<String, Object>> generatedKeys = generatedKeyHolder.getKeyList();
 			generatedKeys.clear();
 			ResultSet keys = ps.getGeneratedKeys();
@@ -905,6 +1202,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					JdbcUtils.closeResultSet(keys);
 				}
 			}
+			if (execution != null) {
+				execution.recordResultProcessed();
+			}
 			if (logger.isTraceEnabled()) {
 				logger.trace("SQL update affected " + rows + " rows and returned " + generatedKeys.size() + " keys");
 			}
@@ -934,6 +1234,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 
 		int[] result = execute(sql, (PreparedStatementCallback<int[]>) ps -> {
+			SqlExecution execution = getCurrentExecution();
 			try {
 				int batchSize = pss.getBatchSize();
 				InterruptibleBatchPreparedStatementSetter ipss =
@@ -947,7 +1248,11 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 						}
 						ps.addBatch();
 					}
-					return ps.executeBatch();
+					int[] rowsAffected = ps.executeBatch();
+					if (execution != null) {
+						recordBatchResult(execution, rowsAffected);
+					}
+					return rowsAffected;
 				}
 				else {
 					List<Integer> rowsAffected = new ArrayList<>();
@@ -962,6 +1267,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					for (int i = 0; i < rowsAffectedArray.length; i++) {
 						rowsAffectedArray[i] = rowsAffected.get(i);
 					}
+					if (execution != null) {
+						recordBatchResult(execution, rowsAffectedArray);
+					}
 					return rowsAffectedArray;
 				}
 			}
@@ -1067,6 +1375,104 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result;
 	}
 
+	/**
+	 * Execute multiple batches using the supplied SQL statement with the collection
+	 * of supplied arguments, spreading the batches across several concurrently
+	 * executing workers.
+	 * <p>The arguments are split into chunks of the given batch size. Each worker
+	 * runs on the given {@link Executor} and executes one chunk after the other,
+	 * obtaining a separate Connection from the DataSource for every chunk. As a
+	 * consequence, the chunks do <i>not</i> participate in a transaction of the
+	 * calling thread: each chunk is committed on its own according to the
+	 * Connection's auto-commit mode, which makes this method suitable for bulk
+	 * loads where partial success is acceptable and can be tracked per chunk.
+	 * <p>This does not hold for chunks that the executor runs in the calling
+	 * thread, e.g. with a caller-runs rejection policy or a synchronous
+	 * executor: such chunks are executed one after the other and participate
+	 * in a transaction of the calling thread, if any, with a failed chunk only
+	 * reported once that transaction commits.
+	 * <p>Failures do not stop the processing of other chunks; they are reported
+	 * through the returned chunk results instead. The given setter may be invoked
+	 * concurrently and therefore needs to be thread-safe.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the List of Object arrays containing the batch of arguments for the query
+	 * @param batchSize the number of arguments to use per chunk
+	 * @param parallelism the maximum number of chunks to execute concurrently,
+	 * i.e. the number of Connections to use at the same time
+	 * @param executor the executor to run the workers on
+	 * @param pss the ParameterizedPreparedStatementSetter to use
+	 * @return the results for each chunk, in the order of the batch arguments
+	 * @throws DataAccessException if the calling thread got interrupted while
+	 * waiting for the chunks to complete
+	 * @since 5.3
+	 * @see #batchUpdate(String, Collection, int, ParameterizedPreparedStatementSetter)
+	 */
+	public <T> List<BatchChunkResult> parallelBatchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+			int parallelism, Executor executor, ParameterizedPreparedStatementSetter<T> pss)
+			throws DataAccessException {
+
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		Assert.notNull(executor, "Executor must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL batch update [" + sql + "] with a batch size of " + batchSize +
+					" and a parallelism of " + parallelism);
+		}
+
+		List<T> items = new ArrayList<>(batchArgs);
+		int chunkCount = (items.size() + batchSize - 1) / batchSize;
+		BatchChunkResult[] results = new BatchChunkResult[chunkCount];
+		AtomicInteger nextChunk = new AtomicInteger();
+		int workerCount = Math.min(parallelism, chunkCount);
+		CountDownLatch latch = new CountDownLatch(workerCount);
+
+		Runnable worker = () -> {
+			try {
+				int chunk;
+				while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+					int offset = chunk * batchSize;
+					List<T> chunkArgs = items.subList(offset, Math.min(offset + batchSize, items.size()));
+					try {
+						int[][] rowsAffected = batchUpdate(sql, chunkArgs, chunkArgs.size(), pss);
+						int[] flattened = Arrays.stream(rowsAffected).flatMapToInt(Arrays::stream).toArray();
+						results[chunk] = new BatchChunkResult(chunk, offset, chunkArgs.size(), flattened, null);
+					}
+					catch (RuntimeException ex) {
+						results[chunk] = new BatchChunkResult(chunk, offset, chunkArgs.size(), null, ex);
+					}
+				}
+			}
+			finally {
+				latch.countDown();
+			}
+		};
+
+		int started = 0;
+		for (int i = 0; i < workerCount; i++) {
+			try {
+				executor.execute(worker);
+				started++;
+			}
+			catch (RejectedExecutionException ex) {
+				if (started == 0) {
+					throw ex;
+				}
+				latch.countDown();
+			}
+		}
+
+		try {
+			latch.await();
+		}
+		catch (InterruptedException ex) {
+			// Let the workers stop after their current chunk.
+			nextChunk.set(chunkCount);
+			Thread.currentThread().interrupt();
+			throw new DataAccessResourceFailureException("Interrupted while waiting for parallel batch update", ex);
+		}
+		return Arrays.asList(results);
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with callable statements
@@ -1084,16 +1490,27 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			logger.debug("Calling stored procedure" + (sql != null ? " [" + sql  + "]" : ""));
 		}
 
-		Connection con = DataSourceUtils.getConnection(obtainDataSource());
+		flushTransactionalBatch();
+		SqlExecution execution = startExecution("CallableStatementCallback", csc);
+		Connection con = obtainConnection(execution);
 		CallableStatement cs = null;
 		try {
 			cs = csc.createCallableStatement(con);
 			applyStatementSettings(cs);
+			if (execution != null) {
+				execution.recordStatementCreated();
+			}
 			T result = action.doInCallableStatement(cs);
 			handleWarnings(cs);
+			if (execution != null) {
+				execution.recordSuccess();
+			}
 			return result;
 		}
 		catch (SQLException ex) {
+			if (execution != null) {
+				execution.recordFailure(ex);
+			}
 			// Release Connection early, to avoid potential connection pool deadlock
 			// in the case when the exception translator hasn't been initialized yet.
 			if (csc instanceof ParameterDisposer) {
@@ -1113,6 +1530,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			}
 			JdbcUtils.closeStatement(cs);
 			DataSourceUtils.releaseConnection(con, getDataSource());
+			finishExecution(execution);
 		}
 	}
 
@@ -1430,6 +1848,157 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+	/**
+	 * Execute any updates pending in the transactional batch for this template's
+	 * DataSource. Called before every JDBC operation, and available to application
+	 * code that needs deferred updates to hit the database at a specific point.
+	 * @throws DataAccessException if the execution of a batched update failed
+	 * @since 5.3
+	 * @see #setTransactionalBatchSize
+	 */
+	public void flushTransactionalBatch() throws DataAccessException {
+		DataSource dataSource = getDataSource();
+		if (dataSource != null) {
+			TransactionalUpdateBatch batch = TransactionalUpdateBatch.getCurrentBatch(dataSource);
+			if (batch != null) {
+				batch.flush();
+			}
+		}
+	}
+
+	/**
+	 * Determine whether prepared SQL updates should currently be added to a
+	 * transactional batch rather than executed right away.
+	 * @see #setTransactionalBatchSize
+	 */
+	private boolean isTransactionalBatchingActive() {
+		return (this.transactionalBatchSize > 0 &&
+				TransactionSynchronizationManager.isSynchronizationActive() &&
+				TransactionSynchronizationManager.isActualTransactionActive() &&
+				!TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+	}
+
+	/**
+	 * Start observing a JDBC operation if an {@link #setSqlExecutionObserver observer}
+	 * has been set, exposing the execution to this template's internal callbacks.
+	 * @param task readable text describing the operation
+	 * @param sqlProvider object which is potentially an SqlProvider
+	 * @return the execution to record timings on, or {@code null} if not observed
+	 */
+	@Nullable
+	SqlExecution startExecution(String task, Object sqlProvider) {
+		SqlExecutionObserver observer = getSqlExecutionObserver();
+		if (observer == null) {
+			return null;
+		}
+		SqlExecution execution = new SqlExecution(task, getSql(sqlProvider));
+		recordBindCount(execution, sqlProvider);
+		try {
+			observer.beforeExecution(execution);
+		}
+		catch (RuntimeException ex) {
+			logger.warn("SqlExecutionObserver threw exception before execution", ex);
+		}
+		currentExecution.set(execution);
+		return execution;
+	}
+
+	/**
+	 * Obtain a Connection from this template's DataSource, recording the
+	 * acquisition time on the given execution, if any.
+	 */
+	private Connection obtainConnection(@Nullable SqlExecution execution) {
+		if (execution == null) {
+			return DataSourceUtils.getConnection(obtainDataSource());
+		}
+		try {
+			Connection con = DataSourceUtils.getConnection(obtainDataSource());
+			execution.recordConnectionAcquired();
+			return con;
+		}
+		catch (RuntimeException ex) {
+			finishExecution(execution);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Complete the given execution, if any, and notify the observer.
+	 */
+	void finishExecution(@Nullable SqlExecution execution) {
+		if (execution != null) {
+			currentExecution.remove();
+			completeExecution(execution);
+		}
+	}
+
+	/**
+	 * Complete the given execution, if any, without touching the current
+	 * execution: for a Stream closed after its operation has returned.
+	 */
+	private void completeExecution(@Nullable SqlExecution execution) {
+		if (execution != null) {
+			execution.recordCompletion();
+			SqlExecutionObserver observer = getSqlExecutionObserver();
+			if (observer != null) {
+				try {
+					observer.afterExecution(execution);
+				}
+				catch (RuntimeException ex) {
+					logger.warn("SqlExecutionObserver threw exception after execution", ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the execution currently being observed, to be obtained by internal
+	 * callbacks before running any user code that might perform nested operations.
+	 */
+	@Nullable
+	private SqlExecution getCurrentExecution() {
+		return (getSqlExecutionObserver() != null ? currentExecution.get() : null);
+	}
+
+	private static void recordBindCount(SqlExecution execution, @Nullable Object setter) {
+		if (setter instanceof ArgumentPreparedStatementSetter) {
+			execution.setBindCount(((ArgumentPreparedStatementSetter) setter).getArgumentCount());
+		}
+		else if (setter instanceof ArgumentTypePreparedStatementSetter) {
+			execution.setBindCount(((ArgumentTypePreparedStatementSetter) setter).getArgumentCount());
+		}
+		else if (setter instanceof PreparedStatementCreatorFactory.PreparedStatementCreatorImpl) {
+			execution.setBindCount(
+					((PreparedStatementCreatorFactory.PreparedStatementCreatorImpl) setter).getParameterCount());
+		}
+	}
+
+	private static void recordQueryResult(SqlExecution execution, @Nullable Object result) {
+		execution.recordResultProcessed();
+		if (result instanceof Collection) {
+			execution.setRowsReturned(((Collection<?>) result).size());
+		}
+	}
+
+	private static void recordStreamResult(ResultSetSpliterator<?> spliterator) {
+		SqlExecution execution = spliterator.execution;
+		if (execution != null) {
+			execution.recordResultProcessed();
+			execution.setRowsReturned(spliterator.rowNum);
+		}
+	}
+
+	static void recordBatchResult(SqlExecution execution, int[] rowsAffected) {
+		execution.recordExecuted();
+		long total = 0;
+		for (int rows : rowsAffected) {
+			if (rows > 0) {
+				total += rows;
+			}
+		}
+		execution.setRowsAffected(total);
+	}
+
 	/**
 	 * Translate the given {@link SQLException} into a generic {@link DataAccessException}.
 	 * @param task readable text describing the task being attempted
@@ -1610,4 +2179,64 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+
+	/**
+	 * Spliterator for queryForStream adaptation of a ResultSet to a Stream.
+	 * Rows are mapped one at a time, as the Stream is being consumed.
+	 */
+	private static class ResultSetSpliterator<T> implements Spliterator<T> {
+
+		private final ResultSet rs;
+
+		private final RowMapper<T> rowMapper;
+
+		@Nullable
+		private final SqlExecution execution;
+
+		private int rowNum = 0;
+
+		public ResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper, @Nullable SqlExecution execution) {
+			this.rs = rs;
+			this.rowMapper = rowMapper;
+			this.execution = execution;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			try {
+				if (this.rs.next()) {
+					action.accept(this.rowMapper.mapRow(this.rs, this.rowNum++));
+					return true;
+				}
+				return false;
+			}
+			catch (SQLException ex) {
+				if (this.execution != null) {
+					this.execution.recordFailure(ex);
+				}
+				throw new InvalidResultSetAccessException(ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+
+		public Stream<T> stream() {
+			return StreamSupport.stream(this, false);
+		}
+	}
+
 }
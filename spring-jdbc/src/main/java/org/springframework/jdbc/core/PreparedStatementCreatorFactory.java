@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -187,7 +187,7 @@ public class PreparedStatementCreatorFactory {
 	/**
 	 * PreparedStatementCreator implementation returned by this class.
 	 */
-	private class PreparedStatementCreatorImpl
+	class PreparedStatementCreatorImpl
 			implements PreparedStatementCreator, PreparedStatementSetter, SqlProvider, ParameterDisposer {
 
 		private final String actualSql;
@@ -297,6 +297,13 @@ public class PreparedStatementCreatorFactory {
 			StatementCreatorUtils.cleanupParameters(this.parameters);
 		}
 
+		/**
+		 * Return the number of parameter values to set.
+		 */
+		int getParameterCount() {
+			return this.parameters.size();
+		}
+
 		@Override
 		public String toString() {
 			return "PreparedStatementCreator: sql=[" + sql + "]; parameters=" + this.parameters;
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SqlExecution;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Write-behind batch of prepared SQL updates, bound to the current transaction
+ * for a specific {@link DataSource}.
+ *
+ * <p>Consecutive updates with the same SQL are added to a single
+ * {@link PreparedStatement} via {@link PreparedStatement#addBatch()}. The batch
+ * is executed once it reaches the configured size, when an update with different
+ * SQL arrives, before any other {@link JdbcTemplate} operation on the same
+ * DataSource, on {@link TransactionSynchronization#flush() flush}, on suspension,
+ * and before commit. Pending updates are discarded on rollback.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see JdbcTemplate#setTransactionalBatchSize
+ */
+final class TransactionalUpdateBatch implements TransactionSynchronization, Ordered, SqlProvider {
+
+	private static final Log logger = LogFactory.getLog(TransactionalUpdateBatch.class);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final DataSource dataSource;
+
+	private final Object resourceKey;
+
+	@Nullable
+	private Connection connection;
+
+	@Nullable
+	private PreparedStatement statement;
+
+	@Nullable
+	private String sql;
+
+	private int batchCount;
+
+	/** Setters of pending updates, to be cleaned up once the batch has been executed. */
+	private final List<ParameterDisposer> parameterDisposers = new ArrayList<>();
+
+
+	private TransactionalUpdateBatch(JdbcTemplate jdbcTemplate, DataSource dataSource, Object resourceKey) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.dataSource = dataSource;
+		this.resourceKey = resourceKey;
+	}
+
+
+	/**
+	 * Add an update to the batch, executing pending updates with different SQL first
+	 * and the batch itself once the given batch size has been reached.
+	 */
+	void add(String sql, @Nullable PreparedStatementSetter pss, int batchSize) {
+		try {
+			if (this.statement != null && !sql.equals(this.sql)) {
+				executeBatch();
+				closeStatement();
+			}
+			if (this.statement == null) {
+				Connection con = DataSourceUtils.getConnection(this.dataSource);
+				this.connection = con;
+				this.statement = con.prepareStatement(sql);
+				this.sql = sql;
+				this.jdbcTemplate.applyStatementSettings(this.statement);
+			}
+			if (pss instanceof ParameterDisposer) {
+				this.parameterDisposers.add((ParameterDisposer) pss);
+			}
+			if (pss != null) {
+				pss.setValues(this.statement);
+			}
+			this.statement.addBatch();
+			this.batchCount++;
+			if (this.batchCount >= batchSize) {
+				executeBatch();
+			}
+		}
+		catch (SQLException ex) {
+			String failedSql = (this.sql != null ? this.sql : sql);
+			close();
+			throw this.jdbcTemplate.translateException("TransactionalUpdateBatch", failedSql, ex);
+		}
+	}
+
+	@Override
+	public void flush() {
+		if (this.batchCount > 0) {
+			try {
+				executeBatch();
+			}
+			catch (SQLException ex) {
+				String failedSql = this.sql;
+				close();
+				throw this.jdbcTemplate.translateException("TransactionalUpdateBatch", failedSql, ex);
+			}
+		}
+	}
+
+	@Override
+	public void suspend() {
+		flush();
+		close();
+	}
+
+	@Override
+	public void beforeCommit(boolean readOnly) {
+		flush();
+	}
+
+	@Override
+	public void beforeCompletion() {
+		if (this.batchCount > 0 && logger.isDebugEnabled()) {
+			logger.debug("Discarding " + this.batchCount + " pending batched updates [" + this.sql + "]");
+		}
+		close();
+	}
+
+	@Override
+	public int getOrder() {
+		// Execute pending updates before the transactional Connection gets released.
+		return DataSourceUtils.CONNECTION_SYNCHRONIZATION_ORDER - 1;
+	}
+
+	@Override
+	@Nullable
+	public String getSql() {
+		return this.sql;
+	}
+
+	private void executeBatch() throws SQLException {
+		if (this.statement == null || this.batchCount == 0) {
+			return;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing " + this.batchCount + " batched SQL updates [" + this.sql + "]");
+		}
+		this.batchCount = 0;
+		SqlExecution execution = this.jdbcTemplate.startExecution("TransactionalUpdateBatch", this);
+		try {
+			int[] rowsAffected = this.statement.executeBatch();
+			if (execution != null) {
+				JdbcTemplate.recordBatchResult(execution, rowsAffected);
+			}
+			for (int i = 0; i < rowsAffected.length; i++) {
+				if (rowsAffected[i] == Statement.EXECUTE_FAILED) {
+					throw new SQLException("Batched update " + i + " failed to execute [" + this.sql + "]");
+				}
+			}
+			this.jdbcTemplate.handleWarnings(this.statement);
+			if (execution != null) {
+				execution.recordSuccess();
+			}
+		}
+		catch (SQLException ex) {
+			if (execution != null) {
+				execution.recordFailure(ex);
+			}
+			throw ex;
+		}
+		finally {
+			cleanupParameters();
+			this.jdbcTemplate.finishExecution(execution);
+		}
+	}
+
+	private void cleanupParameters() {
+		for (ParameterDisposer parameterDisposer : this.parameterDisposers) {
+			parameterDisposer.cleanupParameters();
+		}
+		this.parameterDisposers.clear();
+	}
+
+	private void closeStatement() {
+		cleanupParameters();
+		JdbcUtils.closeStatement(this.statement);
+		this.statement = null;
+		this.sql = null;
+		this.batchCount = 0;
+		if (this.connection != null) {
+			DataSourceUtils.releaseConnection(this.connection, this.dataSource);
+			this.connection = null;
+		}
+	}
+
+	private void close() {
+		closeStatement();
+		if (TransactionSynchronizationManager.getResource(this.resourceKey) == this) {
+			TransactionSynchronizationManager.unbindResource(this.resourceKey);
+		}
+	}
+
+
+	/**
+	 * Return the batch bound to the current transaction for the given DataSource,
+	 * if any.
+	 */
+	@Nullable
+	static TransactionalUpdateBatch getCurrentBatch(DataSource dataSource) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+		return (TransactionalUpdateBatch) TransactionSynchronizationManager.getResource(new BatchKey(dataSource));
+	}
+
+	/**
+	 * Return the batch bound to the current transaction for the given DataSource,
+	 * creating and registering a new one if necessary.
+	 */
+	static TransactionalUpdateBatch obtainCurrentBatch(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+		BatchKey key = new BatchKey(dataSource);
+		TransactionalUpdateBatch batch = (TransactionalUpdateBatch) TransactionSynchronizationManager.getResource(key);
+		if (batch == null) {
+			batch = new TransactionalUpdateBatch(jdbcTemplate, dataSource, key);
+			TransactionSynchronizationManager.bindResource(key, batch);
+			TransactionSynchronizationManager.registerSynchronization(batch);
+		}
+		return batch;
+	}
+
+
+	/**
+	 * Resource key for a batch, distinct from the ConnectionHolder key
+	 * (the DataSource itself) but tied to the same DataSource instance.
+	 */
+	private static final class BatchKey {
+
+		private final DataSource dataSource;
+
+		BatchKey(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof BatchKey &&
+					this.dataSource == ((BatchKey) other).dataSource));
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.dataSource);
+		}
+
+		@Override
+		public String toString() {
+			return "TransactionalUpdateBatch key for [" + this.dataSource + "]";
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -73,6 +73,14 @@ public class GenericTableMetaDataProvider implements TableMetaDataProvider {
 	private List<String> productsNotSupportingGeneratedKeysColumnNameArray =
 			Arrays.asList("Apache Derby", "HSQL Database Engine");
 
+	/** indicates whether multi-row VALUES clauses are supported. */
+	private boolean multiRowInsertSupported = false;
+
+	/** database products we know supporting multi-row VALUES clauses. */
+	private List<String> productsSupportingMultiRowInsert =
+			Arrays.asList("Apache Derby", "H2", "HSQL Database Engine", "MariaDB", "Microsoft SQL Server",
+					"MySQL", "PostgreSQL");
+
 	/** Collection of TableParameterMetaData objects. */
 	private List<TableParameterMetaData> tableParameterMetaData = new ArrayList<>();
 
@@ -142,6 +150,15 @@ public class GenericTableMetaDataProvider implements TableMetaDataProvider {
 		return this.generatedKeysColumnNameArraySupported;
 	}
 
+	public void setMultiRowInsertSupported(boolean multiRowInsertSupported) {
+		this.multiRowInsertSupported = multiRowInsertSupported;
+	}
+
+	@Override
+	public boolean isMultiRowInsertSupported() {
+		return this.multiRowInsertSupported;
+	}
+
 
 	@Override
 	public void initializeWithMetaData(DatabaseMetaData databaseMetaData) throws SQLException {
@@ -179,6 +196,7 @@ public class GenericTableMetaDataProvider implements TableMetaDataProvider {
 					setGeneratedKeysColumnNameArraySupported(false);
 				}
 			}
+			setMultiRowInsertSupported(this.productsSupportingMultiRowInsert.contains(databaseProductName));
 		}
 		catch (SQLException ex) {
 			if (logger.isWarnEnabled()) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -312,6 +312,26 @@ public class TableMetaDataContext {
 		return insertStatement.toString();
 	}
 
+	/**
+	 * Build the insert string for a multi-row insert, repeating the VALUES clause of
+	 * {@link #createInsertString} for the given number of rows.
+	 * @param rowCount the number of rows to insert with a single statement
+	 * @param generatedKeyNames the names of the columns holding generated keys
+	 * @return the insert string to be used
+	 * @since 5.3
+	 * @see #isMultiRowInsertSupported()
+	 */
+	public String createMultiRowInsertString(int rowCount, String... generatedKeyNames) {
+		Assert.isTrue(rowCount > 0, "Row count must be greater than 0");
+		String insertString = createInsertString(generatedKeyNames);
+		String valuesClause = insertString.substring(insertString.lastIndexOf(" VALUES") + 7);
+		StringBuilder insertStatement = new StringBuilder(insertString);
+		for (int i = 1; i < rowCount; i++) {
+			insertStatement.append(", ").append(valuesClause);
+		}
+		return insertStatement.toString();
+	}
+
 	/**
 	 * Build the array of {@link java.sql.Types} based on configuration and meta-data information.
 	 * @return the array of types to be used
@@ -390,4 +410,13 @@ public class TableMetaDataContext {
 		return obtainMetaDataProvider().isGeneratedKeysColumnNameArraySupported();
 	}
 
+	/**
+	 * Does this database support inserting multiple rows with a single statement?
+	 * @since 5.3
+	 * @see #createMultiRowInsertString
+	 */
+	public boolean isMultiRowInsertSupported() {
+		return obtainMetaDataProvider().isMultiRowInsertSupported();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -117,6 +117,16 @@ public interface TableMetaDataProvider {
 	 */
 	boolean isGeneratedKeysColumnNameArraySupported();
 
+	/**
+	 * Does this database support inserting multiple rows with a single
+	 * {@code INSERT ... VALUES (...), (...)} statement?
+	 * <p>The default implementation returns {@code false}.
+	 * @since 5.3
+	 */
+	default boolean isMultiRowInsertSupported() {
+		return false;
+	}
+
 	/**
 	 * Get the table parameter meta-data that is currently used.
 	 * @return a List of {@link TableParameterMetaData}
@@ -18,10 +18,12 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -39,11 +41,13 @@ import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 
 /**
  * Template class with a basic set of JDBC operations, allowing the use
@@ -78,14 +82,14 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	/** Cache of original SQL String to ParsedSql representation. */
-	@SuppressWarnings("serial")
-	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	@Nullable
+	private volatile ConcurrentLruCache<String, ParsedSql> parsedSqlCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, NamedParameterUtils::parseSqlStatement);
+
+	/** Cache of substituted SQL and declared parameters per SQL statement and parameter types. */
+	@Nullable
+	private volatile ConcurrentLruCache<SubstitutionKey, Substitution> substitutionCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, Substitution::new);
 
 
 	/**
@@ -132,10 +136,21 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	/**
 	 * Specify the maximum number of entries for this template's SQL cache.
-	 * Default is 256.
+	 * Default is 256. A value of 0 or less turns caching off.
+	 * <p>The limit applies to the parsed SQL statements as well as to the
+	 * substituted SQL statements, which are cached per combination of SQL
+	 * statement and parameter types.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
+		if (cacheLimit > 0) {
+			this.parsedSqlCache = new ConcurrentLruCache<>(cacheLimit, NamedParameterUtils::parseSqlStatement);
+			this.substitutionCache = new ConcurrentLruCache<>(cacheLimit, Substitution::new);
+		}
+		else {
+			this.parsedSqlCache = null;
+			this.substitutionCache = null;
+		}
 	}
 
 	/**
@@ -228,6 +243,20 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return query(sql, EmptySqlParameterSource.INSTANCE, rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return getJdbcOperations().queryForStream(getPreparedStatementCreator(sql, paramSource), rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
@@ -421,17 +450,17 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	/**
 	 * Obtain a parsed representation of the given SQL statement.
-	 * <p>The default implementation uses an LRU cache with an upper limit of 256 entries.
+	 * <p>The default implementation uses a concurrent LRU cache with an upper limit
+	 * of 256 entries.
 	 * @param sql the original SQL statement
 	 * @return a representation of the parsed SQL statement
 	 */
 	protected ParsedSql getParsedSql(String sql) {
-		if (getCacheLimit() <= 0) {
+		ConcurrentLruCache<String, ParsedSql> cache = this.parsedSqlCache;
+		if (cache == null) {
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
-		synchronized (this.parsedSqlCache) {
-			return this.parsedSqlCache.computeIfAbsent(sql, NamedParameterUtils::parseSqlStatement);
-		}
+		return cache.get(sql);
 	}
 
 	/**
@@ -446,9 +475,108 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	protected PreparedStatementCreatorFactory getPreparedStatementCreatorFactory(
 			ParsedSql parsedSql, SqlParameterSource paramSource) {
 
+		ConcurrentLruCache<SubstitutionKey, Substitution> cache = this.substitutionCache;
+		if (cache != null) {
+			SubstitutionKey key = SubstitutionKey.forParameterSource(parsedSql, paramSource);
+			if (key != null) {
+				Substitution substitution = cache.get(key);
+				return new PreparedStatementCreatorFactory(
+						substitution.sql, new ArrayList<>(substitution.declaredParameters));
+			}
+		}
 		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
 		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
 		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 	}
 
+
+	/**
+	 * Cache key for a substituted SQL statement: the original SQL plus the SQL type
+	 * and type name of each named parameter. Only applicable to parameter sources
+	 * without collection values, since those expand into a variable number of
+	 * placeholders.
+	 */
+	private static final class SubstitutionKey {
+
+		private final ParsedSql parsedSql;
+
+		private final int[] sqlTypes;
+
+		private final String[] typeNames;
+
+		private final int hashCode;
+
+		private SubstitutionKey(ParsedSql parsedSql, int[] sqlTypes, String[] typeNames) {
+			this.parsedSql = parsedSql;
+			this.sqlTypes = sqlTypes;
+			this.typeNames = typeNames;
+			this.hashCode = 31 * (31 * parsedSql.getOriginalSql().hashCode() +
+					Arrays.hashCode(sqlTypes)) + Arrays.hashCode(typeNames);
+		}
+
+		@Nullable
+		static SubstitutionKey forParameterSource(ParsedSql parsedSql, SqlParameterSource paramSource) {
+			List<String> paramNames = parsedSql.getParameterNames();
+			int[] sqlTypes = new int[paramNames.size()];
+			String[] typeNames = new String[paramNames.size()];
+			for (int i = 0; i < paramNames.size(); i++) {
+				String paramName = paramNames.get(i);
+				if (paramSource.hasValue(paramName)) {
+					Object value = paramSource.getValue(paramName);
+					if (value instanceof SqlParameterValue) {
+						value = ((SqlParameterValue) value).getValue();
+					}
+					if (value instanceof Iterable) {
+						return null;
+					}
+				}
+				sqlTypes[i] = paramSource.getSqlType(paramName);
+				typeNames[i] = paramSource.getTypeName(paramName);
+			}
+			return new SubstitutionKey(parsedSql, sqlTypes, typeNames);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof SubstitutionKey)) {
+				return false;
+			}
+			SubstitutionKey otherKey = (SubstitutionKey) other;
+			return (this.parsedSql.getOriginalSql().equals(otherKey.parsedSql.getOriginalSql()) &&
+					Arrays.equals(this.sqlTypes, otherKey.sqlTypes) &&
+					Arrays.equals(this.typeNames, otherKey.typeNames));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Substituted SQL statement with its declared parameters, derived from a
+	 * {@link SubstitutionKey}.
+	 */
+	private static final class Substitution {
+
+		private final String sql;
+
+		private final List<SqlParameter> declaredParameters;
+
+		Substitution(SubstitutionKey key) {
+			// No collection values: every named parameter turns into a single placeholder.
+			this.sql = NamedParameterUtils.substituteNamedParameters(key.parsedSql, null);
+			List<String> paramNames = key.parsedSql.getParameterNames();
+			List<SqlParameter> params = new ArrayList<>(paramNames.size());
+			for (int i = 0; i < paramNames.size(); i++) {
+				params.add(new SqlParameter(paramNames.get(i), key.sqlTypes[i], key.typeNames[i]));
+			}
+			this.declaredParameters = params;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -88,6 +88,13 @@ public abstract class AbstractJdbcInsert {
 	/** The SQL type information for the insert columns. */
 	private int[] insertTypes = new int[0];
 
+	/** The number of rows to insert per statement in a batch insert. */
+	private int multiRowInsertSize = 1;
+
+	/** The generated string used for multi-row insert statements, if supported. */
+	@Nullable
+	private String multiRowInsertString;
+
 
 	/**
 	 * Constructor to be used when initializing using a {@link DataSource}.
@@ -221,6 +228,31 @@ public abstract class AbstractJdbcInsert {
 		this.tableMetaDataContext.setOverrideIncludeSynonymsDefault(override);
 	}
 
+	/**
+	 * Specify the number of rows to insert with a single statement when executing
+	 * a batch insert, using a multi-row {@code VALUES} clause.
+	 * <p>The default is 1, i.e. a regular JDBC batch with one statement per row.
+	 * Larger values only take effect if the database is known to support multi-row
+	 * inserts; the number of bind parameters per statement is then the given size
+	 * times the number of insert columns, which needs to stay within the limits
+	 * of the database.
+	 * @since 5.3
+	 * @see org.springframework.jdbc.core.metadata.TableMetaDataContext#isMultiRowInsertSupported()
+	 */
+	public void setMultiRowInsertSize(int multiRowInsertSize) {
+		checkIfConfigurationModificationIsAllowed();
+		Assert.isTrue(multiRowInsertSize > 0, "Multi-row insert size must be greater than 0");
+		this.multiRowInsertSize = multiRowInsertSize;
+	}
+
+	/**
+	 * Get the number of rows to insert with a single statement in a batch insert.
+	 * @since 5.3
+	 */
+	public int getMultiRowInsertSize() {
+		return this.multiRowInsertSize;
+	}
+
 	/**
 	 * Get the insert string to be used.
 	 */
@@ -280,6 +312,15 @@ public abstract class AbstractJdbcInsert {
 		if (logger.isDebugEnabled()) {
 			logger.debug("Compiled insert object: insert string is [" + this.insertString + "]");
 		}
+		if (this.multiRowInsertSize > 1) {
+			if (this.tableMetaDataContext.isMultiRowInsertSupported()) {
+				this.multiRowInsertString = this.tableMetaDataContext.createMultiRowInsertString(
+						this.multiRowInsertSize, getGeneratedKeyNames());
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("Multi-row inserts not supported by database - using one statement per row");
+			}
+		}
 		onCompileInternal();
 	}
 
@@ -566,6 +607,9 @@ public abstract class AbstractJdbcInsert {
 	 * Delegate method to execute the batch insert.
 	 */
 	private int[] executeBatchInternal(final List<List<Object>> batchValues) {
+		if (this.multiRowInsertString != null && batchValues.size() > 1) {
+			return executeMultiRowBatchInternal(this.multiRowInsertString, batchValues);
+		}
 		if (logger.isDebugEnabled()) {
 			logger.debug("Executing statement " + getInsertString() + " with batch of size: " + batchValues.size());
 		}
@@ -582,6 +626,52 @@ public abstract class AbstractJdbcInsert {
 				});
 	}
 
+	/**
+	 * Delegate method to execute the batch insert with multiple rows per statement.
+	 * <p>Update counts are reported per row: 1 if the statement reported a count
+	 * matching its number of rows, {@link Statement#SUCCESS_NO_INFO} otherwise.
+	 */
+	private int[] executeMultiRowBatchInternal(String multiRowInsertString, final List<List<Object>> batchValues) {
+		final int rowsPerStatement = this.multiRowInsertSize;
+		final int statementCount = batchValues.size() / rowsPerStatement;
+		int remainder = batchValues.size() % rowsPerStatement;
+		int[] rowsAffected = new int[batchValues.size()];
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing statement " + multiRowInsertString + " with batch of size: " + statementCount +
+					(remainder > 0 ? " plus a statement for the remaining " + remainder + " rows" : ""));
+		}
+		if (statementCount > 0) {
+			int[] counts = getJdbcTemplate().batchUpdate(multiRowInsertString,
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							setMultiRowParameterValues(ps,
+									batchValues.subList(i * rowsPerStatement, (i + 1) * rowsPerStatement));
+						}
+						@Override
+						public int getBatchSize() {
+							return statementCount;
+						}
+					});
+			for (int i = 0; i < counts.length; i++) {
+				fillRowsAffected(rowsAffected, i * rowsPerStatement, rowsPerStatement, counts[i]);
+			}
+		}
+		if (remainder > 0) {
+			int offset = statementCount * rowsPerStatement;
+			List<List<Object>> remainingValues = batchValues.subList(offset, batchValues.size());
+			String sql = (remainder == 1 ? getInsertString() :
+					this.tableMetaDataContext.createMultiRowInsertString(remainder, getGeneratedKeyNames()));
+			int count = getJdbcTemplate().update(sql, ps -> setMultiRowParameterValues(ps, remainingValues));
+			fillRowsAffected(rowsAffected, offset, remainder, count);
+		}
+		return rowsAffected;
+	}
+
+	private static void fillRowsAffected(int[] rowsAffected, int offset, int rowCount, int updateCount) {
+		Arrays.fill(rowsAffected, offset, offset + rowCount, (updateCount == rowCount ? 1 : Statement.SUCCESS_NO_INFO));
+	}
+
 	/**
 	 * Internal implementation for setting parameter values.
 	 * @param preparedStatement the PreparedStatement
@@ -590,16 +680,39 @@ public abstract class AbstractJdbcInsert {
 	private void setParameterValues(PreparedStatement preparedStatement, List<?> values, @Nullable int... columnTypes)
 			throws SQLException {
 
+		setParameterValues(preparedStatement, 0, values, columnTypes);
+	}
+
+	/**
+	 * Internal implementation for setting the parameter values of consecutive rows.
+	 * @param preparedStatement the PreparedStatement
+	 * @param rows the values to be set, one List per row
+	 */
+	private void setMultiRowParameterValues(PreparedStatement preparedStatement, List<List<Object>> rows)
+			throws SQLException {
+
+		int offset = 0;
+		for (List<Object> values : rows) {
+			offset = setParameterValues(preparedStatement, offset, values, getInsertTypes());
+		}
+	}
+
+	private int setParameterValues(PreparedStatement preparedStatement, int offset, List<?> values,
+			@Nullable int... columnTypes) throws SQLException {
+
 		int colIndex = 0;
 		for (Object value : values) {
 			colIndex++;
 			if (columnTypes == null || colIndex > columnTypes.length) {
-				StatementCreatorUtils.setParameterValue(preparedStatement, colIndex, SqlTypeValue.TYPE_UNKNOWN, value);
+				StatementCreatorUtils.setParameterValue(
+						preparedStatement, offset + colIndex, SqlTypeValue.TYPE_UNKNOWN, value);
 			}
 			else {
-				StatementCreatorUtils.setParameterValue(preparedStatement, colIndex, columnTypes[colIndex - 1], value);
+				StatementCreatorUtils.setParameterValue(
+						preparedStatement, offset + colIndex, columnTypes[colIndex - 1], value);
 			}
 		}
+		return offset + colIndex;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -112,6 +112,20 @@ public class SimpleJdbcInsert extends AbstractJdbcInsert implements SimpleJdbcIn
 		return this;
 	}
 
+	/**
+	 * Insert the given number of rows per statement in batch inserts, using a
+	 * multi-row {@code VALUES} clause where the database supports it.
+	 * @param rowsPerStatement the number of rows to insert with a single statement
+	 * @return the instance of this SimpleJdbcInsert
+	 * @since 5.3
+	 * @see #executeBatch(SqlParameterSource...)
+	 * @see #setMultiRowInsertSize(int)
+	 */
+	public SimpleJdbcInsert usingMultiRowInserts(int rowsPerStatement) {
+		setMultiRowInsertSize(rowsPerStatement);
+		return this;
+	}
+
 	@Override
 	public int execute(Map<String, ?> args) {
 		return doExecute(args);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.jdbc.datasource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.lang.Nullable;
 
@@ -51,6 +52,12 @@ public abstract class AbstractDriverBasedDataSource extends AbstractDataSource {
 	@Nullable
 	private Properties connectionProperties;
 
+	private int statementCacheSize = 0;
+
+	private final AtomicLong statementCacheHitCount = new AtomicLong();
+
+	private final AtomicLong statementCacheMissCount = new AtomicLong();
+
 
 	/**
 	 * Set the JDBC URL to use for connecting through the Driver.
@@ -156,6 +163,53 @@ public abstract class AbstractDriverBasedDataSource extends AbstractDataSource {
 		return this.connectionProperties;
 	}
 
+	/**
+	 * Specify the number of PreparedStatements to cache per Connection.
+	 * <p>Default is 0, exposing the Connections as returned by the Driver. With a
+	 * positive value, Connections get wrapped with a {@link ConnectionProxy} that
+	 * keeps closed PreparedStatements in an LRU cache, keyed by SQL and result set
+	 * options, and hands them out again for subsequent {@code prepareStatement}
+	 * calls. This avoids re-preparing the same statements on the server for every
+	 * execution, e.g. in batch jobs or test suites running against an embedded database.
+	 * <p><b>NOTE:</b> Cached statements keep database resources open until the
+	 * Connection gets closed. Statement-level settings other than fetch size,
+	 * max rows and query timeout make a statement non-reusable.
+	 * @since 5.3
+	 * @see #getStatementCacheHitCount()
+	 * @see #getStatementCacheMissCount()
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Return the number of PreparedStatements to cache per Connection.
+	 * @since 5.3
+	 */
+	public int getStatementCacheSize() {
+		return this.statementCacheSize;
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls served from a statement
+	 * cache, across all Connections obtained from this DataSource.
+	 * @since 5.3
+	 * @see #setStatementCacheSize
+	 */
+	public long getStatementCacheHitCount() {
+		return this.statementCacheHitCount.get();
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls that could not be served
+	 * from a statement cache, across all Connections obtained from this DataSource.
+	 * @since 5.3
+	 * @see #setStatementCacheSize
+	 */
+	public long getStatementCacheMissCount() {
+		return this.statementCacheMissCount.get();
+	}
+
 
 	/**
 	 * This implementation delegates to {@code getConnectionFromDriver},
@@ -209,6 +263,10 @@ public abstract class AbstractDriverBasedDataSource extends AbstractDataSource {
 		if (this.schema != null) {
 			con.setSchema(this.schema);
 		}
+		if (this.statementCacheSize > 0) {
+			con = StatementCachingInvocationHandler.createProxy(con, this.statementCacheSize,
+					this.statementCacheHitCount, this.statementCacheMissCount);
+		}
 		return con;
 	}
 
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+
+/**
+ * Invocation handler for a {@link ConnectionProxy} that keeps an LRU cache of
+ * {@link PreparedStatement PreparedStatements} per Connection, keyed by SQL and
+ * the result set and generated key options passed to {@code prepareStatement}.
+ *
+ * <p>Statements handed out are proxies as well: closing them returns the target
+ * statement to the cache after clearing its parameters and batch, closing the
+ * ResultSets obtained from it, and restoring fetch size, max rows and query
+ * timeout. Statements with other settings changed are closed for real.
+ * Closing the Connection closes all cached statements.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see AbstractDriverBasedDataSource#setStatementCacheSize
+ */
+final class StatementCachingInvocationHandler implements InvocationHandler {
+
+	private static final Log logger = LogFactory.getLog(StatementCachingInvocationHandler.class);
+
+	private final Connection target;
+
+	private final int cacheSize;
+
+	private final AtomicLong hitCount;
+
+	private final AtomicLong missCount;
+
+	/** Idle statements, in access order: the eldest entry is the least recently used. */
+	private final Map<StatementKey, PreparedStatement> idleStatements;
+
+
+	private StatementCachingInvocationHandler(Connection target, int cacheSize, AtomicLong hitCount,
+			AtomicLong missCount) {
+
+		this.target = target;
+		this.cacheSize = cacheSize;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.idleStatements = new LinkedHashMap<>(cacheSize, 0.75f, true);
+	}
+
+
+	/**
+	 * Wrap the given Connection with a statement-caching proxy.
+	 * @param target the target Connection
+	 * @param cacheSize the maximum number of idle statements to keep
+	 * @param hitCount the counter to increment for statements served from the cache
+	 * @param missCount the counter to increment for newly prepared statements
+	 * @return the Connection proxy
+	 */
+	static Connection createProxy(Connection target, int cacheSize, AtomicLong hitCount, AtomicLong missCount) {
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {ConnectionProxy.class},
+				new StatementCachingInvocationHandler(target, cacheSize, hitCount, missCount));
+	}
+
+
+	@Override
+	@Nullable
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		// Invocation on ConnectionProxy interface coming in...
+
+		switch (method.getName()) {
+			case "equals":
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0]);
+			case "hashCode":
+				// Use hashCode of Connection proxy.
+				return System.identityHashCode(proxy);
+			case "unwrap":
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+				break;
+			case "isWrapperFor":
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return true;
+				}
+				break;
+			case "getTargetConnection":
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.target;
+			case "prepareStatement":
+				return prepareStatement(proxy, method, args);
+			case "close":
+				closeIdleStatements();
+				break;
+		}
+
+		// Invoke method on target Connection.
+		try {
+			return method.invoke(this.target, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	private PreparedStatement prepareStatement(Object connectionProxy, Method method, Object[] args)
+			throws Throwable {
+
+		StatementKey key = new StatementKey(args);
+		PreparedStatement statement;
+		synchronized (this.idleStatements) {
+			statement = this.idleStatements.remove(key);
+		}
+		if (statement != null) {
+			this.hitCount.incrementAndGet();
+		}
+		else {
+			this.missCount.incrementAndGet();
+			try {
+				statement = (PreparedStatement) method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+		return (PreparedStatement) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {PreparedStatement.class},
+				new CachedStatementInvocationHandler(statement, key, connectionProxy));
+	}
+
+	private void returnStatement(StatementKey key, PreparedStatement statement) {
+		PreparedStatement evicted = null;
+		synchronized (this.idleStatements) {
+			PreparedStatement existing = this.idleStatements.putIfAbsent(key, statement);
+			if (existing != null) {
+				// Same statement in use twice: keep a single idle instance.
+				evicted = statement;
+			}
+			else if (this.idleStatements.size() > this.cacheSize) {
+				Iterator<PreparedStatement> it = this.idleStatements.values().iterator();
+				evicted = it.next();
+				it.remove();
+			}
+		}
+		if (evicted != null) {
+			JdbcUtils.closeStatement(evicted);
+		}
+	}
+
+	private void closeIdleStatements() {
+		List<PreparedStatement> statements;
+		synchronized (this.idleStatements) {
+			statements = new ArrayList<>(this.idleStatements.values());
+			this.idleStatements.clear();
+		}
+		for (PreparedStatement statement : statements) {
+			JdbcUtils.closeStatement(statement);
+		}
+	}
+
+
+	/**
+	 * Invocation handler for a PreparedStatement handed out from the cache.
+	 */
+	private class CachedStatementInvocationHandler implements InvocationHandler {
+
+		private final PreparedStatement target;
+
+		private final StatementKey key;
+
+		private final Object connectionProxy;
+
+		/** The last ResultSet returned: re-executing the statement closes previous ones. */
+		@Nullable
+		private ResultSet resultSet;
+
+		private boolean closed;
+
+		private boolean batchUsed;
+
+		private boolean reusable = true;
+
+		@Nullable
+		private Integer originalFetchSize;
+
+		@Nullable
+		private Integer originalMaxRows;
+
+		@Nullable
+		private Integer originalQueryTimeout;
+
+		CachedStatementInvocationHandler(PreparedStatement target, StatementKey key, Object connectionProxy) {
+			this.target = target;
+			this.key = key;
+			this.connectionProxy = connectionProxy;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals":
+					return (proxy == args[0]);
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Cached statement proxy for target statement [" + this.target + "]";
+				case "isClosed":
+					return (this.closed || this.target.isClosed());
+				case "close":
+					close();
+					return null;
+				case "getConnection":
+					return this.connectionProxy;
+			}
+
+			if (this.closed) {
+				throw new SQLException("Statement has been closed");
+			}
+			switch (method.getName()) {
+				case "setFetchSize":
+					if (this.originalFetchSize == null) {
+						this.originalFetchSize = this.target.getFetchSize();
+					}
+					break;
+				case "setMaxRows":
+					if (this.originalMaxRows == null) {
+						this.originalMaxRows = this.target.getMaxRows();
+					}
+					break;
+				case "setQueryTimeout":
+					if (this.originalQueryTimeout == null) {
+						this.originalQueryTimeout = this.target.getQueryTimeout();
+					}
+					break;
+				case "addBatch":
+					this.batchUsed = true;
+					break;
+				default:
+					if (method.getName().startsWith("set") && !method.getName().equals("setPoolable") &&
+							method.getParameterCount() == 1) {
+						// Other statement-level settings: do not hand this statement out again.
+						this.reusable = false;
+					}
+					else if (method.getName().equals("closeOnCompletion")) {
+						this.reusable = false;
+					}
+			}
+
+			Object result;
+			try {
+				result = method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+			if (result instanceof ResultSet) {
+				this.resultSet = (ResultSet) result;
+			}
+			return result;
+		}
+
+		private void close() throws SQLException {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			if (!this.reusable || this.target.isClosed()) {
+				this.target.close();
+				return;
+			}
+			try {
+				if (this.resultSet != null) {
+					this.resultSet.close();
+					this.resultSet = null;
+				}
+				this.target.clearParameters();
+				if (this.batchUsed) {
+					this.target.clearBatch();
+				}
+				if (this.originalFetchSize != null) {
+					this.target.setFetchSize(this.originalFetchSize);
+				}
+				if (this.originalMaxRows != null) {
+					this.target.setMaxRows(this.originalMaxRows);
+				}
+				if (this.originalQueryTimeout != null) {
+					this.target.setQueryTimeout(this.originalQueryTimeout);
+				}
+				this.target.clearWarnings();
+			}
+			catch (SQLException ex) {
+				logger.debug("Could not reset cached JDBC PreparedStatement - closing it", ex);
+				this.target.close();
+				return;
+			}
+			returnStatement(this.key, this.target);
+		}
+	}
+
+
+	/**
+	 * Cache key for a PreparedStatement: the arguments passed to
+	 * {@code prepareStatement}, i.e. the SQL plus any result set type,
+	 * concurrency, holdability and generated key options.
+	 */
+	private static final class StatementKey {
+
+		private final Object[] args;
+
+		private final int hashCode;
+
+		StatementKey(Object[] args) {
+			this.args = args;
+			this.hashCode = Arrays.deepHashCode(args);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other || (other instanceof StatementKey &&
+					Arrays.deepEquals(this.args, ((StatementKey) other).args)));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return "StatementKey " + Arrays.deepToString(this.args);
+		}
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * DataSource that routes read-only transactions to one of several replica
+ * DataSources and everything else to a primary DataSource, based on
+ * {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}.
+ *
+ * <p>Replicas are load-balanced by the number of Connections currently in use:
+ * each read-only Connection is obtained from the replica with the fewest
+ * Connections in flight. A replica that fails to provide a Connection is skipped
+ * for the {@link #setReplicaRetryInterval retry interval}, and the next replica
+ * is tried; if no replica is available, the primary DataSource is used instead.
+ * Subclasses may exclude replicas that are too far behind the primary by
+ * overriding {@link #isReplicaAvailable}, e.g. checking a replication delay
+ * reported by the database.
+ *
+ * <p>The read-only flag is only exposed once the transaction has begun, i.e.
+ * after the transaction manager has already obtained its Connection. This router
+ * therefore needs to be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * which in turn is passed to the transaction manager, deferring the routing
+ * decision until the first statement gets executed:
+ *
+ * <pre class="code">
+ * &lt;bean id="dataSource" class="org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy"&gt;
+ *   &lt;property name="targetDataSource"&gt;
+ *     &lt;bean class="org.springframework.jdbc.datasource.lookup.ReadWriteRoutingDataSource"&gt;
+ *       &lt;property name="primaryDataSource" ref="myPrimaryDataSource"/&gt;
+ *       &lt;property name="replicaDataSources"&gt;
+ *         &lt;list&gt;
+ *           &lt;ref bean="myReplicaDataSource1"/&gt;
+ *           &lt;ref bean="myReplicaDataSource2"/&gt;
+ *         &lt;/list&gt;
+ *       &lt;/property&gt;
+ *     &lt;/bean&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * As with {@link AbstractRoutingDataSource}, the configured values can also be
+ * data source names, to be resolved through a {@link #setDataSourceLookup DataSourceLookup}.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see #setPrimaryDataSource
+ * @see #setReplicaDataSources
+ * @see org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+ * @see org.springframework.transaction.annotation.Transactional#readOnly()
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(ReadWriteRoutingDataSource.class);
+
+
+	@Nullable
+	private Object primaryDataSource;
+
+	private List<Object> replicaDataSources = Collections.emptyList();
+
+	private long replicaRetryInterval = 30000;
+
+	private DataSourceLookup dataSourceLookup = new JndiDataSourceLookup();
+
+	@Nullable
+	private DataSource resolvedPrimaryDataSource;
+
+	private List<Replica> replicas = Collections.emptyList();
+
+
+	/**
+	 * Specify the primary DataSource, used for all work outside of read-only
+	 * transactions and as a fallback if no replica is available.
+	 * <p>The value may either be a DataSource instance or a data source name
+	 * (to be resolved via a {@link #setDataSourceLookup DataSourceLookup}).
+	 */
+	public void setPrimaryDataSource(Object primaryDataSource) {
+		this.primaryDataSource = primaryDataSource;
+	}
+
+	/**
+	 * Specify the replica DataSources to route read-only transactions to.
+	 * <p>The values may either be DataSource instances or data source names
+	 * (to be resolved via a {@link #setDataSourceLookup DataSourceLookup}).
+	 */
+	public void setReplicaDataSources(List<Object> replicaDataSources) {
+		Assert.notNull(replicaDataSources, "Replica DataSources must not be null");
+		this.replicaDataSources = replicaDataSources;
+	}
+
+	/**
+	 * Specify the number of milliseconds to skip a replica for after it failed
+	 * to provide a Connection. Default is 30000 (30 seconds).
+	 */
+	public void setReplicaRetryInterval(long replicaRetryInterval) {
+		Assert.isTrue(replicaRetryInterval >= 0, "Replica retry interval must not be negative");
+		this.replicaRetryInterval = replicaRetryInterval;
+	}
+
+	/**
+	 * Set the DataSourceLookup implementation to use for resolving data source
+	 * name Strings in the {@link #setPrimaryDataSource primary} and
+	 * {@link #setReplicaDataSources replica} DataSources.
+	 * <p>Default is a {@link JndiDataSourceLookup}, allowing the JNDI names
+	 * of application server DataSources to be specified directly.
+	 */
+	public void setDataSourceLookup(@Nullable DataSourceLookup dataSourceLookup) {
+		this.dataSourceLookup = (dataSourceLookup != null ? dataSourceLookup : new JndiDataSourceLookup());
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.primaryDataSource == null) {
+			throw new IllegalArgumentException("Property 'primaryDataSource' is required");
+		}
+		this.resolvedPrimaryDataSource = resolveSpecifiedDataSource(this.primaryDataSource);
+		List<Replica> replicas = new ArrayList<>(this.replicaDataSources.size());
+		for (Object replicaDataSource : this.replicaDataSources) {
+			replicas.add(new Replica(resolveSpecifiedDataSource(replicaDataSource)));
+		}
+		this.replicas = replicas;
+	}
+
+	/**
+	 * Resolve the specified data source object into a DataSource instance.
+	 * <p>The default implementation handles DataSource instances and data source
+	 * names (to be resolved via a {@link #setDataSourceLookup DataSourceLookup}).
+	 * @param dataSource the data source value object as specified in the
+	 * primary or replica DataSources
+	 * @return the resolved DataSource (never {@code null})
+	 * @throws IllegalArgumentException in case of an unsupported value type
+	 */
+	protected DataSource resolveSpecifiedDataSource(Object dataSource) throws IllegalArgumentException {
+		if (dataSource instanceof DataSource) {
+			return (DataSource) dataSource;
+		}
+		else if (dataSource instanceof String) {
+			return this.dataSourceLookup.getDataSource((String) dataSource);
+		}
+		else {
+			throw new IllegalArgumentException(
+					"Illegal data source value - only [javax.sql.DataSource] and String supported: " + dataSource);
+		}
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return doGetConnection(null, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return doGetConnection(username, password);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+		return obtainPrimaryDataSource().unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return (iface.isInstance(this) || obtainPrimaryDataSource().isWrapperFor(iface));
+	}
+
+	/**
+	 * Return the number of Connections currently obtained from each replica,
+	 * in the order of the {@link #setReplicaDataSources replica DataSources}.
+	 */
+	public int[] getReplicaConnectionsInFlight() {
+		List<Replica> replicas = this.replicas;
+		int[] inFlight = new int[replicas.size()];
+		for (int i = 0; i < inFlight.length; i++) {
+			inFlight[i] = replicas.get(i).inFlight.get();
+		}
+		return inFlight;
+	}
+
+	/**
+	 * Determine whether the current Connection request should be routed to a replica.
+	 * <p>The default implementation checks for a read-only transaction.
+	 * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+	 */
+	protected boolean isReadOnlyRequest() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * Determine whether the given replica may currently serve read-only requests.
+	 * <p>The default implementation returns {@code true}. Subclasses may override
+	 * this in order to exclude replicas which lag too far behind the primary.
+	 * @param replica the replica DataSource
+	 */
+	protected boolean isReplicaAvailable(DataSource replica) {
+		return true;
+	}
+
+	private Connection doGetConnection(@Nullable String username, @Nullable String password) throws SQLException {
+		DataSource primary = obtainPrimaryDataSource();
+		if (!this.replicas.isEmpty() && isReadOnlyRequest()) {
+			Connection con = getReplicaConnection(username, password);
+			if (con != null) {
+				return con;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("No replica available for read-only Connection - falling back to primary DataSource");
+			}
+		}
+		return getConnection(primary, username, password);
+	}
+
+	@Nullable
+	private Connection getReplicaConnection(@Nullable String username, @Nullable String password) {
+		long now = System.currentTimeMillis();
+		List<Replica> candidates = new ArrayList<>(this.replicas.size());
+		for (Replica replica : this.replicas) {
+			if (replica.retryTimestamp <= now && isReplicaAvailable(replica.dataSource)) {
+				candidates.add(replica);
+			}
+		}
+		candidates.sort(Comparator.comparingInt(replica -> replica.inFlight.get()));
+		for (Replica replica : candidates) {
+			replica.inFlight.incrementAndGet();
+			try {
+				Connection con = getConnection(replica.dataSource, username, password);
+				return (Connection) Proxy.newProxyInstance(
+						ConnectionProxy.class.getClassLoader(),
+						new Class<?>[] {ConnectionProxy.class},
+						new ReplicaConnectionInvocationHandler(con, replica));
+			}
+			catch (SQLException | RuntimeException ex) {
+				replica.inFlight.decrementAndGet();
+				replica.retryTimestamp = now + this.replicaRetryInterval;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Could not obtain Connection from replica DataSource [" + replica.dataSource +
+							"] - skipping it for " + this.replicaRetryInterval + " ms", ex);
+				}
+			}
+		}
+		return null;
+	}
+
+	private Connection getConnection(DataSource dataSource, @Nullable String username, @Nullable String password)
+			throws SQLException {
+
+		return (username != null ? dataSource.getConnection(username, password) : dataSource.getConnection());
+	}
+
+	private DataSource obtainPrimaryDataSource() {
+		DataSource primary = this.resolvedPrimaryDataSource;
+		Assert.state(primary != null, "DataSource router not initialized");
+		return primary;
+	}
+
+
+	/**
+	 * A replica DataSource along with its routing state.
+	 */
+	private static final class Replica {
+
+		final DataSource dataSource;
+
+		final AtomicInteger inFlight = new AtomicInteger();
+
+		volatile long retryTimestamp;
+
+		Replica(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+	}
+
+
+	/**
+	 * Invocation handler that keeps track of a replica Connection being in use.
+	 */
+	private static class ReplicaConnectionInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private final Replica replica;
+
+		private boolean closed;
+
+		ReplicaConnectionInvocationHandler(Connection target, Replica replica) {
+			this.target = target;
+			this.replica = replica;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					// Only consider equal when proxies are identical.
+					return (proxy == args[0]);
+				case "hashCode":
+					// Use hashCode of Connection proxy.
+					return System.identityHashCode(proxy);
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "getTargetConnection":
+					// Handle getTargetConnection method: return underlying Connection.
+					return this.target;
+				case "close":
+					// Handle close method: release the in-flight slot once.
+					if (!this.closed) {
+						this.closed = true;
+						this.replica.inFlight.decrementAndGet();
+					}
+					break;
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -50,6 +50,9 @@ public abstract class JdbcAccessor implements InitializingBean {
 
 	private boolean lazyInit = true;
 
+	@Nullable
+	private SqlExecutionObserver sqlExecutionObserver;
+
 
 	/**
 	 * Set the JDBC DataSource to obtain connections from.
@@ -150,6 +153,27 @@ public abstract class JdbcAccessor implements InitializingBean {
 		return this.lazyInit;
 	}
 
+	/**
+	 * Set an observer to be notified of each JDBC operation performed by this
+	 * accessor, along with timing details. Default is none.
+	 * <p>Without an observer, no timing information is collected at all.
+	 * @since 5.3
+	 * @see SqlExecution
+	 * @see SlowQueryAggregator
+	 */
+	public void setSqlExecutionObserver(@Nullable SqlExecutionObserver sqlExecutionObserver) {
+		this.sqlExecutionObserver = sqlExecutionObserver;
+	}
+
+	/**
+	 * Return the observer to notify of each JDBC operation, if any.
+	 * @since 5.3
+	 */
+	@Nullable
+	public SqlExecutionObserver getSqlExecutionObserver() {
+		return this.sqlExecutionObserver;
+	}
+
 	/**
 	 * Eagerly initialize the exception translator, if demanded,
 	 * creating a default one for the specified DataSource if none set.
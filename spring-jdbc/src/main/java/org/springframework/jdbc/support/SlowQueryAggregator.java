@@ -0,0 +1,336 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+
+/**
+ * {@link SqlExecutionObserver} that aggregates timing statistics per SQL statement
+ * in memory, exposing the statements with the highest total elapsed time.
+ *
+ * <p>Only executions taking at least the {@link #setSlowQueryThreshold threshold}
+ * are taken into account. The number of distinct statements tracked is limited;
+ * executions of further statements are only counted as dropped.
+ *
+ * <p>This class is annotated for export via Spring's
+ * {@link org.springframework.jmx.export.annotation.AnnotationMBeanExporter},
+ * providing a JMX view of the slowest statements.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see JdbcAccessor#setSqlExecutionObserver
+ */
+@ManagedResource(description = "Slowest SQL statements executed through JdbcTemplate")
+public class SlowQueryAggregator implements SqlExecutionObserver {
+
+	private volatile long slowQueryThreshold = 0;
+
+	private volatile int topQueryCount = 10;
+
+	private volatile int maxTrackedStatements = 1000;
+
+	private final Map<String, StatementStatistics> statistics = new ConcurrentHashMap<>();
+
+	private final LongAdder droppedCount = new LongAdder();
+
+
+	/**
+	 * Set the minimum elapsed time (in milliseconds) of an execution to be
+	 * taken into account. Default is 0, aggregating all executions.
+	 */
+	@ManagedAttribute(description = "Minimum elapsed time (ms) of an execution to be aggregated")
+	public void setSlowQueryThreshold(long slowQueryThreshold) {
+		Assert.isTrue(slowQueryThreshold >= 0, "Slow query threshold must not be negative");
+		this.slowQueryThreshold = slowQueryThreshold;
+	}
+
+	/**
+	 * Return the minimum elapsed time (in milliseconds) of an execution
+	 * to be taken into account.
+	 */
+	@ManagedAttribute(description = "Minimum elapsed time (ms) of an execution to be aggregated")
+	public long getSlowQueryThreshold() {
+		return this.slowQueryThreshold;
+	}
+
+	/**
+	 * Set the number of statements returned by {@link #getTopQueries()}.
+	 * Default is 10.
+	 */
+	@ManagedAttribute(description = "Number of statements to report")
+	public void setTopQueryCount(int topQueryCount) {
+		Assert.isTrue(topQueryCount > 0, "Top query count must be greater than 0");
+		this.topQueryCount = topQueryCount;
+	}
+
+	/**
+	 * Return the number of statements returned by {@link #getTopQueries()}.
+	 */
+	@ManagedAttribute(description = "Number of statements to report")
+	public int getTopQueryCount() {
+		return this.topQueryCount;
+	}
+
+	/**
+	 * Set the maximum number of distinct statements to keep statistics for.
+	 * Default is 1000.
+	 */
+	public void setMaxTrackedStatements(int maxTrackedStatements) {
+		Assert.isTrue(maxTrackedStatements > 0, "Max tracked statements must be greater than 0");
+		this.maxTrackedStatements = maxTrackedStatements;
+	}
+
+	/**
+	 * Return the maximum number of distinct statements to keep statistics for.
+	 */
+	public int getMaxTrackedStatements() {
+		return this.maxTrackedStatements;
+	}
+
+
+	@Override
+	public void afterExecution(SqlExecution execution) {
+		long totalNanos = execution.getTotalNanos();
+		if (totalNanos < TimeUnit.MILLISECONDS.toNanos(this.slowQueryThreshold)) {
+			return;
+		}
+		String sql = execution.getSql();
+		String key = (sql != null ? sql : "[" + execution.getTask() + "]");
+		StatementStatistics stats = this.statistics.get(key);
+		if (stats == null) {
+			if (this.statistics.size() >= this.maxTrackedStatements) {
+				this.droppedCount.increment();
+				return;
+			}
+			stats = this.statistics.computeIfAbsent(key, k -> new StatementStatistics());
+		}
+		stats.record(execution);
+	}
+
+	/**
+	 * Return statistics for the statements with the highest total elapsed time,
+	 * in descending order.
+	 * @see #setTopQueryCount
+	 */
+	public List<QueryStatistics> getTopQueries() {
+		List<QueryStatistics> result = new ArrayList<>(this.statistics.size());
+		this.statistics.forEach((sql, stats) -> result.add(stats.snapshot(sql)));
+		result.sort(Comparator.comparingLong((QueryStatistics stats) -> stats.totalNanos).reversed());
+		return (result.size() > this.topQueryCount ? result.subList(0, this.topQueryCount) : result);
+	}
+
+	/**
+	 * Return a readable summary line for each of the {@link #getTopQueries() top queries}.
+	 */
+	@ManagedAttribute(description = "Statements with the highest total elapsed time")
+	public String[] getTopQuerySummaries() {
+		List<QueryStatistics> topQueries = getTopQueries();
+		String[] summaries = new String[topQueries.size()];
+		for (int i = 0; i < summaries.length; i++) {
+			summaries[i] = topQueries.get(i).toString();
+		}
+		return summaries;
+	}
+
+	/**
+	 * Return the number of distinct statements currently tracked.
+	 */
+	@ManagedAttribute(description = "Number of distinct statements tracked")
+	public int getTrackedStatementCount() {
+		return this.statistics.size();
+	}
+
+	/**
+	 * Return the number of executions not aggregated because the maximum
+	 * number of tracked statements had been reached.
+	 */
+	@ManagedAttribute(description = "Number of executions dropped due to the tracked statement limit")
+	public long getDroppedExecutionCount() {
+		return this.droppedCount.sum();
+	}
+
+	/**
+	 * Discard all statistics collected so far.
+	 */
+	@ManagedOperation(description = "Discard all statistics collected so far")
+	public void reset() {
+		this.statistics.clear();
+		this.droppedCount.reset();
+	}
+
+
+	/**
+	 * Mutable statistics for a single statement.
+	 */
+	private static final class StatementStatistics {
+
+		private final LongAdder executionCount = new LongAdder();
+
+		private final LongAdder failureCount = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		private final LongAdder connectionAcquisitionNanos = new LongAdder();
+
+		private final LongAdder resultProcessingNanos = new LongAdder();
+
+		private final LongAdder rowCount = new LongAdder();
+
+		void record(SqlExecution execution) {
+			this.executionCount.increment();
+			if (!execution.isSuccessful()) {
+				this.failureCount.increment();
+			}
+			this.totalNanos.add(execution.getTotalNanos());
+			this.maxNanos.accumulateAndGet(execution.getTotalNanos(), Math::max);
+			this.connectionAcquisitionNanos.add(execution.getConnectionAcquisitionNanos());
+			this.resultProcessingNanos.add(execution.getResultProcessingNanos());
+			long rows = Math.max(execution.getRowsAffected(), execution.getRowsReturned());
+			if (rows > 0) {
+				this.rowCount.add(rows);
+			}
+		}
+
+		QueryStatistics snapshot(String sql) {
+			return new QueryStatistics(sql, this.executionCount.sum(), this.failureCount.sum(),
+					this.totalNanos.sum(), this.maxNanos.get(), this.connectionAcquisitionNanos.sum(),
+					this.resultProcessingNanos.sum(), this.rowCount.sum());
+		}
+	}
+
+
+	/**
+	 * Snapshot of the statistics for a single SQL statement.
+	 */
+	public static final class QueryStatistics {
+
+		private final String sql;
+
+		private final long executionCount;
+
+		private final long failureCount;
+
+		private final long totalNanos;
+
+		private final long maxNanos;
+
+		private final long connectionAcquisitionNanos;
+
+		private final long resultProcessingNanos;
+
+		private final long rowCount;
+
+		QueryStatistics(String sql, long executionCount, long failureCount, long totalNanos, long maxNanos,
+				long connectionAcquisitionNanos, long resultProcessingNanos, long rowCount) {
+
+			this.sql = sql;
+			this.executionCount = executionCount;
+			this.failureCount = failureCount;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.connectionAcquisitionNanos = connectionAcquisitionNanos;
+			this.resultProcessingNanos = resultProcessingNanos;
+			this.rowCount = rowCount;
+		}
+
+		/**
+		 * Return the SQL statement, or the task in square brackets if not known.
+		 */
+		public String getSql() {
+			return this.sql;
+		}
+
+		/**
+		 * Return the number of aggregated executions.
+		 */
+		public long getExecutionCount() {
+			return this.executionCount;
+		}
+
+		/**
+		 * Return the number of aggregated executions that failed.
+		 */
+		public long getFailureCount() {
+			return this.failureCount;
+		}
+
+		/**
+		 * Return the total elapsed time of all executions in milliseconds.
+		 */
+		public long getTotalTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(this.totalNanos);
+		}
+
+		/**
+		 * Return the longest elapsed time of a single execution in milliseconds.
+		 */
+		public long getMaxTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(this.maxNanos);
+		}
+
+		/**
+		 * Return the average elapsed time of an execution in milliseconds.
+		 */
+		public long getAverageTimeMillis() {
+			return (this.executionCount > 0 ? getTotalTimeMillis() / this.executionCount : 0);
+		}
+
+		/**
+		 * Return the total time spent obtaining Connections in milliseconds.
+		 */
+		public long getConnectionAcquisitionTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(this.connectionAcquisitionNanos);
+		}
+
+		/**
+		 * Return the total time spent processing results in milliseconds.
+		 */
+		public long getResultProcessingTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(this.resultProcessingNanos);
+		}
+
+		/**
+		 * Return the total number of rows affected or returned, as far as known.
+		 */
+		public long getRowCount() {
+			return this.rowCount;
+		}
+
+		@Override
+		public String toString() {
+			return "[" + this.sql + "] executions=" + this.executionCount + ", failures=" + this.failureCount +
+					", total=" + getTotalTimeMillis() + "ms, max=" + getMaxTimeMillis() +
+					"ms, avg=" + getAverageTimeMillis() + "ms, connection=" + getConnectionAcquisitionTimeMillis() +
+					"ms, results=" + getResultProcessingTimeMillis() + "ms, rows=" + this.rowCount;
+		}
+	}
+
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Details of a single JDBC operation, as passed to a {@link SqlExecutionObserver}.
+ *
+ * <p>The elapsed time is split into phases, each measured in nanoseconds:
+ * obtaining the Connection, creating the Statement, executing it (including
+ * the binding of parameters), and processing its results. Phases that do not
+ * apply to an operation, or that are not visible to the executing template
+ * (e.g. within a user-provided callback), are reported as 0.
+ *
+ * <p>The {@code record...} methods are meant to be called by the executing
+ * template only; observers should treat instances as read-only.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see SqlExecutionObserver
+ */
+public class SqlExecution {
+
+	private final String task;
+
+	@Nullable
+	private final String sql;
+
+	private final long startTime;
+
+	private long lastMark;
+
+	private long connectionAcquisitionNanos;
+
+	private long statementCreationNanos;
+
+	private long executionNanos;
+
+	private long resultProcessingNanos;
+
+	private long totalNanos;
+
+	private int bindCount = -1;
+
+	private long rowsAffected = -1;
+
+	private long rowsReturned = -1;
+
+	private boolean successful;
+
+	@Nullable
+	private Throwable failure;
+
+
+	/**
+	 * Create a new SqlExecution, starting the clock.
+	 * @param task readable text describing the operation, e.g. "PreparedStatementCallback"
+	 * @param sql the SQL statement (may be {@code null} if not known)
+	 */
+	public SqlExecution(String task, @Nullable String sql) {
+		this.task = task;
+		this.sql = sql;
+		this.startTime = System.nanoTime();
+		this.lastMark = this.startTime;
+	}
+
+
+	/**
+	 * Return readable text describing the operation.
+	 */
+	public String getTask() {
+		return this.task;
+	}
+
+	/**
+	 * Return the SQL statement, or {@code null} if not known.
+	 */
+	@Nullable
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Return the number of nanoseconds spent obtaining the Connection.
+	 */
+	public long getConnectionAcquisitionNanos() {
+		return this.connectionAcquisitionNanos;
+	}
+
+	/**
+	 * Return the number of nanoseconds spent creating the Statement,
+	 * including the application of statement settings.
+	 */
+	public long getStatementCreationNanos() {
+		return this.statementCreationNanos;
+	}
+
+	/**
+	 * Return the number of nanoseconds spent executing the Statement,
+	 * including the binding of parameters.
+	 */
+	public long getExecutionNanos() {
+		return this.executionNanos;
+	}
+
+	/**
+	 * Return the number of nanoseconds spent processing the results,
+	 * i.e. fetching and extracting the ResultSet.
+	 */
+	public long getResultProcessingNanos() {
+		return this.resultProcessingNanos;
+	}
+
+	/**
+	 * Return the total number of nanoseconds of the operation,
+	 * including the release of its resources.
+	 */
+	public long getTotalNanos() {
+		return this.totalNanos;
+	}
+
+	/**
+	 * Return the number of bind parameters, or -1 if not known.
+	 */
+	public int getBindCount() {
+		return this.bindCount;
+	}
+
+	/**
+	 * Return the number of rows affected by an update, or -1 if not known
+	 * or not applicable.
+	 */
+	public long getRowsAffected() {
+		return this.rowsAffected;
+	}
+
+	/**
+	 * Return the number of rows returned by a query, or -1 if not known
+	 * or not applicable.
+	 */
+	public long getRowsReturned() {
+		return this.rowsReturned;
+	}
+
+	/**
+	 * Return whether the operation completed without an exception.
+	 */
+	public boolean isSuccessful() {
+		return this.successful;
+	}
+
+	/**
+	 * Return the SQLException that made the operation fail, if any.
+	 * Other exceptions are only reflected in {@link #isSuccessful()}.
+	 */
+	@Nullable
+	public Throwable getFailure() {
+		return this.failure;
+	}
+
+
+	/**
+	 * Record that the Connection has been obtained.
+	 */
+	public void recordConnectionAcquired() {
+		this.connectionAcquisitionNanos += mark();
+	}
+
+	/**
+	 * Record that the Statement has been created.
+	 */
+	public void recordStatementCreated() {
+		this.statementCreationNanos += mark();
+	}
+
+	/**
+	 * Record that the Statement has been executed.
+	 */
+	public void recordExecuted() {
+		this.executionNanos += mark();
+	}
+
+	/**
+	 * Record that the results have been processed.
+	 */
+	public void recordResultProcessed() {
+		this.resultProcessingNanos += mark();
+	}
+
+	/**
+	 * Record the number of bind parameters.
+	 */
+	public void setBindCount(int bindCount) {
+		this.bindCount = bindCount;
+	}
+
+	/**
+	 * Record the number of rows affected by an update.
+	 */
+	public void setRowsAffected(long rowsAffected) {
+		this.rowsAffected = rowsAffected;
+	}
+
+	/**
+	 * Record the number of rows returned by a query.
+	 */
+	public void setRowsReturned(long rowsReturned) {
+		this.rowsReturned = rowsReturned;
+	}
+
+	/**
+	 * Record that the operation completed without an exception.
+	 */
+	public void recordSuccess() {
+		this.successful = true;
+	}
+
+	/**
+	 * Record the SQLException that made the operation fail.
+	 */
+	public void recordFailure(Throwable failure) {
+		this.failure = failure;
+		this.successful = false;
+	}
+
+	/**
+	 * Record the completion of the operation, stopping the clock.
+	 */
+	public void recordCompletion() {
+		this.totalNanos = System.nanoTime() - this.startTime;
+	}
+
+	private long mark() {
+		long now = System.nanoTime();
+		long elapsed = now - this.lastMark;
+		this.lastMark = now;
+		return elapsed;
+	}
+
+
+	@Override
+	public String toString() {
+		return "SqlExecution [" + this.task + (this.sql != null ? ": " + this.sql : "") +
+				"] total=" + this.totalNanos + "ns, connection=" + this.connectionAcquisitionNanos +
+				"ns, statement=" + this.statementCreationNanos + "ns, execution=" + this.executionNanos +
+				"ns, results=" + this.resultProcessingNanos + "ns" + (this.successful ? "" : " (failed)");
+	}
+
+}
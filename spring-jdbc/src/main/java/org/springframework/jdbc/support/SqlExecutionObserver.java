@@ -0,0 +1,52 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support;
+
+/**
+ * Callback interface for observing the JDBC operations performed by a
+ * {@link JdbcAccessor}, e.g. for collecting timing statistics.
+ *
+ * <p>Observers are invoked synchronously in the thread performing the
+ * JDBC operation, so implementations need to be thread-safe and should
+ * return quickly. Exceptions thrown by an observer are logged and do not
+ * affect the JDBC operation.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see JdbcAccessor#setSqlExecutionObserver
+ * @see SqlExecution
+ * @see SlowQueryAggregator
+ */
+@FunctionalInterface
+public interface SqlExecutionObserver {
+
+	/**
+	 * Called before a JDBC operation obtains its Connection.
+	 * <p>The default implementation is empty.
+	 * @param execution the execution about to start, with SQL and task set
+	 */
+	default void beforeExecution(SqlExecution execution) {
+	}
+
+	/**
+	 * Called after a JDBC operation has completed, successfully or not,
+	 * and its resources have been released.
+	 * @param execution the completed execution, with all timings set
+	 */
+	void afterExecution(SqlExecution execution);
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.incrementer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataFieldMaxValueIncrementer} that obtains blocks of values from
+ * a target incrementer and hands them out without further database access,
+ * using an atomic counter per block.
+ *
+ * <p>Two ways of deriving a block from a target value are supported:
+ * <ul>
+ * <li><b>pooled</b> (the default): the target value is the first value of the
+ * block, i.e. a block covers {@code [value, value + blockSize)}. This requires
+ * a target sequence with an increment of {@code blockSize}, e.g.
+ * {@code CREATE SEQUENCE my_seq INCREMENT BY 50}, and keeps the sequence value
+ * aligned with the values actually handed out.
+ * <li><b>hi/lo</b>: the target value is multiplied by the block size, i.e. a
+ * block covers {@code [value * blockSize, (value + 1) * blockSize)}. This works
+ * with any target incrementer returning unique values, including the column-based
+ * incrementers, at the expense of values that no longer match the sequence.
+ * </ul>
+ *
+ * <p>If a {@link #setPrefetchExecutor prefetch executor} is specified, the next
+ * block is fetched asynchronously once half of the current block has been handed
+ * out, so that callers do not have to wait for the database when the current
+ * block is exhausted. Note that a prefetched block is fetched outside of any
+ * transaction of the calling thread.
+ *
+ * <p>Values of a block that has not been fully handed out on shutdown are lost,
+ * as with any block-allocating key generation strategy.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see AbstractSequenceMaxValueIncrementer
+ */
+public class PooledMaxValueIncrementer implements DataFieldMaxValueIncrementer, InitializingBean {
+
+	private static final Log logger = LogFactory.getLog(PooledMaxValueIncrementer.class);
+
+	private static final Block EXHAUSTED = new Block(0, 0, 0);
+
+
+	@Nullable
+	private DataFieldMaxValueIncrementer targetIncrementer;
+
+	private int blockSize = 1;
+
+	private boolean hiLo = false;
+
+	@Nullable
+	private Executor prefetchExecutor;
+
+	/** The length to which a string result should be pre-pended with zeroes. */
+	private int paddingLength = 0;
+
+	private final AtomicReference<Block> currentBlock = new AtomicReference<>(EXHAUSTED);
+
+	private final AtomicReference<CompletableFuture<Block>> nextBlock = new AtomicReference<>();
+
+	/** Synchronization monitor for switching to the next block. */
+	private final Object blockMonitor = new Object();
+
+
+	/**
+	 * Default constructor for bean property style usage.
+	 * @see #setTargetIncrementer
+	 * @see #setBlockSize
+	 */
+	public PooledMaxValueIncrementer() {
+	}
+
+	/**
+	 * Convenience constructor.
+	 * @param targetIncrementer the incrementer to obtain blocks from
+	 * @param blockSize the number of values per block
+	 */
+	public PooledMaxValueIncrementer(DataFieldMaxValueIncrementer targetIncrementer, int blockSize) {
+		setTargetIncrementer(targetIncrementer);
+		setBlockSize(blockSize);
+	}
+
+
+	/**
+	 * Set the incrementer to obtain blocks from, typically a sequence-based
+	 * incrementer such as {@link PostgresSequenceMaxValueIncrementer}.
+	 */
+	public void setTargetIncrementer(DataFieldMaxValueIncrementer targetIncrementer) {
+		Assert.notNull(targetIncrementer, "Target incrementer must not be null");
+		this.targetIncrementer = targetIncrementer;
+	}
+
+	/**
+	 * Return the incrementer to obtain blocks from.
+	 */
+	@Nullable
+	public DataFieldMaxValueIncrementer getTargetIncrementer() {
+		return this.targetIncrementer;
+	}
+
+	/**
+	 * Set the number of values per block. For the default pooled strategy,
+	 * this needs to match the increment of the target sequence.
+	 */
+	public void setBlockSize(int blockSize) {
+		Assert.isTrue(blockSize > 0, "Block size must be greater than 0");
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Return the number of values per block.
+	 */
+	public int getBlockSize() {
+		return this.blockSize;
+	}
+
+	/**
+	 * Set whether to use the hi/lo strategy, multiplying each target value by
+	 * the block size, rather than treating it as the first value of a block.
+	 * Default is "false".
+	 */
+	public void setHiLo(boolean hiLo) {
+		this.hiLo = hiLo;
+	}
+
+	/**
+	 * Return whether the hi/lo strategy is used.
+	 */
+	public boolean isHiLo() {
+		return this.hiLo;
+	}
+
+	/**
+	 * Set the executor to fetch the next block with once half of the current
+	 * block has been handed out. Default is none, fetching the next block in the
+	 * calling thread once the current block is exhausted.
+	 */
+	public void setPrefetchExecutor(@Nullable Executor prefetchExecutor) {
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	/**
+	 * Return the executor to prefetch blocks with, if any.
+	 */
+	@Nullable
+	public Executor getPrefetchExecutor() {
+		return this.prefetchExecutor;
+	}
+
+	/**
+	 * Set the padding length, i.e. the length to which a string result
+	 * should be pre-pended with zeroes.
+	 */
+	public void setPaddingLength(int paddingLength) {
+		this.paddingLength = paddingLength;
+	}
+
+	/**
+	 * Return the padding length for String values.
+	 */
+	public int getPaddingLength() {
+		return this.paddingLength;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.targetIncrementer == null) {
+			throw new IllegalArgumentException("Property 'targetIncrementer' is required");
+		}
+	}
+
+
+	@Override
+	public int nextIntValue() throws DataAccessException {
+		return (int) nextLongValue();
+	}
+
+	@Override
+	public long nextLongValue() throws DataAccessException {
+		while (true) {
+			Block block = this.currentBlock.get();
+			long value = block.next.getAndIncrement();
+			if (value < block.end) {
+				if (value == block.prefetchValue) {
+					prefetchNextBlock();
+				}
+				return value;
+			}
+			synchronized (this.blockMonitor) {
+				if (this.currentBlock.get() == block) {
+					this.currentBlock.set(obtainNextBlock());
+				}
+			}
+		}
+	}
+
+	@Override
+	public String nextStringValue() throws DataAccessException {
+		String s = Long.toString(nextLongValue());
+		int len = s.length();
+		if (len < this.paddingLength) {
+			StringBuilder sb = new StringBuilder(this.paddingLength);
+			for (int i = 0; i < this.paddingLength - len; i++) {
+				sb.append('0');
+			}
+			sb.append(s);
+			s = sb.toString();
+		}
+		return s;
+	}
+
+
+	private void prefetchNextBlock() {
+		Executor executor = this.prefetchExecutor;
+		if (executor == null) {
+			return;
+		}
+		CompletableFuture<Block> future = new CompletableFuture<>();
+		if (this.nextBlock.compareAndSet(null, future)) {
+			try {
+				executor.execute(() -> {
+					try {
+						future.complete(fetchBlock());
+					}
+					catch (Throwable ex) {
+						future.completeExceptionally(ex);
+					}
+				});
+			}
+			catch (RuntimeException ex) {
+				future.completeExceptionally(ex);
+			}
+		}
+	}
+
+	private Block obtainNextBlock() {
+		CompletableFuture<Block> future = this.nextBlock.getAndSet(null);
+		if (future != null) {
+			try {
+				return future.join();
+			}
+			catch (CompletionException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Prefetching of next block failed - fetching it synchronously", ex.getCause());
+				}
+			}
+		}
+		return fetchBlock();
+	}
+
+	private Block fetchBlock() {
+		DataFieldMaxValueIncrementer target = this.targetIncrementer;
+		Assert.state(target != null, "No target incrementer set");
+		long value = target.nextLongValue();
+		long start = (this.hiLo ? value * this.blockSize : value);
+		if (logger.isTraceEnabled()) {
+			logger.trace("Obtained block of " + this.blockSize + " values starting at " + start);
+		}
+		return new Block(start, start + this.blockSize, start + this.blockSize / 2);
+	}
+
+
+	/**
+	 * A block of values, handed out via an atomic counter.
+	 */
+	private static final class Block {
+
+		final AtomicLong next;
+
+		final long end;
+
+		final long prefetchValue;
+
+		Block(long start, long end, long prefetchValue) {
+			this.next = new AtomicLong(start);
+			this.end = end;
+			this.prefetchValue = prefetchValue;
+		}
+	}
+
+}
@@ -0,0 +1,1150 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.rowset.RowSetMetaDataImpl;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+/**
+ * Spring-native {@link SqlRowSet} implementation that reads all rows of a given
+ * {@link ResultSet} into memory, storing each column in a single array instead
+ * of keeping a boxed object per value as a {@code javax.sql.rowset.CachedRowSet} does.
+ *
+ * <p>The storage of a column is chosen based on the values returned by
+ * {@link ResultSet#getObject(int)}: {@code Integer}, {@code Long}, {@code Double}
+ * and {@code Boolean} values are kept in primitive arrays, {@code BigDecimal}
+ * values as unscaled {@code long} value plus scale, {@code Timestamp} values as
+ * epoch milliseconds plus nanoseconds, {@code java.sql.Date} and {@code Time}
+ * values as epoch milliseconds, {@code String} values are dictionary-encoded,
+ * and any other values are kept as objects. Null values
+ * are tracked in a bit set per column. A column with values of different types
+ * is kept as objects, so {@link #getObject(int)} always returns what the
+ * JDBC driver returned.
+ *
+ * <p>The typed getters apply the common conversions between numbers, booleans,
+ * strings and date/time values; an unsupported conversion results in an
+ * {@link InvalidResultSetAccessException}. Column labels are resolved in a
+ * case-insensitive fashion, with the first matching column winning.
+ *
+ * <p>This row set is read-only and can be navigated freely, as it is backed by
+ * arrays. It is serializable as long as all object values are serializable.
+ * It can be used with {@link org.springframework.jdbc.core.JdbcTemplate} through a
+ * {@link org.springframework.jdbc.core.ColumnarSqlRowSetResultSetExtractor}.
+ *
+ * @author Juergen Hoeller
+ * @since 5.3
+ * @see ResultSetWrappingSqlRowSet
+ * @see org.springframework.jdbc.core.ColumnarSqlRowSetResultSetExtractor
+ */
+public class ColumnarSqlRowSet implements SqlRowSet {
+
+	private static final long serialVersionUID = 2624937408562129549L;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+
+	private final RowSetMetaDataImpl metaData;
+
+	private final Map<String, Integer> columnLabelMap;
+
+	private final Column[] columns;
+
+	private final BitSet[] nulls;
+
+	private final int rowCount;
+
+	@Nullable
+	private transient SqlRowSetMetaData rowSetMetaData;
+
+	private int cursor;
+
+	private boolean wasNull;
+
+
+	/**
+	 * Create a new ColumnarSqlRowSet, reading all remaining rows of the given ResultSet.
+	 * <p>The ResultSet is not closed by this constructor.
+	 * @param resultSet the ResultSet to read (connected)
+	 * @throws InvalidResultSetAccessException if reading the ResultSet failed
+	 */
+	public ColumnarSqlRowSet(ResultSet resultSet) throws InvalidResultSetAccessException {
+		try {
+			ResultSetMetaData rsmd = resultSet.getMetaData();
+			int columnCount = rsmd.getColumnCount();
+			this.metaData = copyMetaData(rsmd);
+			this.columnLabelMap = new LinkedCaseInsensitiveMap<>(columnCount);
+			for (int i = 1; i <= columnCount; i++) {
+				// Make sure to preserve first matching column for any given name,
+				// as defined in ResultSet's type-level javadoc (lines 81 to 83).
+				this.columnLabelMap.putIfAbsent(rsmd.getColumnLabel(i), i);
+			}
+			this.columns = new Column[columnCount];
+			this.nulls = new BitSet[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				this.nulls[i] = new BitSet();
+			}
+			int row = 0;
+			while (resultSet.next()) {
+				for (int i = 0; i < columnCount; i++) {
+					Object value = resultSet.getObject(i + 1);
+					if (value == null) {
+						this.nulls[i].set(row);
+					}
+					else {
+						addValue(i, row, value);
+					}
+				}
+				row++;
+			}
+			this.rowCount = row;
+			for (Column column : this.columns) {
+				if (column != null) {
+					column.trim(row);
+				}
+			}
+		}
+		catch (SQLException ex) {
+			throw new InvalidResultSetAccessException(ex);
+		}
+	}
+
+	private static RowSetMetaDataImpl copyMetaData(ResultSetMetaData rsmd) throws SQLException {
+		int columnCount = rsmd.getColumnCount();
+		RowSetMetaDataImpl copy = new RowSetMetaDataImpl();
+		copy.setColumnCount(columnCount);
+		for (int i = 1; i <= columnCount; i++) {
+			copy.setAutoIncrement(i, rsmd.isAutoIncrement(i));
+			copy.setCaseSensitive(i, rsmd.isCaseSensitive(i));
+			copy.setCurrency(i, rsmd.isCurrency(i));
+			copy.setNullable(i, rsmd.isNullable(i));
+			copy.setSigned(i, rsmd.isSigned(i));
+			copy.setSearchable(i, rsmd.isSearchable(i));
+			copy.setColumnDisplaySize(i, Math.max(rsmd.getColumnDisplaySize(i), 0));
+			copy.setColumnLabel(i, rsmd.getColumnLabel(i));
+			copy.setColumnName(i, rsmd.getColumnName(i));
+			copy.setSchemaName(i, rsmd.getSchemaName(i));
+			copy.setPrecision(i, Math.max(rsmd.getPrecision(i), 0));
+			copy.setScale(i, Math.max(rsmd.getScale(i), 0));
+			copy.setTableName(i, rsmd.getTableName(i));
+			copy.setCatalogName(i, rsmd.getCatalogName(i));
+			copy.setColumnType(i, rsmd.getColumnType(i));
+			copy.setColumnTypeName(i, rsmd.getColumnTypeName(i));
+		}
+		return copy;
+	}
+
+	private void addValue(int columnIndex, int row, Object value) {
+		Column column = this.columns[columnIndex];
+		if (column == null) {
+			column = Column.forValue(value);
+			this.columns[columnIndex] = column;
+		}
+		if (!column.add(row, value)) {
+			// Mixed value types: fall back to keeping objects for this column.
+			column = column.toObjectColumn(row, this.nulls[columnIndex]);
+			this.columns[columnIndex] = column;
+			column.add(row, value);
+		}
+	}
+
+
+	/**
+	 * Return the number of rows in this row set.
+	 */
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	@Override
+	public SqlRowSetMetaData getMetaData() {
+		SqlRowSetMetaData rowSetMetaData = this.rowSetMetaData;
+		if (rowSetMetaData == null) {
+			rowSetMetaData = new ResultSetWrappingSqlRowSetMetaData(this.metaData);
+			this.rowSetMetaData = rowSetMetaData;
+		}
+		return rowSetMetaData;
+	}
+
+	@Override
+	public int findColumn(String columnLabel) throws InvalidResultSetAccessException {
+		Integer columnIndex = this.columnLabelMap.get(columnLabel);
+		if (columnIndex == null) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid column label: " + columnLabel));
+		}
+		return columnIndex;
+	}
+
+
+	// RowSet methods for extracting data values
+
+	@Override
+	@Nullable
+	public BigDecimal getBigDecimal(int columnIndex) throws InvalidResultSetAccessException {
+		Object value = getObject(columnIndex);
+		if (value == null || value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		else if (value instanceof Long || value instanceof Integer || value instanceof Short ||
+				value instanceof Byte) {
+			return BigDecimal.valueOf(((Number) value).longValue());
+		}
+		else if (value instanceof Number || value instanceof String) {
+			try {
+				return new BigDecimal(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, BigDecimal.class);
+			}
+		}
+		else if (value instanceof Boolean) {
+			return ((Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO);
+		}
+		throw conversionFailure(value, BigDecimal.class);
+	}
+
+	@Override
+	@Nullable
+	public BigDecimal getBigDecimal(String columnLabel) throws InvalidResultSetAccessException {
+		return getBigDecimal(findColumn(columnLabel));
+	}
+
+	@Override
+	public boolean getBoolean(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 && this.columns[columnIndex - 1].getBoolean(row));
+	}
+
+	@Override
+	public boolean getBoolean(String columnLabel) throws InvalidResultSetAccessException {
+		return getBoolean(findColumn(columnLabel));
+	}
+
+	@Override
+	public byte getByte(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? (byte) this.columns[columnIndex - 1].getLong(row) : 0);
+	}
+
+	@Override
+	public byte getByte(String columnLabel) throws InvalidResultSetAccessException {
+		return getByte(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(int columnIndex) throws InvalidResultSetAccessException {
+		Object value = getObject(columnIndex);
+		if (value == null || value instanceof Date) {
+			return (Date) value;
+		}
+		return new Date(toDate(value, Date.class).getTime());
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(String columnLabel) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Date value = getDate(columnIndex);
+		return (value != null ? new Date(adjustToCalendar(value, cal)) : null);
+	}
+
+	@Override
+	@Nullable
+	public Date getDate(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnLabel), cal);
+	}
+
+	@Override
+	public double getDouble(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? this.columns[columnIndex - 1].getDouble(row) : 0);
+	}
+
+	@Override
+	public double getDouble(String columnLabel) throws InvalidResultSetAccessException {
+		return getDouble(findColumn(columnLabel));
+	}
+
+	@Override
+	public float getFloat(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? (float) this.columns[columnIndex - 1].getDouble(row) : 0);
+	}
+
+	@Override
+	public float getFloat(String columnLabel) throws InvalidResultSetAccessException {
+		return getFloat(findColumn(columnLabel));
+	}
+
+	@Override
+	public int getInt(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? (int) this.columns[columnIndex - 1].getLong(row) : 0);
+	}
+
+	@Override
+	public int getInt(String columnLabel) throws InvalidResultSetAccessException {
+		return getInt(findColumn(columnLabel));
+	}
+
+	@Override
+	public long getLong(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? this.columns[columnIndex - 1].getLong(row) : 0);
+	}
+
+	@Override
+	public long getLong(String columnLabel) throws InvalidResultSetAccessException {
+		return getLong(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public String getNString(int columnIndex) throws InvalidResultSetAccessException {
+		return getString(columnIndex);
+	}
+
+	@Override
+	@Nullable
+	public String getNString(String columnLabel) throws InvalidResultSetAccessException {
+		return getString(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Object getObject(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? this.columns[columnIndex - 1].getObject(row) : null);
+	}
+
+	@Override
+	@Nullable
+	public Object getObject(String columnLabel) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel));
+	}
+
+	/**
+	 * This implementation ignores the given type map, since all values have
+	 * already been materialized when reading the ResultSet.
+	 */
+	@Override
+	@Nullable
+	public Object getObject(int columnIndex, Map<String, Class<?>> map) throws InvalidResultSetAccessException {
+		return getObject(columnIndex);
+	}
+
+	/**
+	 * This implementation ignores the given type map, since all values have
+	 * already been materialized when reading the ResultSet.
+	 */
+	@Override
+	@Nullable
+	public Object getObject(String columnLabel, Map<String, Class<?>> map) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T getObject(int columnIndex, Class<T> type) throws InvalidResultSetAccessException {
+		Object value = getObject(columnIndex);
+		if (value == null || type.isInstance(value)) {
+			return (T) value;
+		}
+		else if (type == String.class) {
+			return (T) getString(columnIndex);
+		}
+		else if (type == Integer.class) {
+			return (T) Integer.valueOf(getInt(columnIndex));
+		}
+		else if (type == Long.class) {
+			return (T) Long.valueOf(getLong(columnIndex));
+		}
+		else if (type == Double.class) {
+			return (T) Double.valueOf(getDouble(columnIndex));
+		}
+		else if (type == Float.class) {
+			return (T) Float.valueOf(getFloat(columnIndex));
+		}
+		else if (type == Short.class) {
+			return (T) Short.valueOf(getShort(columnIndex));
+		}
+		else if (type == Byte.class) {
+			return (T) Byte.valueOf(getByte(columnIndex));
+		}
+		else if (type == Boolean.class) {
+			return (T) Boolean.valueOf(getBoolean(columnIndex));
+		}
+		else if (type == BigDecimal.class) {
+			return (T) getBigDecimal(columnIndex);
+		}
+		else if (type == Date.class) {
+			return (T) getDate(columnIndex);
+		}
+		else if (type == Time.class) {
+			return (T) getTime(columnIndex);
+		}
+		else if (type == Timestamp.class) {
+			return (T) getTimestamp(columnIndex);
+		}
+		throw conversionFailure(value, type);
+	}
+
+	@Override
+	@Nullable
+	public <T> T getObject(String columnLabel, Class<T> type) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel), type);
+	}
+
+	@Override
+	public short getShort(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? (short) this.columns[columnIndex - 1].getLong(row) : 0);
+	}
+
+	@Override
+	public short getShort(String columnLabel) throws InvalidResultSetAccessException {
+		return getShort(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public String getString(int columnIndex) throws InvalidResultSetAccessException {
+		int row = currentRow(columnIndex);
+		return (row >= 0 ? this.columns[columnIndex - 1].getString(row) : null);
+	}
+
+	@Override
+	@Nullable
+	public String getString(String columnLabel) throws InvalidResultSetAccessException {
+		return getString(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(int columnIndex) throws InvalidResultSetAccessException {
+		Object value = getObject(columnIndex);
+		if (value == null || value instanceof Time) {
+			return (Time) value;
+		}
+		return new Time(toDate(value, Time.class).getTime());
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(String columnLabel) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Time value = getTime(columnIndex);
+		return (value != null ? new Time(adjustToCalendar(value, cal)) : null);
+	}
+
+	@Override
+	@Nullable
+	public Time getTime(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnLabel), cal);
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(int columnIndex) throws InvalidResultSetAccessException {
+		Object value = getObject(columnIndex);
+		if (value == null || value instanceof Timestamp) {
+			return (Timestamp) value;
+		}
+		return new Timestamp(toDate(value, Timestamp.class).getTime());
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(String columnLabel) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnLabel));
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Timestamp value = getTimestamp(columnIndex);
+		if (value == null) {
+			return null;
+		}
+		Timestamp adjusted = new Timestamp(adjustToCalendar(value, cal));
+		adjusted.setNanos(value.getNanos());
+		return adjusted;
+	}
+
+	@Override
+	@Nullable
+	public Timestamp getTimestamp(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnLabel), cal);
+	}
+
+
+	// RowSet navigation methods
+
+	@Override
+	public boolean absolute(int row) throws InvalidResultSetAccessException {
+		if (row >= 0) {
+			this.cursor = Math.min(row, this.rowCount + 1);
+		}
+		else {
+			this.cursor = Math.max(this.rowCount + 1 + row, 0);
+		}
+		return isOnRow();
+	}
+
+	@Override
+	public void afterLast() throws InvalidResultSetAccessException {
+		this.cursor = this.rowCount + 1;
+	}
+
+	@Override
+	public void beforeFirst() throws InvalidResultSetAccessException {
+		this.cursor = 0;
+	}
+
+	@Override
+	public boolean first() throws InvalidResultSetAccessException {
+		return absolute(1);
+	}
+
+	@Override
+	public int getRow() throws InvalidResultSetAccessException {
+		return (isOnRow() ? this.cursor : 0);
+	}
+
+	@Override
+	public boolean isAfterLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor > this.rowCount);
+	}
+
+	@Override
+	public boolean isBeforeFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == 0);
+	}
+
+	@Override
+	public boolean isFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == 1);
+	}
+
+	@Override
+	public boolean isLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == this.rowCount);
+	}
+
+	@Override
+	public boolean last() throws InvalidResultSetAccessException {
+		return absolute(-1);
+	}
+
+	@Override
+	public boolean next() throws InvalidResultSetAccessException {
+		return absolute(this.cursor + 1);
+	}
+
+	@Override
+	public boolean previous() throws InvalidResultSetAccessException {
+		this.cursor = Math.max(Math.min(this.cursor, this.rowCount + 1) - 1, 0);
+		return isOnRow();
+	}
+
+	@Override
+	public boolean relative(int rows) throws InvalidResultSetAccessException {
+		long target = (long) this.cursor + rows;
+		this.cursor = (int) Math.max(Math.min(target, this.rowCount + 1), 0);
+		return isOnRow();
+	}
+
+	@Override
+	public boolean wasNull() throws InvalidResultSetAccessException {
+		return this.wasNull;
+	}
+
+
+	private boolean isOnRow() {
+		return (this.cursor > 0 && this.cursor <= this.rowCount);
+	}
+
+	/**
+	 * Check the current row and the given column index, remembering whether the
+	 * value is null.
+	 * @return the zero-based row index, or -1 if the value is null
+	 */
+	private int currentRow(int columnIndex) {
+		if (!isOnRow()) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid cursor position"));
+		}
+		if (columnIndex < 1 || columnIndex > this.columns.length) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid column index: " + columnIndex));
+		}
+		int row = this.cursor - 1;
+		this.wasNull = this.nulls[columnIndex - 1].get(row);
+		return (this.wasNull ? -1 : row);
+	}
+
+	private static java.util.Date toDate(Object value, Class<?> type) {
+		if (value instanceof java.util.Date) {
+			return (java.util.Date) value;
+		}
+		if (value instanceof String) {
+			String str = ((String) value).trim();
+			try {
+				if (type == Date.class) {
+					return Date.valueOf(str);
+				}
+				else if (type == Time.class) {
+					return Time.valueOf(str);
+				}
+				return Timestamp.valueOf(str);
+			}
+			catch (IllegalArgumentException ex) {
+				throw conversionFailure(value, type);
+			}
+		}
+		throw conversionFailure(value, type);
+	}
+
+	private static long adjustToCalendar(java.util.Date value, Calendar cal) {
+		Calendar defaultCal = Calendar.getInstance();
+		defaultCal.setTime(value);
+		Calendar targetCal = (Calendar) cal.clone();
+		targetCal.clear();
+		targetCal.set(defaultCal.get(Calendar.YEAR), defaultCal.get(Calendar.MONTH),
+				defaultCal.get(Calendar.DAY_OF_MONTH), defaultCal.get(Calendar.HOUR_OF_DAY),
+				defaultCal.get(Calendar.MINUTE), defaultCal.get(Calendar.SECOND));
+		targetCal.set(Calendar.MILLISECOND, defaultCal.get(Calendar.MILLISECOND));
+		return targetCal.getTimeInMillis();
+	}
+
+	private static InvalidResultSetAccessException conversionFailure(Object value, Class<?> type) {
+		return new InvalidResultSetAccessException(new SQLException(
+				"Cannot convert value [" + value + "] of type [" + value.getClass().getName() +
+				"] to [" + type.getName() + "]"));
+	}
+
+	private static Number toNumber(Object value) {
+		if (value instanceof Number) {
+			return (Number) value;
+		}
+		else if (value instanceof Boolean) {
+			return ((Boolean) value ? 1 : 0);
+		}
+		else if (value instanceof String) {
+			try {
+				return new BigDecimal(((String) value).trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, Number.class);
+			}
+		}
+		throw conversionFailure(value, Number.class);
+	}
+
+
+	/**
+	 * Storage for the non-null values of a column. Null values are tracked
+	 * separately; positions of null values are left at their defaults.
+	 */
+	private abstract static class Column implements Serializable {
+
+		private static final long serialVersionUID = -2871606711387468035L;
+
+		/**
+		 * Create a column for the type of the given (first non-null) value.
+		 */
+		static Column forValue(Object value) {
+			if (value instanceof Integer) {
+				return new IntColumn();
+			}
+			else if (value instanceof Long) {
+				return new LongColumn();
+			}
+			else if (value instanceof Double) {
+				return new DoubleColumn();
+			}
+			else if (value instanceof Boolean) {
+				return new BooleanColumn();
+			}
+			else if (value instanceof String) {
+				return new StringColumn();
+			}
+			else if (value.getClass() == BigDecimal.class) {
+				return new DecimalColumn();
+			}
+			else if (value.getClass() == Timestamp.class) {
+				return new TimestampColumn();
+			}
+			else if (value.getClass() == Date.class) {
+				return new DateColumn(false);
+			}
+			else if (value.getClass() == Time.class) {
+				return new DateColumn(true);
+			}
+			return new ObjectColumn();
+		}
+
+		/**
+		 * Add the given value at the given row.
+		 * @return {@code false} if the value is not supported by this column
+		 */
+		abstract boolean add(int row, Object value);
+
+		/**
+		 * Return the non-null value at the given row.
+		 */
+		abstract Object getObject(int row);
+
+		long getLong(int row) {
+			return toNumber(getObject(row)).longValue();
+		}
+
+		double getDouble(int row) {
+			return toNumber(getObject(row)).doubleValue();
+		}
+
+		boolean getBoolean(int row) {
+			Object value = getObject(row);
+			if (value instanceof Boolean) {
+				return (Boolean) value;
+			}
+			else if (value instanceof String) {
+				String str = ((String) value).trim();
+				return ("true".equalsIgnoreCase(str) || "1".equals(str));
+			}
+			else if (value instanceof Number) {
+				return (((Number) value).doubleValue() != 0);
+			}
+			throw conversionFailure(value, Boolean.class);
+		}
+
+		String getString(int row) {
+			return getObject(row).toString();
+		}
+
+		/**
+		 * Release any excess capacity once all rows have been added.
+		 */
+		abstract void trim(int rowCount);
+
+		/**
+		 * Copy the values of the given number of rows into an object column.
+		 */
+		Column toObjectColumn(int rowCount, BitSet nulls) {
+			ObjectColumn column = new ObjectColumn();
+			for (int row = 0; row < rowCount; row++) {
+				if (!nulls.get(row)) {
+					column.add(row, getObject(row));
+				}
+			}
+			return column;
+		}
+	}
+
+
+	private static final class IntColumn extends Column {
+
+		private static final long serialVersionUID = -7184919488319573629L;
+
+		private int[] values = new int[INITIAL_CAPACITY];
+
+		@Override
+		boolean add(int row, Object value) {
+			if (!(value instanceof Integer)) {
+				return false;
+			}
+			if (row >= this.values.length) {
+				this.values = Arrays.copyOf(this.values, Math.max(this.values.length * 2, row + 1));
+			}
+			this.values[row] = (Integer) value;
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.values = Arrays.copyOf(this.values, rowCount);
+		}
+	}
+
+
+	private static final class LongColumn extends Column {
+
+		private static final long serialVersionUID = -6376121787177816254L;
+
+		private long[] values = new long[INITIAL_CAPACITY];
+
+		@Override
+		boolean add(int row, Object value) {
+			if (!(value instanceof Long)) {
+				return false;
+			}
+			if (row >= this.values.length) {
+				this.values = Arrays.copyOf(this.values, Math.max(this.values.length * 2, row + 1));
+			}
+			this.values[row] = (Long) value;
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.values = Arrays.copyOf(this.values, rowCount);
+		}
+	}
+
+
+	private static final class DoubleColumn extends Column {
+
+		private static final long serialVersionUID = 78936154011671243L;
+
+		private double[] values = new double[INITIAL_CAPACITY];
+
+		@Override
+		boolean add(int row, Object value) {
+			if (!(value instanceof Double)) {
+				return false;
+			}
+			if (row >= this.values.length) {
+				this.values = Arrays.copyOf(this.values, Math.max(this.values.length * 2, row + 1));
+			}
+			this.values[row] = (Double) value;
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return (long) this.values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.values = Arrays.copyOf(this.values, rowCount);
+		}
+	}
+
+
+	private static final class BooleanColumn extends Column {
+
+		private static final long serialVersionUID = 1353191699088960171L;
+
+		private final BitSet values = new BitSet();
+
+		@Override
+		boolean add(int row, Object value) {
+			if (!(value instanceof Boolean)) {
+				return false;
+			}
+			this.values.set(row, (Boolean) value);
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values.get(row);
+		}
+
+		@Override
+		boolean getBoolean(int row) {
+			return this.values.get(row);
+		}
+
+		@Override
+		void trim(int rowCount) {
+		}
+	}
+
+
+	/**
+	 * Dictionary-encoded String column: each distinct value is stored once.
+	 */
+	private static final class StringColumn extends Column {
+
+		private static final long serialVersionUID = -8661363031740278552L;
+
+		private int[] codes = new int[INITIAL_CAPACITY];
+
+		private String[] dictionary = new String[INITIAL_CAPACITY];
+
+		private int dictionarySize;
+
+		@Nullable
+		private transient Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+		@Override
+		boolean add(int row, Object value) {
+			if (!(value instanceof String) || this.dictionaryIndex == null) {
+				return false;
+			}
+			Integer code = this.dictionaryIndex.get(value);
+			if (code == null) {
+				code = this.dictionarySize++;
+				if (code >= this.dictionary.length) {
+					this.dictionary = Arrays.copyOf(this.dictionary, this.dictionary.length * 2);
+				}
+				this.dictionary[code] = (String) value;
+				this.dictionaryIndex.put((String) value, code);
+			}
+			if (row >= this.codes.length) {
+				this.codes = Arrays.copyOf(this.codes, Math.max(this.codes.length * 2, row + 1));
+			}
+			this.codes[row] = code;
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.dictionary[this.codes[row]];
+		}
+
+		@Override
+		String getString(int row) {
+			return this.dictionary[this.codes[row]];
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.codes = Arrays.copyOf(this.codes, rowCount);
+			this.dictionary = Arrays.copyOf(this.dictionary, this.dictionarySize);
+			this.dictionaryIndex = null;
+		}
+	}
+
+
+	/**
+	 * {@code BigDecimal} column storing the unscaled value and the scale of each
+	 * value, as long as the unscaled value fits into a {@code long}.
+	 */
+	private static final class DecimalColumn extends Column {
+
+		private static final long serialVersionUID = 4223371545908204829L;
+
+		private long[] unscaledValues = new long[INITIAL_CAPACITY];
+
+		private int[] scales = new int[INITIAL_CAPACITY];
+
+		@Override
+		boolean add(int row, Object value) {
+			if (value.getClass() != BigDecimal.class) {
+				return false;
+			}
+			BigDecimal decimal = (BigDecimal) value;
+			if (decimal.unscaledValue().bitLength() > 63) {
+				return false;
+			}
+			if (row >= this.unscaledValues.length) {
+				int capacity = Math.max(this.unscaledValues.length * 2, row + 1);
+				this.unscaledValues = Arrays.copyOf(this.unscaledValues, capacity);
+				this.scales = Arrays.copyOf(this.scales, capacity);
+			}
+			this.unscaledValues[row] = decimal.unscaledValue().longValue();
+			this.scales[row] = decimal.scale();
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return BigDecimal.valueOf(this.unscaledValues[row], this.scales[row]);
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.unscaledValues = Arrays.copyOf(this.unscaledValues, rowCount);
+			this.scales = Arrays.copyOf(this.scales, rowCount);
+		}
+	}
+
+
+	/**
+	 * {@code Timestamp} column storing the epoch milliseconds and the
+	 * nanoseconds of each value.
+	 */
+	private static final class TimestampColumn extends Column {
+
+		private static final long serialVersionUID = 5025985050602673455L;
+
+		private long[] millis = new long[INITIAL_CAPACITY];
+
+		private int[] nanos = new int[INITIAL_CAPACITY];
+
+		@Override
+		boolean add(int row, Object value) {
+			if (value.getClass() != Timestamp.class) {
+				return false;
+			}
+			Timestamp timestamp = (Timestamp) value;
+			if (row >= this.millis.length) {
+				int capacity = Math.max(this.millis.length * 2, row + 1);
+				this.millis = Arrays.copyOf(this.millis, capacity);
+				this.nanos = Arrays.copyOf(this.nanos, capacity);
+			}
+			this.millis[row] = timestamp.getTime();
+			this.nanos[row] = timestamp.getNanos();
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			Timestamp timestamp = new Timestamp(this.millis[row]);
+			timestamp.setNanos(this.nanos[row]);
+			return timestamp;
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.millis = Arrays.copyOf(this.millis, rowCount);
+			this.nanos = Arrays.copyOf(this.nanos, rowCount);
+		}
+	}
+
+
+	/**
+	 * {@code java.sql.Date} or {@code java.sql.Time} column storing the epoch
+	 * milliseconds of each value.
+	 */
+	private static final class DateColumn extends Column {
+
+		private static final long serialVersionUID = 2865964044923444676L;
+
+		private final boolean time;
+
+		private long[] millis = new long[INITIAL_CAPACITY];
+
+		DateColumn(boolean time) {
+			this.time = time;
+		}
+
+		@Override
+		boolean add(int row, Object value) {
+			if (value.getClass() != (this.time ? Time.class : Date.class)) {
+				return false;
+			}
+			if (row >= this.millis.length) {
+				this.millis = Arrays.copyOf(this.millis, Math.max(this.millis.length * 2, row + 1));
+			}
+			this.millis[row] = ((java.util.Date) value).getTime();
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return (this.time ? new Time(this.millis[row]) : new Date(this.millis[row]));
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.millis = Arrays.copyOf(this.millis, rowCount);
+		}
+	}
+
+
+	private static final class ObjectColumn extends Column {
+
+		private static final long serialVersionUID = -6677942820898475884L;
+
+		private Object[] values = new Object[INITIAL_CAPACITY];
+
+		@Override
+		boolean add(int row, Object value) {
+			if (row >= this.values.length) {
+				this.values = Arrays.copyOf(this.values, Math.max(this.values.length * 2, row + 1));
+			}
+			this.values[row] = value;
+			return true;
+		}
+
+		@Override
+		Object getObject(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		void trim(int rowCount) {
+			this.values = Arrays.copyOf(this.values, rowCount);
+		}
+
+		@Override
+		Column toObjectColumn(int rowCount, BitSet nulls) {
+			return this;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,11 +33,19 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
@@ -47,9 +55,12 @@ import org.springframework.jdbc.SQLWarningException;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.support.AbstractInterruptibleBatchPreparedStatementSetter;
 import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
 import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.jdbc.support.SqlExecution;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.LinkedCaseInsensitiveMap;
 import org.springframework.util.StringUtils;
 
@@ -59,6 +70,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -779,6 +791,79 @@ public class JdbcTemplateTests {
 		verify(this.connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testParallelBatchUpdateWithCollectionOfObjects() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Integer> ids = Arrays.asList(100, 200, 300, 400, 500);
+		BatchUpdateException failure = new BatchUpdateException();
+
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1}).willThrow(failure)
+				.willReturn(new int[] {1});
+		mockDatabaseMetaData(true);
+
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> ps.setInt(1, argument.intValue());
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+
+		List<BatchChunkResult> results = template.parallelBatchUpdate(sql, ids, 2, 2, Runnable::run, setter);
+		assertThat(results).hasSize(3);
+		assertThat(results.get(0).isSuccessful()).isTrue();
+		assertThat(results.get(0).getOffset()).isEqualTo(0);
+		assertThat(results.get(0).getRowsAffected()).containsExactly(1, 1);
+		assertThat(results.get(1).isSuccessful()).isFalse();
+		assertThat(results.get(1).getOffset()).isEqualTo(2);
+		assertThat(results.get(1).getItemCount()).isEqualTo(2);
+		assertThat(results.get(1).getFailure()).isInstanceOf(DataAccessException.class);
+		assertThat(results.get(1).getFailure().getCause()).isSameAs(failure);
+		assertThat(results.get(2).isSuccessful()).isTrue();
+		assertThat(results.get(2).getOffset()).isEqualTo(4);
+		assertThat(results.get(2).getRowsAffected()).containsExactly(1);
+
+		verify(this.preparedStatement, times(5)).addBatch();
+		verify(this.preparedStatement, times(3)).close();
+		verify(this.connection, atLeastOnce()).close();
+	}
+
+	@Test
+	public void testParallelBatchUpdateWithConcurrentChunks() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Integer> ids = Arrays.asList(100, 200, 300, 400);
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1});
+		mockDatabaseMetaData(true);
+
+		// The first item of each chunk waits until the other chunk has started as well
+		CountDownLatch chunksStarted = new CountDownLatch(2);
+		Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		ParameterizedPreparedStatementSetter<Integer> setter = (ps, argument) -> {
+			threadNames.add(Thread.currentThread().getName());
+			if (argument == 100 || argument == 300) {
+				chunksStarted.countDown();
+				try {
+					if (!chunksStarted.await(5, TimeUnit.SECONDS)) {
+						throw new IllegalStateException("Chunks not executed concurrently");
+					}
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+			ps.setInt(1, argument);
+		};
+		JdbcTemplate template = new JdbcTemplate(this.dataSource, false);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<BatchChunkResult> results = template.parallelBatchUpdate(sql, ids, 2, 2, executor, setter);
+			assertThat(results).hasSize(2);
+			assertThat(results).allMatch(BatchChunkResult::isSuccessful);
+			assertThat(threadNames).hasSize(2).doesNotContain(Thread.currentThread().getName());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		verify(this.preparedStatement, times(4)).addBatch();
+		verify(this.preparedStatement, times(2)).executeBatch();
+	}
+
 	@Test
 	public void testCouldNotGetConnectionForOperationOrExceptionTranslator() throws SQLException {
 		SQLException sqlException = new SQLException("foo", "07xxx");
@@ -1090,6 +1175,231 @@ public class JdbcTemplateTests {
 		assertThat(map.get("x")).isEqualTo("first value");
 	}
 
+	@Test
+	public void testTransactionalBatchFlushedAtBatchSizeAndCommit() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1}, new int[] {1});
+		this.template.setTransactionalBatchSize(2);
+
+		new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)).executeWithoutResult(status -> {
+			assertThat(this.template.update(sql, 1)).isEqualTo(Statement.SUCCESS_NO_INFO);
+			assertThat(this.template.update(sql, 2)).isEqualTo(Statement.SUCCESS_NO_INFO);
+			assertThat(this.template.update(sql, 3)).isEqualTo(Statement.SUCCESS_NO_INFO);
+		});
+
+		verify(this.connection, times(1)).prepareStatement(sql);
+		verify(this.preparedStatement, times(3)).addBatch();
+		verify(this.preparedStatement, times(2)).executeBatch();
+		verify(this.preparedStatement, never()).executeUpdate();
+		verify(this.preparedStatement).close();
+		verify(this.connection).commit();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testTransactionalBatchFlushedBeforeQuery() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		given(this.connection.createStatement()).willReturn(this.statement);
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1});
+		this.template.setTransactionalBatchSize(10);
+
+		new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)).executeWithoutResult(status -> {
+			this.template.update(sql, 1);
+			verify(this.preparedStatement, never()).executeBatch();
+			this.template.query("SELECT ID FROM NOSUCHTABLE", rs -> {});
+			try {
+				verify(this.preparedStatement).executeBatch();
+				// Kept open for further updates with the same SQL
+				verify(this.preparedStatement, never()).close();
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+
+		verify(this.preparedStatement, times(1)).executeBatch();
+		verify(this.preparedStatement).close();
+		verify(this.connection).commit();
+	}
+
+	@Test
+	public void testTransactionalBatchCleansUpParametersAfterExecution() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1});
+		this.template.setTransactionalBatchSize(10);
+		DisposablePreparedStatementSetter pss = mock(DisposablePreparedStatementSetter.class);
+
+		new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)).executeWithoutResult(status -> {
+			this.template.update(sql, pss);
+			verify(pss, never()).cleanupParameters();
+		});
+
+		InOrder inOrder = inOrder(this.preparedStatement, pss);
+		inOrder.verify(this.preparedStatement).executeBatch();
+		inOrder.verify(pss).cleanupParameters();
+	}
+
+	@Test
+	public void testTransactionalBatchDiscardedOnRollback() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		this.template.setTransactionalBatchSize(10);
+
+		new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)).executeWithoutResult(status -> {
+			this.template.update(sql, 1);
+			status.setRollbackOnly();
+		});
+
+		verify(this.preparedStatement).addBatch();
+		verify(this.preparedStatement, never()).executeBatch();
+		verify(this.preparedStatement).close();
+		verify(this.connection).rollback();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testTransactionalBatchFailureOnCommitRollsBack() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		given(this.preparedStatement.executeBatch()).willThrow(new BatchUpdateException());
+		this.template.setTransactionalBatchSize(10);
+
+		assertThatExceptionOfType(DataAccessException.class).isThrownBy(() ->
+				new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)).executeWithoutResult(
+						status -> this.template.update(sql, 1)));
+
+		verify(this.preparedStatement).close();
+		verify(this.connection, never()).commit();
+		verify(this.connection).rollback();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testTransactionalBatchNotUsedWithoutTransaction() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		given(this.preparedStatement.executeUpdate()).willReturn(1);
+		this.template.setTransactionalBatchSize(10);
+
+		assertThat(this.template.update(sql, 1)).isEqualTo(1);
+		verify(this.preparedStatement, never()).addBatch();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testSqlExecutionObserverForPreparedQuery() throws Exception {
+		final String sql = "SELECT NAME FROM CUSTMR WHERE ID = ?";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getString(1)).willReturn("a", "b");
+		List<SqlExecution> executions = new ArrayList<>();
+		this.template.setSqlExecutionObserver(executions::add);
+
+		List<String> names = this.template.query(sql, (rs, rowNum) -> rs.getString(1), 1);
+
+		assertThat(names).containsExactly("a", "b");
+		assertThat(executions).hasSize(1);
+		SqlExecution execution = executions.get(0);
+		assertThat(execution.getTask()).isEqualTo("PreparedStatementCallback");
+		assertThat(execution.getSql()).isEqualTo(sql);
+		assertThat(execution.getBindCount()).isEqualTo(1);
+		assertThat(execution.getRowsReturned()).isEqualTo(2);
+		assertThat(execution.getRowsAffected()).isEqualTo(-1);
+		assertThat(execution.isSuccessful()).isTrue();
+		assertThat(execution.getTotalNanos()).isGreaterThanOrEqualTo(
+				execution.getConnectionAcquisitionNanos() + execution.getStatementCreationNanos() +
+				execution.getExecutionNanos() + execution.getResultProcessingNanos());
+		verify(this.resultSet).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testSqlExecutionObserverForFailedUpdate() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE";
+		SQLException sqlException = new SQLException("bad update");
+		given(this.connection.createStatement()).willReturn(this.statement);
+		given(this.statement.executeUpdate(sql)).willThrow(sqlException);
+		List<SqlExecution> executions = new ArrayList<>();
+		this.template.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+		this.template.setSqlExecutionObserver(executions::add);
+
+		assertThatExceptionOfType(DataAccessException.class).isThrownBy(() ->
+				this.template.update(sql));
+		assertThat(executions).hasSize(1);
+		SqlExecution execution = executions.get(0);
+		assertThat(execution.getTask()).isEqualTo("StatementCallback");
+		assertThat(execution.getSql()).isEqualTo(sql);
+		assertThat(execution.isSuccessful()).isFalse();
+		assertThat(execution.getFailure()).isSameAs(sqlException);
+		assertThat(execution.getRowsAffected()).isEqualTo(-1);
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testSqlExecutionObserverForQueryForStream() throws Exception {
+		final String sql = "SELECT NAME FROM CUSTMR WHERE ID = ?";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getString(1)).willReturn("a", "b");
+		List<SqlExecution> executions = new ArrayList<>();
+		this.template.setSqlExecutionObserver(executions::add);
+
+		try (Stream<String> names = this.template.queryForStream(sql, (rs, rowNum) -> rs.getString(1), 1)) {
+			assertThat(names).containsExactly("a", "b");
+			assertThat(executions).isEmpty();
+		}
+
+		assertThat(executions).hasSize(1);
+		SqlExecution execution = executions.get(0);
+		assertThat(execution.getTask()).isEqualTo("PreparedStatementCallback");
+		assertThat(execution.getSql()).isEqualTo(sql);
+		assertThat(execution.getBindCount()).isEqualTo(1);
+		assertThat(execution.getRowsReturned()).isEqualTo(2);
+		assertThat(execution.isSuccessful()).isTrue();
+		assertThat(execution.getTotalNanos()).isGreaterThanOrEqualTo(
+				execution.getExecutionNanos() + execution.getResultProcessingNanos());
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testSqlExecutionObserverForTransactionalBatch() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 1});
+		List<SqlExecution> executions = new ArrayList<>();
+		this.template.setSqlExecutionObserver(executions::add);
+		this.template.setTransactionalBatchSize(10);
+
+		new TransactionTemplate(new DataSourceTransactionManager(this.dataSource)).executeWithoutResult(status -> {
+			this.template.update(sql, 1);
+			this.template.update(sql, 2);
+			assertThat(executions).isEmpty();
+		});
+
+		assertThat(executions).hasSize(1);
+		SqlExecution execution = executions.get(0);
+		assertThat(execution.getTask()).isEqualTo("TransactionalUpdateBatch");
+		assertThat(execution.getSql()).isEqualTo(sql);
+		assertThat(execution.getRowsAffected()).isEqualTo(2);
+		assertThat(execution.isSuccessful()).isTrue();
+		verify(this.connection).commit();
+	}
+
+	@Test
+	public void testSqlExecutionObserverExceptionIgnored() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ? AND NAME = ?";
+		given(this.preparedStatement.executeUpdate()).willReturn(3);
+		List<SqlExecution> executions = new ArrayList<>();
+		this.template.setSqlExecutionObserver(execution -> {
+			executions.add(execution);
+			throw new IllegalStateException("observer failure");
+		});
+
+		assertThat(this.template.update(sql, 1, "a")).isEqualTo(3);
+		assertThat(executions).hasSize(1);
+		assertThat(executions.get(0).getRowsAffected()).isEqualTo(3);
+		assertThat(executions.get(0).getBindCount()).isEqualTo(2);
+		assertThat(executions.get(0).isSuccessful()).isTrue();
+	}
+
 
 	private void mockDatabaseMetaData(boolean supportsBatchUpdates) throws SQLException {
 		DatabaseMetaData databaseMetaData = mock(DatabaseMetaData.class);
@@ -1105,6 +1415,10 @@ public class JdbcTemplateTests {
 	}
 
 
+	private interface DisposablePreparedStatementSetter extends PreparedStatementSetter, ParameterDisposer {
+	}
+
+
 	private static class Dispatcher implements PreparedStatementCreator, SqlProvider {
 
 		private int id;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -537,4 +537,36 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testParsedSqlCache() {
+		ParsedSql parsedSql = namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS);
+		assertThat(namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS)).isSameAs(parsedSql);
+
+		namedParameterTemplate.setCacheLimit(0);
+		assertThat(namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS)).isNotSameAs(parsedSql);
+		assertThat(namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS)).isNotSameAs(
+				namedParameterTemplate.getParsedSql(SELECT_NAMED_PARAMETERS));
+	}
+
+	@Test
+	public void testSubstitutionCacheWithParameterTypesAndCollections() throws SQLException {
+		String sql = "update seat_status set booking_id = null where performance_id in (:perfId)";
+		given(preparedStatement.executeUpdate()).willReturn(1);
+
+		namedParameterTemplate.update(sql, new MapSqlParameterSource("perfId", 1));
+		namedParameterTemplate.update(sql, new MapSqlParameterSource().addValue("perfId", 2, Types.NUMERIC));
+		namedParameterTemplate.update(sql, new MapSqlParameterSource("perfId", Arrays.asList(3, 4)));
+		namedParameterTemplate.update(sql, new MapSqlParameterSource("perfId", 5));
+
+		verify(connection, times(3)).prepareStatement(
+				"update seat_status set booking_id = null where performance_id in (?)");
+		verify(connection).prepareStatement(
+				"update seat_status set booking_id = null where performance_id in (?, ?)");
+		verify(preparedStatement).setObject(1, 1);
+		verify(preparedStatement).setObject(1, 2, Types.NUMERIC);
+		verify(preparedStatement).setObject(1, 3);
+		verify(preparedStatement).setObject(2, 4);
+		verify(preparedStatement).setObject(1, 5);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -206,6 +208,25 @@ public class NamedParameterQueryTests {
 		verify(preparedStatement).setObject(1, 3);
 	}
 
+	@Test
+	public void testQueryForStreamWithParamMap() throws Exception {
+		given(preparedStatement.getConnection()).willReturn(connection);
+		given(resultSet.next()).willReturn(true, true, false);
+		given(resultSet.getInt(1)).willReturn(11, 12);
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("id", 3);
+		List<Integer> ages;
+		try (Stream<Integer> stream = template.queryForStream("SELECT AGE FROM CUSTMR WHERE ID < :id",
+				params, (rs, rowNum) -> rs.getInt(1))) {
+			ages = stream.collect(Collectors.toList());
+		}
+
+		assertThat(ages).containsExactly(11, 12);
+		verify(connection).prepareStatement("SELECT AGE FROM CUSTMR WHERE ID < ?");
+		verify(preparedStatement).setObject(1, 3);
+	}
+
 	@Test
 	public void testQueryForObjectWithParamMapAndInteger() throws Exception {
 		given(resultSet.getMetaData()).willReturn(resultSetMetaData);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.jdbc.core.simple;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.HashMap;
 
@@ -28,10 +29,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -81,4 +88,40 @@ public class SimpleJdbcInsertTests {
 		verify(resultSet).close();
 	}
 
+	@Test
+	public void testMultiRowBatchInsert() throws Exception {
+		String multiRowSql = "INSERT INTO x (id, name) VALUES(?, ?), (?, ?)";
+		String singleRowSql = "INSERT INTO x (id, name) VALUES(?, ?)";
+		PreparedStatement multiRowStatement = mock(PreparedStatement.class);
+		PreparedStatement singleRowStatement = mock(PreparedStatement.class);
+		given(databaseMetaData.getDatabaseProductName()).willReturn("MySQL");
+		given(databaseMetaData.getUserName()).willReturn("me");
+		given(databaseMetaData.supportsBatchUpdates()).willReturn(true);
+		given(connection.prepareStatement(multiRowSql)).willReturn(multiRowStatement);
+		given(connection.prepareStatement(singleRowSql)).willReturn(singleRowStatement);
+		given(multiRowStatement.getConnection()).willReturn(connection);
+		given(multiRowStatement.executeBatch()).willReturn(new int[] {2, 2});
+		given(singleRowStatement.executeUpdate()).willReturn(1);
+
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(dataSource).withTableName("x")
+				.usingColumns("id", "name").usingMultiRowInserts(2);
+		insert.setAccessTableColumnMetaData(false);
+		SqlParameterSource[] batch = new SqlParameterSource[5];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = new MapSqlParameterSource("id", i).addValue("name", "name" + i);
+		}
+
+		// Within a transaction, so that all statements share the same Connection
+		int[] rowsAffected = new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+				.execute(status -> insert.executeBatch(batch));
+
+		assertThat(rowsAffected).containsExactly(1, 1, 1, 1, 1);
+		verify(multiRowStatement, times(2)).addBatch();
+		verify(multiRowStatement).setObject(3, 1);
+		verify(multiRowStatement).setString(4, "name1");
+		verify(singleRowStatement).setObject(1, 4);
+		verify(multiRowStatement).close();
+		verify(singleRowStatement).close();
+	}
+
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link SimpleDriverDataSource}, in particular its statement cache.
+ *
+ * @author Juergen Hoeller
+ */
+public class SimpleDriverDataSourceTests {
+
+	private final Driver driver = mock(Driver.class);
+
+	private final Connection connection = mock(Connection.class);
+
+	private final SimpleDriverDataSource dataSource = new SimpleDriverDataSource(this.driver, "url");
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		given(this.driver.connect(eq("url"), any(Properties.class))).willReturn(this.connection);
+	}
+
+
+	@Test
+	public void noStatementCacheByDefault() throws Exception {
+		assertThat(this.dataSource.getConnection()).isSameAs(this.connection);
+	}
+
+	@Test
+	public void cachedStatementReused() throws Exception {
+		PreparedStatement target = mock(PreparedStatement.class);
+		given(this.connection.prepareStatement("select 1")).willReturn(target);
+		this.dataSource.setStatementCacheSize(2);
+
+		Connection con = this.dataSource.getConnection();
+		assertThat(((ConnectionProxy) con).getTargetConnection()).isSameAs(this.connection);
+
+		PreparedStatement ps = con.prepareStatement("select 1");
+		ps.setQueryTimeout(5);
+		ps.setInt(1, 1);
+		ResultSet rs = ps.executeQuery();
+		ps.close();
+		assertThat(ps.isClosed()).isTrue();
+		assertThatExceptionOfType(SQLException.class).isThrownBy(ps::executeQuery);
+
+		PreparedStatement ps2 = con.prepareStatement("select 1");
+		assertThat(ps2.getConnection()).isSameAs(con);
+		ps2.close();
+
+		verify(this.connection, times(1)).prepareStatement("select 1");
+		verify(target, times(2)).clearParameters();
+		verify(target).setQueryTimeout(0);
+		verify(target, never()).close();
+		assertThat(this.dataSource.getStatementCacheHitCount()).isEqualTo(1);
+		assertThat(this.dataSource.getStatementCacheMissCount()).isEqualTo(1);
+
+		con.close();
+		verify(target).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void onlyLastResultSetClosedOnReturn() throws Exception {
+		PreparedStatement target = mock(PreparedStatement.class);
+		ResultSet resultSet1 = mock(ResultSet.class);
+		ResultSet resultSet2 = mock(ResultSet.class);
+		given(this.connection.prepareStatement("select 1")).willReturn(target);
+		given(target.executeQuery()).willReturn(resultSet1, resultSet2);
+		this.dataSource.setStatementCacheSize(2);
+
+		PreparedStatement ps = this.dataSource.getConnection().prepareStatement("select 1");
+		assertThat(ps.executeQuery()).isSameAs(resultSet1);
+		assertThat(ps.executeQuery()).isSameAs(resultSet2);
+		ps.close();
+
+		// Re-executing the statement already closed the previous ResultSet
+		verify(resultSet1, never()).close();
+		verify(resultSet2).close();
+	}
+
+	@Test
+	public void statementKeyIncludesResultSetOptions() throws Exception {
+		PreparedStatement target = mock(PreparedStatement.class);
+		PreparedStatement scrollableTarget = mock(PreparedStatement.class);
+		given(this.connection.prepareStatement("select 1")).willReturn(target);
+		given(this.connection.prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE,
+				ResultSet.CONCUR_READ_ONLY)).willReturn(scrollableTarget);
+		this.dataSource.setStatementCacheSize(2);
+
+		Connection con = this.dataSource.getConnection();
+		con.prepareStatement("select 1").close();
+		con.prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).close();
+		con.prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).close();
+
+		assertThat(this.dataSource.getStatementCacheHitCount()).isEqualTo(1);
+		assertThat(this.dataSource.getStatementCacheMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void leastRecentlyUsedStatementEvicted() throws Exception {
+		PreparedStatement target1 = mock(PreparedStatement.class);
+		PreparedStatement target2 = mock(PreparedStatement.class);
+		given(this.connection.prepareStatement("select 1")).willReturn(target1);
+		given(this.connection.prepareStatement("select 2")).willReturn(target2);
+		this.dataSource.setStatementCacheSize(1);
+
+		Connection con = this.dataSource.getConnection();
+		con.prepareStatement("select 1").close();
+		con.prepareStatement("select 2").close();
+
+		verify(target1).close();
+		verify(target2, never()).close();
+	}
+
+	@Test
+	public void statementWithChangedSettingsNotReused() throws Exception {
+		PreparedStatement target = mock(PreparedStatement.class);
+		given(this.connection.prepareStatement("select 1", Statement.RETURN_GENERATED_KEYS)).willReturn(target);
+		this.dataSource.setStatementCacheSize(2);
+
+		Connection con = this.dataSource.getConnection();
+		PreparedStatement ps = con.prepareStatement("select 1", Statement.RETURN_GENERATED_KEYS);
+		ps.setEscapeProcessing(false);
+		ps.close();
+		con.prepareStatement("select 1", Statement.RETURN_GENERATED_KEYS);
+
+		verify(target).close();
+		assertThat(this.dataSource.getStatementCacheMissCount()).isEqualTo(2);
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link ReadWriteRoutingDataSource}.
+ *
+ * @author Juergen Hoeller
+ */
+public class ReadWriteRoutingDataSourceTests {
+
+	private final DataSource primary = mock(DataSource.class);
+
+	private final DataSource replica1 = mock(DataSource.class);
+
+	private final DataSource replica2 = mock(DataSource.class);
+
+	private final Connection primaryConnection = mock(Connection.class);
+
+	private final Connection replicaConnection1 = mock(Connection.class);
+
+	private final Connection replicaConnection2 = mock(Connection.class);
+
+	private final ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource();
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		given(this.primary.getConnection()).willReturn(this.primaryConnection);
+		given(this.replica1.getConnection()).willReturn(this.replicaConnection1);
+		given(this.replica2.getConnection()).willReturn(this.replicaConnection2);
+		this.router.setPrimaryDataSource(this.primary);
+		this.router.setReplicaDataSources(Arrays.asList(this.replica1, this.replica2));
+		this.router.afterPropertiesSet();
+	}
+
+	@AfterEach
+	public void resetReadOnly() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+
+	@Test
+	public void primaryOutsideOfReadOnlyTransaction() throws Exception {
+		assertThat(this.router.getConnection()).isSameAs(this.primaryConnection);
+		verify(this.replica1, never()).getConnection();
+		verify(this.replica2, never()).getConnection();
+	}
+
+	@Test
+	public void replicasBalancedByConnectionsInFlight() throws Exception {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		Connection con1 = this.router.getConnection();
+		Connection con2 = this.router.getConnection();
+		assertThat(((ConnectionProxy) con1).getTargetConnection()).isSameAs(this.replicaConnection1);
+		assertThat(((ConnectionProxy) con2).getTargetConnection()).isSameAs(this.replicaConnection2);
+		assertThat(this.router.getReplicaConnectionsInFlight()).containsExactly(1, 1);
+
+		con2.close();
+		con2.close();
+		assertThat(this.router.getReplicaConnectionsInFlight()).containsExactly(1, 0);
+		Connection con3 = this.router.getConnection();
+		assertThat(((ConnectionProxy) con3).getTargetConnection()).isSameAs(this.replicaConnection2);
+
+		con1.close();
+		con3.close();
+		assertThat(this.router.getReplicaConnectionsInFlight()).containsExactly(0, 0);
+		verify(this.replicaConnection2, times(2)).close();
+		verify(this.primary, never()).getConnection();
+	}
+
+	@Test
+	public void failedReplicaSkipped() throws Exception {
+		given(this.replica1.getConnection()).willThrow(new SQLException("down"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		Connection con = this.router.getConnection();
+		assertThat(((ConnectionProxy) con).getTargetConnection()).isSameAs(this.replicaConnection2);
+		con.close();
+		this.router.getConnection().close();
+
+		verify(this.replica1, times(1)).getConnection();
+		verify(this.replica2, times(2)).getConnection();
+		assertThat(this.router.getReplicaConnectionsInFlight()).containsExactly(0, 0);
+	}
+
+	@Test
+	public void primaryFallbackIfNoReplicaAvailable() throws Exception {
+		given(this.replica1.getConnection()).willThrow(new SQLException("down"));
+		given(this.replica2.getConnection()).willThrow(new SQLException("down"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThat(this.router.getConnection()).isSameAs(this.primaryConnection);
+		assertThat(this.router.getReplicaConnectionsInFlight()).containsExactly(0, 0);
+	}
+
+	@Test
+	public void replicaExcludedBySubclass() throws Exception {
+		ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource() {
+			@Override
+			protected boolean isReplicaAvailable(DataSource replica) {
+				return (replica != replica1);
+			}
+		};
+		router.setPrimaryDataSource(this.primary);
+		router.setReplicaDataSources(Arrays.asList(this.replica1, this.replica2));
+		router.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		Connection con = router.getConnection();
+		assertThat(((ConnectionProxy) con).getTargetConnection()).isSameAs(this.replicaConnection2);
+		verify(this.replica1, never()).getConnection();
+	}
+
+	@Test
+	public void readOnlyTransactionWithLazyConnectionDataSourceProxy() throws Exception {
+		given(this.primaryConnection.getAutoCommit()).willReturn(true);
+		given(this.replicaConnection1.getAutoCommit()).willReturn(true);
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+		dataSource.setTargetDataSource(this.router);
+		dataSource.setDefaultAutoCommit(true);
+		dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		tt.setReadOnly(true);
+		tt.execute(status -> {
+			try {
+				DataSourceUtils.getConnection(dataSource).createStatement();
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return null;
+		});
+		tt.setReadOnly(false);
+		tt.execute(status -> {
+			try {
+				DataSourceUtils.getConnection(dataSource).createStatement();
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return null;
+		});
+
+		verify(this.replicaConnection1).createStatement();
+		verify(this.replicaConnection1).close();
+		verify(this.primaryConnection).createStatement();
+		verify(this.primaryConnection).commit();
+		assertThat(this.router.getReplicaConnectionsInFlight()).containsExactly(0, 0);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,8 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.sql.DataSource;
 
@@ -29,6 +31,7 @@ import org.springframework.jdbc.support.incrementer.HanaSequenceMaxValueIncremen
 import org.springframework.jdbc.support.incrementer.HsqlMaxValueIncrementer;
 import org.springframework.jdbc.support.incrementer.MySQLMaxValueIncrementer;
 import org.springframework.jdbc.support.incrementer.OracleSequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PooledMaxValueIncrementer;
 import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -206,4 +209,56 @@ public class DataFieldMaxValueIncrementerTests {
 		verify(connection, times(2)).close();
 	}
 
+	@Test
+	public void testPooledMaxValueIncrementer() throws SQLException {
+		given(dataSource.getConnection()).willReturn(connection);
+		given(connection.createStatement()).willReturn(statement);
+		given(statement.executeQuery("select nextval('myseq')")).willReturn(resultSet);
+		given(resultSet.next()).willReturn(true);
+		given(resultSet.getLong(1)).willReturn(1L, 4L);
+
+		PostgresSequenceMaxValueIncrementer target = new PostgresSequenceMaxValueIncrementer(dataSource, "myseq");
+		PooledMaxValueIncrementer incrementer = new PooledMaxValueIncrementer(target, 3);
+		incrementer.setPaddingLength(2);
+		incrementer.afterPropertiesSet();
+
+		assertThat(incrementer.nextLongValue()).isEqualTo(1);
+		assertThat(incrementer.nextIntValue()).isEqualTo(2);
+		assertThat(incrementer.nextStringValue()).isEqualTo("03");
+		verify(connection, times(1)).close();
+		assertThat(incrementer.nextLongValue()).isEqualTo(4);
+
+		verify(resultSet, times(2)).close();
+		verify(statement, times(2)).close();
+		verify(connection, times(2)).close();
+	}
+
+	@Test
+	public void testPooledMaxValueIncrementerWithHiLoAndPrefetch() throws SQLException {
+		given(dataSource.getConnection()).willReturn(connection);
+		given(connection.createStatement()).willReturn(statement);
+		given(statement.executeQuery("select nextval('myseq')")).willReturn(resultSet);
+		given(resultSet.next()).willReturn(true);
+		given(resultSet.getLong(1)).willReturn(1L, 2L);
+
+		List<Runnable> prefetchTasks = new ArrayList<>();
+		PostgresSequenceMaxValueIncrementer target = new PostgresSequenceMaxValueIncrementer(dataSource, "myseq");
+		PooledMaxValueIncrementer incrementer = new PooledMaxValueIncrementer(target, 4);
+		incrementer.setHiLo(true);
+		incrementer.setPrefetchExecutor(prefetchTasks::add);
+		incrementer.afterPropertiesSet();
+
+		assertThat(incrementer.nextLongValue()).isEqualTo(4);
+		assertThat(incrementer.nextLongValue()).isEqualTo(5);
+		assertThat(prefetchTasks).isEmpty();
+		assertThat(incrementer.nextLongValue()).isEqualTo(6);
+		assertThat(prefetchTasks).hasSize(1);
+		prefetchTasks.get(0).run();
+		verify(connection, times(2)).close();
+
+		assertThat(incrementer.nextLongValue()).isEqualTo(7);
+		assertThat(incrementer.nextLongValue()).isEqualTo(8);
+		verify(connection, times(2)).close();
+	}
+
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.support.SlowQueryAggregator.QueryStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link SlowQueryAggregator}.
+ *
+ * @author Juergen Hoeller
+ */
+public class SlowQueryAggregatorTests {
+
+	private final SlowQueryAggregator aggregator = new SlowQueryAggregator();
+
+
+	@Test
+	public void aggregatesPerStatement() {
+		this.aggregator.afterExecution(execution("select a", 10, 5, true));
+		this.aggregator.afterExecution(execution("select a", 30, 7, false));
+		this.aggregator.afterExecution(execution("select b", 20, 1, true));
+
+		List<QueryStatistics> topQueries = this.aggregator.getTopQueries();
+		assertThat(topQueries).hasSize(2);
+		QueryStatistics stats = topQueries.get(0);
+		assertThat(stats.getSql()).isEqualTo("select a");
+		assertThat(stats.getExecutionCount()).isEqualTo(2);
+		assertThat(stats.getFailureCount()).isEqualTo(1);
+		assertThat(stats.getTotalTimeMillis()).isEqualTo(40);
+		assertThat(stats.getMaxTimeMillis()).isEqualTo(30);
+		assertThat(stats.getAverageTimeMillis()).isEqualTo(20);
+		assertThat(stats.getRowCount()).isEqualTo(12);
+		assertThat(topQueries.get(1).getSql()).isEqualTo("select b");
+		assertThat(this.aggregator.getTopQuerySummaries()[0]).startsWith("[select a] executions=2");
+	}
+
+	@Test
+	public void thresholdAndLimits() {
+		this.aggregator.setSlowQueryThreshold(15);
+		this.aggregator.setTopQueryCount(1);
+		this.aggregator.setMaxTrackedStatements(2);
+		this.aggregator.afterExecution(execution("select a", 10, 0, true));
+		this.aggregator.afterExecution(execution("select b", 20, 0, true));
+		this.aggregator.afterExecution(execution("select c", 50, 0, true));
+		this.aggregator.afterExecution(execution("select d", 90, 0, true));
+		this.aggregator.afterExecution(execution(null, 90, 0, true));
+
+		assertThat(this.aggregator.getTrackedStatementCount()).isEqualTo(2);
+		assertThat(this.aggregator.getDroppedExecutionCount()).isEqualTo(2);
+		assertThat(this.aggregator.getTopQueries()).extracting(QueryStatistics::getSql).containsExactly("select c");
+
+		this.aggregator.reset();
+		assertThat(this.aggregator.getTrackedStatementCount()).isEqualTo(0);
+		assertThat(this.aggregator.getDroppedExecutionCount()).isEqualTo(0);
+		this.aggregator.afterExecution(execution(null, 90, 0, true));
+		assertThat(this.aggregator.getTopQueries()).extracting(QueryStatistics::getSql)
+				.containsExactly("[StatementCallback]");
+	}
+
+
+	private static SqlExecution execution(String sql, long millis, long rows, boolean successful) {
+		SqlExecution execution = mock(SqlExecution.class);
+		given(execution.getTask()).willReturn("StatementCallback");
+		given(execution.getSql()).willReturn(sql);
+		given(execution.getTotalNanos()).willReturn(TimeUnit.MILLISECONDS.toNanos(millis));
+		given(execution.getRowsReturned()).willReturn(rows);
+		given(execution.getRowsAffected()).willReturn(-1L);
+		given(execution.isSuccessful()).willReturn(successful);
+		return execution;
+	}
+
+}
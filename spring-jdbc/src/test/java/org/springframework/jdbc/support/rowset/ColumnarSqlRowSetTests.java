@@ -0,0 +1,232 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link ColumnarSqlRowSet}.
+ *
+ * @author Juergen Hoeller
+ */
+public class ColumnarSqlRowSetTests {
+
+	private final ResultSet resultSet = mock(ResultSet.class);
+
+	private final ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+
+	private ColumnarSqlRowSet rowSet;
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		given(this.resultSet.getMetaData()).willReturn(this.metaData);
+		given(this.metaData.getColumnCount()).willReturn(5);
+		given(this.metaData.getColumnLabel(1)).willReturn("id");
+		given(this.metaData.getColumnLabel(2)).willReturn("name");
+		given(this.metaData.getColumnLabel(3)).willReturn("amount");
+		given(this.metaData.getColumnLabel(4)).willReturn("created");
+		given(this.metaData.getColumnLabel(5)).willReturn("ID");
+		given(this.metaData.getColumnType(1)).willReturn(Types.INTEGER);
+		given(this.metaData.getColumnName(1)).willReturn("id");
+		given(this.resultSet.next()).willReturn(true, true, true, false);
+		given(this.resultSet.getObject(1)).willReturn(1, 2, 3);
+		given(this.resultSet.getObject(2)).willReturn("a", null, "a");
+		given(this.resultSet.getObject(3)).willReturn(1.5d, 2.5d, new BigDecimal("3.5"));
+		given(this.resultSet.getObject(4)).willReturn(new Timestamp(0), null, null);
+		given(this.resultSet.getObject(5)).willReturn(10L, 20L, 30L);
+		this.rowSet = new ColumnarSqlRowSet(this.resultSet);
+	}
+
+
+	@Test
+	public void valuesAndConversions() {
+		assertThat(this.rowSet.getRowCount()).isEqualTo(3);
+		assertThat(this.rowSet.next()).isTrue();
+		assertThat(this.rowSet.getObject(1)).isEqualTo(1);
+		assertThat(this.rowSet.getLong("id")).isEqualTo(1L);
+		assertThat(this.rowSet.getString(1)).isEqualTo("1");
+		assertThat(this.rowSet.getBigDecimal(1)).isEqualTo(BigDecimal.ONE);
+		assertThat(this.rowSet.getBoolean(1)).isTrue();
+		assertThat(this.rowSet.getString("name")).isEqualTo("a");
+		assertThat(this.rowSet.getDouble("amount")).isEqualTo(1.5d);
+		assertThat(this.rowSet.getInt("amount")).isEqualTo(1);
+		assertThat(this.rowSet.getTimestamp("created")).isEqualTo(new Timestamp(0));
+		assertThat(this.rowSet.getDate("created").getTime()).isEqualTo(0);
+		assertThat(this.rowSet.getObject(5, Integer.class)).isEqualTo(10);
+		assertThat(this.rowSet.wasNull()).isFalse();
+
+		assertThat(this.rowSet.next()).isTrue();
+		assertThat(this.rowSet.getString("name")).isNull();
+		assertThat(this.rowSet.wasNull()).isTrue();
+		assertThat(this.rowSet.getInt("created")).isEqualTo(0);
+		assertThat(this.rowSet.wasNull()).isTrue();
+
+		assertThat(this.rowSet.next()).isTrue();
+		assertThat(this.rowSet.getString("name")).isEqualTo("a");
+		assertThat(this.rowSet.getObject("amount")).isEqualTo(new BigDecimal("3.5"));
+		assertThat(this.rowSet.getObject(3, Double.class)).isEqualTo(3.5d);
+		assertThat(this.rowSet.next()).isFalse();
+
+		verify(this.resultSet, never()).close();
+	}
+
+	@Test
+	public void mixedTypesKeptAsReturnedByDriver() {
+		this.rowSet.absolute(1);
+		assertThat(this.rowSet.getObject(3)).isEqualTo(1.5d);
+		this.rowSet.absolute(2);
+		assertThat(this.rowSet.getObject(3)).isEqualTo(2.5d);
+	}
+
+	@Test
+	public void decimalAndDateTimeValues() throws Exception {
+		ResultSet resultSet = mock(ResultSet.class);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		given(resultSet.getMetaData()).willReturn(metaData);
+		given(metaData.getColumnCount()).willReturn(4);
+		given(metaData.getColumnLabel(1)).willReturn("price");
+		given(metaData.getColumnLabel(2)).willReturn("created");
+		given(metaData.getColumnLabel(3)).willReturn("day");
+		given(metaData.getColumnLabel(4)).willReturn("big");
+		Timestamp timestamp = new Timestamp(1580000000123L);
+		timestamp.setNanos(123456789);
+		BigDecimal big = new BigDecimal("123456789012345678901234567890.12");
+		given(resultSet.next()).willReturn(true, true, false);
+		given(resultSet.getObject(1)).willReturn(new BigDecimal("12.50"), new BigDecimal("-3"));
+		given(resultSet.getObject(2)).willReturn(timestamp, null);
+		given(resultSet.getObject(3)).willReturn(new Date(86400000L), new Time(3600000L));
+		given(resultSet.getObject(4)).willReturn(BigDecimal.TEN, big);
+		ColumnarSqlRowSet rowSet = new ColumnarSqlRowSet(resultSet);
+
+		assertThat(rowSet.next()).isTrue();
+		assertThat(rowSet.getObject("price")).isEqualTo(new BigDecimal("12.50"));
+		assertThat(rowSet.getBigDecimal("price").scale()).isEqualTo(2);
+		assertThat(rowSet.getDouble("price")).isEqualTo(12.5d);
+		assertThat(rowSet.getObject("created")).isEqualTo(timestamp);
+		assertThat(rowSet.getTimestamp("created").getNanos()).isEqualTo(123456789);
+		assertThat(rowSet.getObject("day")).isEqualTo(new Date(86400000L));
+		assertThat(rowSet.getObject("big")).isEqualTo(BigDecimal.TEN);
+
+		assertThat(rowSet.next()).isTrue();
+		assertThat(rowSet.getObject("price")).isEqualTo(new BigDecimal("-3"));
+		assertThat(rowSet.getLong("price")).isEqualTo(-3L);
+		assertThat(rowSet.getTimestamp("created")).isNull();
+		assertThat(rowSet.wasNull()).isTrue();
+		assertThat(rowSet.getObject("day")).isInstanceOf(Time.class).isEqualTo(new Time(3600000L));
+		assertThat(rowSet.getObject("big")).isEqualTo(big);
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+			oos.writeObject(rowSet);
+		}
+		SqlRowSet copy;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+			copy = (SqlRowSet) ois.readObject();
+		}
+		assertThat(copy.first()).isTrue();
+		assertThat(copy.getObject("price")).isEqualTo(new BigDecimal("12.50"));
+		assertThat(copy.getTimestamp("created")).isEqualTo(timestamp);
+	}
+
+	@Test
+	public void navigation() {
+		assertThat(this.rowSet.isBeforeFirst()).isTrue();
+		assertThat(this.rowSet.getRow()).isEqualTo(0);
+		assertThat(this.rowSet.last()).isTrue();
+		assertThat(this.rowSet.isLast()).isTrue();
+		assertThat(this.rowSet.getInt(1)).isEqualTo(3);
+		assertThat(this.rowSet.previous()).isTrue();
+		assertThat(this.rowSet.getRow()).isEqualTo(2);
+		assertThat(this.rowSet.relative(-1)).isTrue();
+		assertThat(this.rowSet.isFirst()).isTrue();
+		assertThat(this.rowSet.relative(5)).isFalse();
+		assertThat(this.rowSet.isAfterLast()).isTrue();
+		assertThat(this.rowSet.absolute(-2)).isTrue();
+		assertThat(this.rowSet.getInt(1)).isEqualTo(2);
+		this.rowSet.beforeFirst();
+		assertThat(this.rowSet.previous()).isFalse();
+		assertThat(this.rowSet.first()).isTrue();
+		this.rowSet.afterLast();
+		assertThat(this.rowSet.previous()).isTrue();
+		assertThat(this.rowSet.getInt(1)).isEqualTo(3);
+	}
+
+	@Test
+	public void columnLabels() {
+		assertThat(this.rowSet.findColumn("id")).isEqualTo(1);
+		assertThat(this.rowSet.findColumn("ID")).isEqualTo(1);
+		assertThat(this.rowSet.findColumn("Name")).isEqualTo(2);
+		assertThatExceptionOfType(InvalidResultSetAccessException.class).isThrownBy(() ->
+				this.rowSet.findColumn("missing"));
+		assertThat(this.rowSet.getMetaData().getColumnCount()).isEqualTo(5);
+		assertThat(this.rowSet.getMetaData().getColumnType(1)).isEqualTo(Types.INTEGER);
+		assertThat(this.rowSet.getMetaData().getColumnLabel(2)).isEqualTo("name");
+	}
+
+	@Test
+	public void invalidAccess() {
+		assertThatExceptionOfType(InvalidResultSetAccessException.class).isThrownBy(() ->
+				this.rowSet.getInt(1));
+		this.rowSet.next();
+		assertThatExceptionOfType(InvalidResultSetAccessException.class).isThrownBy(() ->
+				this.rowSet.getInt(6));
+		assertThatExceptionOfType(InvalidResultSetAccessException.class).isThrownBy(() ->
+				this.rowSet.getInt("name"));
+		assertThatExceptionOfType(InvalidResultSetAccessException.class).isThrownBy(() ->
+				this.rowSet.getTime("id"));
+	}
+
+	@Test
+	public void serializable() throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+			oos.writeObject(this.rowSet);
+		}
+		SqlRowSet copy;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+			copy = (SqlRowSet) ois.readObject();
+		}
+		assertThat(copy.last()).isTrue();
+		assertThat(copy.getString("name")).isEqualTo("a");
+		assertThat(copy.getLong(5)).isEqualTo(30L);
+		assertThat(copy.getMetaData().getColumnLabel(1)).isEqualTo("id");
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+/**
+ * Callback interface for recording timings and byte counts of client HTTP
+ * exchanges, e.g. to feed per-host latency histograms, in-flight gauges and
+ * error counters of a metrics library.
+ *
+ * <p>Connection level events are reported by a {@link MetricsClientHttpConnector},
+ * while exchange level events are reported by the {@code recordMetrics} filter
+ * of the {@code WebClient}. All methods have empty default implementations,
+ * and are invoked on the thread that completes the corresponding step, so
+ * implementations must be thread-safe and should not block.
+ *
+ * @author Brian Clozel
+ * @since 5.3
+ * @see MetricsClientHttpConnector
+ */
+public interface ClientHttpMetricsRecorder {
+
+	/**
+	 * A recorder that ignores all events.
+	 */
+	ClientHttpMetricsRecorder NO_OP = new ClientHttpMetricsRecorder() {};
+
+
+	/**
+	 * Invoked when an exchange starts, i.e. when it becomes in-flight.
+	 * @param method the HTTP method of the request
+	 * @param uri the URI of the request
+	 */
+	default void exchangeStarted(HttpMethod method, URI uri) {
+	}
+
+	/**
+	 * Invoked when an exchange is complete, i.e. when the response status and
+	 * headers have been received, or when the exchange failed or was cancelled
+	 * before that, at which point it is no longer in-flight.
+	 * @param method the HTTP method of the request
+	 * @param uri the URI of the request
+	 * @param statusCode the raw response status code, or -1 if no response
+	 * was received
+	 * @param durationNanos the time since the exchange started in nanoseconds
+	 * @param error the error the exchange failed with, or {@code null}
+	 */
+	default void exchangeCompleted(HttpMethod method, URI uri, int statusCode,
+			long durationNanos, @Nullable Throwable error) {
+	}
+
+	/**
+	 * Invoked when the response body of a complete exchange has been consumed
+	 * or released, or has failed or was cancelled. This is not invoked if the
+	 * response body is never subscribed to, which also leaves the underlying
+	 * connection unreleased.
+	 * @param method the HTTP method of the request
+	 * @param uri the URI of the request
+	 * @param statusCode the raw response status code
+	 * @param durationNanos the time since the exchange started in nanoseconds
+	 * @param error the error reading the body failed with, or {@code null}
+	 */
+	default void responseBodyCompleted(HttpMethod method, URI uri, int statusCode,
+			long durationNanos, @Nullable Throwable error) {
+	}
+
+	/**
+	 * Invoked when the underlying HTTP client is ready to write the request,
+	 * which includes establishing the connection or waiting for a pooled one,
+	 * depending on the connector.
+	 * @param uri the URI of the request
+	 * @param waitNanos the time since the connection was requested in nanoseconds
+	 */
+	default void connectionAcquired(URI uri, long waitNanos) {
+	}
+
+	/**
+	 * Invoked when the response status and headers have been received.
+	 * @param uri the URI of the request
+	 * @param statusCode the raw response status code
+	 * @param timeToFirstByteNanos the time since the connection was requested
+	 * in nanoseconds
+	 */
+	default void responseReceived(URI uri, int statusCode, long timeToFirstByteNanos) {
+	}
+
+	/**
+	 * Invoked when writing the request body is done.
+	 * @param uri the URI of the request
+	 * @param byteCount the number of body bytes written
+	 */
+	default void bytesSent(URI uri, long byteCount) {
+	}
+
+	/**
+	 * Invoked when reading the response body is done, or was cancelled. This is
+	 * not invoked if the response body is never subscribed to.
+	 * @param uri the URI of the request
+	 * @param byteCount the number of body bytes read
+	 */
+	default void bytesReceived(URI uri, long byteCount) {
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import org.springframework.util.Assert;
+
+/**
+ * Settings for a {@link ClientHttpConnector} that sends requests over HTTP/2,
+ * multiplexing concurrent requests to the same host as streams over a small
+ * number of connections.
+ *
+ * <p>Requests to {@code "http"} URLs use HTTP/2 over cleartext with prior
+ * knowledge (h2c), i.e. the server must accept HTTP/2 without an upgrade
+ * from HTTP/1.1. Requests to {@code "https"} URLs negotiate HTTP/2 via ALPN.
+ *
+ * @author Brian Clozel
+ * @since 5.3
+ * @see JettyClientHttpConnector#JettyClientHttpConnector(Http2ClientSettings, JettyResourceFactory)
+ */
+public class Http2ClientSettings {
+
+	private int maxConnectionsPerHost = 1;
+
+	private int maxConcurrentStreams = 100;
+
+
+	/**
+	 * Create settings with default values.
+	 */
+	public Http2ClientSettings() {
+	}
+
+	/**
+	 * Copy constructor.
+	 * @param other the settings to copy
+	 */
+	public Http2ClientSettings(Http2ClientSettings other) {
+		this.maxConnectionsPerHost = other.maxConnectionsPerHost;
+		this.maxConcurrentStreams = other.maxConcurrentStreams;
+	}
+
+
+	/**
+	 * Set the maximum number of connections to open to each host.
+	 * <p>By default this is set to 1.
+	 */
+	public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+		Assert.isTrue(maxConnectionsPerHost > 0, "Max connections per host must be greater than 0");
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+	}
+
+	/**
+	 * Return the maximum number of connections to open to each host.
+	 */
+	public int getMaxConnectionsPerHost() {
+		return this.maxConnectionsPerHost;
+	}
+
+	/**
+	 * Set the maximum number of concurrent streams, i.e. in-flight requests,
+	 * per connection. Further requests wait for a stream to become available.
+	 * The limit announced by the server applies if it is lower.
+	 * <p>By default this is set to 100.
+	 */
+	public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+		Assert.isTrue(maxConcurrentStreams > 0, "Max concurrent streams must be greater than 0");
+		this.maxConcurrentStreams = maxConcurrentStreams;
+	}
+
+	/**
+	 * Return the maximum number of concurrent streams per connection.
+	 */
+	public int getMaxConcurrentStreams() {
+		return this.maxConcurrentStreams;
+	}
+
+}
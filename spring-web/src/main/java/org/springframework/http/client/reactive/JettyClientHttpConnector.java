@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,7 +21,11 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.MultiplexConnectionPool;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
 import org.eclipse.jetty.reactive.client.ContentChunk;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -77,6 +81,19 @@ public class JettyClientHttpConnector implements ClientHttpConnector {
 		this.httpClient = httpClient;
 	}
 
+	/**
+	 * Constructor that creates a new {@link HttpClient} for HTTP/2 with the
+	 * given settings, optionally configured with the given {@link JettyResourceFactory}.
+	 * <p>This requires the {@code org.eclipse.jetty.http2:http2-http-client-transport}
+	 * library, as well as a Jetty ALPN client library for {@code "https"} URLs.
+	 * @param settings the HTTP/2 settings to apply
+	 * @param resourceFactory the {@link JettyResourceFactory} to use, if any
+	 * @since 5.3
+	 */
+	public JettyClientHttpConnector(Http2ClientSettings settings, @Nullable JettyResourceFactory resourceFactory) {
+		this(Http2ClientFactory.createHttpClient(settings), resourceFactory);
+	}
+
 	/**
 	 * Constructor with an {@link JettyResourceFactory} that will manage shared resources.
 	 * @param resourceFactory the {@link JettyResourceFactory} to use
@@ -139,4 +156,23 @@ public class JettyClientHttpConnector implements ClientHttpConnector {
 		return buffer;
 	}
 
+
+	/**
+	 * Inner class to avoid a hard dependency on the Jetty HTTP/2 client transport.
+	 */
+	private static class Http2ClientFactory {
+
+		static HttpClient createHttpClient(Http2ClientSettings settings) {
+			Assert.notNull(settings, "Http2ClientSettings is required");
+			HTTP2Client http2Client = new HTTP2Client();
+			HttpClientTransportOverHTTP2 transport = new HttpClientTransportOverHTTP2(http2Client);
+			transport.setUseALPN(true);
+			transport.setConnectionPoolFactory(destination -> new MultiplexConnectionPool(destination,
+					settings.getMaxConnectionsPerHost(), destination, settings.getMaxConcurrentStreams()));
+			HttpClient httpClient = new HttpClient(transport, new SslContextFactory.Client());
+			httpClient.setMaxConnectionsPerDestination(settings.getMaxConnectionsPerHost());
+			return httpClient;
+		}
+	}
+
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpConnector} decorator that reports connection acquisition
+ * time, time to first byte and request and response body sizes to a
+ * {@link ClientHttpMetricsRecorder}.
+ *
+ * <p>The connection is considered acquired when the delegate connector invokes
+ * the request callback. For the {@link ReactorClientHttpConnector} this
+ * includes waiting for a connection from the pool and connecting, while the
+ * {@link JettyClientHttpConnector} invokes the callback before the Jetty
+ * client picks a connection.
+ *
+ * <p>Response body sizes are only reported once the response body has been
+ * consumed or released, or has failed or was cancelled, while the time to
+ * first byte is reported as soon as the response status and headers have
+ * been received.
+ *
+ * @author Brian Clozel
+ * @since 5.3
+ */
+public class MetricsClientHttpConnector implements ClientHttpConnector {
+
+	private final ClientHttpConnector delegate;
+
+	private final ClientHttpMetricsRecorder recorder;
+
+
+	/**
+	 * Create a new {@code MetricsClientHttpConnector}.
+	 * @param delegate the connector to delegate to
+	 * @param recorder the recorder to report to
+	 */
+	public MetricsClientHttpConnector(ClientHttpConnector delegate, ClientHttpMetricsRecorder recorder) {
+		Assert.notNull(delegate, "ClientHttpConnector must not be null");
+		Assert.notNull(recorder, "ClientHttpMetricsRecorder must not be null");
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+
+	@Override
+	public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+			Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+
+		return Mono.defer(() -> {
+			long startTime = System.nanoTime();
+			return this.delegate
+					.connect(method, uri, request -> {
+						this.recorder.connectionAcquired(uri, System.nanoTime() - startTime);
+						return requestCallback.apply(new MetricsClientHttpRequest(request));
+					})
+					.map(response -> {
+						long timeToFirstByte = System.nanoTime() - startTime;
+						this.recorder.responseReceived(uri, response.getRawStatusCode(), timeToFirstByte);
+						return new MetricsClientHttpResponse(response, uri);
+					});
+		});
+	}
+
+	private Flux<DataBuffer> countBytes(Publisher<? extends DataBuffer> body, URI uri, boolean sent) {
+		return Flux.defer(() -> {
+			long[] byteCount = new long[1];
+			Runnable report = () -> {
+				if (sent) {
+					this.recorder.bytesSent(uri, byteCount[0]);
+				}
+				else {
+					this.recorder.bytesReceived(uri, byteCount[0]);
+				}
+			};
+			// Report before the terminal signal is propagated downstream
+			return Flux.<DataBuffer>from(body)
+					.doOnNext(buffer -> byteCount[0] += buffer.readableByteCount())
+					.doOnTerminate(report)
+					.doOnCancel(report);
+		});
+	}
+
+
+	private class MetricsClientHttpRequest extends ClientHttpRequestDecorator {
+
+		MetricsClientHttpRequest(ClientHttpRequest delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			return super.writeWith(countBytes(body, getURI(), true));
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return super.writeAndFlushWith(Flux.from(body).map(inner -> countBytes(inner, getURI(), true)));
+		}
+	}
+
+
+	private class MetricsClientHttpResponse extends ClientHttpResponseDecorator {
+
+		private final URI uri;
+
+		MetricsClientHttpResponse(ClientHttpResponse delegate, URI uri) {
+			super(delegate);
+			this.uri = uri;
+		}
+
+		@Override
+		public Flux<DataBuffer> getBody() {
+			return countBytes(super.getBody(), this.uri, false);
+		}
+	}
+
+}
@@ -17,11 +17,14 @@
 package org.springframework.http.converter.json;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -84,6 +87,8 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	@Nullable
 	private PrettyPrinter ssePrettyPrinter;
 
+	private int streamingFlushSize = 100;
+
 
 	protected AbstractJackson2HttpMessageConverter(ObjectMapper objectMapper) {
 		this.objectMapper = objectMapper;
@@ -141,6 +146,31 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		configurePrettyPrint();
 	}
 
+	/**
+	 * Set the number of elements after which the output is flushed when writing
+	 * a {@link Stream} or an {@link Iterator} as a JSON array.
+	 * <p>Such values are written element by element rather than being collected
+	 * in memory first, so a periodic flush lets the client consume the array
+	 * while it is being produced. A value of 0 or less means no intermediate
+	 * flushing, i.e. the output is only flushed once the array is complete.
+	 * <p>The default is 100.
+	 * <p>Only applies to converters that {@link #supportsStreamingElements()
+	 * support streaming elements}.
+	 * @since 5.3
+	 */
+	public void setStreamingFlushSize(int streamingFlushSize) {
+		this.streamingFlushSize = streamingFlushSize;
+	}
+
+	/**
+	 * Return the configured number of elements after which the output is flushed
+	 * when writing a {@link Stream} or an {@link Iterator}.
+	 * @since 5.3
+	 */
+	public int getStreamingFlushSize() {
+		return this.streamingFlushSize;
+	}
+
 	private void configurePrettyPrint() {
 		if (this.prettyPrint != null) {
 			this.objectMapper.configure(SerializationFeature.INDENT_OUTPUT, this.prettyPrint);
@@ -172,6 +202,9 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		if (!canWrite(mediaType)) {
 			return false;
 		}
+		if (supportsStreamingElements() && isStreamingType(clazz)) {
+			return true;
+		}
 		AtomicReference<Throwable> causeRef = new AtomicReference<>();
 		if (this.objectMapper.canSerialize(clazz, causeRef)) {
 			return true;
@@ -284,7 +317,12 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 					config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
 				objectWriter = objectWriter.with(this.ssePrettyPrinter);
 			}
-			objectWriter.writeValue(generator, value);
+			if (supportsStreamingElements() && (value instanceof Stream || value instanceof Iterator)) {
+				writeElements(objectWriter, generator, value, javaType);
+			}
+			else {
+				objectWriter.writeValue(generator, value);
+			}
 
 			writeSuffix(generator, object);
 			generator.flush();
@@ -297,6 +335,70 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	/**
+	 * Write the elements of the given {@link Stream} or {@link Iterator} one at a
+	 * time as a JSON array, flushing according to the configured
+	 * {@link #setStreamingFlushSize streaming flush size}. The source is closed
+	 * once written, or when writing fails, e.g. due to a client disconnect.
+	 * <p>The elements are written as an {@code Iterator} of the declared element
+	 * type, if known, so that type information such as {@code @JsonTypeInfo} on
+	 * that type is applied as for a collection of it.
+	 */
+	private void writeElements(ObjectWriter objectWriter, JsonGenerator generator, Object value,
+			@Nullable JavaType javaType) throws IOException {
+
+		Class<?> sourceType = (value instanceof Stream ? Stream.class : Iterator.class);
+		JavaType iteratorType = this.objectMapper.getTypeFactory().constructParametricType(
+				Iterator.class, getElementType(javaType, sourceType));
+		ObjectWriter iteratorWriter = objectWriter.forType(iteratorType)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		Iterator<?> iterator = (value instanceof Stream ? ((Stream<?>) value).iterator() : (Iterator<?>) value);
+		try {
+			iteratorWriter.writeValue(generator, new FlushingIterator<>(iterator, generator, this.streamingFlushSize));
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		finally {
+			if (value instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) value).close();
+				}
+				catch (Exception ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to close streamed value after writing", ex);
+					}
+				}
+			}
+		}
+	}
+
+	private JavaType getElementType(@Nullable JavaType javaType, Class<?> sourceType) {
+		if (javaType != null) {
+			JavaType[] typeParameters = javaType.findTypeParameters(sourceType);
+			if (typeParameters.length == 1) {
+				return typeParameters[0];
+			}
+		}
+		return this.objectMapper.getTypeFactory().constructType(Object.class);
+	}
+
+	private static boolean isStreamingType(Class<?> clazz) {
+		return (Stream.class.isAssignableFrom(clazz) || Iterator.class.isAssignableFrom(clazz));
+	}
+
+	/**
+	 * Whether this converter writes {@link Stream} and {@link Iterator} values
+	 * element by element as an array, rather than handing them to Jackson as a
+	 * whole. Off by default since a root-level array does not suit every format,
+	 * e.g. XML which requires a root element.
+	 * @since 5.3
+	 * @see #setStreamingFlushSize
+	 */
+	protected boolean supportsStreamingElements() {
+		return false;
+	}
+
 	/**
 	 * Write a prefix before the main content.
 	 * @param generator the generator to use for writing content.
@@ -359,4 +461,45 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		return super.getContentLength(object, contentType);
 	}
 
+
+	/**
+	 * Iterator decorator that flushes the generator every given number of
+	 * elements, i.e. before handing out the next element.
+	 */
+	private static class FlushingIterator<T> implements Iterator<T> {
+
+		private final Iterator<T> delegate;
+
+		private final JsonGenerator generator;
+
+		private final int flushSize;
+
+		private int count;
+
+		FlushingIterator(Iterator<T> delegate, JsonGenerator generator, int flushSize) {
+			this.delegate = delegate;
+			this.generator = generator;
+			this.flushSize = flushSize;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.delegate.hasNext();
+		}
+
+		@Override
+		public T next() {
+			if (this.flushSize > 0 && this.count > 0 && this.count % this.flushSize == 0) {
+				try {
+					this.generator.flush();
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+			this.count++;
+			return this.delegate.next();
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -90,6 +90,16 @@ public class MappingJackson2HttpMessageConverter extends AbstractJackson2HttpMes
 	}
 
 
+	/**
+	 * Writes {@link java.util.stream.Stream} and {@link java.util.Iterator}
+	 * values element by element as a JSON array.
+	 * @since 5.3
+	 */
+	@Override
+	protected boolean supportsStreamingElements() {
+		return true;
+	}
+
 	@Override
 	protected void writePrefix(JsonGenerator generator, Object object) throws IOException {
 		if (this.jsonPrefix != null) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,8 +19,6 @@ package org.springframework.http.server.reactive;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 
@@ -33,7 +31,6 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.ObjectUtils;
-import org.springframework.util.StringUtils;
 
 /**
  * Common base class for {@link ServerHttpRequest} implementations.
@@ -43,9 +40,6 @@ import org.springframework.util.StringUtils;
  */
 public abstract class AbstractServerHttpRequest implements ServerHttpRequest {
 
-	private static final Pattern QUERY_PATTERN = Pattern.compile("([^&=]+)(=?)([^&]+)?");
-
-
 	protected final Log logger = HttpLogging.forLogName(getClass());
 
 	private final URI uri;
@@ -138,12 +132,28 @@ public abstract class AbstractServerHttpRequest implements ServerHttpRequest {
 		MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
 		String query = getURI().getRawQuery();
 		if (query != null) {
-			Matcher matcher = QUERY_PATTERN.matcher(query);
-			while (matcher.find()) {
-				String name = decodeQueryParam(matcher.group(1));
-				String eq = matcher.group(2);
-				String value = matcher.group(3);
-				value = (value != null ? decodeQueryParam(value) : (StringUtils.hasLength(eq) ? "" : null));
+			int length = query.length();
+			int index = 0;
+			while (index < length) {
+				// Skip separators preceding the next name, as in "a&&b" or "a&=b"
+				char c = query.charAt(index);
+				if (c == '&' || c == '=') {
+					index++;
+					continue;
+				}
+				int nameStart = index;
+				while (index < length && (c = query.charAt(index)) != '&' && c != '=') {
+					index++;
+				}
+				String name = decodeQueryParam(query.substring(nameStart, index));
+				String value = null;
+				if (index < length && query.charAt(index) == '=') {
+					int valueStart = ++index;
+					while (index < length && query.charAt(index) != '&') {
+						index++;
+					}
+					value = (index > valueStart ? decodeQueryParam(query.substring(valueStart, index)) : "");
+				}
 				queryParams.add(name, value);
 			}
 		}
@@ -152,6 +162,9 @@ public abstract class AbstractServerHttpRequest implements ServerHttpRequest {
 
 	@SuppressWarnings("deprecation")
 	private String decodeQueryParam(String value) {
+		if (value.indexOf('%') == -1 && value.indexOf('+') == -1) {
+			return value;
+		}
 		try {
 			return URLDecoder.decode(value, "UTF-8");
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.http.server.reactive;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Set;
 
 import javax.net.ssl.SSLSession;
 
@@ -63,11 +65,13 @@ class ReactorServerHttpRequest extends AbstractServerHttpRequest {
 
 	private static URI initUri(HttpServerRequest request) throws URISyntaxException {
 		Assert.notNull(request, "HttpServerRequest must not be null");
-		return new URI(resolveBaseUrl(request).toString() + resolveRequestUri(request));
+		StringBuilder url = resolveBaseUrl(request).append(resolveRequestUri(request));
+		// Parse once, rejecting hosts that are not server-based as the URI(scheme, host...) constructors do
+		return new URI(url.toString()).parseServerAuthority();
 	}
 
-	private static URI resolveBaseUrl(HttpServerRequest request) throws URISyntaxException {
-		String scheme = getScheme(request);
+	private static StringBuilder resolveBaseUrl(HttpServerRequest request) throws URISyntaxException {
+		StringBuilder url = new StringBuilder(getScheme(request)).append("://");
 		String header = request.requestHeaders().get(HttpHeaderNames.HOST);
 		if (header != null) {
 			final int portIndex;
@@ -79,24 +83,28 @@ class ReactorServerHttpRequest extends AbstractServerHttpRequest {
 			}
 			if (portIndex != -1) {
 				try {
-					return new URI(scheme, null, header.substring(0, portIndex),
-							Integer.parseInt(header.substring(portIndex + 1)), null, null, null);
+					int port = Integer.parseInt(header.substring(portIndex + 1));
+					return appendHost(url, header.substring(0, portIndex)).append(':').append(port);
 				}
 				catch (NumberFormatException ex) {
 					throw new URISyntaxException(header, "Unable to parse port", portIndex);
 				}
 			}
 			else {
-				return new URI(scheme, header, null, null);
+				return appendHost(url, header);
 			}
 		}
 		else {
 			InetSocketAddress localAddress = request.hostAddress();
-			return new URI(scheme, null, localAddress.getHostString(),
-					localAddress.getPort(), null, null, null);
+			return appendHost(url, localAddress.getHostString()).append(':').append(localAddress.getPort());
 		}
 	}
 
+	private static StringBuilder appendHost(StringBuilder url, String host) {
+		boolean needBrackets = (host.indexOf(':') != -1 && !host.startsWith("[") && !host.endsWith("]"));
+		return (needBrackets ? url.append('[').append(host).append(']') : url.append(host));
+	}
+
 	private static String getScheme(HttpServerRequest request) {
 		return request.scheme();
 	}
@@ -136,11 +144,13 @@ class ReactorServerHttpRequest extends AbstractServerHttpRequest {
 
 	@Override
 	protected MultiValueMap<String, HttpCookie> initCookies() {
-		MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
-		for (CharSequence name : this.request.cookies().keySet()) {
-			for (Cookie cookie : this.request.cookies().get(name)) {
-				HttpCookie httpCookie = new HttpCookie(name.toString(), cookie.value());
-				cookies.add(name.toString(), httpCookie);
+		Map<CharSequence, Set<Cookie>> nativeCookies = this.request.cookies();
+		MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>(nativeCookies.size());
+		for (Map.Entry<CharSequence, Set<Cookie>> entry : nativeCookies.entrySet()) {
+			String name = entry.getKey().toString();
+			for (Cookie cookie : entry.getValue()) {
+				HttpCookie httpCookie = new HttpCookie(name, cookie.value());
+				cookies.add(name, httpCookie);
 			}
 		}
 		return cookies;
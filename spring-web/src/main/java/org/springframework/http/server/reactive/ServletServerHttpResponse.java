@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -299,7 +299,8 @@ class ServletServerHttpResponse extends AbstractListenerServerHttpResponse {
 		protected Processor<? super DataBuffer, Void> createWriteProcessor() {
 			ResponseBodyProcessor processor = new ResponseBodyProcessor();
 			bodyProcessor = processor;
-			return processor;
+			// Join small buffers that queue up while a write is pending
+			return new WriteCoalescingProcessor(processor, bufferFactory(), bufferSize);
 		}
 
 		@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.SSLSession;
@@ -88,10 +89,11 @@ class UndertowServerHttpRequest extends AbstractServerHttpRequest {
 
 	@Override
 	protected MultiValueMap<String, HttpCookie> initCookies() {
-		MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
-		for (String name : this.exchange.getRequestCookies().keySet()) {
-			Cookie cookie = this.exchange.getRequestCookies().get(name);
-			HttpCookie httpCookie = new HttpCookie(name, cookie.getValue());
+		Map<String, Cookie> nativeCookies = this.exchange.getRequestCookies();
+		MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>(nativeCookies.size());
+		for (Map.Entry<String, Cookie> entry : nativeCookies.entrySet()) {
+			String name = entry.getKey();
+			HttpCookie httpCookie = new HttpCookie(name, entry.getValue().getValue());
 			cookies.add(name, httpCookie);
 		}
 		return cookies;
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Operators;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Processor} that sits in front of a write {@code Processor} and joins
+ * consecutive data buffers into one, up to a maximum size, before passing
+ * them on. This reduces the number of write and listener cycles when a
+ * response is written in many small chunks, e.g. server-sent events.
+ *
+ * <p>Buffers are prefetched from the upstream publisher, but only those that
+ * have already arrived when the write processor requests more are joined,
+ * so coalescing never delays a write. Each inner publisher of a
+ * {@link AbstractListenerWriteFlushProcessor} is coalesced separately, so
+ * data is never moved across a flush boundary.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.3
+ */
+final class WriteCoalescingProcessor implements Processor<DataBuffer, Void>, Subscription {
+
+	private static final int PREFETCH = 32;
+
+	private static final int REPLENISH_LIMIT = PREFETCH - (PREFETCH >> 2);
+
+
+	private final Processor<? super DataBuffer, Void> delegate;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final int maxSize;
+
+	private final Queue<DataBuffer> queue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger wip = new AtomicInteger();
+
+	private final AtomicLong requested = new AtomicLong();
+
+	@Nullable
+	private Subscription subscription;
+
+	private volatile boolean done;
+
+	@Nullable
+	private volatile Throwable error;
+
+	private volatile boolean cancelled;
+
+	/** Accessed from the drain loop only. */
+	private boolean terminated;
+
+	/** Accessed from the drain loop only. */
+	private int consumed;
+
+
+	/**
+	 * Create a new {@code WriteCoalescingProcessor}.
+	 * @param delegate the write processor to pass joined buffers to
+	 * @param bufferFactory the factory to join buffers with
+	 * @param maxSize the maximum number of bytes to join into one buffer
+	 */
+	WriteCoalescingProcessor(Processor<? super DataBuffer, Void> delegate,
+			DataBufferFactory bufferFactory, int maxSize) {
+
+		Assert.notNull(delegate, "Processor must not be null");
+		Assert.notNull(bufferFactory, "DataBufferFactory must not be null");
+		Assert.isTrue(maxSize > 0, "Max size must be greater than 0");
+		this.delegate = delegate;
+		this.bufferFactory = bufferFactory;
+		this.maxSize = maxSize;
+	}
+
+
+	// Subscriber methods (upstream)...
+
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		if (this.subscription != null) {
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		this.delegate.onSubscribe(this);
+		if (!this.cancelled) {
+			subscription.request(PREFETCH);
+		}
+	}
+
+	@Override
+	public void onNext(DataBuffer dataBuffer) {
+		if (this.done) {
+			DataBufferUtils.release(dataBuffer);
+			return;
+		}
+		this.queue.offer(dataBuffer);
+		drain();
+	}
+
+	@Override
+	public void onError(Throwable ex) {
+		if (this.done) {
+			return;
+		}
+		this.error = ex;
+		this.done = true;
+		drain();
+	}
+
+	@Override
+	public void onComplete() {
+		if (this.done) {
+			return;
+		}
+		this.done = true;
+		drain();
+	}
+
+
+	// Publisher method (downstream)...
+
+	@Override
+	public void subscribe(Subscriber<? super Void> subscriber) {
+		this.delegate.subscribe(subscriber);
+	}
+
+
+	// Subscription methods (downstream)...
+
+	@Override
+	public void request(long n) {
+		if (Operators.validate(n)) {
+			this.requested.getAndUpdate(current -> Operators.addCap(current, n));
+			drain();
+		}
+	}
+
+	@Override
+	public void cancel() {
+		if (this.cancelled) {
+			return;
+		}
+		this.cancelled = true;
+		Subscription subscription = this.subscription;
+		if (subscription != null) {
+			subscription.cancel();
+		}
+		drain();
+	}
+
+
+	private void drain() {
+		if (this.wip.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		do {
+			if (this.cancelled || this.terminated) {
+				releaseQueued();
+			}
+			else {
+				long demand = this.requested.get();
+				long emitted = 0;
+				while (emitted != demand) {
+					boolean isDone = this.done;
+					if (isDone && this.error != null) {
+						terminate();
+						break;
+					}
+					DataBuffer dataBuffer = poll();
+					if (dataBuffer == null) {
+						if (isDone) {
+							terminate();
+						}
+						break;
+					}
+					this.delegate.onNext(dataBuffer);
+					emitted++;
+					if (this.cancelled) {
+						break;
+					}
+				}
+				if (emitted == demand && !this.terminated && this.done &&
+						(this.error != null || this.queue.isEmpty())) {
+					terminate();
+				}
+				if (emitted != 0) {
+					this.requested.addAndGet(-emitted);
+				}
+			}
+			missed = this.wip.addAndGet(-missed);
+		}
+		while (missed != 0);
+	}
+
+	/**
+	 * Remove the next buffer from the queue and join it with the buffers
+	 * queued after it as long as the joined size does not exceed the maximum.
+	 */
+	@Nullable
+	private DataBuffer poll() {
+		DataBuffer first = this.queue.poll();
+		if (first == null) {
+			return null;
+		}
+		int size = first.readableByteCount();
+		DataBuffer next = this.queue.peek();
+		if (next == null || size + next.readableByteCount() > this.maxSize) {
+			replenish(1);
+			return first;
+		}
+		List<DataBuffer> dataBuffers = new ArrayList<>();
+		dataBuffers.add(first);
+		while (next != null && size + next.readableByteCount() <= this.maxSize) {
+			this.queue.poll();
+			dataBuffers.add(next);
+			size += next.readableByteCount();
+			next = this.queue.peek();
+		}
+		replenish(dataBuffers.size());
+		return this.bufferFactory.join(dataBuffers);
+	}
+
+	private void replenish(int count) {
+		this.consumed += count;
+		if (this.consumed >= REPLENISH_LIMIT && !this.done) {
+			Subscription subscription = this.subscription;
+			Assert.state(subscription != null, "No subscription");
+			subscription.request(this.consumed);
+			this.consumed = 0;
+		}
+	}
+
+	private void terminate() {
+		this.terminated = true;
+		Throwable ex = this.error;
+		if (ex != null) {
+			releaseQueued();
+			this.delegate.onError(ex);
+		}
+		else {
+			this.delegate.onComplete();
+		}
+	}
+
+	private void releaseQueued() {
+		DataBuffer dataBuffer;
+		while ((dataBuffer = this.queue.poll()) != null) {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+}
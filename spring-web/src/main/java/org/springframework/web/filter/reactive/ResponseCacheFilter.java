@@ -0,0 +1,546 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * {@link WebFilter} that keeps complete responses to {@code GET} requests in
+ * memory and serves subsequent identical requests from the cache, without
+ * invoking the rest of the chain.
+ *
+ * <p>A response is cached if it has status 200, a positive
+ * {@code "s-maxage"} or {@code "max-age"} {@code Cache-Control} directive,
+ * no {@code "no-store"}, {@code "no-cache"} or {@code "private"} directive,
+ * no cookies, no {@code "Vary: *"}, and a body of at most
+ * {@link #setMaxEntrySize maxEntrySize} bytes written through
+ * {@link ServerHttpResponse#writeWith}. These conditions are checked both
+ * before the response is committed and once it has been written, so that
+ * headers and cookies added on commit are taken into account.
+ * Requests with an {@code Authorization}
+ * header or a {@code "no-store"} directive bypass the cache, while a
+ * {@code "no-cache"} directive skips the lookup but updates the cache.
+ *
+ * <p>Cached responses are keyed by scheme, host, path and query, and by the
+ * request values of the headers listed in the {@code Vary} header of the
+ * response. Conditional requests are answered with 304 based on the cached
+ * {@code ETag} and {@code Last-Modified} headers. The total size of cached
+ * content is bounded by {@link #setMaxCacheSize maxCacheSize}, evicting entries
+ * that have not been served since they were last considered for eviction first.
+ *
+ * <p>Concurrent requests that miss the cache for the same key are coalesced:
+ * only the first one invokes the rest of the chain, while the others wait for
+ * its response and then try the cache again, falling back on the chain if
+ * the response could not be cached. Waiting requests are released as soon as
+ * the response is known not to be cacheable, i.e. when it is committed
+ * through {@link ServerHttpResponse#writeAndFlushWith} or
+ * {@link ServerHttpResponse#setComplete}, or when its status and headers
+ * prevent caching at the time the body is written.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.3
+ */
+public class ResponseCacheFilter implements WebFilter {
+
+	/** Default maximum size of a single cached response body: 256 KB. */
+	public static final int DEFAULT_MAX_ENTRY_SIZE = 256 * 1024;
+
+	/** Default maximum total size of cached response bodies: 10 MB. */
+	public static final long DEFAULT_MAX_CACHE_SIZE = 10 * 1024 * 1024;
+
+
+	private int maxEntrySize = DEFAULT_MAX_ENTRY_SIZE;
+
+	private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+
+	private Clock clock = Clock.systemUTC();
+
+	/** Request header names to vary by, per primary cache key. */
+	private final Map<String, List<String>> varyHeaderNames = new ConcurrentHashMap<>(256);
+
+	/** Fast access cache for responses, returning cached content without a global lock. */
+	private final Map<String, CachedResponse> accessCache = new ConcurrentHashMap<>(256);
+
+	/** Map from cache key to response in insertion order, synchronized for eviction. */
+	private final Map<String, CachedResponse> evictionCache = new LinkedHashMap<>(256);
+
+	/** Total size of cached content, guarded by the eviction cache. */
+	private long cacheSize;
+
+	/** Completed when the request currently filling the cache for a key is done. */
+	private final Map<String, MonoProcessor<Void>> pendingResponses = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Set the maximum size in bytes of a response body to cache.
+	 * <p>By default this is set to 256 KB.
+	 */
+	public void setMaxEntrySize(int maxEntrySize) {
+		this.maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * Return the maximum size in bytes of a response body to cache.
+	 */
+	public int getMaxEntrySize() {
+		return this.maxEntrySize;
+	}
+
+	/**
+	 * Set the maximum total size in bytes of cached response bodies.
+	 * <p>By default this is set to 10 MB.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Return the maximum total size in bytes of cached response bodies.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to check for expired responses.
+	 * <p>By default this is {@code Clock.systemUTC()}. This may be useful
+	 * to use a clock with a different time zone, or for testing.
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+	}
+
+	/**
+	 * Return the configured clock for expiration checks.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+	/**
+	 * Return the current total size in bytes of cached response bodies.
+	 */
+	public long getCacheSize() {
+		synchronized (this.evictionCache) {
+			return this.cacheSize;
+		}
+	}
+
+	/**
+	 * Remove all cached responses.
+	 */
+	public void clearCache() {
+		synchronized (this.evictionCache) {
+			this.accessCache.clear();
+			this.evictionCache.clear();
+			this.varyHeaderNames.clear();
+			this.cacheSize = 0;
+		}
+	}
+
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		if (!HttpMethod.GET.equals(request.getMethod()) ||
+				request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+			return chain.filter(exchange);
+		}
+		List<String> directives = getCacheControlDirectives(request.getHeaders());
+		if (directives.contains("no-store")) {
+			return chain.filter(exchange);
+		}
+
+		String primaryKey = getPrimaryKey(request);
+		if (directives.contains("no-cache")) {
+			return filterAndCache(exchange, chain, primaryKey, () -> {});
+		}
+
+		return Mono.defer(() -> {
+			String key = getKey(primaryKey, request);
+			CachedResponse cachedResponse = getCachedResponse(key);
+			if (cachedResponse != null) {
+				return writeCachedResponse(exchange, cachedResponse);
+			}
+			MonoProcessor<Void> processor = MonoProcessor.create();
+			MonoProcessor<Void> pending = this.pendingResponses.putIfAbsent(key, processor);
+			if (pending != null) {
+				return pending.then(Mono.defer(() -> {
+					CachedResponse response = getCachedResponse(getKey(primaryKey, request));
+					return (response != null ? writeCachedResponse(exchange, response) : chain.filter(exchange));
+				}));
+			}
+			Runnable releasePending = () -> {
+				if (this.pendingResponses.remove(key, processor)) {
+					processor.onComplete();
+				}
+			};
+			return filterAndCache(exchange, chain, primaryKey, releasePending)
+					.doFinally(signalType -> releasePending.run());
+		});
+	}
+
+	private String getPrimaryKey(ServerHttpRequest request) {
+		// Scheme and host included, so that virtual hosts do not share entries
+		URI uri = request.getURI();
+		StringBuilder key = new StringBuilder();
+		if (uri.getScheme() != null) {
+			key.append(uri.getScheme()).append(':');
+		}
+		if (uri.getRawAuthority() != null) {
+			key.append("//").append(uri.getRawAuthority());
+		}
+		key.append(uri.getRawPath());
+		if (uri.getRawQuery() != null) {
+			key.append('?').append(uri.getRawQuery());
+		}
+		return key.toString();
+	}
+
+	private String getKey(String primaryKey, ServerHttpRequest request) {
+		List<String> headerNames = this.varyHeaderNames.get(primaryKey);
+		return (headerNames != null ? getKey(primaryKey, headerNames, request) : primaryKey);
+	}
+
+	private String getKey(String primaryKey, List<String> varyHeaderNames, ServerHttpRequest request) {
+		if (varyHeaderNames.isEmpty()) {
+			return primaryKey;
+		}
+		StringBuilder key = new StringBuilder(primaryKey);
+		for (String headerName : varyHeaderNames) {
+			List<String> values = request.getHeaders().getOrEmpty(headerName);
+			key.append('\n').append(headerName).append(':').append(String.join(",", values));
+		}
+		return key.toString();
+	}
+
+	@Nullable
+	private CachedResponse getCachedResponse(String key) {
+		CachedResponse cachedResponse = this.accessCache.get(key);
+		if (cachedResponse == null) {
+			return null;
+		}
+		if (cachedResponse.isExpired(this.clock.millis())) {
+			removeFromCache(key, cachedResponse);
+			return null;
+		}
+		cachedResponse.accessed = true;
+		return cachedResponse;
+	}
+
+	private Mono<Void> writeCachedResponse(ServerWebExchange exchange, CachedResponse cachedResponse) {
+		ServerHttpResponse response = exchange.getResponse();
+		HttpHeaders headers = cachedResponse.headers;
+		long lastModified = headers.getLastModified();
+		if (exchange.checkNotModified(headers.getETag(),
+				(lastModified != -1 ? Instant.ofEpochMilli(lastModified) : Instant.MIN))) {
+			copyHeader(headers, response.getHeaders(), HttpHeaders.CACHE_CONTROL);
+			copyHeader(headers, response.getHeaders(), HttpHeaders.EXPIRES);
+			copyHeader(headers, response.getHeaders(), HttpHeaders.VARY);
+			response.getHeaders().set(HttpHeaders.AGE, cachedResponse.getAge(this.clock.millis()));
+			return response.setComplete();
+		}
+		response.setStatusCode(HttpStatus.OK);
+		response.getHeaders().putAll(headers);
+		response.getHeaders().set(HttpHeaders.AGE, cachedResponse.getAge(this.clock.millis()));
+		return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cachedResponse.body)));
+	}
+
+	private static void copyHeader(HttpHeaders source, HttpHeaders target, String headerName) {
+		List<String> values = source.get(headerName);
+		if (values != null) {
+			target.put(headerName, values);
+		}
+	}
+
+	private Mono<Void> filterAndCache(ServerWebExchange exchange, WebFilterChain chain,
+			String primaryKey, Runnable releasePending) {
+
+		CachingResponse response = new CachingResponse(
+				exchange.getResponse(), exchange.getRequest(), primaryKey, releasePending);
+		return chain.filter(exchange.mutate().response(response).build());
+	}
+
+	private void addToCache(String primaryKey, ServerHttpRequest request, CachedResponse cachedResponse) {
+		List<String> headerNames = cachedResponse.varyHeaderNames;
+		String key = getKey(primaryKey, headerNames, request);
+		synchronized (this.evictionCache) {
+			if (headerNames.isEmpty()) {
+				this.varyHeaderNames.remove(primaryKey);
+			}
+			else {
+				this.varyHeaderNames.put(primaryKey, headerNames);
+			}
+			CachedResponse previous = this.evictionCache.put(key, cachedResponse);
+			if (previous != null) {
+				this.cacheSize -= previous.body.length;
+			}
+			this.accessCache.put(key, cachedResponse);
+			this.cacheSize += cachedResponse.body.length;
+			if (this.cacheSize > this.maxCacheSize) {
+				evict();
+			}
+		}
+	}
+
+	private void evict() {
+		List<Map.Entry<String, CachedResponse>> secondChance = new ArrayList<>();
+		Iterator<Map.Entry<String, CachedResponse>> it = this.evictionCache.entrySet().iterator();
+		while (this.cacheSize > this.maxCacheSize && it.hasNext()) {
+			Map.Entry<String, CachedResponse> eldest = it.next();
+			it.remove();
+			if (eldest.getValue().accessed) {
+				eldest.getValue().accessed = false;
+				secondChance.add(eldest);
+			}
+			else {
+				discard(eldest.getKey(), eldest.getValue());
+			}
+		}
+		for (Map.Entry<String, CachedResponse> entry : secondChance) {
+			if (this.cacheSize > this.maxCacheSize) {
+				discard(entry.getKey(), entry.getValue());
+			}
+			else {
+				this.evictionCache.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private void removeFromCache(String key, CachedResponse cachedResponse) {
+		synchronized (this.evictionCache) {
+			if (this.evictionCache.remove(key, cachedResponse)) {
+				discard(key, cachedResponse);
+			}
+		}
+	}
+
+	private void discard(String key, CachedResponse cachedResponse) {
+		this.accessCache.remove(key);
+		this.cacheSize -= cachedResponse.body.length;
+		if (!cachedResponse.varyHeaderNames.isEmpty()) {
+			this.varyHeaderNames.remove(cachedResponse.primaryKey, cachedResponse.varyHeaderNames);
+		}
+	}
+
+	private static List<String> getCacheControlDirectives(HttpHeaders headers) {
+		List<String> values = headers.getValuesAsList(HttpHeaders.CACHE_CONTROL);
+		if (values.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> directives = new ArrayList<>(values.size());
+		for (String value : values) {
+			directives.add(value.toLowerCase(Locale.ENGLISH));
+		}
+		return directives;
+	}
+
+	/**
+	 * Return the number of seconds the response may be cached for, or 0 if it
+	 * must not be cached.
+	 */
+	private static long getTimeToLive(List<String> directives) {
+		long maxAge = 0;
+		for (String directive : directives) {
+			if (directive.equals("no-store") || directive.equals("no-cache") || directive.startsWith("private")) {
+				return 0;
+			}
+			if (directive.startsWith("s-maxage=")) {
+				return parseSeconds(directive.substring(9));
+			}
+			if (directive.startsWith("max-age=")) {
+				maxAge = parseSeconds(directive.substring(8));
+			}
+		}
+		return maxAge;
+	}
+
+	private static long parseSeconds(String value) {
+		try {
+			return Long.parseLong(value.startsWith("\"") && value.endsWith("\"") && value.length() > 1 ?
+					value.substring(1, value.length() - 1) : value);
+		}
+		catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+
+
+	/**
+	 * Response decorator that copies the body of a cacheable response, as it
+	 * is written, and adds it to the cache once the response is complete.
+	 */
+	private class CachingResponse extends ServerHttpResponseDecorator {
+
+		private final ServerHttpRequest request;
+
+		private final String primaryKey;
+
+		private final Runnable releasePending;
+
+		CachingResponse(ServerHttpResponse delegate, ServerHttpRequest request,
+				String primaryKey, Runnable releasePending) {
+
+			super(delegate);
+			this.request = request;
+			this.primaryKey = primaryKey;
+			this.releasePending = releasePending;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (getTimeToLive() <= 0) {
+				this.releasePending.run();
+				return super.writeWith(body);
+			}
+			long contentLength = getHeaders().getContentLength();
+			FastByteArrayOutputStream content = new FastByteArrayOutputStream(
+					contentLength > 0 ? (int) contentLength : 256);
+			boolean[] tooLarge = new boolean[1];
+			Flux<? extends DataBuffer> captured = Flux.from(body)
+					.doOnNext(buffer -> {
+						int count = buffer.readableByteCount();
+						if (tooLarge[0] || content.size() + count > maxEntrySize) {
+							tooLarge[0] = true;
+							return;
+						}
+						ByteBuffer byteBuffer = buffer.asByteBuffer();
+						byte[] bytes = new byte[count];
+						byteBuffer.get(bytes);
+						content.write(bytes, 0, count);
+					});
+			return super.writeWith(captured)
+					.doOnSuccess(aVoid -> {
+						// Committed: headers and cookies are final now
+						long timeToLive = getTimeToLive();
+						if (!tooLarge[0] && timeToLive > 0) {
+							cacheContent(content.toByteArrayUnsafe(), timeToLive);
+						}
+					})
+					.doFinally(signalType -> this.releasePending.run());
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			this.releasePending.run();
+			return super.writeAndFlushWith(body);
+		}
+
+		@Override
+		public Mono<Void> setComplete() {
+			this.releasePending.run();
+			return super.setComplete();
+		}
+
+		private void cacheContent(byte[] body, long timeToLive) {
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(getHeaders());
+			List<String> varyHeaderNames = new ArrayList<>();
+			for (String headerName : headers.getVary()) {
+				varyHeaderNames.add(headerName.toLowerCase(Locale.ENGLISH));
+			}
+			CachedResponse cachedResponse = new CachedResponse(
+					this.primaryKey, headers, varyHeaderNames, body, clock.millis(), timeToLive);
+			addToCache(this.primaryKey, this.request, cachedResponse);
+		}
+
+		private long getTimeToLive() {
+			HttpStatus status = getStatusCode();
+			if (status != null && status != HttpStatus.OK) {
+				return 0;
+			}
+			HttpHeaders headers = getHeaders();
+			if (!getCookies().isEmpty() || headers.containsKey(HttpHeaders.SET_COOKIE) ||
+					headers.getVary().contains("*") || headers.getContentLength() > maxEntrySize) {
+				return 0;
+			}
+			return ResponseCacheFilter.getTimeToLive(getCacheControlDirectives(headers));
+		}
+	}
+
+
+	/**
+	 * Status 200 response with headers and body held in memory.
+	 */
+	private static final class CachedResponse {
+
+		private final String primaryKey;
+
+		private final HttpHeaders headers;
+
+		private final List<String> varyHeaderNames;
+
+		private final byte[] body;
+
+		private final long creationTime;
+
+		private final long expirationTime;
+
+		private volatile boolean accessed;
+
+		CachedResponse(String primaryKey, HttpHeaders headers, List<String> varyHeaderNames,
+				byte[] body, long creationTime, long timeToLive) {
+
+			this.primaryKey = primaryKey;
+			this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+			this.varyHeaderNames = varyHeaderNames;
+			this.body = body;
+			this.creationTime = creationTime;
+			this.expirationTime = creationTime + timeToLive * 1000;
+		}
+
+		boolean isExpired(long now) {
+			return (now >= this.expirationTime);
+		}
+
+		String getAge(long now) {
+			return Long.toString(Math.max(0, (now - this.creationTime) / 1000));
+		}
+	}
+
+}
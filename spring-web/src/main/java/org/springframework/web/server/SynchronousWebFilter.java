@@ -0,0 +1,57 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link WebFilter} that completes its work immediately, without blocking and
+ * without deferring to an asynchronous operation, and then always delegates to
+ * the rest of the chain, e.g. to add response headers or to mutate the request.
+ *
+ * <p>Consecutive filters of this type can be fused by the
+ * {@link org.springframework.web.server.handler.DefaultWebFilterChain} into a
+ * single link of the chain, invoking them one after the other without creating
+ * a {@code Mono} per filter. A filter that needs to end request processing
+ * should raise an exception, e.g. a {@link ResponseStatusException}, which is
+ * then handled like an error signal from the rest of the chain.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.3
+ * @see org.springframework.web.server.adapter.WebHttpHandlerBuilder#fuseSynchronousFilters(boolean)
+ */
+@FunctionalInterface
+public interface SynchronousWebFilter extends WebFilter {
+
+	/**
+	 * Process the Web request before it is passed on to the rest of the chain.
+	 * @param exchange the current server exchange
+	 * @return the exchange to pass on, either the given one or a
+	 * {@link ServerWebExchange#mutate() mutated} instance
+	 */
+	ServerWebExchange apply(ServerWebExchange exchange);
+
+	/**
+	 * Delegate to the next {@code WebFilter} with the exchange returned from
+	 * {@link #apply(ServerWebExchange)}.
+	 */
+	@Override
+	default Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		return chain.filter(apply(exchange));
+	}
+
+}
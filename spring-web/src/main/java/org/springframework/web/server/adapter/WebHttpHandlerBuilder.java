@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -98,6 +98,8 @@ public final class WebHttpHandlerBuilder {
 	@Nullable
 	private ForwardedHeaderTransformer forwardedHeaderTransformer;
 
+	private boolean fuseSynchronousFilters;
+
 
 	/**
 	 * Private constructor to use when initialized from an ApplicationContext.
@@ -120,6 +122,7 @@ public final class WebHttpHandlerBuilder {
 		this.codecConfigurer = other.codecConfigurer;
 		this.localeContextResolver = other.localeContextResolver;
 		this.forwardedHeaderTransformer = other.forwardedHeaderTransformer;
+		this.fuseSynchronousFilters = other.fuseSynchronousFilters;
 	}
 
 
@@ -252,6 +255,21 @@ public final class WebHttpHandlerBuilder {
 		this.filters.addAll(filtersToUse);
 	}
 
+	/**
+	 * Whether to invoke consecutive
+	 * {@link org.springframework.web.server.SynchronousWebFilter SynchronousWebFilters}
+	 * in a single link of the filter chain, without creating a {@code Mono} and
+	 * a checkpoint per filter.
+	 * <p>By default this is set to {@code false}.
+	 * @param fuseSynchronousFilters whether to fuse synchronous filters
+	 * @since 5.3
+	 * @see org.springframework.web.server.handler.DefaultWebFilterChain#DefaultWebFilterChain(WebHandler, List, boolean)
+	 */
+	public WebHttpHandlerBuilder fuseSynchronousFilters(boolean fuseSynchronousFilters) {
+		this.fuseSynchronousFilters = fuseSynchronousFilters;
+		return this;
+	}
+
 	/**
 	 * Add the given exception handler(s).
 	 * @param handlers the exception handler(s)
@@ -358,7 +376,7 @@ public final class WebHttpHandlerBuilder {
 	 */
 	public HttpHandler build() {
 
-		WebHandler decorated = new FilteringWebHandler(this.webHandler, this.filters);
+		WebHandler decorated = new FilteringWebHandler(this.webHandler, this.filters, this.fuseSynchronousFilters);
 		decorated = new ExceptionHandlingWebHandler(decorated,  this.exceptionHandlers);
 
 		HttpWebHandlerAdapter adapted = new HttpWebHandlerAdapter(decorated);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,8 +41,22 @@ public class FilteringWebHandler extends WebHandlerDecorator {
 	 * @param filters the chain of filters
 	 */
 	public FilteringWebHandler(WebHandler handler, List<WebFilter> filters) {
+		this(handler, filters, false);
+	}
+
+	/**
+	 * Constructor with the option to fuse consecutive
+	 * {@link org.springframework.web.server.SynchronousWebFilter SynchronousWebFilters}.
+	 * @param handler the target handler
+	 * @param filters the chain of filters
+	 * @param fuseSynchronousFilters whether to invoke consecutive synchronous
+	 * filters in a single link of the chain
+	 * @since 5.3
+	 * @see DefaultWebFilterChain#DefaultWebFilterChain(WebHandler, List, boolean)
+	 */
+	public FilteringWebHandler(WebHandler handler, List<WebFilter> filters, boolean fuseSynchronousFilters) {
 		super(handler);
-		this.chain = new DefaultWebFilterChain(handler, filters);
+		this.chain = new DefaultWebFilterChain(handler, filters, fuseSynchronousFilters);
 	}
 
 
@@ -0,0 +1,671 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+import org.springframework.util.SerializationUtils;
+import org.springframework.web.server.WebSession;
+
+/**
+ * {@link WebSessionStore} that keeps {@link WebSession} instances in memory,
+ * partitioned into shards so that it scales to a large number of sessions.
+ *
+ * <p>Compared to {@link InMemoryWebSessionStore}, this store:
+ * <ul>
+ * <li>Guards each shard with its own lock, and only checks the shard that a
+ * session is stored in or retrieved from for expired sessions.
+ * <li>Files sessions into expiration buckets by the time at which they expire,
+ * so that a check only visits the sessions of buckets that are due, rather
+ * than all sessions.
+ * <li>Evicts the least recently used sessions of a shard once the
+ * {@link #setMaxSessions maxSessions} limit is reached, rather than rejecting
+ * new sessions.
+ * <li>Optionally keeps evicted sessions in serialized form outside of the
+ * Java heap, restoring them when they are retrieved again; see
+ * {@link #setMaxOffHeapSessions maxOffHeapSessions}.
+ * </ul>
+ *
+ * <p>Limits are applied per shard, i.e. each shard holds up to the configured
+ * limit divided by the number of shards.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.3
+ * @see InMemoryWebSessionStore
+ */
+public class ShardedInMemoryWebSessionStore implements WebSessionStore {
+
+	/** Default number of shards: 16. */
+	public static final int DEFAULT_SHARD_COUNT = 16;
+
+	/** Resolution of expiration buckets: 1 second. */
+	private static final long EXPIRATION_BUCKET_MILLIS = 1000;
+
+	private static final Log logger = LogFactory.getLog(ShardedInMemoryWebSessionStore.class);
+
+	private static final IdGenerator idGenerator = new JdkIdGenerator();
+
+
+	private final Shard[] shards;
+
+	private int maxSessions = 10000;
+
+	private int maxOffHeapSessions = 0;
+
+	private int maxOffHeapSessionSize = 16 * 1024;
+
+	private Clock clock = Clock.system(ZoneId.of("GMT"));
+
+
+	/**
+	 * Create a store with {@link #DEFAULT_SHARD_COUNT} shards.
+	 */
+	public ShardedInMemoryWebSessionStore() {
+		this(DEFAULT_SHARD_COUNT);
+	}
+
+	/**
+	 * Create a store with the given number of shards.
+	 * @param shardCount the number of shards
+	 */
+	public ShardedInMemoryWebSessionStore(int shardCount) {
+		Assert.isTrue(shardCount > 0, "Shard count must be greater than 0");
+		this.shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			this.shards[i] = new Shard();
+		}
+	}
+
+
+	/**
+	 * Set the maximum number of sessions to keep on the heap. Once the limit
+	 * is reached, the least recently used sessions are evicted, or moved off
+	 * the heap if {@link #setMaxOffHeapSessions maxOffHeapSessions} is set.
+	 * <p>By default set to 10000.
+	 * @param maxSessions the maximum number of sessions
+	 */
+	public void setMaxSessions(int maxSessions) {
+		Assert.isTrue(maxSessions > 0, "Max sessions must be greater than 0");
+		this.maxSessions = maxSessions;
+	}
+
+	/**
+	 * Return the maximum number of sessions to keep on the heap.
+	 */
+	public int getMaxSessions() {
+		return this.maxSessions;
+	}
+
+	/**
+	 * Set the maximum number of sessions to keep in serialized form outside of
+	 * the Java heap, once evicted from the heap. Session attributes must be
+	 * {@link java.io.Serializable} for a session to be moved off the heap.
+	 * Once the limit is reached, the least recently evicted sessions are
+	 * discarded.
+	 * <p>By default set to 0, i.e. evicted sessions are discarded.
+	 * @param maxOffHeapSessions the maximum number of off-heap sessions
+	 */
+	public void setMaxOffHeapSessions(int maxOffHeapSessions) {
+		this.maxOffHeapSessions = maxOffHeapSessions;
+	}
+
+	/**
+	 * Return the maximum number of sessions to keep outside of the Java heap.
+	 */
+	public int getMaxOffHeapSessions() {
+		return this.maxOffHeapSessions;
+	}
+
+	/**
+	 * Set the maximum size in bytes of the serialized attributes of a session
+	 * to be moved off the heap. Larger sessions are discarded on eviction.
+	 * <p>By default set to 16 KB.
+	 * @param maxOffHeapSessionSize the maximum serialized session size
+	 */
+	public void setMaxOffHeapSessionSize(int maxOffHeapSessionSize) {
+		this.maxOffHeapSessionSize = maxOffHeapSessionSize;
+	}
+
+	/**
+	 * Return the maximum size in bytes of a session to be moved off the heap.
+	 */
+	public int getMaxOffHeapSessionSize() {
+		return this.maxOffHeapSessionSize;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to set lastAccessTime on every created
+	 * session and to calculate if it is expired.
+	 * <p>By default this is {@code Clock.system(ZoneId.of("GMT"))}.
+	 * @param clock the clock to use
+	 * @see InMemoryWebSessionStore#setClock(Clock)
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+		removeExpiredSessions();
+	}
+
+	/**
+	 * Return the configured clock for session lastAccessTime calculations.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+	/**
+	 * Return a snapshot of the sessions currently kept on the heap. This could
+	 * be used for management purposes, to list active sessions, etc.
+	 */
+	public Map<String, WebSession> getSessions() {
+		Map<String, WebSession> sessions = new HashMap<>();
+		for (Shard shard : this.shards) {
+			shard.collectSessions(sessions);
+		}
+		return Collections.unmodifiableMap(sessions);
+	}
+
+	/**
+	 * Return the number of sessions currently kept outside of the Java heap.
+	 */
+	public int getOffHeapSessionCount() {
+		int count = 0;
+		for (Shard shard : this.shards) {
+			count += shard.getOffHeapSessionCount();
+		}
+		return count;
+	}
+
+
+	@Override
+	public Mono<WebSession> createWebSession() {
+		Instant now = this.clock.instant();
+		return Mono.fromSupplier(() -> new ShardedWebSession(now))
+				.subscribeOn(Schedulers.boundedElastic())
+				.cast(WebSession.class);
+	}
+
+	@Override
+	public Mono<WebSession> retrieveSession(String id) {
+		return Mono.justOrEmpty(getShard(id).retrieve(id, this.clock.instant()));
+	}
+
+	@Override
+	public Mono<Void> removeSession(String id) {
+		getShard(id).remove(id);
+		return Mono.empty();
+	}
+
+	@Override
+	public Mono<WebSession> updateLastAccessTime(WebSession session) {
+		return Mono.fromSupplier(() -> {
+			Assert.isInstanceOf(ShardedWebSession.class, session);
+			((ShardedWebSession) session).updateLastAccessTime(this.clock.instant());
+			return session;
+		});
+	}
+
+	/**
+	 * Check all shards for expired sessions and remove them. Typically such
+	 * checks are performed per shard, whenever a session is stored in or
+	 * retrieved from it. This method can be called to force a check at a
+	 * specific time.
+	 */
+	public void removeExpiredSessions() {
+		Instant now = this.clock.instant();
+		for (Shard shard : this.shards) {
+			shard.removeExpiredEntries(now);
+		}
+	}
+
+	private Shard getShard(String id) {
+		return this.shards[Math.floorMod(id.hashCode(), this.shards.length)];
+	}
+
+	private int getShardLimit(int limit) {
+		return (limit + this.shards.length - 1) / this.shards.length;
+	}
+
+
+	/**
+	 * Base class for entries of a shard, on or off the heap.
+	 */
+	private abstract static class ShardEntry {
+
+		/** The shard that holds the entry, if any. */
+		@Nullable
+		volatile Shard shard;
+
+		/** The expiration bucket that the entry is filed in, or -1 if none. */
+		volatile long expirationBucket = -1;
+
+		/**
+		 * Return the time in milliseconds at which the entry expires,
+		 * or {@link Long#MAX_VALUE} if it never expires.
+		 */
+		abstract long getExpirationTime();
+
+		abstract boolean isExpired(Instant now);
+	}
+
+
+	private class ShardedWebSession extends ShardEntry implements WebSession {
+
+		private final AtomicReference<String> id;
+
+		private final Map<String, Object> attributes;
+
+		private final Instant creationTime;
+
+		private volatile Instant lastAccessTime;
+
+		private volatile Duration maxIdleTime;
+
+		private final AtomicReference<State> state;
+
+
+		public ShardedWebSession(Instant creationTime) {
+			this.id = new AtomicReference<>(String.valueOf(idGenerator.generateId()));
+			this.attributes = new ConcurrentHashMap<>();
+			this.creationTime = creationTime;
+			this.lastAccessTime = creationTime;
+			this.maxIdleTime = Duration.ofMinutes(30);
+			this.state = new AtomicReference<>(State.NEW);
+		}
+
+		public ShardedWebSession(String id, Map<String, Object> attributes,
+				Instant creationTime, Instant lastAccessTime, Duration maxIdleTime) {
+
+			this.id = new AtomicReference<>(id);
+			this.attributes = new ConcurrentHashMap<>(attributes);
+			this.creationTime = creationTime;
+			this.lastAccessTime = lastAccessTime;
+			this.maxIdleTime = maxIdleTime;
+			this.state = new AtomicReference<>(State.STARTED);
+		}
+
+		@Override
+		public String getId() {
+			return this.id.get();
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return this.attributes;
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			return this.creationTime;
+		}
+
+		@Override
+		public Instant getLastAccessTime() {
+			return this.lastAccessTime;
+		}
+
+		@Override
+		public void setMaxIdleTime(Duration maxIdleTime) {
+			this.maxIdleTime = maxIdleTime;
+		}
+
+		@Override
+		public Duration getMaxIdleTime() {
+			return this.maxIdleTime;
+		}
+
+		@Override
+		public void start() {
+			this.state.compareAndSet(State.NEW, State.STARTED);
+		}
+
+		@Override
+		public boolean isStarted() {
+			return this.state.get().equals(State.STARTED) || !getAttributes().isEmpty();
+		}
+
+		@Override
+		public Mono<Void> changeSessionId() {
+			String currentId = this.id.get();
+			getShard(currentId).remove(currentId);
+			String newId = String.valueOf(idGenerator.generateId());
+			this.id.set(newId);
+			getShard(newId).store(this, clock.instant());
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> invalidate() {
+			this.state.set(State.EXPIRED);
+			getAttributes().clear();
+			String currentId = this.id.get();
+			getShard(currentId).remove(currentId);
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> save() {
+
+			// Implicitly started session..
+			if (!getAttributes().isEmpty()) {
+				this.state.compareAndSet(State.NEW, State.STARTED);
+			}
+
+			if (isStarted()) {
+				// Save
+				String currentId = this.id.get();
+				getShard(currentId).store(this, clock.instant());
+
+				// Unless it was invalidated
+				if (this.state.get().equals(State.EXPIRED)) {
+					getShard(currentId).remove(currentId);
+					return Mono.error(new IllegalStateException("Session was invalidated"));
+				}
+			}
+
+			return Mono.empty();
+		}
+
+		@Override
+		public boolean isExpired() {
+			return isExpired(clock.instant());
+		}
+
+		@Override
+		boolean isExpired(Instant now) {
+			if (this.state.get().equals(State.EXPIRED)) {
+				return true;
+			}
+			if (checkExpired(now)) {
+				this.state.set(State.EXPIRED);
+				return true;
+			}
+			return false;
+		}
+
+		private boolean checkExpired(Instant currentTime) {
+			return isStarted() && !this.maxIdleTime.isNegative() &&
+					currentTime.minus(this.maxIdleTime).isAfter(this.lastAccessTime);
+		}
+
+		@Override
+		long getExpirationTime() {
+			Duration maxIdleTime = this.maxIdleTime;
+			return (!maxIdleTime.isNegative() ?
+					this.lastAccessTime.plus(maxIdleTime).toEpochMilli() : Long.MAX_VALUE);
+		}
+
+		private void updateLastAccessTime(Instant currentTime) {
+			this.lastAccessTime = currentTime;
+		}
+	}
+
+
+	/**
+	 * A session evicted from the heap, with its attributes serialized
+	 * into a direct buffer.
+	 */
+	private final class OffHeapSession extends ShardEntry {
+
+		private final String id;
+
+		private final ByteBuffer attributes;
+
+		private final Instant creationTime;
+
+		private final Instant lastAccessTime;
+
+		private final Duration maxIdleTime;
+
+		OffHeapSession(ShardedWebSession session, byte[] attributes) {
+			this.id = session.getId();
+			this.attributes = ByteBuffer.allocateDirect(attributes.length);
+			this.attributes.put(attributes).flip();
+			this.creationTime = session.getCreationTime();
+			this.lastAccessTime = session.getLastAccessTime();
+			this.maxIdleTime = session.getMaxIdleTime();
+		}
+
+		@Override
+		long getExpirationTime() {
+			return (!this.maxIdleTime.isNegative() ?
+					this.lastAccessTime.plus(this.maxIdleTime).toEpochMilli() : Long.MAX_VALUE);
+		}
+
+		@Override
+		boolean isExpired(Instant now) {
+			return (!this.maxIdleTime.isNegative() && now.minus(this.maxIdleTime).isAfter(this.lastAccessTime));
+		}
+
+		@Nullable
+		@SuppressWarnings("unchecked")
+		ShardedWebSession restore() {
+			byte[] bytes = new byte[this.attributes.remaining()];
+			this.attributes.duplicate().get(bytes);
+			try {
+				Map<String, Object> attributes = (Map<String, Object>) SerializationUtils.deserialize(bytes);
+				return (attributes != null ? new ShardedWebSession(this.id, attributes,
+						this.creationTime, this.lastAccessTime, this.maxIdleTime) : null);
+			}
+			catch (IllegalArgumentException | IllegalStateException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to restore off-heap session: " + ex.getMessage());
+				}
+				return null;
+			}
+		}
+	}
+
+
+	/**
+	 * A partition of the store, with on and off-heap sessions in least recently
+	 * used order, and expiration buckets ordered by time.
+	 */
+	private final class Shard {
+
+		private final Map<String, ShardedWebSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+		private final Map<String, OffHeapSession> offHeapSessions = new LinkedHashMap<>(16, 0.75f, true);
+
+		private final TreeMap<Long, List<ShardEntry>> expirationBuckets = new TreeMap<>();
+
+		@Nullable
+		synchronized ShardedWebSession retrieve(String id, Instant now) {
+			removeExpiredEntries(now);
+			ShardedWebSession session = this.sessions.get(id);
+			if (session != null) {
+				if (session.isExpired(now)) {
+					removeSession(id);
+					return null;
+				}
+				session.updateLastAccessTime(now);
+				return session;
+			}
+			OffHeapSession offHeapSession = removeOffHeapSession(id);
+			if (offHeapSession == null || offHeapSession.isExpired(now)) {
+				return null;
+			}
+			session = offHeapSession.restore();
+			if (session != null) {
+				session.updateLastAccessTime(now);
+				add(session, now);
+			}
+			return session;
+		}
+
+		synchronized void store(ShardedWebSession session, Instant now) {
+			removeExpiredEntries(now);
+			String id = session.getId();
+			ShardedWebSession existing = this.sessions.get(id);
+			if (existing == session) {
+				fileForExpiration(session, now.toEpochMilli(), false);
+				return;
+			}
+			removeSession(id);
+			removeOffHeapSession(id);
+			add(session, now);
+		}
+
+		synchronized void remove(String id) {
+			removeSession(id);
+			removeOffHeapSession(id);
+		}
+
+		synchronized void removeExpiredEntries(Instant now) {
+			long time = now.toEpochMilli();
+			while (!this.expirationBuckets.isEmpty() && this.expirationBuckets.firstKey() <= time) {
+				Map.Entry<Long, List<ShardEntry>> bucket = this.expirationBuckets.pollFirstEntry();
+				for (ShardEntry entry : bucket.getValue()) {
+					if (entry.shard != this || entry.expirationBucket != bucket.getKey()) {
+						// Moved to another bucket or shard, or removed
+						continue;
+					}
+					if (!entry.isExpired(now)) {
+						fileForExpiration(entry, time, true);
+					}
+					else if (entry instanceof ShardedWebSession) {
+						removeSession(((ShardedWebSession) entry).getId());
+					}
+					else {
+						removeOffHeapSession(((OffHeapSession) entry).id);
+					}
+				}
+			}
+		}
+
+		synchronized void collectSessions(Map<String, WebSession> result) {
+			result.putAll(this.sessions);
+		}
+
+		synchronized int getOffHeapSessionCount() {
+			return this.offHeapSessions.size();
+		}
+
+		private void add(ShardedWebSession session, Instant now) {
+			int limit = getShardLimit(maxSessions);
+			Iterator<ShardedWebSession> iterator = this.sessions.values().iterator();
+			while (this.sessions.size() >= limit && iterator.hasNext()) {
+				ShardedWebSession eldest = iterator.next();
+				iterator.remove();
+				eldest.shard = null;
+				if (!eldest.isExpired(now)) {
+					moveOffHeap(eldest, now);
+				}
+			}
+			this.sessions.put(session.getId(), session);
+			session.shard = this;
+			fileForExpiration(session, now.toEpochMilli(), true);
+		}
+
+		private void moveOffHeap(ShardedWebSession session, Instant now) {
+			int limit = getShardLimit(maxOffHeapSessions);
+			if (limit <= 0) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Evicted least recently used session " + session.getId());
+				}
+				return;
+			}
+			byte[] attributes;
+			try {
+				attributes = SerializationUtils.serialize(new HashMap<>(session.getAttributes()));
+			}
+			catch (IllegalArgumentException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Evicted session " + session.getId() + " with non-serializable attributes");
+				}
+				return;
+			}
+			if (attributes == null || attributes.length > maxOffHeapSessionSize) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Evicted session " + session.getId() + " exceeding max off-heap session size");
+				}
+				return;
+			}
+			Iterator<OffHeapSession> iterator = this.offHeapSessions.values().iterator();
+			while (this.offHeapSessions.size() >= limit && iterator.hasNext()) {
+				iterator.next().shard = null;
+				iterator.remove();
+			}
+			OffHeapSession offHeapSession = new OffHeapSession(session, attributes);
+			this.offHeapSessions.put(offHeapSession.id, offHeapSession);
+			offHeapSession.shard = this;
+			fileForExpiration(offHeapSession, now.toEpochMilli(), true);
+		}
+
+		private void removeSession(String id) {
+			ShardedWebSession session = this.sessions.remove(id);
+			if (session != null) {
+				session.shard = null;
+			}
+		}
+
+		@Nullable
+		private OffHeapSession removeOffHeapSession(String id) {
+			OffHeapSession offHeapSession = this.offHeapSessions.remove(id);
+			if (offHeapSession != null) {
+				offHeapSession.shard = null;
+			}
+			return offHeapSession;
+		}
+
+		/**
+		 * File the given entry into the bucket for its expiration time. Unless
+		 * forced, entries are only re-filed into an earlier bucket, as entries
+		 * that are due later are re-filed lazily when their bucket is checked.
+		 */
+		private void fileForExpiration(ShardEntry entry, long now, boolean force) {
+			long expirationTime = entry.getExpirationTime();
+			if (expirationTime == Long.MAX_VALUE) {
+				entry.expirationBucket = -1;
+				return;
+			}
+			long bucket = (Math.max(expirationTime, now) / EXPIRATION_BUCKET_MILLIS + 1) * EXPIRATION_BUCKET_MILLIS;
+			long currentBucket = entry.expirationBucket;
+			if (force || currentBucket == -1 || bucket < currentBucket) {
+				entry.expirationBucket = bucket;
+				this.expirationBuckets.computeIfAbsent(bucket, key -> new ArrayList<>()).add(entry);
+			}
+		}
+	}
+
+
+	private enum State { NEW, STARTED, EXPIRED }
+
+}
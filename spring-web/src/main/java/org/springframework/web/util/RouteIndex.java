@@ -0,0 +1,417 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Index of routes by the HTTP methods and literal first path segments that a
+ * request must have for a route to match, returning only the candidate routes
+ * for a given request, in their declared order.
+ *
+ * <p>Shared by the functional endpoints of Spring MVC and Spring WebFlux,
+ * which derive a {@link Constraint} per route from its request predicates
+ * through a {@link ConstraintVisitor}. Mainly for internal use within the
+ * framework.
+ *
+ * @author Arjen Poutsma
+ * @since 5.3
+ * @param <R> the type of route
+ */
+public final class RouteIndex<R> {
+
+	private final Map<HttpMethod, RouteTable<R>> routeTables = new EnumMap<>(HttpMethod.class);
+
+	private final RouteTable<R> unknownMethodRouteTable;
+
+
+	/**
+	 * Create a new {@code RouteIndex} for the given routes.
+	 * @param routes the routes, in the order in which they are to be evaluated
+	 * @param constraints the constraint of each of the routes, at the same index
+	 */
+	public RouteIndex(List<R> routes, List<Constraint> constraints) {
+		Assert.isTrue(routes.size() == constraints.size(), "Expected a constraint per route");
+		for (HttpMethod httpMethod : HttpMethod.values()) {
+			this.routeTables.put(httpMethod, new RouteTable<>(routes, constraints, httpMethod));
+		}
+		this.unknownMethodRouteTable = new RouteTable<>(routes, constraints, null);
+	}
+
+
+	/**
+	 * Return the routes that can match a request with the given HTTP method
+	 * and path, in their declared order.
+	 * @param httpMethod the HTTP method of the request, or {@code null} if not resolvable
+	 * @param path the path of the request
+	 * @return the candidate routes (never {@code null})
+	 */
+	public List<R> getCandidates(@Nullable HttpMethod httpMethod, PathContainer path) {
+		RouteTable<R> routeTable = (httpMethod != null ?
+				this.routeTables.get(httpMethod) : this.unknownMethodRouteTable);
+		return routeTable.getCandidates(path);
+	}
+
+
+	/**
+	 * Return the given path segment in lower case, so that it can be looked
+	 * up regardless of the case sensitivity of path patterns, or {@code null}
+	 * for non-ASCII segments.
+	 */
+	@Nullable
+	private static String normalizeSegment(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			if (segment.charAt(i) > 127) {
+				return null;
+			}
+		}
+		return segment.toLowerCase(Locale.ROOT);
+	}
+
+
+	/**
+	 * The candidate routes for one HTTP method, by lower-case first path segment.
+	 */
+	private static final class RouteTable<R> {
+
+		private final List<R> allRoutes;
+
+		private final List<R> unsegmentedRoutes;
+
+		private final Map<String, List<R>> segmentRoutes = new HashMap<>();
+
+		RouteTable(List<R> routes, List<Constraint> constraints, @Nullable HttpMethod httpMethod) {
+			List<R> methodRoutes = new ArrayList<>();
+			List<Constraint> methodConstraints = new ArrayList<>();
+			Set<String> segments = new LinkedHashSet<>();
+			for (int i = 0; i < routes.size(); i++) {
+				Constraint constraint = constraints.get(i);
+				if (constraint.matchesMethod(httpMethod)) {
+					methodRoutes.add(routes.get(i));
+					methodConstraints.add(constraint);
+					if (constraint.segments != null) {
+						segments.addAll(constraint.segments);
+					}
+				}
+			}
+			this.allRoutes = Collections.unmodifiableList(methodRoutes);
+			this.unsegmentedRoutes = filterRoutes(methodRoutes, methodConstraints, null);
+			for (String segment : segments) {
+				this.segmentRoutes.put(segment, filterRoutes(methodRoutes, methodConstraints, segment));
+			}
+		}
+
+		private static <R> List<R> filterRoutes(List<R> routes, List<Constraint> constraints,
+				@Nullable String segment) {
+
+			List<R> result = new ArrayList<>();
+			for (int i = 0; i < routes.size(); i++) {
+				if (constraints.get(i).matchesSegment(segment)) {
+					result.add(routes.get(i));
+				}
+			}
+			return Collections.unmodifiableList(result);
+		}
+
+		List<R> getCandidates(PathContainer path) {
+			List<PathContainer.Element> elements = path.elements();
+			if (elements.isEmpty()) {
+				return this.unsegmentedRoutes;
+			}
+			else if (!(elements.get(0) instanceof PathContainer.Separator)) {
+				return this.allRoutes;
+			}
+			else if (elements.size() == 1 || !(elements.get(1) instanceof PathContainer.PathSegment)) {
+				return this.unsegmentedRoutes;
+			}
+			String segment = normalizeSegment(((PathContainer.PathSegment) elements.get(1)).valueToMatch());
+			if (segment == null) {
+				return this.allRoutes;
+			}
+			List<R> routes = this.segmentRoutes.get(segment);
+			return (routes != null ? routes : this.unsegmentedRoutes);
+		}
+	}
+
+
+	/**
+	 * The HTTP methods and lower-case literal first path segments that a request
+	 * must have for a route to match. A {@code null} set indicates that the route
+	 * is not restricted.
+	 */
+	public static final class Constraint {
+
+		private static final Constraint UNRESTRICTED = new Constraint(null, null, false, false);
+
+		private static final Constraint PATH_PRESERVING = new Constraint(null, null, true, true);
+
+		@Nullable
+		private final Set<HttpMethod> methods;
+
+		@Nullable
+		private final Set<String> segments;
+
+		/** Whether a nested request is the given request, i.e. has the same path. */
+		private final boolean preservesPath;
+
+		/** Whether all predicates are known, and a nested request has the same HTTP method. */
+		private final boolean known;
+
+		private Constraint(@Nullable Set<HttpMethod> methods, @Nullable Set<String> segments,
+				boolean preservesPath, boolean known) {
+
+			this.methods = methods;
+			this.segments = segments;
+			this.preservesPath = preservesPath;
+			this.known = known;
+		}
+
+		/**
+		 * Return a constraint that does not restrict the HTTP method or path,
+		 * e.g. for a custom predicate or router function.
+		 */
+		public static Constraint unrestricted() {
+			return UNRESTRICTED;
+		}
+
+		/**
+		 * Refine this constraint of a nested router function's predicate with
+		 * the constraint of its nested routes, which see the same HTTP method
+		 * but only the remaining path.
+		 */
+		public Constraint nest(Constraint nestedRoutes) {
+			if (!this.known) {
+				return this;
+			}
+			return new Constraint(intersect(this.methods, nestedRoutes.methods),
+					this.segments, this.preservesPath, true);
+		}
+
+		/**
+		 * Combine this constraint with the given one, for routes that are
+		 * alternatives to each other.
+		 */
+		public Constraint or(Constraint other) {
+			return new Constraint(union(this.methods, other.methods), union(this.segments, other.segments),
+					this.preservesPath && other.preservesPath, this.known && other.known);
+		}
+
+		Constraint and(Constraint other, boolean nested) {
+			if (!nested) {
+				return new Constraint(intersect(this.methods, other.methods),
+						intersect(this.segments, other.segments),
+						this.preservesPath && other.preservesPath, this.known && other.known);
+			}
+			// The right-hand side is evaluated against the request nested by the left-hand side
+			return new Constraint(
+					(this.known ? intersect(this.methods, other.methods) : this.methods),
+					(this.preservesPath ? intersect(this.segments, other.segments) : this.segments),
+					this.preservesPath && other.preservesPath, this.known && other.known);
+		}
+
+		boolean matchesMethod(@Nullable HttpMethod httpMethod) {
+			return (this.methods == null || (httpMethod != null && this.methods.contains(httpMethod)));
+		}
+
+		boolean matchesSegment(@Nullable String segment) {
+			return (this.segments == null || (segment != null && this.segments.contains(segment)));
+		}
+
+		static Constraint forMethods(Set<HttpMethod> methods) {
+			return new Constraint(new HashSet<>(methods), null, true, true);
+		}
+
+		static Constraint forPath(String pattern) {
+			String segment = literalSegment(pattern);
+			return new Constraint(null, (segment != null ? Collections.singleton(segment) : null), false, true);
+		}
+
+		/**
+		 * Return the lower-case first path segment of the given pattern, or
+		 * {@code null} if that segment is not a literal ASCII segment.
+		 */
+		@Nullable
+		private static String literalSegment(String pattern) {
+			if (!pattern.startsWith("/")) {
+				return null;
+			}
+			int end = pattern.indexOf('/', 1);
+			String segment = (end != -1 ? pattern.substring(1, end) : pattern.substring(1));
+			if (segment.isEmpty()) {
+				return null;
+			}
+			for (int i = 0; i < segment.length(); i++) {
+				char c = segment.charAt(i);
+				if (c == '{' || c == '}' || c == '*' || c == '?') {
+					return null;
+				}
+			}
+			return normalizeSegment(segment);
+		}
+
+		@Nullable
+		private static <E> Set<E> intersect(@Nullable Set<E> left, @Nullable Set<E> right) {
+			if (left == null) {
+				return right;
+			}
+			else if (right == null) {
+				return left;
+			}
+			Set<E> result = new HashSet<>(left);
+			result.retainAll(right);
+			return result;
+		}
+
+		@Nullable
+		private static <E> Set<E> union(@Nullable Set<E> left, @Nullable Set<E> right) {
+			if (left == null || right == null) {
+				return null;
+			}
+			Set<E> result = new HashSet<>(left);
+			result.addAll(right);
+			return result;
+		}
+	}
+
+
+	/**
+	 * Base class for request predicate visitors that derive a {@link Constraint}
+	 * from a request predicate. The callback methods match those of the
+	 * {@code RequestPredicates.Visitor} interfaces of both web stacks, so that
+	 * a subclass only needs to implement the stack-specific callbacks.
+	 */
+	public abstract static class ConstraintVisitor {
+
+		private final boolean nested;
+
+		private final Deque<List<Constraint>> operands = new ArrayDeque<>();
+
+		@Nullable
+		private Constraint constraint;
+
+		/**
+		 * Create a new visitor.
+		 * @param nested whether the visited predicate is that of a nested router
+		 * function, i.e. whether the right-hand side of an {@code and} is
+		 * evaluated against the request nested by its left-hand side
+		 */
+		protected ConstraintVisitor(boolean nested) {
+			this.nested = nested;
+		}
+
+		/**
+		 * Return the constraint derived from the visited predicate.
+		 */
+		public Constraint getConstraint() {
+			return (this.constraint != null && this.operands.isEmpty() ? this.constraint : Constraint.UNRESTRICTED);
+		}
+
+		private void add(Constraint constraint) {
+			List<Constraint> current = this.operands.peek();
+			if (current != null) {
+				current.add(constraint);
+			}
+			else {
+				this.constraint = constraint;
+			}
+		}
+
+		/**
+		 * Register a predicate that does not change the path of a nested
+		 * request and does not restrict the HTTP method or path, e.g. a header
+		 * or parameter predicate.
+		 */
+		protected void pathPreserving() {
+			add(Constraint.PATH_PRESERVING);
+		}
+
+		/**
+		 * Register a predicate that is not known to this visitor.
+		 */
+		protected void unknown() {
+			add(Constraint.UNRESTRICTED);
+		}
+
+		public void method(Set<HttpMethod> methods) {
+			add(Constraint.forMethods(methods));
+		}
+
+		public void path(String pattern) {
+			add(Constraint.forPath(pattern));
+		}
+
+		public void pathExtension(String extension) {
+			pathPreserving();
+		}
+
+		public void header(String name, String value) {
+			pathPreserving();
+		}
+
+		public void startAnd() {
+			this.operands.push(new ArrayList<>(2));
+		}
+
+		public void and() {
+		}
+
+		public void endAnd() {
+			List<Constraint> constraints = this.operands.pop();
+			add(constraints.size() == 2 ?
+					constraints.get(0).and(constraints.get(1), this.nested) : Constraint.UNRESTRICTED);
+		}
+
+		public void startOr() {
+			this.operands.push(new ArrayList<>(2));
+		}
+
+		public void or() {
+		}
+
+		public void endOr() {
+			List<Constraint> constraints = this.operands.pop();
+			add(constraints.size() == 2 ? constraints.get(0).or(constraints.get(1)) : Constraint.UNRESTRICTED);
+		}
+
+		public void startNegate() {
+			this.operands.push(new ArrayList<>(1));
+		}
+
+		public void endNegate() {
+			List<Constraint> constraints = this.operands.pop();
+			boolean known = (constraints.size() == 1 && constraints.get(0).known);
+			add(known ? Constraint.PATH_PRESERVING : new Constraint(null, null, true, false));
+		}
+	}
+
+}
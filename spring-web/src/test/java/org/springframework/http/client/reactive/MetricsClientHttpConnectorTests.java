@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.testfixture.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.testfixture.http.client.reactive.MockClientHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link MetricsClientHttpConnector}.
+ *
+ * @author Brian Clozel
+ */
+public class MetricsClientHttpConnectorTests {
+
+	private static final URI URL = URI.create("https://example.com/path");
+
+
+	@Test
+	public void recordConnectionAndBodyMetrics() {
+		List<String> events = new ArrayList<>();
+		ClientHttpMetricsRecorder recorder = new ClientHttpMetricsRecorder() {
+			@Override
+			public void connectionAcquired(URI uri, long waitNanos) {
+				events.add("connectionAcquired");
+			}
+			@Override
+			public void responseReceived(URI uri, int statusCode, long timeToFirstByteNanos) {
+				events.add("responseReceived " + statusCode);
+			}
+			@Override
+			public void bytesSent(URI uri, long byteCount) {
+				events.add("bytesSent " + byteCount);
+			}
+			@Override
+			public void bytesReceived(URI uri, long byteCount) {
+				events.add("bytesReceived " + byteCount);
+			}
+		};
+
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URL);
+		MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+		response.setBody("response body");
+		ClientHttpConnector delegate = (method, uri, requestCallback) ->
+				requestCallback.apply(request).then(Mono.just(response));
+
+		String body = new MetricsClientHttpConnector(delegate, recorder)
+				.connect(HttpMethod.POST, URL, req -> req.writeWith(Mono.just(
+						req.bufferFactory().wrap("request".getBytes(StandardCharsets.UTF_8)))))
+				.flatMap(res -> res.getBody().map(buffer -> buffer.toString(StandardCharsets.UTF_8)).next())
+				.block(Duration.ofSeconds(5));
+
+		assertThat(body).isEqualTo("response body");
+		assertThat(events).containsExactly("connectionAcquired", "bytesSent 7", "responseReceived 200",
+				"bytesReceived 13");
+	}
+
+}
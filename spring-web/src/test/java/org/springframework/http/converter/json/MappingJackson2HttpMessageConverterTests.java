@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,11 +20,16 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -164,6 +169,54 @@ public class MappingJackson2HttpMessageConverterTests {
 		assertThat(outputMessage.getHeaders().getContentType()).as("Invalid content-type").isEqualTo(MediaType.APPLICATION_JSON);
 	}
 
+	@Test
+	public void writeStream() throws Exception {
+		AtomicBoolean closed = new AtomicBoolean();
+		Stream<MyBean> body = Stream.of("Foo", "Bar", "Baz").map(value -> {
+			MyBean bean = new MyBean();
+			bean.setString(value);
+			return bean;
+		}).onClose(() -> closed.set(true));
+
+		assertThat(converter.canWrite(body.getClass(), MediaType.APPLICATION_JSON)).isTrue();
+
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		converter.setStreamingFlushSize(1);
+		converter.write(body, new ParameterizedTypeReference<Stream<MyBean>>() {}.getType(),
+				MediaType.APPLICATION_JSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertThat(result).startsWith("[{").endsWith("}]");
+		assertThat(result).contains("\"string\":\"Foo\"", "\"string\":\"Bar\"", "\"string\":\"Baz\"");
+		assertThat(closed.get()).isTrue();
+	}
+
+	@Test
+	public void writeIterator() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		converter.write(Arrays.asList("Foo", "Bar").iterator(), null, outputMessage);
+		assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).isEqualTo("[\"Foo\",\"Bar\"]");
+	}
+
+	@Test
+	public void writeEmptyStream() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		converter.write(Stream.empty(), null, outputMessage);
+		assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8)).isEqualTo("[]");
+	}
+
+	@Test
+	public void writeStreamWithDeclaredElementType() throws Exception {
+		TypedBean bean = new TypedBean();
+		bean.setName("Foo");
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		converter.write(Stream.of(bean), new ParameterizedTypeReference<Stream<TypedValue>>() {}.getType(),
+				MediaType.APPLICATION_JSON, outputMessage);
+
+		assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8))
+				.isEqualTo("[{\"type\":\"typed\",\"name\":\"Foo\"}]");
+	}
+
 	@Test
 	public void writeUTF16() throws IOException {
 		MediaType contentType = new MediaType("application", "json", StandardCharsets.UTF_16BE);
@@ -606,6 +659,26 @@ public class MappingJackson2HttpMessageConverterTests {
 	}
 
 
+	@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+	@JsonSubTypes(@JsonSubTypes.Type(value = TypedBean.class, name = "typed"))
+	interface TypedValue {
+	}
+
+
+	public static class TypedBean implements TypedValue {
+
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+
 	@SuppressWarnings("unused")
 	private static class BeanWithNoDefaultConstructor {
 
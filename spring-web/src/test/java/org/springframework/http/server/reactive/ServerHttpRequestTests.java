@@ -89,6 +89,15 @@ public class ServerHttpRequestTests {
 		assertThat(params.get("a")).isEqualTo(Collections.singletonList(null));
 	}
 
+	@Test
+	public void queryParamsWithSeparatorsInValue() throws Exception {
+		MultiValueMap<String, String> params = createHttpRequest("/path?a=b=c&&=d&e==f").getQueryParams();
+		assertThat(params.size()).isEqualTo(3);
+		assertThat(params.get("a")).isEqualTo(Collections.singletonList("b=c"));
+		assertThat(params.get("d")).isEqualTo(Collections.singletonList(null));
+		assertThat(params.get("e")).isEqualTo(Collections.singletonList("=f"));
+	}
+
 	@Test
 	public void mutateRequest() throws Exception {
 		SslInfo sslInfo = mock(SslInfo.class);
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server.reactive;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.test.publisher.TestPublisher;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.core.testfixture.io.buffer.LeakAwareDataBufferFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link WriteCoalescingProcessor}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class WriteCoalescingProcessorTests {
+
+	private final LeakAwareDataBufferFactory bufferFactory =
+			new LeakAwareDataBufferFactory(new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT));
+
+	private final TestWriteProcessor writeProcessor = new TestWriteProcessor();
+
+
+	@AfterEach
+	public void tearDown() {
+		this.bufferFactory.checkForLeaks();
+	}
+
+
+	@Test
+	public void joinBuffersQueuedWhileWritePending() {
+		Flux.just("a", "b", "c").map(this::buffer)
+				.subscribe(new WriteCoalescingProcessor(this.writeProcessor, this.bufferFactory, 8));
+
+		assertThat(this.writeProcessor.written).containsExactly("a");
+		assertThat(this.writeProcessor.completed).isFalse();
+
+		this.writeProcessor.request();
+		assertThat(this.writeProcessor.written).containsExactly("a", "bc");
+		assertThat(this.writeProcessor.completed).isTrue();
+	}
+
+	@Test
+	public void doNotJoinBeyondMaxSize() {
+		Flux.just("a", "bcd", "efgh", "i").map(this::buffer)
+				.subscribe(new WriteCoalescingProcessor(this.writeProcessor, this.bufferFactory, 4));
+
+		this.writeProcessor.request();
+		this.writeProcessor.request();
+		assertThat(this.writeProcessor.written).containsExactly("a", "bcd", "efgh");
+		assertThat(this.writeProcessor.completed).isFalse();
+
+		this.writeProcessor.request();
+		assertThat(this.writeProcessor.written).containsExactly("a", "bcd", "efgh", "i");
+		assertThat(this.writeProcessor.completed).isTrue();
+	}
+
+	@Test
+	public void releaseQueuedBuffersOnCancel() {
+		TestPublisher<DataBuffer> publisher = TestPublisher.create();
+		publisher.subscribe(new WriteCoalescingProcessor(this.writeProcessor, this.bufferFactory, 8));
+		publisher.next(buffer("a"), buffer("b"), buffer("c"));
+
+		this.writeProcessor.subscription.cancel();
+
+		publisher.assertCancelled();
+		assertThat(this.writeProcessor.written).containsExactly("a");
+	}
+
+	@Test
+	public void propagateErrorAndReleaseQueuedBuffers() {
+		TestPublisher<DataBuffer> publisher = TestPublisher.create();
+		publisher.subscribe(new WriteCoalescingProcessor(this.writeProcessor, this.bufferFactory, 8));
+		publisher.next(buffer("a"), buffer("b"));
+		publisher.error(new IllegalStateException());
+
+		assertThat(this.writeProcessor.written).containsExactly("a");
+		assertThat(this.writeProcessor.error).isInstanceOf(IllegalStateException.class);
+	}
+
+
+	private DataBuffer buffer(String value) {
+		return this.bufferFactory.wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+
+	/**
+	 * Write processor that requests one buffer at a time on demand.
+	 */
+	private static class TestWriteProcessor implements Processor<DataBuffer, Void> {
+
+		private final List<String> written = new ArrayList<>();
+
+		private Subscription subscription;
+
+		private boolean completed;
+
+		private Throwable error;
+
+		public void request() {
+			this.subscription.request(1);
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			this.subscription.request(1);
+		}
+
+		@Override
+		public void onNext(DataBuffer dataBuffer) {
+			this.written.add(dataBuffer.toString(StandardCharsets.UTF_8));
+			DataBufferUtils.release(dataBuffer);
+		}
+
+		@Override
+		public void onError(Throwable ex) {
+			this.error = ex;
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super Void> subscriber) {
+		}
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ResponseCacheFilter}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class ResponseCacheFilterTests {
+
+	private final ResponseCacheFilter filter = new ResponseCacheFilter();
+
+	private final AtomicInteger invocations = new AtomicInteger();
+
+	private String cacheControl = "max-age=60";
+
+	private Mono<Void> gate = Mono.empty();
+
+	private final WebFilterChain chain = exchange -> {
+		this.invocations.incrementAndGet();
+		return this.gate.then(Mono.defer(() -> {
+			ServerHttpResponse response = exchange.getResponse();
+			response.getHeaders().setCacheControl(this.cacheControl);
+			response.getHeaders().setETag("\"v1\"");
+			if (exchange.getRequest().getHeaders().containsKey(HttpHeaders.VARY)) {
+				response.getHeaders().setVary(exchange.getRequest().getHeaders().getVary());
+			}
+			String language = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE);
+			byte[] bytes = ("body" + (language != null ? " " + language : "")).getBytes(StandardCharsets.UTF_8);
+			DataBuffer buffer = response.bufferFactory().wrap(bytes);
+			return response.writeWith(Mono.just(buffer));
+		}));
+	};
+
+
+	@Test
+	public void cacheResponse() {
+		assertThat(getBody(MockServerHttpRequest.get("/path?a=b"))).isEqualTo("body");
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/path?a=b"));
+		this.filter.filter(exchange, this.chain).block(Duration.ZERO);
+
+		assertThat(this.invocations.get()).isEqualTo(1);
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+		assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("0");
+		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ZERO)).isEqualTo("body");
+		assertThat(this.filter.getCacheSize()).isEqualTo(4);
+
+		assertThat(getBody(MockServerHttpRequest.get("/path?a=c"))).isEqualTo("body");
+		assertThat(this.invocations.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void cacheResponsePerHost() {
+		getBody(MockServerHttpRequest.get("https://example.org/path"));
+		getBody(MockServerHttpRequest.get("https://example.com/path"));
+		getBody(MockServerHttpRequest.get("http://example.org/path"));
+		assertThat(this.invocations.get()).isEqualTo(3);
+
+		getBody(MockServerHttpRequest.get("https://example.org/path"));
+		assertThat(this.invocations.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void notModified() {
+		getBody(MockServerHttpRequest.get("/path"));
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/path").ifNoneMatch("\"v1\""));
+		this.filter.filter(exchange, this.chain).block(Duration.ZERO);
+
+		assertThat(this.invocations.get()).isEqualTo(1);
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(exchange.getResponse().getHeaders().getCacheControl()).isEqualTo("max-age=60");
+		assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(-1);
+	}
+
+	@Test
+	public void doNotCachePrivateResponse() {
+		this.cacheControl = "private, max-age=60";
+		getBody(MockServerHttpRequest.get("/path"));
+		getBody(MockServerHttpRequest.get("/path"));
+
+		assertThat(this.invocations.get()).isEqualTo(2);
+		assertThat(this.filter.getCacheSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void requestWithNoCache() {
+		getBody(MockServerHttpRequest.get("/path"));
+		getBody(MockServerHttpRequest.get("/path").header(HttpHeaders.CACHE_CONTROL, "no-cache"));
+		assertThat(this.invocations.get()).isEqualTo(2);
+
+		getBody(MockServerHttpRequest.get("/path"));
+		assertThat(this.invocations.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void expiredResponse() {
+		getBody(MockServerHttpRequest.get("/path"));
+
+		this.filter.setClock(Clock.offset(this.filter.getClock(), Duration.ofSeconds(61)));
+		getBody(MockServerHttpRequest.get("/path"));
+
+		assertThat(this.invocations.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void varyByRequestHeader() {
+		assertThat(getBody(MockServerHttpRequest.get("/path")
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+				.header(HttpHeaders.ACCEPT_LANGUAGE, "en"))).isEqualTo("body en");
+		assertThat(getBody(MockServerHttpRequest.get("/path")
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+				.header(HttpHeaders.ACCEPT_LANGUAGE, "fr"))).isEqualTo("body fr");
+		assertThat(this.invocations.get()).isEqualTo(2);
+
+		assertThat(getBody(MockServerHttpRequest.get("/path")
+				.header(HttpHeaders.ACCEPT_LANGUAGE, "en"))).isEqualTo("body en");
+		assertThat(this.invocations.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void evictResponse() {
+		this.filter.setMaxCacheSize(4);
+		getBody(MockServerHttpRequest.get("/path1"));
+		getBody(MockServerHttpRequest.get("/path2"));
+		assertThat(this.filter.getCacheSize()).isEqualTo(4);
+
+		getBody(MockServerHttpRequest.get("/path2"));
+		assertThat(this.invocations.get()).isEqualTo(2);
+		getBody(MockServerHttpRequest.get("/path1"));
+		assertThat(this.invocations.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void coalesceConcurrentRequests() {
+		MonoProcessor<Void> gate = MonoProcessor.create();
+		this.gate = gate;
+
+		MockServerWebExchange exchange1 = MockServerWebExchange.from(MockServerHttpRequest.get("/path"));
+		MockServerWebExchange exchange2 = MockServerWebExchange.from(MockServerHttpRequest.get("/path"));
+		MonoProcessor<Void> result1 = this.filter.filter(exchange1, this.chain).toProcessor();
+		MonoProcessor<Void> result2 = this.filter.filter(exchange2, this.chain).toProcessor();
+		assertThat(this.invocations.get()).isEqualTo(1);
+
+		gate.onComplete();
+		result1.block(Duration.ofSeconds(5));
+		result2.block(Duration.ofSeconds(5));
+
+		assertThat(this.invocations.get()).isEqualTo(1);
+		assertThat(exchange2.getResponse().getBodyAsString().block(Duration.ZERO)).isEqualTo("body");
+	}
+
+	@Test
+	public void doNotCoalesceStreamingResponses() {
+		WebFilterChain streamingChain = exchange -> {
+			this.invocations.incrementAndGet();
+			exchange.getResponse().getHeaders().setCacheControl(this.cacheControl);
+			return exchange.getResponse().writeAndFlushWith(Flux.never());
+		};
+
+		this.filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/events")), streamingChain).subscribe();
+		this.filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/events")), streamingChain).subscribe();
+
+		assertThat(this.invocations.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void doNotCacheResponseWithCookie() {
+		WebFilterChain cookieChain = exchange -> {
+			exchange.getResponse().addCookie(ResponseCookie.from("session", "123").build());
+			return this.chain.filter(exchange);
+		};
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/path"));
+		this.filter.filter(exchange, cookieChain).block(Duration.ZERO);
+
+		assertThat(exchange.getResponse().getCookies()).containsKey("session");
+		assertThat(this.filter.getCacheSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void doNotCacheResponseMadePrivateOnCommit() {
+		WebFilterChain privateChain = exchange -> {
+			ServerHttpResponse response = exchange.getResponse();
+			response.beforeCommit(() -> Mono.fromRunnable(() ->
+					response.getHeaders().setCacheControl("private, max-age=60")));
+			return this.chain.filter(exchange);
+		};
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/path"));
+		this.filter.filter(exchange, privateChain).block(Duration.ZERO);
+
+		assertThat(exchange.getResponse().getHeaders().getCacheControl()).isEqualTo("private, max-age=60");
+		assertThat(this.filter.getCacheSize()).isEqualTo(0);
+	}
+
+	private String getBody(MockServerHttpRequest.BaseBuilder<?> request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		this.filter.filter(exchange, this.chain).block(Duration.ZERO);
+		return exchange.getResponse().getBodyAsString().block(Duration.ZERO);
+	}
+
+}
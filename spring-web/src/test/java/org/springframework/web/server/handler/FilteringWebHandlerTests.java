@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,8 +17,10 @@
 package org.springframework.web.server.handler;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -26,7 +28,9 @@ import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.SynchronousWebFilter;
 import org.springframework.web.server.WebExceptionHandler;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
@@ -109,6 +113,59 @@ public class FilteringWebHandlerTests {
 		assertThat(targetHandler.invoked()).isTrue();
 	}
 
+	@Test
+	public void fusedSynchronousFilters() throws Exception {
+
+		List<String> invocations = new ArrayList<>();
+		SynchronousWebFilter filter1 = exchange -> {
+			invocations.add("filter1");
+			return exchange.mutate().request(builder -> builder.header("foo", "bar")).build();
+		};
+		SynchronousWebFilter filter2 = exchange -> {
+			invocations.add("filter2:" + exchange.getRequest().getHeaders().getFirst("foo"));
+			return exchange;
+		};
+		TestFilter filter3 = new TestFilter();
+		SynchronousWebFilter filter4 = exchange -> {
+			invocations.add("filter4:" + exchange.getRequest().getHeaders().getFirst("foo"));
+			return exchange;
+		};
+		StubWebHandler targetHandler = new StubWebHandler();
+
+		FilteringWebHandler handler = new FilteringWebHandler(
+				targetHandler, Arrays.asList(filter1, filter2, filter3, filter4), true);
+		handler.handle(MockServerWebExchange.from(MockServerHttpRequest.get("/")))
+				.block(Duration.ZERO);
+
+		assertThat(handler.getFilters()).containsExactly(filter1, filter2, filter3, filter4);
+		assertThat(invocations).containsExactly("filter1", "filter2:bar", "filter4:bar");
+		assertThat(filter3.invoked()).isTrue();
+		assertThat(targetHandler.invoked()).isTrue();
+	}
+
+	@Test
+	public void handleErrorFromFusedSynchronousFilter() throws Exception {
+
+		MockServerHttpRequest request = MockServerHttpRequest.get("/").build();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+
+		StubWebHandler targetHandler = new StubWebHandler();
+		SynchronousWebFilter filter = exchange -> {
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+		};
+
+		WebHttpHandlerBuilder.webHandler(targetHandler)
+				.filter(filter)
+				.exceptionHandler(new ResponseStatusExceptionHandler())
+				.fuseSynchronousFilters(true)
+				.build()
+				.handle(request, response)
+				.block();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(targetHandler.invoked()).isFalse();
+	}
+
 	@Test
 	public void handleErrorFromFilter() throws Exception {
 
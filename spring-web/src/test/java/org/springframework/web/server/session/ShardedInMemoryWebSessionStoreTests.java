@@ -0,0 +1,171 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.web.server.WebSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ShardedInMemoryWebSessionStore}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class ShardedInMemoryWebSessionStoreTests {
+
+	private ShardedInMemoryWebSessionStore store = new ShardedInMemoryWebSessionStore();
+
+
+	@Test
+	public void retrieveSession() {
+		WebSession session = insertSession();
+		assertThat(this.store.retrieveSession(session.getId()).block()).isSameAs(session);
+		assertThat(this.store.getSessions()).containsOnlyKeys(session.getId());
+	}
+
+	@Test
+	public void retrieveExpiredSession() {
+		WebSession session = insertSession();
+		String id = session.getId();
+
+		// Fast-forward 31 minutes
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.retrieveSession(id).block()).isNull();
+	}
+
+	@Test
+	public void removeExpiredSessions() {
+		IntStream.range(0, 100).forEach(i -> insertSession());
+		WebSession longLived = insertSession();
+		longLived.setMaxIdleTime(Duration.ofHours(1));
+		longLived.save().block();
+		assertThat(this.store.getSessions()).hasSize(101);
+
+		// Fast-forward 31 minutes
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+		assertThat(this.store.getSessions()).containsOnlyKeys(longLived.getId());
+
+		// Fast-forward another 30 minutes
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(30)));
+		assertThat(this.store.getSessions()).isEmpty();
+	}
+
+	@Test
+	public void retrievedSessionIsNotExpiredByEarlierBucket() {
+		WebSession session = insertSession();
+		String id = session.getId();
+
+		// Fast-forward 20 minutes and access the session
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(20)));
+		assertThat(this.store.retrieveSession(id).block()).isSameAs(session);
+
+		// Fast-forward another 20 minutes, past the original expiration time
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(20)));
+		assertThat(this.store.retrieveSession(id).block()).isSameAs(session);
+	}
+
+	@Test
+	public void evictLeastRecentlyUsedSession() {
+		this.store = new ShardedInMemoryWebSessionStore(1);
+		this.store.setMaxSessions(2);
+
+		WebSession session1 = insertSession();
+		WebSession session2 = insertSession();
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isSameAs(session1);
+		WebSession session3 = insertSession();
+
+		assertThat(this.store.getSessions()).containsOnlyKeys(session1.getId(), session3.getId());
+		assertThat(this.store.retrieveSession(session2.getId()).block()).isNull();
+	}
+
+	@Test
+	public void moveEvictedSessionOffHeap() {
+		this.store = new ShardedInMemoryWebSessionStore(1);
+		this.store.setMaxSessions(1);
+		this.store.setMaxOffHeapSessions(1);
+
+		WebSession session1 = this.store.createWebSession().block();
+		assertThat(session1).isNotNull();
+		session1.getAttributes().put("foo", "bar");
+		session1.save().block();
+		WebSession session2 = insertSession();
+		assertThat(this.store.getSessions()).containsOnlyKeys(session2.getId());
+		assertThat(this.store.getOffHeapSessionCount()).isEqualTo(1);
+
+		WebSession restored = this.store.retrieveSession(session1.getId()).block();
+		assertThat(restored).isNotNull();
+		assertThat(restored.getAttributes()).containsEntry("foo", "bar");
+		assertThat(restored.getCreationTime()).isEqualTo(session1.getCreationTime());
+		assertThat(this.store.getSessions()).containsOnlyKeys(session1.getId());
+		assertThat(this.store.getOffHeapSessionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void discardNonSerializableSessionOnEviction() {
+		this.store = new ShardedInMemoryWebSessionStore(1);
+		this.store.setMaxSessions(1);
+		this.store.setMaxOffHeapSessions(1);
+
+		WebSession session1 = this.store.createWebSession().block();
+		assertThat(session1).isNotNull();
+		session1.getAttributes().put("foo", new Object());
+		session1.save().block();
+		insertSession();
+
+		assertThat(this.store.getOffHeapSessionCount()).isEqualTo(0);
+		assertThat(this.store.retrieveSession(session1.getId()).block()).isNull();
+	}
+
+	@Test
+	public void changeSessionId() {
+		WebSession session = insertSession();
+		String oldId = session.getId();
+		session.changeSessionId().block();
+
+		assertThat(session.getId()).isNotEqualTo(oldId);
+		assertThat(this.store.retrieveSession(oldId).block()).isNull();
+		assertThat(this.store.retrieveSession(session.getId()).block()).isSameAs(session);
+	}
+
+	@Test
+	public void sessionInvalidatedBeforeSave() {
+		WebSession session = insertSession();
+		String id = session.getId();
+
+		WebSession retrieved = this.store.retrieveSession(id).block();
+		assertThat(retrieved).isSameAs(session);
+		retrieved.invalidate().block();
+
+		session.save().block();
+		assertThat(this.store.retrieveSession(id).block()).isNull();
+	}
+
+	private WebSession insertSession() {
+		WebSession session = this.store.createWebSession().block();
+		assertThat(session).isNotNull();
+		session.start();
+		session.save().block();
+		return session;
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.RouteIndex.Constraint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link RouteIndex}.
+ *
+ * @author Arjen Poutsma
+ */
+public class RouteIndexTests {
+
+	@Test
+	public void candidatesByMethodAndFirstSegment() {
+		Constraint getFoo = Constraint.forMethods(Collections.singleton(HttpMethod.GET))
+				.and(Constraint.forPath("/foo/{id}"), false);
+		Constraint postFoo = Constraint.forMethods(Collections.singleton(HttpMethod.POST))
+				.and(Constraint.forPath("/Foo"), false);
+		Constraint variable = Constraint.forPath("/{name}");
+		Constraint custom = Constraint.unrestricted();
+		RouteIndex<String> index = new RouteIndex<>(Arrays.asList("getFoo", "postFoo", "variable", "custom"),
+				Arrays.asList(getFoo, postFoo, variable, custom));
+
+		assertThat(index.getCandidates(HttpMethod.GET, PathContainer.parsePath("/foo/1")))
+				.containsExactly("getFoo", "variable", "custom");
+		assertThat(index.getCandidates(HttpMethod.POST, PathContainer.parsePath("/FOO")))
+				.containsExactly("postFoo", "variable", "custom");
+		assertThat(index.getCandidates(HttpMethod.GET, PathContainer.parsePath("/bar")))
+				.containsExactly("variable", "custom");
+		assertThat(index.getCandidates(null, PathContainer.parsePath("/foo")))
+				.containsExactly("variable", "custom");
+	}
+
+	@Test
+	public void nestedAndAlternativeRoutes() {
+		Constraint nested = Constraint.forPath("/api")
+				.nest(Constraint.forMethods(Collections.singleton(HttpMethod.GET)));
+		Constraint alternatives = Constraint.forPath("/a").or(Constraint.forPath("/b"));
+		RouteIndex<String> index = new RouteIndex<>(Arrays.asList("nested", "alternatives"),
+				Arrays.asList(nested, alternatives));
+
+		assertThat(index.getCandidates(HttpMethod.GET, PathContainer.parsePath("/api/foo")))
+				.containsExactly("nested");
+		assertThat(index.getCandidates(HttpMethod.DELETE, PathContainer.parsePath("/api/foo"))).isEmpty();
+		assertThat(index.getCandidates(HttpMethod.DELETE, PathContainer.parsePath("/b")))
+				.containsExactly("alternatives");
+	}
+
+}
@@ -25,6 +25,7 @@ import java.util.function.Consumer;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.Http2ClientSettings;
 import org.springframework.http.client.reactive.JettyClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.http.codec.ClientCodecConfigurer;
@@ -50,10 +51,14 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 
 	private static final boolean jettyClientPresent;
 
+	private static final boolean jettyHttp2ClientPresent;
+
 	static {
 		ClassLoader loader = DefaultWebClientBuilder.class.getClassLoader();
 		reactorClientPresent = ClassUtils.isPresent("reactor.netty.http.client.HttpClient", loader);
 		jettyClientPresent = ClassUtils.isPresent("org.eclipse.jetty.client.HttpClient", loader);
+		jettyHttp2ClientPresent = jettyClientPresent && ClassUtils.isPresent(
+				"org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2", loader);
 	}
 
 
@@ -81,6 +86,9 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 	@Nullable
 	private ClientHttpConnector connector;
 
+	@Nullable
+	private Http2ClientSettings http2Settings;
+
 	@Nullable
 	private ExchangeStrategies strategies;
 
@@ -113,6 +121,7 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 		this.defaultRequest = other.defaultRequest;
 		this.filters = other.filters != null ? new ArrayList<>(other.filters) : null;
 		this.connector = other.connector;
+		this.http2Settings = (other.http2Settings != null ? new Http2ClientSettings(other.http2Settings) : null);
 		this.strategies = other.strategies;
 		this.strategiesConfigurers = other.strategiesConfigurers != null ? new ArrayList<>(other.strategiesConfigurers) : null;
 		this.exchangeFunction = other.exchangeFunction;
@@ -208,6 +217,15 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 		return this;
 	}
 
+	@Override
+	public WebClient.Builder http2(Consumer<Http2ClientSettings> settingsConsumer) {
+		if (this.http2Settings == null) {
+			this.http2Settings = new Http2ClientSettings();
+		}
+		settingsConsumer.accept(this.http2Settings);
+		return this;
+	}
+
 	@Override
 	public WebClient.Builder codecs(Consumer<ClientCodecConfigurer> configurer) {
 		if (this.strategiesConfigurers == null) {
@@ -269,6 +287,13 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 		if (this.connector != null) {
 			return this.connector;
 		}
+		else if (this.http2Settings != null) {
+			if (!jettyHttp2ClientPresent) {
+				throw new IllegalStateException("HTTP/2 requires the Jetty HTTP/2 client transport " +
+						"(org.eclipse.jetty.http2:http2-http-client-transport) on the classpath");
+			}
+			return new JettyClientHttpConnector(new Http2ClientSettings(this.http2Settings), null);
+		}
 		else if (reactorClientPresent) {
 			return new ReactorClientHttpConnector();
 		}
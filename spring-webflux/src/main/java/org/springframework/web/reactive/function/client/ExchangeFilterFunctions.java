@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,18 +17,34 @@
 package org.springframework.web.reactive.function.client;
 
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ClientHttpMetricsRecorder;
+import org.springframework.http.client.reactive.MetricsClientHttpConnector;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.web.reactive.function.BodyExtractors;
@@ -53,6 +69,8 @@ public abstract class ExchangeFilterFunctions {
 	public static final String BASIC_AUTHENTICATION_CREDENTIALS_ATTRIBUTE =
 			ExchangeFilterFunctions.class.getName() + ".basicAuthenticationCredentials";
 
+	private static final int DEFAULT_COALESCE_MAX_IN_MEMORY_SIZE = 256 * 1024;
+
 
 	/**
 	 * Consume up to the specified number of bytes from the response body and
@@ -89,6 +107,188 @@ public abstract class ExchangeFilterFunctions {
 						Mono.error(exceptionFunction.apply(response)) : Mono.just(response)));
 	}
 
+	/**
+	 * Return a filter that reports the start and completion of each exchange to
+	 * the given {@link ClientHttpMetricsRecorder}, e.g. to track in-flight
+	 * requests, latency per host and failures by error type.
+	 * <p>The exchange is considered complete when the response status and
+	 * headers have been received, or when the exchange failed or was cancelled
+	 * before that, so that it is no longer counted as in-flight even if the
+	 * response body is never consumed. The completion of the response body is
+	 * reported separately, once it has been consumed or released, or has failed
+	 * or was cancelled. Use a {@link MetricsClientHttpConnector} in addition
+	 * for connection acquisition time and body sizes.
+	 * @param recorder the recorder to report to
+	 * @return the filter to record metrics with
+	 * @since 5.3
+	 */
+	public static ExchangeFilterFunction recordMetrics(ClientHttpMetricsRecorder recorder) {
+		Assert.notNull(recorder, "ClientHttpMetricsRecorder must not be null");
+		return (request, next) -> Mono.defer(() -> {
+			ExchangeMetrics metrics = new ExchangeMetrics(recorder, request);
+			return next.exchange(request)
+					.doOnError(ex -> metrics.completed(-1, ex))
+					.doOnCancel(() -> metrics.completed(-1, null))
+					.map(response -> {
+						int statusCode = response.rawStatusCode();
+						metrics.completed(statusCode, null);
+						Flux<DataBuffer> body = response.body(BodyExtractors.toDataBuffers())
+								.doOnError(ex -> metrics.bodyCompleted(statusCode, ex))
+								.doFinally(signalType -> metrics.bodyCompleted(statusCode, null));
+						return ClientResponse.from(response).body(body).build();
+					});
+		});
+	}
+
+	/**
+	 * Return a filter that hedges {@code GET} and {@code HEAD} requests: if no
+	 * response has been received after the given delay, the same request is
+	 * sent a second time, and whichever response arrives first is used while
+	 * the other exchange is cancelled, or its response released. If the first
+	 * request fails, the error is only propagated once the second request has
+	 * failed too.
+	 * <p>Hedging trades additional load on the remote service for lower tail
+	 * latency, and should only be used for idempotent requests to services
+	 * with multiple replicas.
+	 * @param delay the time to wait for a response before sending a second request
+	 * @return the filter to hedge requests with
+	 * @since 5.3
+	 */
+	public static ExchangeFilterFunction hedgeRequests(Duration delay) {
+		Assert.notNull(delay, "Delay must not be null");
+		Assert.isTrue(!delay.isNegative(), "Delay must not be negative");
+		long delayNanos = delay.toNanos();
+		return hedgeRequests(() -> delayNanos, null);
+	}
+
+	/**
+	 * Variant of {@link #hedgeRequests(Duration)} that waits for the given
+	 * percentile of the response times of recent exchanges, e.g. 95 to send a
+	 * second request for the slowest 5% of requests, but not longer than the
+	 * given maximum delay, which is also used until enough response times have
+	 * been recorded.
+	 * @param percentile the percentile of recent response times to wait for,
+	 * greater than 0 and less than 100
+	 * @param maxDelay the maximum time to wait for a response before sending
+	 * a second request
+	 * @return the filter to hedge requests with
+	 * @since 5.3
+	 */
+	public static ExchangeFilterFunction hedgeRequests(double percentile, Duration maxDelay) {
+		Assert.isTrue(percentile > 0 && percentile < 100, "Percentile must be greater than 0 and less than 100");
+		Assert.notNull(maxDelay, "Max delay must not be null");
+		Assert.isTrue(!maxDelay.isNegative(), "Max delay must not be negative");
+		ResponseTimes responseTimes = new ResponseTimes(percentile, maxDelay.toNanos());
+		return hedgeRequests(responseTimes::getDelayNanos, responseTimes);
+	}
+
+	private static ExchangeFilterFunction hedgeRequests(
+			LongSupplier delayNanos, @Nullable ResponseTimes responseTimes) {
+
+		return (request, next) -> {
+			if (request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				Mono<ClientResponse> first = timedExchange(request, next, responseTimes);
+				Mono<ClientResponse> second = Mono.delay(Duration.ofNanos(delayNanos.getAsLong()))
+						.then(Mono.defer(() -> next.exchange(request)));
+				return Flux.mergeDelayError(1, first, second)
+						.next()
+						.doOnDiscard(ClientResponse.class, response -> response.releaseBody().subscribe())
+						.onErrorMap(Exceptions::isMultiple, ex -> Exceptions.unwrapMultiple(ex).get(0));
+			});
+		};
+	}
+
+	/**
+	 * Exchange for the first attempt, recording its elapsed time when it
+	 * responds, fails, or is cancelled because the hedged attempt won, so that
+	 * slow attempts are sampled too and the hedging delay does not drift low.
+	 */
+	private static Mono<ClientResponse> timedExchange(ClientRequest request, ExchangeFunction next,
+			@Nullable ResponseTimes responseTimes) {
+
+		if (responseTimes == null) {
+			return Mono.defer(() -> next.exchange(request));
+		}
+		return Mono.defer(() -> {
+			long startTime = System.nanoTime();
+			return next.exchange(request)
+					.doFinally(signalType -> responseTimes.record(System.nanoTime() - startTime));
+		});
+	}
+
+	/**
+	 * Return a filter that coalesces concurrent {@code GET} requests with the
+	 * same URL, headers and cookies into a single exchange. The response body
+	 * is aggregated in memory, and each request receives its own copy of the
+	 * response, so the body can be consumed by each caller independently.
+	 * <p>A request joins an exchange that is in progress, i.e. this does not
+	 * cache responses once the exchange is complete. Since the whole body is
+	 * buffered, this should not be used for streaming or large responses:
+	 * a response body of more than 256K bytes fails all coalesced requests
+	 * with a {@link DataBufferLimitException}.
+	 * @return the filter to coalesce requests with
+	 * @since 5.3
+	 * @see #coalesceRequests(int)
+	 */
+	public static ExchangeFilterFunction coalesceRequests() {
+		return coalesceRequests(DEFAULT_COALESCE_MAX_IN_MEMORY_SIZE);
+	}
+
+	/**
+	 * Variant of {@link #coalesceRequests()} with the maximum number of bytes
+	 * of a response body to buffer.
+	 * @param maxInMemorySize the maximum size of a response body, or -1 for
+	 * no limit
+	 * @return the filter to coalesce requests with
+	 * @since 5.3
+	 */
+	public static ExchangeFilterFunction coalesceRequests(int maxInMemorySize) {
+		Map<String, Mono<BufferedResponse>> inFlightExchanges = new ConcurrentHashMap<>();
+		return (request, next) -> {
+			if (request.method() != HttpMethod.GET) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				String key = getCoalescingKey(request);
+				return inFlightExchanges.computeIfAbsent(key, k -> next.exchange(request)
+						.flatMap(response -> DataBufferUtils.join(
+								response.body(BodyExtractors.toDataBuffers()), maxInMemorySize)
+								.map(buffer -> {
+									byte[] content = new byte[buffer.readableByteCount()];
+									buffer.read(content);
+									DataBufferUtils.release(buffer);
+									return content;
+								})
+								.defaultIfEmpty(new byte[0])
+								.map(content -> new BufferedResponse(response, content)))
+						.doFinally(signalType -> inFlightExchanges.remove(k))
+						.cache())
+						.map(BufferedResponse::createResponse);
+			});
+		};
+	}
+
+	/**
+	 * Build the key of a request to coalesce by, from the method, the URL, the
+	 * headers with lower-case names in sorted order, and the cookies by name.
+	 */
+	private static String getCoalescingKey(ClientRequest request) {
+		StringBuilder key = new StringBuilder();
+		key.append(request.method()).append(' ').append(request.url()).append('\n');
+		Map<String, List<String>> headers = new TreeMap<>();
+		request.headers().forEach((name, values) ->
+				headers.computeIfAbsent(name.toLowerCase(Locale.ENGLISH), n -> new ArrayList<>()).addAll(values));
+		headers.forEach((name, values) -> values.forEach(value ->
+				key.append(name).append(':').append(value).append('\n')));
+		key.append('\n');
+		new TreeMap<>(request.cookies()).forEach((name, values) -> values.forEach(value ->
+				key.append(name).append('=').append(value).append('\n')));
+		return key.toString();
+	}
+
 	/**
 	 * Return a filter that applies HTTP Basic Authentication to the request
 	 * headers via {@link HttpHeaders#setBasicAuth(String)} and
@@ -191,4 +391,114 @@ public abstract class ExchangeFilterFunctions {
 		}
 	}
 
+
+	/**
+	 * Reports the completion of an exchange and of its response body once each,
+	 * for whichever signal comes first.
+	 */
+	private static class ExchangeMetrics {
+
+		private final ClientHttpMetricsRecorder recorder;
+
+		private final ClientRequest request;
+
+		private final long startTime = System.nanoTime();
+
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		private final AtomicBoolean bodyCompleted = new AtomicBoolean();
+
+		ExchangeMetrics(ClientHttpMetricsRecorder recorder, ClientRequest request) {
+			this.recorder = recorder;
+			this.request = request;
+			recorder.exchangeStarted(request.method(), request.url());
+		}
+
+		void completed(int statusCode, @Nullable Throwable error) {
+			if (this.completed.compareAndSet(false, true)) {
+				this.recorder.exchangeCompleted(this.request.method(), this.request.url(),
+						statusCode, System.nanoTime() - this.startTime, error);
+			}
+		}
+
+		void bodyCompleted(int statusCode, @Nullable Throwable error) {
+			if (this.bodyCompleted.compareAndSet(false, true)) {
+				this.recorder.responseBodyCompleted(this.request.method(), this.request.url(),
+						statusCode, System.nanoTime() - this.startTime, error);
+			}
+		}
+	}
+
+
+	/**
+	 * Ring buffer of recent response times of first attempts, used to compute
+	 * the hedging delay.
+	 */
+	private static class ResponseTimes {
+
+		private static final int SIZE = 1000;
+
+		private static final int UPDATE_INTERVAL = 100;
+
+		private final double percentile;
+
+		private final long maxDelayNanos;
+
+		private final long[] samples = new long[SIZE];
+
+		private int count;
+
+		private int index;
+
+		private volatile long delayNanos;
+
+		ResponseTimes(double percentile, long maxDelayNanos) {
+			this.percentile = percentile;
+			this.maxDelayNanos = maxDelayNanos;
+			this.delayNanos = maxDelayNanos;
+		}
+
+		long getDelayNanos() {
+			return this.delayNanos;
+		}
+
+		synchronized void record(long nanos) {
+			this.samples[this.index] = nanos;
+			this.index = (this.index + 1) % SIZE;
+			if (this.count < SIZE) {
+				this.count++;
+			}
+			if (this.index % UPDATE_INTERVAL == 0) {
+				long[] sorted = Arrays.copyOf(this.samples, this.count);
+				Arrays.sort(sorted);
+				int rank = (int) Math.ceil(this.percentile / 100 * sorted.length) - 1;
+				this.delayNanos = Math.min(sorted[Math.max(rank, 0)], this.maxDelayNanos);
+			}
+		}
+	}
+
+
+	/**
+	 * Response of a coalesced exchange with the body held in memory.
+	 */
+	private static class BufferedResponse {
+
+		private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		private final ClientResponse response;
+
+		private final byte[] content;
+
+		BufferedResponse(ClientResponse response, byte[] content) {
+			this.response = response;
+			this.content = content;
+		}
+
+		ClientResponse createResponse() {
+			return ClientResponse.from(this.response)
+					.body(Flux.defer(() -> Flux.just(bufferFactory.wrap(this.content))))
+					.build();
+		}
+	}
+
 }
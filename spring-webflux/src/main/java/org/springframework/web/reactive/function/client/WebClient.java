@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,6 +39,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.Http2ClientSettings;
 import org.springframework.http.codec.ClientCodecConfigurer;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.BodyInserter;
@@ -291,6 +292,18 @@ public interface WebClient {
 		 */
 		Builder clientConnector(ClientHttpConnector connector);
 
+		/**
+		 * Send requests over HTTP/2, multiplexing concurrent requests to the
+		 * same host over a limited number of connections. This is applied
+		 * only if no {@link #clientConnector(ClientHttpConnector) connector}
+		 * is configured, and requires the Jetty HTTP/2 client transport, as
+		 * the Reactor Netty client in use does not support HTTP/2.
+		 * @param settingsConsumer the consumer to customize the HTTP/2 settings with
+		 * @since 5.3
+		 * @see org.springframework.http.client.reactive.JettyClientHttpConnector#JettyClientHttpConnector(Http2ClientSettings, org.springframework.http.client.reactive.JettyResourceFactory)
+		 */
+		Builder http2(Consumer<Http2ClientSettings> settingsConsumer);
+
 		/**
 		 * Configure the codecs for the {@code WebClient} in the
 		 * {@link #exchangeStrategies(ExchangeStrategies) underlying}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.web.reactive.function.server;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
@@ -26,9 +27,11 @@ import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.codec.HttpMessageWriter;
 import org.springframework.http.server.reactive.HttpHandler;
 import org.springframework.util.Assert;
@@ -36,6 +39,7 @@ import org.springframework.web.reactive.result.view.ViewResolver;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebHandler;
 import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.util.RouteIndex;
 
 /**
  * <strong>Central entry point to Spring's functional web framework.</strong>
@@ -183,6 +187,31 @@ public abstract class RouterFunctions {
 		return new ResourcesRouterFunction(lookupFunction);
 	}
 
+	/**
+	 * Return a router function that routes requests to the same handler functions as
+	 * the given composed router function, but that only evaluates the routes that can
+	 * match the HTTP method and the first path segment of a request.
+	 * <p>The routes of the given function are grouped by the HTTP methods and literal
+	 * first path segments that their {@link RequestPredicates#method(HttpMethod) method}
+	 * and {@link RequestPredicates#path(String) path} predicates require. Routes with
+	 * other predicates, such as custom predicates or patterns starting with a variable,
+	 * are candidates for every request. Candidate routes are evaluated in the order in
+	 * which they were declared, so the first matching route still wins, and nested
+	 * routes are indexed in the same way.
+	 * @param routerFunction the router function to index
+	 * @param <T> the type of response returned by the handler function
+	 * @return the indexed router function, or the given function if it is not composed
+	 * @since 5.3
+	 */
+	public static <T extends ServerResponse> RouterFunction<T> index(RouterFunction<T> routerFunction) {
+		Assert.notNull(routerFunction, "RouterFunction must not be null");
+		if (routerFunction instanceof SameComposedRouterFunction ||
+				routerFunction instanceof DifferentComposedRouterFunction) {
+			return new IndexedRouterFunction<>(routerFunction);
+		}
+		return routerFunction;
+	}
+
 	/**
 	 * Convert the given {@linkplain RouterFunction router function} into a {@link HttpHandler}.
 	 * This conversion uses {@linkplain HandlerStrategies#builder() default strategies}.
@@ -961,6 +990,152 @@ public abstract class RouterFunctions {
 	}
 
 
+	/**
+	 * A router function that indexes the routes of a composed router function by
+	 * HTTP method and literal first path segment, and that only evaluates the
+	 * candidate routes for a request, in their declared order.
+	 * @param <T> the server response type
+	 * @see RouterFunctions#index(RouterFunction)
+	 * @see RouteIndex
+	 */
+	static final class IndexedRouterFunction<T extends ServerResponse> extends AbstractRouterFunction<T> {
+
+		private final RouterFunction<T> routerFunction;
+
+		private final RouteIndex<RouterFunction<?>> routeIndex;
+
+		public IndexedRouterFunction(RouterFunction<T> routerFunction) {
+			this.routerFunction = routerFunction;
+			List<RouterFunction<?>> routes = new ArrayList<>();
+			List<RouteIndex.Constraint> constraints = new ArrayList<>();
+			collectRoutes(routerFunction, routes, constraints);
+			this.routeIndex = new RouteIndex<>(routes, constraints);
+		}
+
+		private static void collectRoutes(RouterFunction<?> routerFunction,
+				List<RouterFunction<?>> routes, List<RouteIndex.Constraint> constraints) {
+
+			if (routerFunction instanceof SameComposedRouterFunction) {
+				SameComposedRouterFunction<?> composed = (SameComposedRouterFunction<?>) routerFunction;
+				collectRoutes(composed.first, routes, constraints);
+				collectRoutes(composed.second, routes, constraints);
+			}
+			else if (routerFunction instanceof DifferentComposedRouterFunction) {
+				DifferentComposedRouterFunction composed = (DifferentComposedRouterFunction) routerFunction;
+				collectRoutes(composed.first, routes, constraints);
+				collectRoutes(composed.second, routes, constraints);
+			}
+			else if (routerFunction instanceof IndexedRouterFunction) {
+				collectRoutes(((IndexedRouterFunction<?>) routerFunction).routerFunction, routes, constraints);
+			}
+			else {
+				routes.add(indexNested(routerFunction));
+				constraints.add(constraintOf(routerFunction));
+			}
+		}
+
+		private static <T extends ServerResponse> RouterFunction<T> indexNested(RouterFunction<T> routerFunction) {
+			if (routerFunction instanceof DefaultNestedRouterFunction) {
+				DefaultNestedRouterFunction<T> nested = (DefaultNestedRouterFunction<T>) routerFunction;
+				RouterFunction<T> indexed = index(nested.routerFunction);
+				return (indexed != nested.routerFunction ?
+						new DefaultNestedRouterFunction<>(nested.predicate, indexed) : nested);
+			}
+			else if (routerFunction instanceof FilteredRouterFunction) {
+				return indexFiltered((FilteredRouterFunction<?, T>) routerFunction);
+			}
+			return routerFunction;
+		}
+
+		private static <T extends ServerResponse, S extends ServerResponse> RouterFunction<S> indexFiltered(
+				FilteredRouterFunction<T, S> filtered) {
+
+			RouterFunction<T> indexed = index(filtered.routerFunction);
+			return (indexed != filtered.routerFunction ?
+					new FilteredRouterFunction<>(indexed, filtered.filterFunction) : filtered);
+		}
+
+		private static RouteIndex.Constraint constraintOf(RouterFunction<?> routerFunction) {
+			if (routerFunction instanceof SameComposedRouterFunction) {
+				SameComposedRouterFunction<?> composed = (SameComposedRouterFunction<?>) routerFunction;
+				return constraintOf(composed.first).or(constraintOf(composed.second));
+			}
+			else if (routerFunction instanceof DifferentComposedRouterFunction) {
+				DifferentComposedRouterFunction composed = (DifferentComposedRouterFunction) routerFunction;
+				return constraintOf(composed.first).or(constraintOf(composed.second));
+			}
+			else if (routerFunction instanceof IndexedRouterFunction) {
+				return constraintOf(((IndexedRouterFunction<?>) routerFunction).routerFunction);
+			}
+			else if (routerFunction instanceof FilteredRouterFunction) {
+				return constraintOf(((FilteredRouterFunction<?, ?>) routerFunction).routerFunction);
+			}
+			else if (routerFunction instanceof DefaultRouterFunction) {
+				return constraintOf(((DefaultRouterFunction<?>) routerFunction).predicate, false);
+			}
+			else if (routerFunction instanceof DefaultNestedRouterFunction) {
+				DefaultNestedRouterFunction<?> nested = (DefaultNestedRouterFunction<?>) routerFunction;
+				return constraintOf(nested.predicate, true).nest(constraintOf(nested.routerFunction));
+			}
+			return RouteIndex.Constraint.unrestricted();
+		}
+
+		private static RouteIndex.Constraint constraintOf(RequestPredicate predicate, boolean nested) {
+			ConstraintVisitor visitor = new ConstraintVisitor(nested);
+			predicate.accept(visitor);
+			return visitor.getConstraint();
+		}
+
+		@Override
+		public Mono<HandlerFunction<T>> route(ServerRequest request) {
+			List<RouterFunction<?>> candidates =
+					this.routeIndex.getCandidates(request.method(), request.pathContainer());
+			if (candidates.isEmpty()) {
+				return Mono.empty();
+			}
+			else if (candidates.size() == 1) {
+				return candidates.get(0).route(request).map(this::cast);
+			}
+			return Flux.fromIterable(candidates)
+					.<HandlerFunction<?>>concatMap(candidate -> candidate.route(request))
+					.next()
+					.map(this::cast);
+		}
+
+		@SuppressWarnings("unchecked")
+		private HandlerFunction<T> cast(HandlerFunction<?> handlerFunction) {
+			return (HandlerFunction<T>) handlerFunction;
+		}
+
+		@Override
+		public void accept(Visitor visitor) {
+			this.routerFunction.accept(visitor);
+		}
+	}
+
+
+	/**
+	 * {@link RequestPredicates.Visitor} that derives the {@link RouteIndex.Constraint}
+	 * of a request predicate.
+	 */
+	private static final class ConstraintVisitor extends RouteIndex.ConstraintVisitor
+			implements RequestPredicates.Visitor {
+
+		ConstraintVisitor(boolean nested) {
+			super(nested);
+		}
+
+		@Override
+		public void queryParam(String name, String value) {
+			pathPreserving();
+		}
+
+		@Override
+		public void unknown(RequestPredicate predicate) {
+			unknown();
+		}
+	}
+
 	private static class HandlerStrategiesResponseContext implements ServerResponse.Context {
 
 		private final HandlerStrategies strategies;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,11 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	@Nullable
 	private RouterFunction<?> routerFunction;
 
+	private boolean indexRouterFunctions = false;
+
+	@Nullable
+	private RouterFunction<?> indexedRouterFunction;
+
 	private List<HttpMessageReader<?>> messageReaders = Collections.emptyList();
 
 
@@ -85,6 +90,19 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 		return this.routerFunction;
 	}
 
+	/**
+	 * Whether to {@linkplain RouterFunctions#index index} the router function on
+	 * initialization, so that only the routes that can match the HTTP method and
+	 * first path segment of a request are evaluated, in their declared order.
+	 * <p>This is worthwhile for a large number of routes. The router function
+	 * returned by {@link #getRouterFunction()} is not affected.
+	 * <p>The default is {@code false}.
+	 * @since 5.3
+	 */
+	public void setIndexRouterFunctions(boolean indexRouterFunctions) {
+		this.indexRouterFunctions = indexRouterFunctions;
+	}
+
 	/**
 	 * Configure HTTP message readers to de-serialize the request body with.
 	 * <p>By default this is set to the {@link ServerCodecConfigurer}'s defaults.
@@ -103,6 +121,9 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 		if (this.routerFunction == null) {
 			initRouterFunctions();
 		}
+		if (this.routerFunction != null && this.indexRouterFunctions) {
+			this.indexedRouterFunction = RouterFunctions.index(this.routerFunction);
+		}
 	}
 
 	/**
@@ -144,9 +165,11 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 
 	@Override
 	protected Mono<?> getHandlerInternal(ServerWebExchange exchange) {
-		if (this.routerFunction != null) {
+		RouterFunction<?> routerFunction = (this.indexedRouterFunction != null ?
+				this.indexedRouterFunction : this.routerFunction);
+		if (routerFunction != null) {
 			ServerRequest request = ServerRequest.create(exchange, this.messageReaders);
-			return this.routerFunction.route(request)
+			return routerFunction.route(request)
 					.doOnNext(handler -> setAttributes(exchange.getAttributes(), request, handler));
 		}
 		else {
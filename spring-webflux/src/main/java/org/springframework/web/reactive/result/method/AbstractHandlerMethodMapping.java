@@ -19,7 +19,6 @@ package org.springframework.web.reactive.result.method;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -28,7 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -103,13 +102,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
 	public Map<T, HandlerMethod> getHandlerMethods() {
-		this.mappingRegistry.acquireReadLock();
-		try {
-			return Collections.unmodifiableMap(this.mappingRegistry.getMappings());
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		return this.mappingRegistry.getMappings();
 	}
 
 	/**
@@ -281,23 +274,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Override
 	public Mono<HandlerMethod> getHandlerInternal(ServerWebExchange exchange) {
-		this.mappingRegistry.acquireReadLock();
+		HandlerMethod handlerMethod;
 		try {
-			HandlerMethod handlerMethod;
-			try {
-				handlerMethod = lookupHandlerMethod(exchange);
-			}
-			catch (Exception ex) {
-				return Mono.error(ex);
-			}
-			if (handlerMethod != null) {
-				handlerMethod = handlerMethod.createWithResolvedBean();
-			}
-			return Mono.justOrEmpty(handlerMethod);
+			handlerMethod = lookupHandlerMethod(exchange);
 		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
+		catch (Exception ex) {
+			return Mono.error(ex);
 		}
+		if (handlerMethod != null) {
+			handlerMethod = handlerMethod.createWithResolvedBean();
+		}
+		return Mono.justOrEmpty(handlerMethod);
 	}
 
 	/**
@@ -310,8 +297,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerWebExchange exchange) throws Exception {
+		Map<T, HandlerMethod> mappings = this.mappingRegistry.getMappings();
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, exchange);
+		addMatchingMappings(mappings, matches, exchange);
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -337,17 +325,19 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return bestMatch.handlerMethod;
 		}
 		else {
-			return handleNoMatch(this.mappingRegistry.getMappings().keySet(), exchange);
+			return handleNoMatch(mappings.keySet(), exchange);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, ServerWebExchange exchange) {
-		for (T mapping : mappings) {
+	private void addMatchingMappings(Map<T, HandlerMethod> mappings, List<Match> matches,
+			ServerWebExchange exchange) {
+
+		mappings.forEach((mapping, handlerMethod) -> {
 			T match = getMatchingMapping(mapping, exchange);
 			if (match != null) {
-				matches.add(new Match(match, this.mappingRegistry.getMappings().get(mapping)));
+				matches.add(new Match(match, handlerMethod));
 			}
-		}
+		});
 	}
 
 	/**
@@ -435,6 +425,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 * A registry that maintains all mappings to handler methods, exposing methods
 	 * to perform lookups and providing concurrent access.
 	 *
+	 * <p>Registration changes are applied under a lock, while lookups operate on
+	 * an immutable snapshot of the mappings that is rebuilt on first access after
+	 * a change, so that request processing does not need to acquire a lock.
+	 *
 	 * <p>Package-private for testing purposes.
 	 */
 	class MappingRegistry {
@@ -445,14 +439,31 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
-		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+		private final ReentrantLock writeLock = new ReentrantLock();
+
+		@Nullable
+		private volatile Map<T, HandlerMethod> mappingSnapshot;
 
 		/**
-		 * Return all mappings and handler methods. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * Return all mappings and handler methods, as an immutable snapshot.
+		 * Thread-safe for concurrent use.
 		 */
 		public Map<T, HandlerMethod> getMappings() {
-			return this.mappingLookup;
+			Map<T, HandlerMethod> snapshot = this.mappingSnapshot;
+			if (snapshot == null) {
+				this.writeLock.lock();
+				try {
+					snapshot = this.mappingSnapshot;
+					if (snapshot == null) {
+						snapshot = Collections.unmodifiableMap(new LinkedHashMap<>(this.mappingLookup));
+						this.mappingSnapshot = snapshot;
+					}
+				}
+				finally {
+					this.writeLock.unlock();
+				}
+			}
+			return snapshot;
 		}
 
 		/**
@@ -464,22 +475,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.corsLookup.get(original != null ? original : handlerMethod);
 		}
 
-		/**
-		 * Acquire the read lock when using getMappings and getMappingsByUrl.
-		 */
-		public void acquireReadLock() {
-			this.readWriteLock.readLock().lock();
-		}
-
-		/**
-		 * Release the read lock after using getMappings and getMappingsByUrl.
-		 */
-		public void releaseReadLock() {
-			this.readWriteLock.readLock().unlock();
-		}
-
 		public void register(T mapping, Object handler, Method method) {
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 				validateMethodMapping(handlerMethod, mapping);
@@ -491,9 +488,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod));
+				this.mappingSnapshot = null;
 			}
 			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.writeLock.unlock();
 			}
 		}
 
@@ -509,7 +507,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		}
 
 		public void unregister(T mapping) {
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				MappingRegistration<T> definition = this.registry.remove(mapping);
 				if (definition == null) {
@@ -518,9 +516,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 				this.mappingLookup.remove(definition.getMapping());
 				this.corsLookup.remove(definition.getHandlerMethod());
+				this.mappingSnapshot = null;
 			}
 			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.writeLock.unlock();
 			}
 		}
 	}
@@ -18,7 +18,9 @@ package org.springframework.web.reactive.result.method.annotation;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import kotlin.reflect.KFunction;
@@ -38,6 +40,7 @@ import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
 import org.springframework.web.reactive.result.HandlerResultHandlerSupport;
@@ -58,6 +61,9 @@ public abstract class AbstractMessageWriterResultHandler extends HandlerResultHa
 
 	private final List<HttpMessageWriter<?>> messageWriters;
 
+	private final Map<ResolvableType, List<MediaType>> writableMediaTypesCache =
+			new ConcurrentReferenceHashMap<>(64);
+
 
 	/**
 	 * Constructor with {@link HttpMessageWriter HttpMessageWriters} and a
@@ -194,6 +200,15 @@ public abstract class AbstractMessageWriterResultHandler extends HandlerResultHa
 	}
 
 	private List<MediaType> getMediaTypesFor(ResolvableType elementType) {
+		List<MediaType> writableMediaTypes = this.writableMediaTypesCache.get(elementType);
+		if (writableMediaTypes == null) {
+			writableMediaTypes = Collections.unmodifiableList(getWritableMediaTypes(elementType));
+			this.writableMediaTypesCache.put(elementType, writableMediaTypes);
+		}
+		return writableMediaTypes;
+	}
+
+	private List<MediaType> getWritableMediaTypes(ResolvableType elementType) {
 		List<MediaType> writableMediaTypes = new ArrayList<>();
 		for (HttpMessageWriter<?> converter : getMessageWriters()) {
 			if (converter.canWrite(elementType, null)) {
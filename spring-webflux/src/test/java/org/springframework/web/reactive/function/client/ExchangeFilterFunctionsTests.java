@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,19 +18,27 @@ package org.springframework.web.reactive.function.client;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.core.testfixture.io.buffer.DataBufferTestUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ClientHttpMetricsRecorder;
+import org.springframework.lang.Nullable;
 import org.springframework.web.reactive.function.BodyExtractors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -216,6 +224,200 @@ public class ExchangeFilterFunctionsTests {
 
 	}
 
+	@Test
+	public void recordMetrics() {
+		List<String> events = new ArrayList<>();
+		ClientHttpMetricsRecorder recorder = new ClientHttpMetricsRecorder() {
+			@Override
+			public void exchangeStarted(HttpMethod method, URI uri) {
+				events.add("started " + method + " " + uri);
+			}
+			@Override
+			public void exchangeCompleted(HttpMethod method, URI uri, int statusCode,
+					long durationNanos, @Nullable Throwable error) {
+				events.add("completed " + statusCode + " " + (error != null ? error.getMessage() : null));
+			}
+			@Override
+			public void responseBodyCompleted(HttpMethod method, URI uri, int statusCode,
+					long durationNanos, @Nullable Throwable error) {
+				events.add("body completed " + statusCode + " " + (error != null ? error.getMessage() : null));
+			}
+		};
+
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.NOT_FOUND)
+				.body(Flux.just(dataBuffer("foo", new DefaultDataBufferFactory()))).build();
+
+		Mono<ClientResponse> result = ExchangeFilterFunctions.recordMetrics(recorder)
+				.filter(request, req -> Mono.just(response));
+		assertThat(events).isEmpty();
+
+		StepVerifier.create(result.flatMap(res -> res.bodyToMono(String.class)))
+				.expectNext("foo")
+				.expectComplete()
+				.verify();
+		assertThat(events).containsExactly(
+				"started GET " + DEFAULT_URL, "completed 404 null", "body completed 404 null");
+
+		events.clear();
+		StepVerifier.create(result.map(ClientResponse::statusCode))
+				.expectNext(HttpStatus.NOT_FOUND)
+				.expectComplete()
+				.verify();
+		assertThat(events).containsExactly("started GET " + DEFAULT_URL, "completed 404 null");
+
+		events.clear();
+		result = ExchangeFilterFunctions.recordMetrics(recorder)
+				.filter(request, req -> Mono.error(new IllegalStateException("boo")));
+		StepVerifier.create(result)
+				.expectError(IllegalStateException.class)
+				.verify();
+		assertThat(events).containsExactly("started GET " + DEFAULT_URL, "completed -1 boo");
+	}
+
+	@Test
+	public void hedgeRequests() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = req -> (exchanges.incrementAndGet() == 1 ? Mono.<ClientResponse>never() : Mono.just(response));
+
+		ClientResponse result = ExchangeFilterFunctions.hedgeRequests(Duration.ofMillis(10))
+				.filter(request, exchange)
+				.block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(exchanges.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void hedgeRequestsNotNeeded() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = req -> {
+			exchanges.incrementAndGet();
+			return Mono.just(response);
+		};
+
+		ClientResponse result = ExchangeFilterFunctions.hedgeRequests(95, Duration.ofMillis(10))
+				.filter(request, exchange)
+				.block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(exchanges.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void hedgeRequestsWithDelayIncludingCancelledAttempts() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.hedgeRequests(50, Duration.ofMillis(10));
+		AtomicInteger attempts = new AtomicInteger();
+
+		// 60% of first attempts never respond and are cancelled once the hedged attempt wins
+		for (int i = 0; i < 100; i++) {
+			boolean slow = (i % 5 < 3);
+			attempts.set(0);
+			filter.filter(request, req -> (attempts.incrementAndGet() == 1 && slow ?
+					Mono.never() : Mono.just(response))).block(Duration.ofSeconds(5));
+		}
+
+		attempts.set(0);
+		ClientResponse result = filter.filter(request, req -> {
+			attempts.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(2)).thenReturn(response);
+		}).block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(attempts.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void hedgeRequestsAfterFailure() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = req -> (exchanges.incrementAndGet() == 1 ?
+				Mono.error(new IllegalStateException("boo")) : Mono.just(response));
+
+		ClientResponse result = ExchangeFilterFunctions.hedgeRequests(Duration.ofMillis(10))
+				.filter(request, exchange)
+				.block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(exchanges.get()).isEqualTo(2);
+
+		exchanges.set(0);
+		exchange = req -> Mono.error(new IllegalStateException("boo" + exchanges.incrementAndGet()));
+		StepVerifier.create(ExchangeFilterFunctions.hedgeRequests(Duration.ofMillis(10)).filter(request, exchange))
+				.expectErrorMessage("boo1")
+				.verify(Duration.ofSeconds(5));
+		assertThat(exchanges.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void coalesceRequests() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK)
+				.body(Flux.just(dataBuffer("foo", new DefaultDataBufferFactory()))).build();
+		MonoProcessor<Void> gate = MonoProcessor.create();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = req -> {
+			exchanges.incrementAndGet();
+			return gate.thenReturn(response);
+		};
+
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests();
+		MonoProcessor<String> result1 = filter.filter(request, exchange)
+				.flatMap(res -> res.bodyToMono(String.class)).toProcessor();
+		MonoProcessor<String> result2 = filter.filter(request, exchange)
+				.flatMap(res -> res.bodyToMono(String.class)).toProcessor();
+		gate.onComplete();
+
+		assertThat(result1.block(Duration.ofSeconds(5))).isEqualTo("foo");
+		assertThat(result2.block(Duration.ofSeconds(5))).isEqualTo("foo");
+		assertThat(exchanges.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void coalesceRequestsByHeaders() {
+		ClientRequest request1 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.header("X-Foo", "foo").header("X-Bar", "bar").build();
+		ClientRequest request2 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.header("x-bar", "bar").header("x-foo", "foo").build();
+		ClientRequest request3 = ClientRequest.create(HttpMethod.GET, DEFAULT_URL)
+				.header("X-Foo", "foo").header("X-Bar", "baz").build();
+		MonoProcessor<Void> gate = MonoProcessor.create();
+		AtomicInteger exchanges = new AtomicInteger();
+		ExchangeFunction exchange = req -> {
+			exchanges.incrementAndGet();
+			return gate.thenReturn(ClientResponse.create(HttpStatus.OK).build());
+		};
+
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.coalesceRequests();
+		MonoProcessor<ClientResponse> result1 = filter.filter(request1, exchange).toProcessor();
+		MonoProcessor<ClientResponse> result2 = filter.filter(request2, exchange).toProcessor();
+		MonoProcessor<ClientResponse> result3 = filter.filter(request3, exchange).toProcessor();
+		gate.onComplete();
+
+		assertThat(result1.block(Duration.ofSeconds(5))).isNotNull();
+		assertThat(result2.block(Duration.ofSeconds(5))).isNotNull();
+		assertThat(result3.block(Duration.ofSeconds(5))).isNotNull();
+		assertThat(exchanges.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void coalesceRequestsWithMaxInMemorySize() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK)
+				.body(Flux.just(dataBuffer("foo", new DefaultDataBufferFactory()))).build();
+
+		StepVerifier.create(ExchangeFilterFunctions.coalesceRequests(2).filter(request, req -> Mono.just(response)))
+				.expectError(DataBufferLimitException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
 	private String string(DataBuffer buffer) {
 		String value = DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8);
 		DataBufferUtils.release(buffer);
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link WebClient} over HTTP/2 with prior knowledge,
+ * against a local h2c Jetty server.
+ *
+ * @author Brian Clozel
+ */
+class WebClientHttp2IntegrationTests {
+
+	private Server server;
+
+	private WebClient webClient;
+
+
+	@BeforeEach
+	void startServer() throws Exception {
+		this.server = new Server();
+		ServerConnector connector = new ServerConnector(this.server,
+				new HTTP2CServerConnectionFactory(new HttpConfiguration()));
+		connector.setHost("localhost");
+		connector.setPort(0);
+		this.server.addConnector(connector);
+		this.server.setHandler(new AbstractHandler() {
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException {
+
+				response.setContentType("text/plain");
+				response.getWriter().write(request.getProtocol() + " " + target);
+				baseRequest.setHandled(true);
+			}
+		});
+		this.server.start();
+
+		this.webClient = WebClient.builder()
+				.baseUrl("http://localhost:" + connector.getLocalPort())
+				.http2(settings -> {
+					settings.setMaxConnectionsPerHost(1);
+					settings.setMaxConcurrentStreams(4);
+				})
+				.build();
+	}
+
+	@AfterEach
+	void stopServer() throws Exception {
+		this.server.stop();
+	}
+
+
+	@Test
+	void exchangeOverHttp2() {
+		String body = this.webClient.get().uri("/greeting")
+				.retrieve()
+				.bodyToMono(String.class)
+				.block(Duration.ofSeconds(10));
+
+		assertThat(body).isEqualTo("HTTP/2.0 /greeting");
+	}
+
+	@Test
+	void concurrentExchangesOverLimitedStreams() {
+		List<String> bodies = Flux.range(0, 20)
+				.flatMap(i -> this.webClient.get().uri("/{id}", i).retrieve().bodyToMono(String.class))
+				.collectList()
+				.block(Duration.ofSeconds(10));
+
+		assertThat(bodies).hasSize(20).allMatch(body -> body.startsWith("HTTP/2.0 /"));
+	}
+
+}
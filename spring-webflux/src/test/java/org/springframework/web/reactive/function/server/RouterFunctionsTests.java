@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.web.reactive.function.server;
 
+import java.net.URI;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -24,6 +26,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.server.reactive.HttpHandler;
@@ -291,4 +294,74 @@ public class RouterFunctionsTests {
 		assertThat(filterInvoked.get()).isTrue();
 	}
 
+	@Test
+	public void indexByMethodAndPath() {
+		HandlerFunction<ServerResponse> getFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> postFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getBar = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.index(
+				RouterFunctions.route(RequestPredicates.GET("/foo"), getFoo)
+						.andRoute(RequestPredicates.POST("/foo"), postFoo)
+						.andRoute(RequestPredicates.GET("/bar/{id}"), getBar)
+						.andRoute(RequestPredicates.all(), fallback));
+
+		assertThat(routerFunction.route(request(HttpMethod.GET, "/foo")).block()).isSameAs(getFoo);
+		assertThat(routerFunction.route(request(HttpMethod.POST, "/foo")).block()).isSameAs(postFoo);
+		assertThat(routerFunction.route(request(HttpMethod.GET, "/bar/42")).block()).isSameAs(getBar);
+		assertThat(routerFunction.route(request(HttpMethod.GET, "/FOO")).block()).isSameAs(fallback);
+		assertThat(routerFunction.route(request(HttpMethod.DELETE, "/foo")).block()).isSameAs(fallback);
+		assertThat(routerFunction.route(request(HttpMethod.GET, "/")).block()).isSameAs(fallback);
+	}
+
+	@Test
+	public void indexPreservesOrder() {
+		HandlerFunction<ServerResponse> getName = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getFoo = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.index(
+				RouterFunctions.route(RequestPredicates.GET("/{name}"), getName)
+						.andRoute(RequestPredicates.GET("/foo"), getFoo));
+
+		assertThat(routerFunction.route(request(HttpMethod.GET, "/foo")).block()).isSameAs(getName);
+		assertThat(routerFunction.toString()).isEqualTo(
+				RouterFunctions.route(RequestPredicates.GET("/{name}"), getName)
+						.andRoute(RequestPredicates.GET("/foo"), getFoo).toString());
+	}
+
+	@Test
+	public void indexNested() {
+		HandlerFunction<ServerResponse> getFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> postFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getOther = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.index(
+				RouterFunctions.nest(RequestPredicates.path("/api"),
+						RouterFunctions.route(RequestPredicates.GET("/foo/{id}"), getFoo)
+								.andRoute(RequestPredicates.POST("/foo"), postFoo))
+						.andRoute(RequestPredicates.GET("/other"), getOther));
+
+		MockServerRequest request = request(HttpMethod.GET, "/api/foo/42");
+		assertThat(routerFunction.route(request).block()).isSameAs(getFoo);
+		assertThat(request.attributes().get(RouterFunctions.URI_TEMPLATE_VARIABLES_ATTRIBUTE))
+				.isEqualTo(Collections.singletonMap("id", "42"));
+		assertThat(routerFunction.route(request(HttpMethod.POST, "/api/foo")).block()).isSameAs(postFoo);
+		assertThat(routerFunction.route(request(HttpMethod.GET, "/other")).block()).isSameAs(getOther);
+		assertThat(routerFunction.route(request(HttpMethod.PUT, "/api/foo")).block()).isNull();
+	}
+
+	@Test
+	public void indexNotComposed() {
+		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.ok().build();
+		RouterFunction<ServerResponse> routerFunction =
+				RouterFunctions.route(RequestPredicates.GET("/foo"), handlerFunction);
+
+		assertThat(RouterFunctions.index(routerFunction)).isSameAs(routerFunction);
+	}
+
+	private static MockServerRequest request(HttpMethod method, String path) {
+		return MockServerRequest.builder().method(method).uri(URI.create("https://example.com" + path)).build();
+	}
+
 }
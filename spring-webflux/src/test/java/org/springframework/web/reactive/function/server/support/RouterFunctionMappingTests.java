@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,11 +23,14 @@ import reactor.test.StepVerifier;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.function.server.HandlerFunction;
 import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
 import org.springframework.web.testfixture.server.MockServerWebExchange;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * @author Arjen Poutsma
  */
@@ -67,4 +70,23 @@ public class RouterFunctionMappingTests {
 				.verify();
 	}
 
+	@Test
+	public void indexRouterFunctions() throws Exception {
+		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.ok().build();
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.GET("/other", request -> ServerResponse.ok().build())
+				.GET("/match", handlerFunction)
+				.build();
+		RouterFunctionMapping mapping = new RouterFunctionMapping(routerFunction);
+		mapping.setMessageReaders(this.codecConfigurer.getReaders());
+		mapping.setIndexRouterFunctions(true);
+		mapping.afterPropertiesSet();
+
+		assertThat(mapping.getRouterFunction()).isSameAs(routerFunction);
+		StepVerifier.create(mapping.getHandler(this.exchange))
+				.expectNext(handlerFunction)
+				.expectComplete()
+				.verify();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.web.reactive.result.method;
 
 import java.lang.reflect.Method;
 import java.util.Comparator;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -139,6 +140,25 @@ public class HandlerMethodMappingTests {
 		assertThat(this.mapping.getMappingRegistry().getMappings().keySet()).doesNotContain(key);
 	}
 
+	@Test
+	public void handlerMethodsSnapshot() throws Exception {
+		this.mapping.registerMapping("/foo", this.handler, this.method1);
+		Map<String, HandlerMethod> handlerMethods = this.mapping.getHandlerMethods();
+		assertThat(handlerMethods).containsOnlyKeys("/foo");
+		assertThat(this.mapping.getHandlerMethods()).isSameAs(handlerMethods);
+
+		this.mapping.registerMapping("/bar", this.handler, this.method2);
+		assertThat(handlerMethods).containsOnlyKeys("/foo");
+		assertThat(this.mapping.getHandlerMethods()).containsOnlyKeys("/foo", "/bar");
+		Mono<Object> result = this.mapping.getHandler(MockServerWebExchange.from(MockServerHttpRequest.get("/bar")));
+		assertThat(((HandlerMethod) result.block()).getMethod()).isEqualTo(this.method2);
+
+		this.mapping.unregisterMapping("/foo");
+		assertThat(this.mapping.getHandlerMethods()).containsOnlyKeys("/bar");
+		result = this.mapping.getHandler(MockServerWebExchange.from(MockServerHttpRequest.get("/foo")));
+		assertThat(result.block()).isNull();
+	}
+
 
 	private static class MyHandlerMethodMapping extends AbstractHandlerMethodMapping<String> {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -46,6 +46,7 @@ import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -65,6 +66,8 @@ import org.springframework.web.util.UrlPathHelper;
  */
 class DefaultServerRequest implements ServerRequest {
 
+	private static final String PATH_CONTAINER_ATTRIBUTE = DefaultServerRequest.class.getName() + ".pathContainer";
+
 	private final ServletServerHttpRequest serverHttpRequest;
 
 	private final Headers headers;
@@ -121,6 +124,18 @@ class DefaultServerRequest implements ServerRequest {
 		return path;
 	}
 
+	@Override
+	public PathContainer pathContainer() {
+		// Parsed once per request, as it is used by every path predicate
+		String path = path();
+		PathContainer pathContainer = (PathContainer) servletRequest().getAttribute(PATH_CONTAINER_ATTRIBUTE);
+		if (pathContainer == null || !pathContainer.value().equals(path)) {
+			pathContainer = PathContainer.parsePath(path);
+			servletRequest().setAttribute(PATH_CONTAINER_ATTRIBUTE, pathContainer);
+		}
+		return pathContainer;
+	}
+
 	@Override
 	public Headers headers() {
 		return this.headers;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -54,6 +54,11 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	@Nullable
 	private RouterFunction<?> routerFunction;
 
+	private boolean indexRouterFunctions = false;
+
+	@Nullable
+	private RouterFunction<?> indexedRouterFunction;
+
 	private List<HttpMessageConverter<?>> messageConverters = Collections.emptyList();
 
 	private boolean detectHandlerFunctionsInAncestorContexts = false;
@@ -97,6 +102,19 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 		return this.routerFunction;
 	}
 
+	/**
+	 * Whether to {@linkplain RouterFunctions#index index} the router function on
+	 * initialization, so that only the routes that can match the HTTP method and
+	 * first path segment of a request are evaluated, in their declared order.
+	 * <p>This is worthwhile for a large number of routes. The router function
+	 * returned by {@link #getRouterFunction()} is not affected.
+	 * <p>The default is {@code false}.
+	 * @since 5.3
+	 */
+	public void setIndexRouterFunctions(boolean indexRouterFunctions) {
+		this.indexRouterFunctions = indexRouterFunctions;
+	}
+
 	public void setMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
 		this.messageConverters = messageConverters;
 	}
@@ -118,6 +136,9 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 		if (this.routerFunction == null) {
 			initRouterFunction();
 		}
+		if (this.routerFunction != null && this.indexRouterFunctions) {
+			this.indexedRouterFunction = RouterFunctions.index(this.routerFunction);
+		}
 		if (CollectionUtils.isEmpty(this.messageConverters)) {
 			initMessageConverters();
 		}
@@ -168,10 +189,12 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	protected Object getHandlerInternal(HttpServletRequest servletRequest) throws Exception {
 		String lookupPath = getUrlPathHelper().getLookupPathForRequest(servletRequest);
 		servletRequest.setAttribute(LOOKUP_PATH, lookupPath);
-		if (this.routerFunction != null) {
+		RouterFunction<?> routerFunction = (this.indexedRouterFunction != null ?
+				this.indexedRouterFunction : this.routerFunction);
+		if (routerFunction != null) {
 			ServerRequest request = ServerRequest.create(servletRequest, this.messageConverters);
 			servletRequest.setAttribute(RouterFunctions.REQUEST_ATTRIBUTE, request);
-			return this.routerFunction.route(request).orElse(null);
+			return routerFunction.route(request).orElse(null);
 		}
 		else {
 			return null;
@@ -28,7 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -139,13 +139,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
 	public Map<T, HandlerMethod> getHandlerMethods() {
-		this.mappingRegistry.acquireReadLock();
-		try {
-			return Collections.unmodifiableMap(this.mappingRegistry.getMappings());
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		return this.mappingRegistry.getMappings();
 	}
 
 	/**
@@ -362,14 +356,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	protected HandlerMethod getHandlerInternal(HttpServletRequest request) throws Exception {
 		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
 		request.setAttribute(LOOKUP_PATH, lookupPath);
-		this.mappingRegistry.acquireReadLock();
-		try {
-			HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
-			return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
-		}
-		finally {
-			this.mappingRegistry.releaseReadLock();
-		}
+		HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
+		return (handlerMethod != null ? handlerMethod.createWithResolvedBean() : null);
 	}
 
 	/**
@@ -383,14 +371,15 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(String lookupPath, HttpServletRequest request) throws Exception {
+		Map<T, HandlerMethod> mappings = this.mappingRegistry.getMappings();
 		List<Match> matches = new ArrayList<>();
 		List<T> directPathMatches = this.mappingRegistry.getMappingsByUrl(lookupPath);
 		if (directPathMatches != null) {
-			addMatchingMappings(directPathMatches, matches, request);
+			addMatchingMappings(directPathMatches, mappings, matches, request);
 		}
 		if (matches.isEmpty()) {
 			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			addMatchingMappings(mappings.keySet(), mappings, matches, request);
 		}
 
 		if (!matches.isEmpty()) {
@@ -418,15 +407,22 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return bestMatch.handlerMethod;
 		}
 		else {
-			return handleNoMatch(this.mappingRegistry.getMappings().keySet(), lookupPath, request);
+			return handleNoMatch(mappings.keySet(), lookupPath, request);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, HttpServletRequest request) {
-		for (T mapping : mappings) {
+	private void addMatchingMappings(Collection<T> candidates, Map<T, HandlerMethod> mappings,
+			List<Match> matches, HttpServletRequest request) {
+
+		for (T mapping : candidates) {
+			HandlerMethod handlerMethod = mappings.get(mapping);
+			if (handlerMethod == null) {
+				// Unregistered concurrently
+				continue;
+			}
 			T match = getMatchingMapping(mapping, request);
 			if (match != null) {
-				matches.add(new Match(match, this.mappingRegistry.getMappings().get(mapping)));
+				matches.add(new Match(match, handlerMethod));
 			}
 		}
 	}
@@ -525,6 +521,9 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	/**
 	 * A registry that maintains all mappings to handler methods, exposing methods
 	 * to perform lookups and providing concurrent access.
+	 * <p>Registration changes are applied under a lock, while lookups operate on
+	 * an immutable snapshot of the mappings that is rebuilt on first access after
+	 * a change, so that request processing does not need to acquire a lock.
 	 * <p>Package-private for testing purposes.
 	 */
 	class MappingRegistry {
@@ -539,23 +538,44 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
-		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+		private final ReentrantLock writeLock = new ReentrantLock();
+
+		@Nullable
+		private volatile MappingSnapshot<T> snapshot;
 
 		/**
-		 * Return all mappings and handler methods. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * Return all mappings and handler methods, as an immutable snapshot.
+		 * Thread-safe for concurrent use.
 		 */
 		public Map<T, HandlerMethod> getMappings() {
-			return this.mappingLookup;
+			return getSnapshot().getMappings();
 		}
 
 		/**
-		 * Return matches for the given URL path. Not thread-safe.
-		 * @see #acquireReadLock()
+		 * Return matches for the given URL path, as an immutable snapshot.
+		 * Thread-safe for concurrent use.
 		 */
 		@Nullable
 		public List<T> getMappingsByUrl(String urlPath) {
-			return this.urlLookup.get(urlPath);
+			return getSnapshot().getMappingsByUrl(urlPath);
+		}
+
+		private MappingSnapshot<T> getSnapshot() {
+			MappingSnapshot<T> snapshot = this.snapshot;
+			if (snapshot == null) {
+				this.writeLock.lock();
+				try {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						snapshot = new MappingSnapshot<>(this.mappingLookup, this.urlLookup);
+						this.snapshot = snapshot;
+					}
+				}
+				finally {
+					this.writeLock.unlock();
+				}
+			}
+			return snapshot;
 		}
 
 		/**
@@ -574,26 +594,12 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.corsLookup.get(original != null ? original : handlerMethod);
 		}
 
-		/**
-		 * Acquire the read lock when using getMappings and getMappingsByUrl.
-		 */
-		public void acquireReadLock() {
-			this.readWriteLock.readLock().lock();
-		}
-
-		/**
-		 * Release the read lock after using getMappings and getMappingsByUrl.
-		 */
-		public void releaseReadLock() {
-			this.readWriteLock.readLock().unlock();
-		}
-
 		public void register(T mapping, Object handler, Method method) {
 			// Assert that the handler method is not a suspending one.
 			if (KotlinDetector.isKotlinType(method.getDeclaringClass()) && KotlinDelegate.isSuspend(method)) {
 				throw new IllegalStateException("Unsupported suspending handler method detected: " + method);
 			}
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
 				validateMethodMapping(handlerMethod, mapping);
@@ -616,9 +622,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.registry.put(mapping, new MappingRegistration<>(mapping, handlerMethod, directUrls, name));
+				this.snapshot = null;
 			}
 			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.writeLock.unlock();
 			}
 		}
 
@@ -662,7 +669,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		}
 
 		public void unregister(T mapping) {
-			this.readWriteLock.writeLock().lock();
+			this.writeLock.lock();
 			try {
 				MappingRegistration<T> definition = this.registry.remove(mapping);
 				if (definition == null) {
@@ -684,9 +691,10 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				removeMappingName(definition);
 
 				this.corsLookup.remove(definition.getHandlerMethod());
+				this.snapshot = null;
 			}
 			finally {
-				this.readWriteLock.writeLock().unlock();
+				this.writeLock.unlock();
 			}
 		}
 
@@ -715,6 +723,34 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	/**
+	 * Immutable copy of the mapping and URL lookups, safe for concurrent
+	 * reads without locking.
+	 */
+	private static class MappingSnapshot<T> {
+
+		private final Map<T, HandlerMethod> mappings;
+
+		private final Map<String, List<T>> urlLookup;
+
+		public MappingSnapshot(Map<T, HandlerMethod> mappings, Map<String, List<T>> urlLookup) {
+			this.mappings = Collections.unmodifiableMap(new LinkedHashMap<>(mappings));
+			Map<String, List<T>> urls = new HashMap<>(urlLookup.size());
+			urlLookup.forEach((url, list) -> urls.put(url, Collections.unmodifiableList(new ArrayList<>(list))));
+			this.urlLookup = urls;
+		}
+
+		public Map<T, HandlerMethod> getMappings() {
+			return this.mappings;
+		}
+
+		@Nullable
+		public List<T> getMappingsByUrl(String urlPath) {
+			return this.urlLookup.get(urlPath);
+		}
+	}
+
+
 	private static class MappingRegistration<T> {
 
 		private final T mapping;
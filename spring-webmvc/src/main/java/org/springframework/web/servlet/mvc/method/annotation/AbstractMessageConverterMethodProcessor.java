@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
@@ -51,6 +52,8 @@ import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationManager;
@@ -106,6 +109,9 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 
 	private final Set<String> safeExtensions = new HashSet<>();
 
+	private final Map<ProducibleTypesKey, List<MediaType>> producibleTypesCache =
+			new ConcurrentReferenceHashMap<>(64);
+
 
 	/**
 	 * Constructor with list of converters only.
@@ -380,24 +386,34 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 			return new ArrayList<>(mediaTypes);
 		}
 		else if (!this.allSupportedMediaTypes.isEmpty()) {
-			List<MediaType> result = new ArrayList<>();
-			for (HttpMessageConverter<?> converter : this.messageConverters) {
-				if (converter instanceof GenericHttpMessageConverter && targetType != null) {
-					if (((GenericHttpMessageConverter<?>) converter).canWrite(targetType, valueClass, null)) {
-						result.addAll(converter.getSupportedMediaTypes());
-					}
-				}
-				else if (converter.canWrite(valueClass, null)) {
-					result.addAll(converter.getSupportedMediaTypes());
-				}
+			ProducibleTypesKey key = new ProducibleTypesKey(valueClass, targetType);
+			List<MediaType> result = this.producibleTypesCache.get(key);
+			if (result == null) {
+				result = getWritableMediaTypes(valueClass, targetType);
+				this.producibleTypesCache.put(key, result);
 			}
-			return result;
+			return new ArrayList<>(result);
 		}
 		else {
 			return Collections.singletonList(MediaType.ALL);
 		}
 	}
 
+	private List<MediaType> getWritableMediaTypes(Class<?> valueClass, @Nullable Type targetType) {
+		List<MediaType> result = new ArrayList<>();
+		for (HttpMessageConverter<?> converter : this.messageConverters) {
+			if (converter instanceof GenericHttpMessageConverter && targetType != null) {
+				if (((GenericHttpMessageConverter<?>) converter).canWrite(targetType, valueClass, null)) {
+					result.addAll(converter.getSupportedMediaTypes());
+				}
+			}
+			else if (converter.canWrite(valueClass, null)) {
+				result.addAll(converter.getSupportedMediaTypes());
+			}
+		}
+		return result;
+	}
+
 	private List<MediaType> getAcceptableMediaTypes(HttpServletRequest request)
 			throws HttpMediaTypeNotAcceptableException {
 
@@ -508,4 +524,40 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 				mediaType.getSubtype().endsWith("+xml"));
 	}
 
+
+	/**
+	 * Cache key for the media types that the configured converters can write
+	 * for a given value class and target type.
+	 */
+	private static final class ProducibleTypesKey {
+
+		private final Class<?> valueClass;
+
+		@Nullable
+		private final Type targetType;
+
+		ProducibleTypesKey(Class<?> valueClass, @Nullable Type targetType) {
+			this.valueClass = valueClass;
+			this.targetType = targetType;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ProducibleTypesKey)) {
+				return false;
+			}
+			ProducibleTypesKey otherKey = (ProducibleTypesKey) other;
+			return (this.valueClass == otherKey.valueClass &&
+					ObjectUtils.nullSafeEquals(this.targetType, otherKey.targetType));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.valueClass.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.targetType);
+		}
+	}
+
 }
@@ -129,7 +129,7 @@ public class CachingResourceResolver extends AbstractResourceResolver {
 
 	protected String computeKey(@Nullable HttpServletRequest request, String requestPath) {
 		if (request != null) {
-			String codingKey = getContentCodingKey(request);
+			String codingKey = getContentCodingKey(request, this.contentCodings);
 			if (StringUtils.hasText(codingKey)) {
 				return RESOLVED_RESOURCE_CACHE_KEY_PREFIX + requestPath + "+encoding=" + codingKey;
 			}
@@ -137,8 +137,12 @@ public class CachingResourceResolver extends AbstractResourceResolver {
 		return RESOLVED_RESOURCE_CACHE_KEY_PREFIX + requestPath;
 	}
 
+	/**
+	 * Return a key for the supported content codings accepted by the given
+	 * request, or {@code null} if the request has no "Accept-Encoding" header.
+	 */
 	@Nullable
-	private String getContentCodingKey(HttpServletRequest request) {
+	static String getContentCodingKey(HttpServletRequest request, List<String> contentCodings) {
 		String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
 		if (!StringUtils.hasText(header)) {
 			return null;
@@ -148,7 +152,7 @@ public class CachingResourceResolver extends AbstractResourceResolver {
 					int index = token.indexOf(';');
 					return (index >= 0 ? token.substring(0, index) : token).trim().toLowerCase();
 				})
-				.filter(this.contentCodings::contains)
+				.filter(contentCodings::contains)
 				.sorted()
 				.collect(Collectors.joining(","));
 	}
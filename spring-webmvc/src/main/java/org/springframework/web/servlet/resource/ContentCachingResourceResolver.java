@@ -0,0 +1,371 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link ResourceResolver} that keeps the content of small, frequently
+ * requested resources in memory, so that serving them does not require
+ * going through the rest of the resolver chain or accessing the underlying
+ * file system or class path.
+ *
+ * <p>Resources up to {@link #setMaxResourceSize maxResourceSize} bytes are
+ * cached along with their length, last-modified timestamp, file name and
+ * {@link HttpResource} response headers, so that e.g. gzip and brotli variants
+ * from an {@link EncodedResourceResolver} further down the chain are cached
+ * separately with their {@code Content-Encoding}. The total size of cached
+ * content is bounded by {@link #setMaxCacheSize maxCacheSize}, evicting
+ * resources that have not been requested since they were last considered for
+ * eviction first (second-chance eviction, approximating LRU without
+ * synchronizing on cache hits).
+ *
+ * <p>Cached resources are revalidated against the last-modified timestamp of
+ * the original resource at most once per
+ * {@link #setRevalidationInterval revalidation interval}, and resolved again
+ * from the chain when they have changed.
+ *
+ * <p>This resolver should be placed first in the chain, or right after a
+ * {@link CachingResourceResolver}.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.3
+ * @see CachingResourceResolver
+ */
+public class ContentCachingResourceResolver extends AbstractResourceResolver {
+
+	/** Default maximum size of a single cached resource: 64 KB. */
+	public static final int DEFAULT_MAX_RESOURCE_SIZE = 64 * 1024;
+
+	/** Default maximum total size of cached content: 10 MB. */
+	public static final long DEFAULT_MAX_CACHE_SIZE = 10 * 1024 * 1024;
+
+	/** Default interval for checking resources for changes: 5 seconds. */
+	public static final long DEFAULT_REVALIDATION_INTERVAL = 5000;
+
+
+	private final List<String> contentCodings = new ArrayList<>(EncodedResourceResolver.DEFAULT_CODINGS);
+
+	private int maxResourceSize = DEFAULT_MAX_RESOURCE_SIZE;
+
+	private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+
+	private long revalidationInterval = DEFAULT_REVALIDATION_INTERVAL;
+
+	/** Fast access cache for resources, returning cached content without a global lock. */
+	private final Map<String, CachedResource> accessCache = new ConcurrentHashMap<>(256);
+
+	/** Map from cache key to resource in insertion order, synchronized for eviction. */
+	private final Map<String, CachedResource> evictionCache = new LinkedHashMap<>(256);
+
+	/** Total size of cached content, guarded by the eviction cache. */
+	private long cacheSize;
+
+
+	/**
+	 * Configure the supported content codings from the
+	 * {@literal "Accept-Encoding"} header for which to cache resource variations.
+	 * <p>By default this property is set to {@literal ["br", "gzip"]} based on
+	 * the value of {@link EncodedResourceResolver#DEFAULT_CODINGS}.
+	 * @param codings one or more supported content codings
+	 * @see CachingResourceResolver#setContentCodings(List)
+	 */
+	public void setContentCodings(List<String> codings) {
+		Assert.notEmpty(codings, "At least one content coding expected");
+		this.contentCodings.clear();
+		this.contentCodings.addAll(codings);
+	}
+
+	/**
+	 * Return a read-only list with the supported content codings.
+	 */
+	public List<String> getContentCodings() {
+		return Collections.unmodifiableList(this.contentCodings);
+	}
+
+	/**
+	 * Set the maximum size in bytes of a resource to keep in memory.
+	 * Larger resources are always resolved through the rest of the chain.
+	 * <p>By default this is set to 64 KB.
+	 */
+	public void setMaxResourceSize(int maxResourceSize) {
+		this.maxResourceSize = maxResourceSize;
+	}
+
+	/**
+	 * Return the maximum size in bytes of a resource to keep in memory.
+	 */
+	public int getMaxResourceSize() {
+		return this.maxResourceSize;
+	}
+
+	/**
+	 * Set the maximum total size in bytes of the content kept in memory.
+	 * <p>By default this is set to 10 MB.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Return the maximum total size in bytes of the content kept in memory.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Set the interval in milliseconds after which a cached resource is checked
+	 * for changes to its last-modified timestamp. A negative value turns off
+	 * change detection, e.g. for immutable, versioned resources.
+	 * <p>By default this is set to 5 seconds.
+	 */
+	public void setRevalidationInterval(long revalidationInterval) {
+		this.revalidationInterval = revalidationInterval;
+	}
+
+	/**
+	 * Return the interval in milliseconds for checking cached resources for changes.
+	 */
+	public long getRevalidationInterval() {
+		return this.revalidationInterval;
+	}
+
+	/**
+	 * Return the current total size in bytes of the cached content.
+	 */
+	public long getCacheSize() {
+		synchronized (this.evictionCache) {
+			return this.cacheSize;
+		}
+	}
+
+	/**
+	 * Remove all cached resources.
+	 */
+	public void clearCache() {
+		synchronized (this.evictionCache) {
+			this.accessCache.clear();
+			this.evictionCache.clear();
+			this.cacheSize = 0;
+		}
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		String key = computeKey(request, requestPath);
+		CachedResource cachedResource = this.accessCache.get(key);
+		if (cachedResource != null) {
+			if (!isModified(cachedResource)) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Resource content served from memory");
+				}
+				cachedResource.accessed = true;
+				return cachedResource;
+			}
+			removeFromCache(key, cachedResource);
+		}
+
+		Resource resource = chain.resolveResource(request, requestPath, locations);
+		if (resource != null) {
+			cachedResource = createCachedResource(resource);
+			if (cachedResource != null) {
+				addToCache(key, cachedResource);
+				return cachedResource;
+			}
+		}
+		return resource;
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+	protected String computeKey(@Nullable HttpServletRequest request, String requestPath) {
+		if (request != null) {
+			String codingKey = CachingResourceResolver.getContentCodingKey(request, this.contentCodings);
+			if (StringUtils.hasText(codingKey)) {
+				return requestPath + "+encoding=" + codingKey;
+			}
+		}
+		return requestPath;
+	}
+
+	private boolean isModified(CachedResource cachedResource) {
+		if (this.revalidationInterval < 0) {
+			return false;
+		}
+		long now = System.currentTimeMillis();
+		if (now - cachedResource.lastChecked < this.revalidationInterval) {
+			return false;
+		}
+		try {
+			if (cachedResource.original.lastModified() != cachedResource.lastModified) {
+				return true;
+			}
+		}
+		catch (IOException ex) {
+			return true;
+		}
+		cachedResource.lastChecked = now;
+		return false;
+	}
+
+	@Nullable
+	private CachedResource createCachedResource(Resource resource) {
+		try {
+			long length = resource.contentLength();
+			if (length < 0 || length > this.maxResourceSize || length > this.maxCacheSize) {
+				return null;
+			}
+			long lastModified = resource.lastModified();
+			byte[] content;
+			try (InputStream inputStream = resource.getInputStream()) {
+				content = StreamUtils.copyToByteArray(inputStream);
+			}
+			HttpHeaders headers = (resource instanceof HttpResource ?
+					((HttpResource) resource).getResponseHeaders() : HttpHeaders.EMPTY);
+			return new CachedResource(resource, content, lastModified, headers);
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Failed to read " + resource + " into memory: " + ex.getMessage());
+			}
+			return null;
+		}
+	}
+
+	private void addToCache(String key, CachedResource cachedResource) {
+		synchronized (this.evictionCache) {
+			CachedResource previous = this.evictionCache.put(key, cachedResource);
+			if (previous != null) {
+				this.cacheSize -= previous.contentLength();
+			}
+			this.accessCache.put(key, cachedResource);
+			this.cacheSize += cachedResource.contentLength();
+			if (this.cacheSize > this.maxCacheSize) {
+				evict();
+			}
+		}
+	}
+
+	private void evict() {
+		List<Map.Entry<String, CachedResource>> secondChance = new ArrayList<>();
+		Iterator<Map.Entry<String, CachedResource>> it = this.evictionCache.entrySet().iterator();
+		while (this.cacheSize > this.maxCacheSize && it.hasNext()) {
+			Map.Entry<String, CachedResource> eldest = it.next();
+			it.remove();
+			if (eldest.getValue().accessed) {
+				eldest.getValue().accessed = false;
+				secondChance.add(eldest);
+			}
+			else {
+				this.accessCache.remove(eldest.getKey());
+				this.cacheSize -= eldest.getValue().contentLength();
+			}
+		}
+		for (Map.Entry<String, CachedResource> entry : secondChance) {
+			if (this.cacheSize > this.maxCacheSize) {
+				this.accessCache.remove(entry.getKey());
+				this.cacheSize -= entry.getValue().contentLength();
+			}
+			else {
+				this.evictionCache.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private void removeFromCache(String key, CachedResource cachedResource) {
+		synchronized (this.evictionCache) {
+			if (this.evictionCache.remove(key, cachedResource)) {
+				this.accessCache.remove(key);
+				this.cacheSize -= cachedResource.contentLength();
+			}
+		}
+	}
+
+
+	/**
+	 * In-memory copy of a resolved resource.
+	 */
+	private static final class CachedResource extends ByteArrayResource implements HttpResource {
+
+		private final Resource original;
+
+		private final long lastModified;
+
+		private final HttpHeaders responseHeaders;
+
+		private volatile long lastChecked;
+
+		private volatile boolean accessed;
+
+		CachedResource(Resource original, byte[] content, long lastModified, HttpHeaders responseHeaders) {
+			super(content, original.getDescription());
+			this.original = original;
+			this.lastModified = lastModified;
+			this.responseHeaders = HttpHeaders.readOnlyHttpHeaders(responseHeaders);
+			this.lastChecked = System.currentTimeMillis();
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			return this.responseHeaders;
+		}
+	}
+
+}
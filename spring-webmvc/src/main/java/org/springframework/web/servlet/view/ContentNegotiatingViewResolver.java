@@ -19,11 +19,14 @@ package org.springframework.web.servlet.view;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -37,6 +40,7 @@ import org.springframework.http.MediaType;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationManager;
@@ -78,6 +82,10 @@ import org.springframework.web.servlet.ViewResolver;
  * that has the {@code text/html} content type (based on the {@code html} file extension). A request
  * for {@code /view} with a {@code text/html} request {@code Accept} header has the same result.
  *
+ * <p>Optionally, the selected view can be cached per view name, locale and requested media
+ * types through the {@link #setCacheLimit cacheLimit} property, avoiding the iteration over
+ * all delegate view resolvers for repeated combinations, including unresolvable ones.
+ *
  * @author Arjen Poutsma
  * @author Juergen Hoeller
  * @author Rossen Stoyanchev
@@ -104,6 +112,32 @@ public class ContentNegotiatingViewResolver extends WebApplicationObjectSupport
 
 	private int order = Ordered.HIGHEST_PRECEDENCE;
 
+	/** The maximum number of entries in the cache, 0 to turn caching off. */
+	private volatile int cacheLimit = 0;
+
+	/** Fast access cache for resolved views, returning cached results without a global lock. */
+	private final Map<Object, ResolvedView> viewAccessCache = new ConcurrentHashMap<>(256);
+
+	/** Map from cache key to resolved view, synchronized for LRU eviction. */
+	@SuppressWarnings("serial")
+	private final Map<Object, ResolvedView> viewCreationCache =
+			new LinkedHashMap<Object, ResolvedView>(256, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, ResolvedView> eldest) {
+					if (size() > getCacheLimit()) {
+						viewAccessCache.remove(eldest.getKey());
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+			};
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
 
 	/**
 	 * Set the {@link ContentNegotiationManager} to use to determine requested media types.
@@ -174,6 +208,70 @@ public class ContentNegotiatingViewResolver extends WebApplicationObjectSupport
 		this.order = order;
 	}
 
+	/**
+	 * Specify the maximum number of resolved views to cache, keyed by view name,
+	 * locale and requested media types. Combinations that cannot be resolved are
+	 * cached as well.
+	 * <p>Caching requires the delegate view resolvers to return the same view for
+	 * the same view name and locale, independent of any other request state.
+	 * <p>Default is 0, i.e. no caching.
+	 * @since 5.3
+	 * @see AbstractCachingViewResolver#DEFAULT_CACHE_LIMIT
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		this.cacheLimit = cacheLimit;
+		if (cacheLimit <= 0) {
+			clearCache();
+		}
+	}
+
+	/**
+	 * Return the maximum number of entries for the resolved view cache.
+	 * @since 5.3
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return the number of view resolutions served from the cache.
+	 * <p>Like the other cache statistics, this can be exposed as an MBean
+	 * attribute, e.g. through {@link org.springframework.jmx.export.MBeanExporter}.
+	 * @since 5.3
+	 */
+	public long getCacheHitCount() {
+		return this.cacheHitCount.get();
+	}
+
+	/**
+	 * Return the number of view resolutions that were not served from the cache.
+	 * @since 5.3
+	 */
+	public long getCacheMissCount() {
+		return this.cacheMissCount.get();
+	}
+
+	/**
+	 * Return the current number of entries in the resolved view cache.
+	 * @since 5.3
+	 */
+	public int getCacheSize() {
+		return this.viewAccessCache.size();
+	}
+
+	/**
+	 * Clear the resolved view cache and reset the cache statistics.
+	 * @since 5.3
+	 */
+	public void clearCache() {
+		synchronized (this.viewCreationCache) {
+			this.viewAccessCache.clear();
+			this.viewCreationCache.clear();
+		}
+		this.cacheHitCount.set(0);
+		this.cacheMissCount.set(0);
+	}
+
 	@Override
 	public int getOrder() {
 		return this.order;
@@ -225,8 +323,9 @@ public class ContentNegotiatingViewResolver extends WebApplicationObjectSupport
 		Assert.state(attrs instanceof ServletRequestAttributes, "No current ServletRequestAttributes");
 		List<MediaType> requestedMediaTypes = getMediaTypes(((ServletRequestAttributes) attrs).getRequest());
 		if (requestedMediaTypes != null) {
-			List<View> candidateViews = getCandidateViews(viewName, locale, requestedMediaTypes);
-			View bestView = getBestView(candidateViews, requestedMediaTypes, attrs);
+			View bestView = (this.cacheLimit > 0 ?
+					resolveCachedView(viewName, locale, requestedMediaTypes, attrs) :
+					resolveBestView(viewName, locale, requestedMediaTypes, attrs));
 			if (bestView != null) {
 				return bestView;
 			}
@@ -247,6 +346,42 @@ public class ContentNegotiatingViewResolver extends WebApplicationObjectSupport
 		}
 	}
 
+	@Nullable
+	private View resolveBestView(String viewName, Locale locale, List<MediaType> requestedMediaTypes,
+			RequestAttributes attrs) throws Exception {
+
+		List<View> candidateViews = getCandidateViews(viewName, locale, requestedMediaTypes);
+		ResolvedView bestView = getBestView(candidateViews, requestedMediaTypes);
+		return (bestView != null ? bestView.apply(attrs) : null);
+	}
+
+	@Nullable
+	private View resolveCachedView(String viewName, Locale locale, List<MediaType> requestedMediaTypes,
+			RequestAttributes attrs) throws Exception {
+
+		Object cacheKey = new ViewCacheKey(viewName, locale, requestedMediaTypes);
+		ResolvedView resolvedView = this.viewAccessCache.get(cacheKey);
+		if (resolvedView != null) {
+			this.cacheHitCount.incrementAndGet();
+			if (logger.isTraceEnabled()) {
+				logger.trace("View with key [" + cacheKey + "] served from cache");
+			}
+		}
+		else {
+			this.cacheMissCount.incrementAndGet();
+			List<View> candidateViews = getCandidateViews(viewName, locale, requestedMediaTypes);
+			resolvedView = getBestView(candidateViews, requestedMediaTypes);
+			if (resolvedView == null) {
+				resolvedView = UNRESOLVED_VIEW;
+			}
+			synchronized (this.viewCreationCache) {
+				this.viewAccessCache.put(cacheKey, resolvedView);
+				this.viewCreationCache.put(cacheKey, resolvedView);
+			}
+		}
+		return resolvedView.apply(attrs);
+	}
+
 	/**
 	 * Determines the list of {@link MediaType} for the given {@link HttpServletRequest}.
 	 * @param request the current servlet request
@@ -330,12 +465,12 @@ public class ContentNegotiatingViewResolver extends WebApplicationObjectSupport
 	}
 
 	@Nullable
-	private View getBestView(List<View> candidateViews, List<MediaType> requestedMediaTypes, RequestAttributes attrs) {
+	private ResolvedView getBestView(List<View> candidateViews, List<MediaType> requestedMediaTypes) {
 		for (View candidateView : candidateViews) {
 			if (candidateView instanceof SmartView) {
 				SmartView smartView = (SmartView) candidateView;
 				if (smartView.isRedirectView()) {
-					return candidateView;
+					return new ResolvedView(candidateView, null);
 				}
 			}
 		}
@@ -347,8 +482,7 @@ public class ContentNegotiatingViewResolver extends WebApplicationObjectSupport
 						if (logger.isDebugEnabled()) {
 							logger.debug("Selected '" + mediaType + "' given " + requestedMediaTypes);
 						}
-						attrs.setAttribute(View.SELECTED_CONTENT_TYPE, mediaType, RequestAttributes.SCOPE_REQUEST);
-						return candidateView;
+						return new ResolvedView(candidateView, mediaType);
 					}
 				}
 			}
@@ -357,6 +491,83 @@ public class ContentNegotiatingViewResolver extends WebApplicationObjectSupport
 	}
 
 
+	/**
+	 * Cache key for a view resolution: view name, locale and requested media types.
+	 */
+	private static final class ViewCacheKey {
+
+		private final String viewName;
+
+		private final Locale locale;
+
+		private final List<MediaType> mediaTypes;
+
+		private final int hashCode;
+
+		ViewCacheKey(String viewName, Locale locale, List<MediaType> mediaTypes) {
+			this.viewName = viewName;
+			this.locale = locale;
+			this.mediaTypes = mediaTypes;
+			this.hashCode = (viewName.hashCode() * 31 + ObjectUtils.nullSafeHashCode(locale)) * 31 +
+					mediaTypes.hashCode();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ViewCacheKey)) {
+				return false;
+			}
+			ViewCacheKey otherKey = (ViewCacheKey) other;
+			return (this.viewName.equals(otherKey.viewName) &&
+					ObjectUtils.nullSafeEquals(this.locale, otherKey.locale) &&
+					this.mediaTypes.equals(otherKey.mediaTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public String toString() {
+			return this.viewName + '_' + this.locale + '_' + this.mediaTypes;
+		}
+	}
+
+
+	/**
+	 * Result of a view resolution: the selected view, or {@code null} for an
+	 * unresolved (negatively cached) entry, along with the selected content type.
+	 */
+	private static final class ResolvedView {
+
+		@Nullable
+		private final View view;
+
+		@Nullable
+		private final MediaType selectedMediaType;
+
+		ResolvedView(@Nullable View view, @Nullable MediaType selectedMediaType) {
+			this.view = view;
+			this.selectedMediaType = selectedMediaType;
+		}
+
+		@Nullable
+		public View apply(RequestAttributes attrs) {
+			if (this.selectedMediaType != null) {
+				attrs.setAttribute(View.SELECTED_CONTENT_TYPE, this.selectedMediaType, RequestAttributes.SCOPE_REQUEST);
+			}
+			return this.view;
+		}
+	}
+
+
+	/** Marker for view name, locale and media type combinations that could not be resolved. */
+	private static final ResolvedView UNRESOLVED_VIEW = new ResolvedView(null, null);
+
 	private static final View NOT_ACCEPTABLE_VIEW = new View() {
 
 		@Override
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.view.script;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.script.ScriptEngine;
+
+/**
+ * Bounded pool of non-shared {@link ScriptEngine} instances, created lazily
+ * up to the configured size. Owned by a {@link ScriptTemplateConfigurer} and
+ * shared by all {@link ScriptTemplateView views} using the same engine and
+ * scripts.
+ *
+ * @author Sebastien Deleuze
+ * @since 5.3
+ * @see ScriptTemplateConfigurer#setEnginePoolSize(Integer)
+ */
+class ScriptEnginePool {
+
+	private final BlockingQueue<ScriptEngine> engines = new LinkedBlockingQueue<>();
+
+	private final AtomicInteger created = new AtomicInteger();
+
+	private final int maxSize;
+
+	private final long timeout;
+
+	private volatile boolean closed;
+
+
+	ScriptEnginePool(int maxSize, long timeout) {
+		this.maxSize = maxSize;
+		this.timeout = timeout;
+	}
+
+
+	/**
+	 * Borrow an engine, creating one via the given factory if fewer than the
+	 * maximum number of engines exist, or waiting for one to be released.
+	 */
+	public ScriptEngine acquire(Supplier<ScriptEngine> engineFactory) throws InterruptedException {
+		ScriptEngine engine = this.engines.poll();
+		if (engine != null) {
+			return engine;
+		}
+		if (this.created.incrementAndGet() <= this.maxSize) {
+			try {
+				return engineFactory.get();
+			}
+			catch (RuntimeException ex) {
+				this.created.decrementAndGet();
+				throw ex;
+			}
+		}
+		this.created.decrementAndGet();
+		engine = this.engines.poll(this.timeout, TimeUnit.MILLISECONDS);
+		if (engine == null) {
+			throw new IllegalStateException("No ScriptEngine available within " + this.timeout +
+					" ms: all " + this.maxSize + " pooled engines are in use - " +
+					"consider increasing 'enginePoolSize' or 'enginePoolTimeout'");
+		}
+		return engine;
+	}
+
+	/**
+	 * Return a borrowed engine to the pool, or drop it if the pool is closed.
+	 */
+	public void release(ScriptEngine engine) {
+		if (!this.closed) {
+			this.engines.offer(engine);
+		}
+	}
+
+	/**
+	 * Drop all pooled engines, as well as engines released from now on.
+	 */
+	public void close() {
+		this.closed = true;
+		this.engines.clear();
+	}
+
+}
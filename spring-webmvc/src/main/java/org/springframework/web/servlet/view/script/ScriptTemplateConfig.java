@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -98,4 +98,14 @@ public interface ScriptTemplateConfig {
 	@Nullable
 	String getResourceLoaderPath();
 
+	/**
+	 * Return whether to cache template contents (and compiled scripts where
+	 * supported by the engine) until the underlying resource is modified.
+	 * @since 5.3
+	 */
+	@Nullable
+	default Boolean isCacheTemplates() {
+		return null;
+	}
+
 }
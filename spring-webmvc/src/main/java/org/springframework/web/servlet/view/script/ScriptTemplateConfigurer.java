@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,12 +17,16 @@
 package org.springframework.web.servlet.view.script;
 
 import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import javax.script.Bindings;
 import javax.script.ScriptEngine;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * An implementation of Spring MVC's {@link ScriptTemplateConfig} for creating
@@ -49,7 +53,10 @@ import org.springframework.lang.Nullable;
  * @since 4.2
  * @see ScriptTemplateView
  */
-public class ScriptTemplateConfigurer implements ScriptTemplateConfig {
+public class ScriptTemplateConfigurer implements ScriptTemplateConfig, DisposableBean {
+
+	private static final long DEFAULT_ENGINE_POOL_TIMEOUT = 10000;
+
 
 	@Nullable
 	private ScriptEngine engine;
@@ -81,6 +88,17 @@ public class ScriptTemplateConfigurer implements ScriptTemplateConfig {
 	@Nullable
 	private String resourceLoaderPath;
 
+	@Nullable
+	private Integer enginePoolSize;
+
+	@Nullable
+	private Long enginePoolTimeout;
+
+	@Nullable
+	private Boolean cacheTemplates;
+
+	private final Map<Object, ScriptEnginePool> enginePools = new ConcurrentHashMap<>(4);
+
 
 	/**
 	 * Default constructor.
@@ -282,4 +300,96 @@ public class ScriptTemplateConfigurer implements ScriptTemplateConfig {
 		return this.resourceLoaderPath;
 	}
 
+	/**
+	 * When {@code sharedEngine} is set to {@code false}, use a bounded pool of
+	 * {@link ScriptEngine} instances instead of one instance per thread.
+	 * Rendering borrows an engine from the pool for the duration of the render
+	 * call, waiting for one to be returned if all of them are in use.
+	 * <p>This is useful with large request thread pools where one engine per
+	 * thread is too costly, e.g. setting the pool size to the number of
+	 * available processors. Views using the same engine and scripts share a
+	 * single pool owned by this configurer, which releases the pooled engines
+	 * when it is destroyed along with the application context.
+	 * <p>Default is {@code null}, i.e. thread-local engine instances.
+	 * @since 5.3
+	 * @see #setSharedEngine(Boolean)
+	 */
+	public void setEnginePoolSize(@Nullable Integer enginePoolSize) {
+		Assert.isTrue(enginePoolSize == null || enginePoolSize > 0, "'enginePoolSize' must be greater than 0");
+		this.enginePoolSize = enginePoolSize;
+	}
+
+	/**
+	 * Return the maximum number of pooled engines per engine and scripts.
+	 * @since 5.3
+	 */
+	@Nullable
+	public Integer getEnginePoolSize() {
+		return this.enginePoolSize;
+	}
+
+	/**
+	 * Set the maximum time (in milliseconds) to wait for a pooled engine when
+	 * all of them are in use, after which rendering fails with an
+	 * {@link IllegalStateException}.
+	 * <p>Default is 10000, i.e. 10 seconds.
+	 * @since 5.3
+	 * @see #setEnginePoolSize(Integer)
+	 */
+	public void setEnginePoolTimeout(@Nullable Long enginePoolTimeout) {
+		Assert.isTrue(enginePoolTimeout == null || enginePoolTimeout >= 0, "'enginePoolTimeout' must not be negative");
+		this.enginePoolTimeout = enginePoolTimeout;
+	}
+
+	/**
+	 * Return the maximum time (in milliseconds) to wait for a pooled engine.
+	 * @since 5.3
+	 */
+	@Nullable
+	public Long getEnginePoolTimeout() {
+		return this.enginePoolTimeout;
+	}
+
+	/**
+	 * Whether to cache the contents of template resources, re-reading them only
+	 * when their last-modified timestamp changes. With a shared engine that
+	 * implements {@link javax.script.Compilable}, templates evaluated without a
+	 * render function are also kept in compiled form.
+	 * <p>Default is {@code true}.
+	 * @since 5.3
+	 */
+	public void setCacheTemplates(@Nullable Boolean cacheTemplates) {
+		this.cacheTemplates = cacheTemplates;
+	}
+
+	@Override
+	@Nullable
+	public Boolean isCacheTemplates() {
+		return this.cacheTemplates;
+	}
+
+	/**
+	 * Return the engine pool for the given engine key, if engine pooling is
+	 * enabled through {@link #setEnginePoolSize(Integer)}.
+	 */
+	@Nullable
+	ScriptEnginePool getEnginePool(Object engineKey) {
+		Integer poolSize = this.enginePoolSize;
+		if (poolSize == null) {
+			return null;
+		}
+		long timeout = (this.enginePoolTimeout != null ? this.enginePoolTimeout : DEFAULT_ENGINE_POOL_TIMEOUT);
+		return this.enginePools.computeIfAbsent(engineKey, key -> new ScriptEnginePool(poolSize, timeout));
+	}
+
+	/**
+	 * Release the pooled script engines, if any.
+	 * @since 5.3
+	 */
+	@Override
+	public void destroy() {
+		this.enginePools.values().forEach(ScriptEnginePool::close);
+		this.enginePools.clear();
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,9 +24,12 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
@@ -114,9 +117,17 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 	@Nullable
 	private String[] resourceLoaderPaths;
 
+	@Nullable
+	private Boolean cacheTemplates;
+
 	@Nullable
 	private volatile ScriptEngineManager scriptEngineManager;
 
+	@Nullable
+	private ScriptEnginePool enginePool;
+
+	private final Map<String, CachedTemplate> templateCache = new ConcurrentHashMap<>(64);
+
 
 	/**
 	 * Constructor for use as a bean.
@@ -210,6 +221,15 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 	}
 
 
+	/**
+	 * See {@link ScriptTemplateConfigurer#setCacheTemplates(Boolean)} documentation.
+	 * @since 5.3
+	 */
+	public void setCacheTemplates(Boolean cacheTemplates) {
+		this.cacheTemplates = cacheTemplates;
+	}
+
+
 	@Override
 	protected void initApplicationContext(ApplicationContext context) {
 		super.initApplicationContext(context);
@@ -246,6 +266,9 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 		if (this.sharedEngine == null && viewConfig.isSharedEngine() != null) {
 			this.sharedEngine = viewConfig.isSharedEngine();
 		}
+		if (this.cacheTemplates == null && viewConfig.isCacheTemplates() != null) {
+			this.cacheTemplates = viewConfig.isCacheTemplates();
+		}
 
 		int engineCount = 0;
 		if (this.engine != null) {
@@ -260,6 +283,12 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 		Assert.isTrue(engineCount == 1,
 				"You should define either 'engine', 'engineSupplier' or 'engineName'.");
 
+		if (viewConfig instanceof ScriptTemplateConfigurer) {
+			this.enginePool = ((ScriptTemplateConfigurer) viewConfig).getEnginePool(getEngineKey());
+			Assert.isTrue(this.enginePool == null || Boolean.FALSE.equals(this.sharedEngine),
+					"'enginePoolSize' is only supported when 'sharedEngine' is set to false.");
+		}
+
 		if (Boolean.FALSE.equals(this.sharedEngine)) {
 			Assert.isTrue(this.engine == null,
 					"When 'sharedEngine' is set to false, you should specify the " +
@@ -288,16 +317,10 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 				engines = new HashMap<>(4);
 				enginesHolder.set(engines);
 			}
-			String name = (this.engineName != null ? this.engineName : "");
-			Object engineKey = (!ObjectUtils.isEmpty(this.scripts) ? new EngineKey(name, this.scripts) : name);
+			Object engineKey = getEngineKey();
 			ScriptEngine engine = engines.get(engineKey);
 			if (engine == null) {
-				if (this.engineName != null) {
-					engine = createEngineFromName(this.engineName);
-				}
-				else {
-					engine = createEngineFromSupplier();
-				}
+				engine = createEngine();
 				engines.put(engineKey, engine);
 			}
 			return engine;
@@ -309,6 +332,31 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 		}
 	}
 
+	private Object getEngineKey() {
+		String name = (this.engineName != null ? this.engineName : "");
+		return (!ObjectUtils.isEmpty(this.scripts) ? new EngineKey(name, this.scripts) : name);
+	}
+
+	private ScriptEngine createEngine() {
+		return (this.engineName != null ? createEngineFromName(this.engineName) : createEngineFromSupplier());
+	}
+
+	/**
+	 * Borrow an engine for a single render call: from the engine pool if an
+	 * {@code enginePoolSize} is configured, or via {@link #getEngine()} otherwise.
+	 */
+	private ScriptEngine acquireEngine() throws InterruptedException {
+		ScriptEnginePool pool = this.enginePool;
+		return (pool != null ? pool.acquire(this::createEngine) : getEngine());
+	}
+
+	private void releaseEngine(ScriptEngine engine) {
+		ScriptEnginePool pool = this.enginePool;
+		if (pool != null) {
+			pool.release(engine);
+		}
+	}
+
 	protected ScriptEngine createEngineFromName(String engineName) {
 		ScriptEngineManager scriptEngineManager = this.scriptEngineManager;
 		if (scriptEngineManager == null) {
@@ -396,10 +444,11 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 	protected void renderMergedOutputModel(Map<String, Object> model, HttpServletRequest request,
 			HttpServletResponse response) throws Exception {
 
+		String url = getUrl();
+		Assert.state(url != null, "'url' not set");
+		long startTime = System.nanoTime();
+		ScriptEngine engine = acquireEngine();
 		try {
-			ScriptEngine engine = getEngine();
-			String url = getUrl();
-			Assert.state(url != null, "'url' not set");
 			String template = getTemplate(url);
 
 			Function<String, String> templateLoader = path -> {
@@ -419,7 +468,7 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 				SimpleBindings bindings = new SimpleBindings();
 				bindings.putAll(model);
 				model.put("renderingContext", context);
-				html = engine.eval(template, bindings);
+				html = evalTemplate(engine, url, template, bindings);
 			}
 			else if (this.renderObject != null) {
 				Object thiz = engine.eval(this.renderObject);
@@ -434,6 +483,36 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 		catch (ScriptException ex) {
 			throw new ServletException("Failed to render script template", new StandardScriptEvalException(ex));
 		}
+		finally {
+			releaseEngine(engine);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Rendered script template [" + url + "] in " +
+						(System.nanoTime() - startTime) / 1000000 + " ms");
+			}
+		}
+	}
+
+	/**
+	 * Evaluate the given template, using a cached {@link CompiledScript} if the
+	 * engine is the shared engine, supports compilation, and the template is the
+	 * currently cached content for the given path.
+	 */
+	private Object evalTemplate(ScriptEngine engine, String path, String template, SimpleBindings bindings)
+			throws ScriptException {
+
+		if (engine == this.engine && engine instanceof Compilable) {
+			CachedTemplate cachedTemplate = this.templateCache.get(path);
+			// Identity check: only compile the exact content instance held in the cache
+			if (cachedTemplate != null && cachedTemplate.content == template) {
+				CompiledScript compiledScript = cachedTemplate.compiledScript;
+				if (compiledScript == null) {
+					compiledScript = ((Compilable) engine).compile(template);
+					cachedTemplate.compiledScript = compiledScript;
+				}
+				return compiledScript.eval(bindings);
+			}
+		}
+		return engine.eval(template, bindings);
 	}
 
 	protected String getTemplate(String path) throws IOException {
@@ -441,12 +520,61 @@ public class ScriptTemplateView extends AbstractUrlBasedView {
 		if (resource == null) {
 			throw new IllegalStateException("Template resource [" + path + "] not found");
 		}
+		if (Boolean.FALSE.equals(this.cacheTemplates)) {
+			return readTemplate(resource);
+		}
+		long lastModified = getLastModified(resource);
+		CachedTemplate cachedTemplate = this.templateCache.get(path);
+		if (cachedTemplate != null && lastModified > 0 && cachedTemplate.lastModified == lastModified) {
+			return cachedTemplate.content;
+		}
+		String content = readTemplate(resource);
+		if (lastModified > 0) {
+			this.templateCache.put(path, new CachedTemplate(content, lastModified));
+		}
+		else {
+			this.templateCache.remove(path);
+		}
+		return content;
+	}
+
+	private String readTemplate(Resource resource) throws IOException {
 		InputStreamReader reader = (this.charset != null ?
 				new InputStreamReader(resource.getInputStream(), this.charset) :
 				new InputStreamReader(resource.getInputStream()));
 		return FileCopyUtils.copyToString(reader);
 	}
 
+	private static long getLastModified(Resource resource) {
+		try {
+			return resource.lastModified();
+		}
+		catch (IOException ex) {
+			// No change detection possible -> do not cache
+			return -1;
+		}
+	}
+
+
+	/**
+	 * Template content read from a resource, along with the resource's
+	 * last-modified timestamp for change detection.
+	 */
+	private static class CachedTemplate {
+
+		private final String content;
+
+		private final long lastModified;
+
+		@Nullable
+		private volatile CompiledScript compiledScript;
+
+		public CachedTemplate(String content, long lastModified) {
+			this.content = content;
+			this.lastModified = lastModified;
+		}
+	}
+
 
 	/**
 	 * Key class for the {@code enginesHolder ThreadLocal}.
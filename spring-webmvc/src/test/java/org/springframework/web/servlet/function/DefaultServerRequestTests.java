@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,9 +38,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.PathContainer;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 import org.springframework.web.testfixture.servlet.MockHttpSession;
 
@@ -96,6 +98,21 @@ public class DefaultServerRequestTests {
 		assertThat(result.getQuery()).isEqualTo("a=1");
 	}
 
+	@Test
+	public void pathContainer() {
+		MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/foo/bar");
+		DefaultServerRequest request =
+				new DefaultServerRequest(servletRequest, this.messageConverters);
+
+		PathContainer pathContainer = request.pathContainer();
+		assertThat(pathContainer.value()).isEqualTo("/foo/bar");
+		assertThat(new DefaultServerRequest(servletRequest, this.messageConverters).pathContainer())
+				.isSameAs(pathContainer);
+
+		servletRequest.setAttribute(HandlerMapping.LOOKUP_PATH, "/bar");
+		assertThat(request.pathContainer().value()).isEqualTo("/bar");
+	}
+
 	@Test
 	public void attribute() {
 		MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
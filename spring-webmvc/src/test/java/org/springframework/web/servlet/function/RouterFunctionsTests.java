@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -101,4 +101,61 @@ public class RouterFunctionsTests {
 		assertThat(resultHandlerFunction.isPresent()).isFalse();
 	}
 
+	@Test
+	public void indexByMethodAndPath() {
+		HandlerFunction<ServerResponse> getFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> postFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getBar = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.index(
+				RouterFunctions.route(RequestPredicates.GET("/foo"), getFoo)
+						.andRoute(RequestPredicates.POST("/foo"), postFoo)
+						.andRoute(RequestPredicates.GET("/bar/{id}"), getBar)
+						.andRoute(RequestPredicates.all(), fallback));
+
+		assertThat(routerFunction.route(request("GET", "/foo"))).contains(getFoo);
+		assertThat(routerFunction.route(request("POST", "/foo"))).contains(postFoo);
+		assertThat(routerFunction.route(request("GET", "/bar/42"))).contains(getBar);
+		assertThat(routerFunction.route(request("GET", "/FOO"))).contains(fallback);
+		assertThat(routerFunction.route(request("DELETE", "/foo"))).contains(fallback);
+		assertThat(routerFunction.route(request("GET", "/"))).contains(fallback);
+	}
+
+	@Test
+	public void indexPreservesOrder() {
+		HandlerFunction<ServerResponse> getName = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getFoo = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.index(
+				RouterFunctions.route(RequestPredicates.GET("/{name}"), getName)
+						.andRoute(RequestPredicates.GET("/foo"), getFoo));
+
+		assertThat(routerFunction.route(request("GET", "/foo"))).contains(getName);
+	}
+
+	@Test
+	public void indexNested() {
+		HandlerFunction<ServerResponse> getFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> postFoo = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getOther = request -> ServerResponse.ok().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.index(
+				RouterFunctions.nest(RequestPredicates.path("/api"),
+						RouterFunctions.route(RequestPredicates.GET("/foo/{id}"), getFoo)
+								.andRoute(RequestPredicates.POST("/foo"), postFoo))
+						.andRoute(RequestPredicates.GET("/other"), getOther));
+
+		ServerRequest request = request("GET", "/api/foo/42");
+		assertThat(routerFunction.route(request)).contains(getFoo);
+		assertThat(request.pathVariables()).containsEntry("id", "42");
+		assertThat(routerFunction.route(request("POST", "/api/foo"))).contains(postFoo);
+		assertThat(routerFunction.route(request("GET", "/other"))).contains(getOther);
+		assertThat(routerFunction.route(request("PUT", "/api/foo"))).isEmpty();
+	}
+
+	private static ServerRequest request(String method, String path) {
+		return new DefaultServerRequest(new MockHttpServletRequest(method, path), Collections.emptyList());
+	}
+
 }
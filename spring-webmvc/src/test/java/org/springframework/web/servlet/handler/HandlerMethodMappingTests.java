@@ -20,6 +20,7 @@ import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
@@ -228,6 +229,24 @@ public class HandlerMethodMappingTests {
 		assertThat(this.mapping.getMappingRegistry().getCorsConfiguration(handlerMethod)).isNull();
 	}
 
+	@Test
+	public void handlerMethodsSnapshot() throws Exception {
+		this.mapping.registerMapping("foo", this.handler, this.method1);
+		Map<String, HandlerMethod> handlerMethods = this.mapping.getHandlerMethods();
+		assertThat(handlerMethods).containsOnlyKeys("foo");
+		assertThat(this.mapping.getHandlerMethods()).isSameAs(handlerMethods);
+
+		this.mapping.registerMapping("bar", this.handler, this.method2);
+		assertThat(handlerMethods).containsOnlyKeys("foo");
+		assertThat(this.mapping.getHandlerMethods()).containsOnlyKeys("foo", "bar");
+		assertThat(this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "bar")).getMethod())
+				.isEqualTo(this.method2);
+
+		this.mapping.unregisterMapping("foo");
+		assertThat(this.mapping.getHandlerMethods()).containsOnlyKeys("bar");
+		assertThat(this.mapping.getMappingRegistry().getMappingsByUrl("foo")).isNull();
+	}
+
 	@Test
 	public void getCorsConfigWithBeanNameHandler() throws Exception {
 
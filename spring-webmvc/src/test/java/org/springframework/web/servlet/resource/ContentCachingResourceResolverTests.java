@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.servlet.resource.GzipSupport.GzippedFiles;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ContentCachingResourceResolver}.
+ *
+ * @author Rossen Stoyanchev
+ */
+@ExtendWith(GzipSupport.class)
+public class ContentCachingResourceResolverTests {
+
+	private ContentCachingResourceResolver resolver;
+
+	private ResourceResolverChain chain;
+
+	private List<Resource> locations;
+
+
+	@BeforeEach
+	public void setup() {
+		this.resolver = new ContentCachingResourceResolver();
+
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(this.resolver);
+		resolvers.add(new EncodedResourceResolver());
+		resolvers.add(new PathResourceResolver());
+		this.chain = new DefaultResourceResolverChain(resolvers);
+
+		this.locations = new ArrayList<>();
+		this.locations.add(new ClassPathResource("test/", getClass()));
+	}
+
+
+	@Test
+	public void resolveResource() throws IOException {
+		Resource original = new ClassPathResource("test/bar.css", getClass());
+		Resource actual = this.chain.resolveResource(null, "bar.css", this.locations);
+
+		assertThat(actual).isInstanceOf(HttpResource.class);
+		assertThat(actual.getFilename()).isEqualTo("bar.css");
+		assertThat(actual.contentLength()).isEqualTo(original.contentLength());
+		assertThat(actual.lastModified()).isEqualTo(original.lastModified());
+		assertThat(FileCopyUtils.copyToByteArray(actual.getInputStream()))
+				.isEqualTo(FileCopyUtils.copyToByteArray(original.getInputStream()));
+		assertThat(this.resolver.getCacheSize()).isEqualTo(original.contentLength());
+
+		assertThat(this.chain.resolveResource(null, "bar.css", this.locations)).isSameAs(actual);
+	}
+
+	@Test
+	public void resolveResourceNoMatch() {
+		assertThat(this.chain.resolveResource(null, "invalid.css", this.locations)).isNull();
+		assertThat(this.resolver.getCacheSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void resolveResourceAboveMaxResourceSize() {
+		this.resolver.setMaxResourceSize(1);
+		Resource actual = this.chain.resolveResource(null, "bar.css", this.locations);
+
+		assertThat(actual).isEqualTo(new ClassPathResource("test/bar.css", getClass()));
+		assertThat(this.resolver.getCacheSize()).isEqualTo(0);
+	}
+
+	@Test
+	public void resolveResourceWithEviction() throws IOException {
+		long barSize = new ClassPathResource("test/bar.css", getClass()).contentLength();
+		long fooSize = new ClassPathResource("test/foo.css", getClass()).contentLength();
+		this.resolver.setMaxCacheSize(Math.max(barSize, fooSize));
+
+		Resource bar = this.chain.resolveResource(null, "bar.css", this.locations);
+		Resource foo = this.chain.resolveResource(null, "foo.css", this.locations);
+
+		assertThat(this.resolver.getCacheSize()).isEqualTo(fooSize);
+		assertThat(this.chain.resolveResource(null, "foo.css", this.locations)).isSameAs(foo);
+		assertThat(this.chain.resolveResource(null, "bar.css", this.locations)).isNotSameAs(bar);
+	}
+
+	@Test
+	public void resolveEncodedResource(GzippedFiles gzippedFiles) throws IOException {
+		String file = "js/foo.js";
+		gzippedFiles.create(file);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", file);
+		request.addHeader("Accept-Encoding", "gzip");
+		Resource gzipped = this.chain.resolveResource(request, file, this.locations);
+
+		assertThat(gzipped).isInstanceOf(HttpResource.class);
+		assertThat(((HttpResource) gzipped).getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+				.isEqualTo("gzip");
+		assertThat(this.chain.resolveResource(request, file, this.locations)).isSameAs(gzipped);
+
+		request = new MockHttpServletRequest("GET", file);
+		Resource plain = this.chain.resolveResource(request, file, this.locations);
+		assertThat(plain).isNotSameAs(gzipped);
+		assertThat(((HttpResource) plain).getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+	}
+
+	@Test
+	public void clearCache() {
+		this.chain.resolveResource(null, "bar.css", this.locations);
+		assertThat(this.resolver.getCacheSize()).isGreaterThan(0);
+
+		this.resolver.clearCache();
+		assertThat(this.resolver.getCacheSize()).isEqualTo(0);
+	}
+
+}
@@ -48,6 +48,8 @@ import org.springframework.web.testfixture.servlet.MockServletContext;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Arjen Poutsma
@@ -465,6 +467,77 @@ public class ContentNegotiatingViewResolverTests {
 		assertThat(response.getStatus()).as("Invalid status code set").isEqualTo(406);
 	}
 
+	@Test
+	public void resolveViewNameWithCache() throws Exception {
+		request.addHeader("Accept", "application/json");
+		viewResolver.setCacheLimit(10);
+
+		ViewResolver viewResolverMock = mock(ViewResolver.class);
+		viewResolver.setViewResolvers(Collections.singletonList(viewResolverMock));
+		viewResolver.afterPropertiesSet();
+
+		View viewMock = mock(View.class, "application_json");
+
+		String viewName = "view";
+		Locale locale = Locale.ENGLISH;
+
+		given(viewResolverMock.resolveViewName(viewName, locale)).willReturn(viewMock);
+		given(viewMock.getContentType()).willReturn("application/json");
+
+		assertThat(viewResolver.resolveViewName(viewName, locale)).isSameAs(viewMock);
+
+		request = new MockHttpServletRequest("GET", "/test");
+		request.addHeader("Accept", "application/json");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		assertThat(viewResolver.resolveViewName(viewName, locale)).isSameAs(viewMock);
+		assertThat(request.getAttribute(View.SELECTED_CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
+
+		verify(viewResolverMock, times(1)).resolveViewName(viewName, locale);
+		assertThat(viewResolver.getCacheHitCount()).isEqualTo(1);
+		assertThat(viewResolver.getCacheMissCount()).isEqualTo(1);
+		assertThat(viewResolver.getCacheSize()).isEqualTo(1);
+	}
+
+	@Test
+	public void resolveViewNameWithCacheUnresolved() throws Exception {
+		request.addHeader("Accept", "text/html");
+		viewResolver.setCacheLimit(10);
+
+		ViewResolver viewResolverMock = mock(ViewResolver.class);
+		viewResolver.setViewResolvers(Collections.singletonList(viewResolverMock));
+		viewResolver.afterPropertiesSet();
+
+		String viewName = "view";
+		Locale locale = Locale.ENGLISH;
+
+		assertThat(viewResolver.resolveViewName(viewName, locale)).isNull();
+		assertThat(viewResolver.resolveViewName(viewName, locale)).isNull();
+
+		verify(viewResolverMock, times(1)).resolveViewName(viewName, locale);
+		assertThat(viewResolver.getCacheHitCount()).isEqualTo(1);
+
+		viewResolver.clearCache();
+		assertThat(viewResolver.getCacheSize()).isEqualTo(0);
+		assertThat(viewResolver.getCacheHitCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void resolveViewNameWithCacheLimit() throws Exception {
+		request.addHeader("Accept", "text/html");
+		viewResolver.setCacheLimit(1);
+
+		ViewResolver viewResolverMock = mock(ViewResolver.class);
+		viewResolver.setViewResolvers(Collections.singletonList(viewResolverMock));
+		viewResolver.afterPropertiesSet();
+
+		viewResolver.resolveViewName("view1", Locale.ENGLISH);
+		viewResolver.resolveViewName("view2", Locale.ENGLISH);
+		viewResolver.resolveViewName("view1", Locale.ENGLISH);
+
+		verify(viewResolverMock, times(2)).resolveViewName("view1", Locale.ENGLISH);
+		assertThat(viewResolver.getCacheSize()).isEqualTo(1);
+	}
+
 	@Test
 	public void nestedViewResolverIsNotSpringBean() throws Exception {
 		StaticWebApplicationContext webAppContext = new StaticWebApplicationContext();
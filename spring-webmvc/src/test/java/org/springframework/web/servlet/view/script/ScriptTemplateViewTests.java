@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,9 +22,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
@@ -46,6 +49,7 @@ import org.springframework.web.testfixture.servlet.MockServletContext;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
@@ -320,6 +324,163 @@ public class ScriptTemplateViewTests {
 		assertThat(accessor.getPropertyValue("sharedEngine")).isEqualTo(false);
 	}
 
+	@Test
+	public void enginePool() throws Exception {
+		MockServletContext servletContext = new MockServletContext();
+		this.wac.setServletContext(servletContext);
+		this.wac.refresh();
+		AtomicInteger engineCount = new AtomicInteger();
+		this.view.setEngineSupplier(() -> {
+			engineCount.incrementAndGet();
+			InvocableScriptEngine engine = mock(InvocableScriptEngine.class);
+			try {
+				given(engine.invokeFunction(any(), any(), any(), any())).willReturn("foo");
+			}
+			catch (Exception ex) {
+				throw new IllegalStateException(ex);
+			}
+			return engine;
+		});
+		this.view.setRenderFunction("render");
+		this.view.setSharedEngine(false);
+		this.configurer.setEnginePoolSize(2);
+		this.view.setResourceLoaderPath("classpath:org/springframework/web/servlet/view/script/");
+		this.view.setUrl("empty.txt");
+		this.view.setApplicationContext(this.wac);
+
+		int iterations = 20;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < iterations; i++) {
+			results.add(executor.submit(() -> {
+				MockHttpServletRequest request = new MockHttpServletRequest();
+				request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, this.wac);
+				MockHttpServletResponse response = new MockHttpServletResponse();
+				this.view.render(new HashMap<>(), request, response);
+				return response.getContentAsString();
+			}));
+		}
+		for (Future<String> result : results) {
+			assertThat(result.get()).isEqualTo("foo");
+		}
+		executor.shutdown();
+		assertThat(engineCount.get()).isBetween(1, 2);
+	}
+
+	@Test
+	public void enginePoolTimeout() throws Exception {
+		MockServletContext servletContext = new MockServletContext();
+		this.wac.setServletContext(servletContext);
+		this.wac.refresh();
+		CountDownLatch rendering = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		InvocableScriptEngine engine = mock(InvocableScriptEngine.class);
+		given(engine.invokeFunction(any(), any(), any(), any())).willAnswer(invocation -> {
+			rendering.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return "foo";
+		});
+		this.view.setEngineSupplier(() -> engine);
+		this.view.setRenderFunction("render");
+		this.view.setSharedEngine(false);
+		this.configurer.setEnginePoolSize(1);
+		this.configurer.setEnginePoolTimeout(0L);
+		this.view.setResourceLoaderPath("classpath:org/springframework/web/servlet/view/script/");
+		this.view.setUrl("empty.txt");
+		this.view.setApplicationContext(this.wac);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<String> result = executor.submit(() -> render(this.view));
+		assertThat(rendering.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThatIllegalStateException().isThrownBy(() -> render(this.view))
+				.withMessageContaining("No ScriptEngine available");
+		release.countDown();
+		assertThat(result.get()).isEqualTo("foo");
+		assertThat(render(this.view)).isEqualTo("foo");
+		executor.shutdown();
+	}
+
+	@Test
+	public void enginePoolSharedByViews() throws Exception {
+		MockServletContext servletContext = new MockServletContext();
+		this.wac.setServletContext(servletContext);
+		this.wac.refresh();
+		AtomicInteger engineCount = new AtomicInteger();
+		InvocableScriptEngine engine = mock(InvocableScriptEngine.class);
+		given(engine.invokeFunction(any(), any(), any(), any())).willReturn("foo");
+		this.configurer.setEngineSupplier(() -> {
+			engineCount.incrementAndGet();
+			return engine;
+		});
+		this.configurer.setRenderFunction("render");
+		this.configurer.setSharedEngine(false);
+		this.configurer.setEnginePoolSize(1);
+		this.configurer.setResourceLoaderPath("classpath:org/springframework/web/servlet/view/script/");
+
+		ScriptTemplateView otherView = new ScriptTemplateView();
+		this.view.setUrl("empty.txt");
+		this.view.setApplicationContext(this.wac);
+		otherView.setUrl("empty.txt");
+		otherView.setApplicationContext(this.wac);
+		assertThat(render(this.view)).isEqualTo("foo");
+		assertThat(render(otherView)).isEqualTo("foo");
+		assertThat(engineCount.get()).isEqualTo(1);
+
+		this.configurer.destroy();
+		Map<?, ?> enginePools = (Map<?, ?>) new DirectFieldAccessor(this.configurer).getPropertyValue("enginePools");
+		assertThat(enginePools).isEmpty();
+	}
+
+	@Test
+	public void enginePoolWithSharedEngine() {
+		this.view.setEngine(mock(InvocableScriptEngine.class));
+		this.view.setRenderFunction("render");
+		this.configurer.setEnginePoolSize(2);
+		assertThatIllegalArgumentException().isThrownBy(() ->
+				this.view.setApplicationContext(this.wac))
+			.withMessageContaining("enginePoolSize");
+	}
+
+	@Test
+	public void cacheTemplates() throws Exception {
+		MockServletContext servletContext = new MockServletContext();
+		this.wac.setServletContext(servletContext);
+		this.wac.refresh();
+		this.view.setEngine(mock(InvocableScriptEngine.class));
+		this.view.setRenderFunction("render");
+		this.view.setResourceLoaderPath("classpath:org/springframework/web/servlet/view/script/");
+		this.view.setApplicationContext(this.wac);
+
+		String template = this.view.getTemplate("empty.txt");
+		assertThat(this.view.getTemplate("empty.txt")).isSameAs(template);
+		Map<?, ?> templateCache = (Map<?, ?>) new DirectFieldAccessor(this.view).getPropertyValue("templateCache");
+		assertThat(templateCache).containsOnlyKeys("empty.txt");
+	}
+
+	@Test
+	public void cacheTemplatesDisabled() throws Exception {
+		MockServletContext servletContext = new MockServletContext();
+		this.wac.setServletContext(servletContext);
+		this.wac.refresh();
+		this.configurer.setCacheTemplates(false);
+		this.view.setEngine(mock(InvocableScriptEngine.class));
+		this.view.setRenderFunction("render");
+		this.view.setResourceLoaderPath("classpath:org/springframework/web/servlet/view/script/");
+		this.view.setApplicationContext(this.wac);
+
+		this.view.getTemplate("empty.txt");
+		Map<?, ?> templateCache = (Map<?, ?>) new DirectFieldAccessor(this.view).getPropertyValue("templateCache");
+		assertThat(templateCache).isEmpty();
+	}
+
+	private String render(ScriptTemplateView view) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, this.wac);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		view.render(new HashMap<>(), request, response);
+		return response.getContentAsString();
+	}
+
 	private interface InvocableScriptEngine extends ScriptEngine, Invocable {
 	}
 